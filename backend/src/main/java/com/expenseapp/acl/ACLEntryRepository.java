@@ -1,7 +1,10 @@
 package com.expenseapp.acl;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +12,33 @@ public interface ACLEntryRepository extends JpaRepository<ACLEntry, Long> {
     List<ACLEntry> findAllByResourceTypeAndResourceId(String resourceType, Long resourceId);
     Optional<ACLEntry> findByResourceTypeAndResourceIdAndPrincipalTypeAndPrincipalIdAndPermission(String resourceType, Long resourceId, String principalType, Long principalId, String permission);
     List<ACLEntry> findAllByPrincipalTypeAndPrincipalId(String principalType, Long principalId);
+
+    // Grant checks; both are answered from uq_acl (resource_type, resource_id, principal_type, principal_id, permission)
+    @Query("""
+        SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM ACLEntry a
+        WHERE a.resourceType = :resourceType
+          AND a.resourceId = :resourceId
+          AND a.permission IN :permissions
+          AND ((a.principalType = 'USER' AND a.principalId = :userId)
+               OR (a.principalType = 'GROUP' AND a.principalId IN :groupIds))
+    """)
+    boolean existsGrant(@Param("resourceType") String resourceType,
+                        @Param("resourceId") Long resourceId,
+                        @Param("userId") Long userId,
+                        @Param("groupIds") Collection<Long> groupIds,
+                        @Param("permissions") Collection<String> permissions);
+
+    @Query("""
+        SELECT DISTINCT a.resourceId FROM ACLEntry a
+        WHERE a.resourceType = :resourceType
+          AND a.resourceId IN :resourceIds
+          AND a.permission IN :permissions
+          AND ((a.principalType = 'USER' AND a.principalId = :userId)
+               OR (a.principalType = 'GROUP' AND a.principalId IN :groupIds))
+    """)
+    List<Long> findGrantedResourceIds(@Param("resourceType") String resourceType,
+                                      @Param("resourceIds") Collection<Long> resourceIds,
+                                      @Param("userId") Long userId,
+                                      @Param("groupIds") Collection<Long> groupIds,
+                                      @Param("permissions") Collection<String> permissions);
 }
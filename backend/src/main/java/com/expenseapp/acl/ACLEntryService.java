@@ -1,30 +1,45 @@
 package com.expenseapp.acl;
 
-import com.expenseapp.group.GroupMember;
 import com.expenseapp.group.GroupMemberRepository;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Service
 public class ACLEntryService {
+    private static final List<Long> NO_GROUPS = List.of(-1L);
+
     private final ACLEntryRepository aclEntryRepository;
     private final UserRepository userRepository;
-    private final GroupMemberRepository groupMemberRepository;
+    private final ACLPrincipalCache principalCache;
 
-    public ACLEntryService(ACLEntryRepository aclEntryRepository, UserRepository userRepository, GroupMemberRepository groupMemberRepository) {
+    @org.springframework.beans.factory.annotation.Autowired
+    public ACLEntryService(ACLEntryRepository aclEntryRepository, UserRepository userRepository, ACLPrincipalCache principalCache) {
         this.aclEntryRepository = aclEntryRepository;
         this.userRepository = userRepository;
-        this.groupMemberRepository = groupMemberRepository;
+        this.principalCache = principalCache;
+    }
+
+    public ACLEntryService(ACLEntryRepository aclEntryRepository, UserRepository userRepository, GroupMemberRepository groupMemberRepository) {
+        this(aclEntryRepository, userRepository, new ACLPrincipalCache(groupMemberRepository,
+                ACLPrincipalCache.DEFAULT_TTL_SECONDS, ACLPrincipalCache.DEFAULT_MAX_ENTRIES));
     }
 
     @Transactional
     public ACLEntry share(String actorEmail, String resourceType, Long resourceId,
                           String principalType, Long principalId, String permission) {
-        User actor = userRepository.findByEmail(actorEmail).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, actorEmail).orElseThrow();
+        // Grant checks compare exact upper-case values (USER/GROUP, READ/WRITE)
+        principalType = normalize(principalType);
+        permission = normalize(permission);
         ACLEntry e = aclEntryRepository
                 .findByResourceTypeAndResourceIdAndPrincipalTypeAndPrincipalIdAndPermission(resourceType, resourceId, principalType, principalId, permission)
                 .orElseGet(ACLEntry::new);
@@ -40,7 +55,8 @@ public class ACLEntryService {
     @Transactional
     public void revoke(String resourceType, Long resourceId, String principalType, Long principalId, String permission) {
         aclEntryRepository
-                .findByResourceTypeAndResourceIdAndPrincipalTypeAndPrincipalIdAndPermission(resourceType, resourceId, principalType, principalId, permission)
+                .findByResourceTypeAndResourceIdAndPrincipalTypeAndPrincipalIdAndPermission(resourceType, resourceId,
+                        normalize(principalType), principalId, normalize(permission))
                 .ifPresent(aclEntryRepository::delete);
     }
 
@@ -51,33 +67,40 @@ public class ACLEntryService {
 
     @Transactional(readOnly = true)
     public boolean hasAccess(Long userId, String resourceType, Long resourceId, String neededPermission) {
-        // If any matching USER grant exists with neededPermission or WRITE implied for READ, allow
-        List<ACLEntry> grants = aclEntryRepository.findAllByResourceTypeAndResourceId(resourceType, resourceId);
-        for (ACLEntry g : grants) {
-            if ("USER".equalsIgnoreCase(g.getPrincipalType()) && g.getPrincipalId().equals(userId)) {
-                if (permAllows(g.getPermission(), neededPermission)) return true;
-            }
-        }
-        // Check group membership and GROUP grants
-        User u = userRepository.findById(userId).orElse(null);
-        if (u == null) return false;
-        List<GroupMember> memberships = groupMemberRepository.findAllByUser(u);
-        java.util.Set<Long> groupIds = new java.util.HashSet<>();
-        for (GroupMember m : memberships) groupIds.add(m.getGroup().getId());
-        for (ACLEntry g : grants) {
-            if ("GROUP".equalsIgnoreCase(g.getPrincipalType()) && groupIds.contains(g.getPrincipalId())) {
-                if (permAllows(g.getPermission(), neededPermission)) return true;
-            }
-        }
-        return false;
+        if (userId == null || resourceId == null) return false;
+        List<String> perms = grantingPermissions(neededPermission);
+        if (perms.isEmpty()) return false;
+        return aclEntryRepository.existsGrant(resourceType, resourceId, userId, groupIdsOrNone(userId), perms);
+    }
+
+    /** Subset of {@code resourceIds} that {@code userId} holds {@code neededPermission} on, in one query. */
+    @Transactional(readOnly = true)
+    public Set<Long> filterAccessible(Long userId, String resourceType, Collection<Long> resourceIds, String neededPermission) {
+        if (userId == null || resourceIds == null || resourceIds.isEmpty()) return Set.of();
+        List<String> perms = grantingPermissions(neededPermission);
+        if (perms.isEmpty()) return Set.of();
+        return new HashSet<>(aclEntryRepository.findGrantedResourceIds(resourceType, resourceIds, userId, groupIdsOrNone(userId), perms));
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> filterAccessible(Long userId, String resourceType, Collection<Long> resourceIds) {
+        return filterAccessible(userId, resourceType, resourceIds, "READ");
+    }
+
+    private Collection<Long> groupIdsOrNone(Long userId) {
+        Set<Long> groupIds = principalCache.groupIds(userId);
+        // Keep the IN list non-empty; group ids are never negative
+        return groupIds.isEmpty() ? NO_GROUPS : groupIds;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toUpperCase(Locale.ROOT);
     }
 
-    private boolean permAllows(String grant, String needed) {
-        if (grant == null || needed == null) return false;
-        grant = grant.toUpperCase();
-        needed = needed.toUpperCase();
-        if (grant.equals(needed)) return true;
-        // WRITE implies READ
-        return grant.equals("WRITE") && needed.equals("READ");
+    // Stored permissions that satisfy the needed one (WRITE implies READ)
+    private List<String> grantingPermissions(String needed) {
+        if (needed == null) return List.of();
+        String n = normalize(needed);
+        return n.equals("READ") ? List.of("READ", "WRITE") : List.of(n);
     }
 }
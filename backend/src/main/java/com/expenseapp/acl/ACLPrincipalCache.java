@@ -0,0 +1,46 @@
+package com.expenseapp.acl;
+
+import com.expenseapp.group.GroupMemberRepository;
+import com.expenseapp.util.GenerationalTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caches each user's effective ACL principals: the user id itself plus the ids of the groups they belong to.
+ * Group membership writers must call {@link #invalidate} so grants to a group take effect (or stop applying)
+ * as soon as the membership change commits; the TTL only bounds staleness for writers that forget.
+ */
+@Component
+public class ACLPrincipalCache {
+
+    static final long DEFAULT_TTL_SECONDS = 60;
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final GenerationalTtlCache<Long, Set<Long>> groupIdsByUser;
+
+    public ACLPrincipalCache(GroupMemberRepository groupMemberRepository,
+                             @Value("${app.acl.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${app.acl.principal-cache.max-entries:10000}") int maxEntries) {
+        this.groupMemberRepository = groupMemberRepository;
+        this.groupIdsByUser = new GenerationalTtlCache<>(ttlSeconds * 1000L, maxEntries);
+    }
+
+    /** Ids of the groups {@code userId} is a member of. */
+    public Set<Long> groupIds(Long userId) {
+        return groupIdsByUser.get(userId, id -> Set.copyOf(groupMemberRepository.findGroupIdsByUserId(id)));
+    }
+
+    public void invalidate(Long userId) {
+        invalidate(List.of(userId));
+    }
+
+    /** Drop cached principals now and again after the surrounding transaction completes. */
+    public void invalidate(Collection<Long> userIds) {
+        groupIdsByUser.invalidate(userIds);
+    }
+}
@@ -5,10 +5,12 @@ import com.expenseapp.expense.Expense;
 import com.expenseapp.user.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +22,7 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final AdminReportService reportService;
 
     /**
      * Get Super Admin Dashboard Statistics
@@ -93,9 +96,13 @@ public class AdminController {
      * Get expense statistics by category
      */
     @GetMapping("/stats/categories")
-    public ResponseEntity<List<Map<String, Object>>> getCategoryStats() {
+    public ResponseEntity<List<Map<String, Object>>> getCategoryStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
         log.info("[AdminController] Getting category stats");
-        List<Map<String, Object>> stats = adminService.getExpenseStatsByCategory();
+        List<Map<String, Object>> stats = reportService.getExpenseStatsByCategory(from, to, page, size);
         return ResponseEntity.ok(stats);
     }
     
@@ -108,7 +115,7 @@ public class AdminController {
     public ResponseEntity<Map<String, Object>> getMonthlyReport(
             @RequestParam(defaultValue = "12") int months) {
         log.info("[AdminController] Getting monthly report for {} months", months);
-        Map<String, Object> report = adminService.getMonthlyExpenseReport(months);
+        Map<String, Object> report = reportService.getMonthlyExpenseReport(months);
         return ResponseEntity.ok(report);
     }
     
@@ -116,9 +123,13 @@ public class AdminController {
      * Get company comparison report
      */
     @GetMapping("/reports/companies")
-    public ResponseEntity<List<Map<String, Object>>> getCompanyReport() {
+    public ResponseEntity<List<Map<String, Object>>> getCompanyReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
         log.info("[AdminController] Getting company comparison report");
-        List<Map<String, Object>> report = adminService.getCompanyComparisonReport();
+        List<Map<String, Object>> report = reportService.getCompanyComparisonReport(from, to, page, size);
         return ResponseEntity.ok(report);
     }
     
@@ -127,9 +138,12 @@ public class AdminController {
      */
     @GetMapping("/reports/users")
     public ResponseEntity<List<Map<String, Object>>> getUserActivityReport(
-            @RequestParam(defaultValue = "10") int top) {
+            @RequestParam(defaultValue = "10") int top,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         log.info("[AdminController] Getting top {} user activity report", top);
-        List<Map<String, Object>> report = adminService.getUserActivityReport(top);
+        List<Map<String, Object>> report = reportService.getUserActivityReport(from, to, page, top);
         return ResponseEntity.ok(report);
     }
     
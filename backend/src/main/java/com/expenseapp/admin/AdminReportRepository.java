@@ -0,0 +1,120 @@
+package com.expenseapp.admin;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based queries behind the super-admin reports. Amount and count totals come from
+ * {@code expense_daily_rollups}; only reimbursement state and creation month read {@code expenses}.
+ * Date bounds are inclusive and apply to the expense date.
+ */
+@Repository
+public class AdminReportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AdminReportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Map<String, Object>> categoryStats(LocalDate from, LocalDate to, int limit, int offset) {
+        return jdbcTemplate.query("""
+                SELECT c.name AS category, SUM(r.expense_count) AS cnt, SUM(r.amount) AS total
+                FROM expense_daily_rollups r
+                JOIN categories c ON c.id = r.category_id
+                WHERE r.day BETWEEN ? AND ?
+                GROUP BY c.name
+                ORDER BY total DESC, c.name
+                LIMIT ? OFFSET ?
+                """, (rs, i) -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("category", rs.getString("category"));
+                    row.put("count", rs.getLong("cnt"));
+                    row.put("total", rs.getBigDecimal("total"));
+                    return row;
+                }, from, to, limit, offset);
+    }
+
+    public List<Map<String, Object>> companyComparison(LocalDate from, LocalDate to, int limit, int offset) {
+        return jdbcTemplate.query("""
+                SELECT c.id, c.company_name,
+                       COALESCE(m.member_count, 0) AS member_count,
+                       COALESCE(s.expense_count, 0) AS expense_count,
+                       COALESCE(s.total, 0) AS total,
+                       COALESCE(p.pending, 0) AS pending
+                FROM companies c
+                LEFT JOIN (SELECT company_id, COUNT(*) AS member_count
+                           FROM company_members GROUP BY company_id) m ON m.company_id = c.id
+                LEFT JOIN (SELECT company_id, SUM(expense_count) AS expense_count, SUM(amount) AS total
+                           FROM expense_daily_rollups
+                           WHERE company_id <> 0 AND day BETWEEN ? AND ?
+                           GROUP BY company_id) s ON s.company_id = c.id
+                LEFT JOIN (SELECT company_id, COUNT(*) AS pending
+                           FROM expenses
+                           WHERE is_reimbursable AND reimbursement_status = 'PENDING'
+                             AND company_id IS NOT NULL AND occurred_on BETWEEN ? AND ?
+                           GROUP BY company_id) p ON p.company_id = c.id
+                ORDER BY c.id
+                LIMIT ? OFFSET ?
+                """, (rs, i) -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("companyId", rs.getLong("id"));
+                    row.put("companyName", rs.getString("company_name"));
+                    row.put("memberCount", rs.getLong("member_count"));
+                    row.put("expenseCount", rs.getLong("expense_count"));
+                    row.put("totalExpenses", rs.getBigDecimal("total"));
+                    row.put("pendingReimbursements", rs.getLong("pending"));
+                    return row;
+                }, from, to, from, to, limit, offset);
+    }
+
+    public List<Map<String, Object>> userActivity(LocalDate from, LocalDate to, int limit, int offset) {
+        return jdbcTemplate.query("""
+                SELECT u.id, u.name, u.email, u.role,
+                       COALESCE(s.expense_count, 0) AS expense_count,
+                       COALESCE(s.total, 0) AS total
+                FROM users u
+                LEFT JOIN (SELECT user_id, SUM(expense_count) AS expense_count, SUM(amount) AS total
+                           FROM expense_daily_rollups
+                           WHERE day BETWEEN ? AND ?
+                           GROUP BY user_id) s ON s.user_id = u.id
+                ORDER BY expense_count DESC, u.id
+                LIMIT ? OFFSET ?
+                """, (rs, i) -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("userId", rs.getLong("id"));
+                    row.put("userName", rs.getString("name"));
+                    row.put("userEmail", rs.getString("email"));
+                    row.put("role", rs.getString("role"));
+                    row.put("expenseCount", rs.getLong("expense_count"));
+                    row.put("totalAmount", rs.getBigDecimal("total"));
+                    return row;
+                }, from, to, limit, offset);
+    }
+
+    /** Expenses created after {@code since}, bucketed by creation month ("yyyy-MM") in {@code zone}. */
+    public List<Map<String, Object>> monthlyCreated(Instant since, ZoneId zone) {
+        return jdbcTemplate.query("""
+                SELECT to_char(date_trunc('month', e.created_at AT TIME ZONE ?), 'YYYY-MM') AS month,
+                       COUNT(*) AS cnt, COALESCE(SUM(e.amount), 0) AS total
+                FROM expenses e
+                WHERE e.created_at > ?
+                GROUP BY 1
+                ORDER BY 1
+                """, (rs, i) -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("month", rs.getString("month"));
+                    row.put("count", rs.getLong("cnt"));
+                    row.put("total", rs.getBigDecimal("total"));
+                    return row;
+                }, zone.getId(), Timestamp.from(since));
+    }
+}
@@ -0,0 +1,107 @@
+package com.expenseapp.admin;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Super-admin reports computed with grouped queries ({@link AdminReportRepository}) and cached for a short TTL.
+ * Optional {@code from}/{@code to} bound the expense date; pages are zero-based.
+ */
+@Service
+@Slf4j
+public class AdminReportService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final AdminReportRepository reportRepository;
+    private final ReportCache cache;
+
+    public AdminReportService(AdminReportRepository reportRepository,
+                              @Value("${app.admin.reports.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                              @Value("${app.admin.reports.cache-max-entries:256}") int cacheMaxEntries) {
+        this.reportRepository = reportRepository;
+        this.cache = new ReportCache(cacheTtlSeconds * 1000L, cacheMaxEntries);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getExpenseStatsByCategory(LocalDate from, LocalDate to, int page, Integer size) {
+        int limit = pageSize(size);
+        int offset = offset(page, limit);
+        LocalDate f = lower(from), t = upper(to);
+        return cache.get("categories:" + f + ":" + t + ":" + limit + ":" + offset, () -> {
+            log.info("[AdminReports] Computing category stats from={} to={} limit={} offset={}", from, to, limit, offset);
+            return List.copyOf(reportRepository.categoryStats(f, t, limit, offset));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCompanyComparisonReport(LocalDate from, LocalDate to, int page, Integer size) {
+        int limit = pageSize(size);
+        int offset = offset(page, limit);
+        LocalDate f = lower(from), t = upper(to);
+        return cache.get("companies:" + f + ":" + t + ":" + limit + ":" + offset, () -> {
+            log.info("[AdminReports] Computing company comparison from={} to={} limit={} offset={}", from, to, limit, offset);
+            return List.copyOf(reportRepository.companyComparison(f, t, limit, offset));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUserActivityReport(LocalDate from, LocalDate to, int page, Integer size) {
+        int limit = pageSize(size);
+        int offset = offset(page, limit);
+        LocalDate f = lower(from), t = upper(to);
+        return cache.get("users:" + f + ":" + t + ":" + limit + ":" + offset, () -> {
+            log.info("[AdminReports] Computing user activity from={} to={} limit={} offset={}", from, to, limit, offset);
+            return List.copyOf(reportRepository.userActivity(f, t, limit, offset));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getMonthlyExpenseReport(int months) {
+        int m = Math.max(1, months);
+        return cache.get("monthly:" + m + ":" + LocalDate.now(), () -> {
+            log.info("[AdminReports] Computing monthly report for last {} months", m);
+            ZoneId zone = ZoneId.systemDefault();
+            Instant since = LocalDate.now().minusMonths(m).atStartOfDay(zone).toInstant();
+            List<Map<String, Object>> monthlyData = reportRepository.monthlyCreated(since, zone);
+
+            long count = 0;
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map<String, Object> row : monthlyData) {
+                count += (Long) row.get("count");
+                total = total.add((BigDecimal) row.get("total"));
+            }
+            Map<String, Object> report = new HashMap<>();
+            report.put("period", m + " months");
+            report.put("data", List.copyOf(monthlyData));
+            report.put("totalExpenses", count);
+            report.put("totalAmount", total);
+            return Map.copyOf(report);
+        });
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static int offset(int page, int limit) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.max(0, page) * limit);
+    }
+
+    private static LocalDate lower(LocalDate from) { return from != null ? from : MIN_DATE; }
+    private static LocalDate upper(LocalDate to) { return to != null ? to : MAX_DATE; }
+}
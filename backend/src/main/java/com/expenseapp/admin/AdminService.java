@@ -6,6 +6,7 @@ import com.expenseapp.company.CompanyMemberRepository;
 import com.expenseapp.company.CompanyRepository;
 import com.expenseapp.expense.Expense;
 import com.expenseapp.expense.ExpenseRepository;
+import com.expenseapp.security.PrincipalCache;
 import com.expenseapp.user.User;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +31,7 @@ public class AdminService {
     private final CompanyRepository companyRepository;
     private final CompanyMemberRepository companyMemberRepository;
     private final ExpenseRepository expenseRepository;
+    private final PrincipalCache principalCache;
     
     /**
      * Get Super Admin Dashboard Statistics
@@ -167,6 +169,7 @@ public class AdminService {
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         user.setEnabled(enabled);
+        principalCache.invalidate(user);
         
         return userRepository.save(user);
     }
@@ -190,142 +193,6 @@ public class AdminService {
         }
     }
     
-    /**
-     * Get expense statistics by category
-     */
-    @Transactional(readOnly = true)
-    public List<Map<String, Object>> getExpenseStatsByCategory() {
-        log.info("[AdminService] Getting expense stats by category");
-        
-        List<Expense> allExpenses = expenseRepository.findAll();
-        
-        Map<String, List<Expense>> byCategory = allExpenses.stream()
-            .filter(e -> e.getCategory() != null)
-            .collect(Collectors.groupingBy(e -> e.getCategory().getName()));
-        
-        return byCategory.entrySet().stream().map(entry -> {
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("category", entry.getKey());
-            stats.put("count", entry.getValue().size());
-            
-            BigDecimal total = entry.getValue().stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            stats.put("total", total);
-            
-            return stats;
-        }).collect(Collectors.toList());
-    }
-    
-    /**
-     * Generate advanced report - Monthly expense trends
-     */
-    @Transactional(readOnly = true)
-    public Map<String, Object> getMonthlyExpenseReport(int months) {
-        log.info("[AdminService] Generating monthly expense report for last {} months", months);
-        
-        LocalDateTime startDate = LocalDate.now().minusMonths(months).atStartOfDay();
-        Instant startDateInstant = startDate.atZone(ZoneId.systemDefault()).toInstant();
-        List<Expense> expenses = expenseRepository.findByCreatedAtAfter(startDateInstant);
-        
-        // Group by month
-        Map<String, List<Expense>> byMonth = expenses.stream()
-            .collect(Collectors.groupingBy(e -> {
-                LocalDate date = e.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDate();
-                return date.getYear() + "-" + String.format("%02d", date.getMonthValue());
-            }));
-        
-        List<Map<String, Object>> monthlyData = byMonth.entrySet().stream()
-            .sorted(Map.Entry.comparingByKey())
-            .map(entry -> {
-                Map<String, Object> data = new HashMap<>();
-                data.put("month", entry.getKey());
-                data.put("count", entry.getValue().size());
-                data.put("total", entry.getValue().stream()
-                    .map(Expense::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add));
-                return data;
-            })
-            .collect(Collectors.toList());
-        
-        Map<String, Object> report = new HashMap<>();
-        report.put("period", months + " months");
-        report.put("data", monthlyData);
-        report.put("totalExpenses", expenses.size());
-        report.put("totalAmount", expenses.stream()
-            .map(Expense::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add));
-        
-        return report;
-    }
-    
-    /**
-     * Generate company comparison report
-     */
-    @Transactional(readOnly = true)
-    public List<Map<String, Object>> getCompanyComparisonReport() {
-        log.info("[AdminService] Generating company comparison report");
-        
-        List<Company> companies = companyRepository.findAll();
-        
-        return companies.stream().map(company -> {
-            Map<String, Object> data = new HashMap<>();
-            data.put("companyId", company.getId());
-            data.put("companyName", company.getCompanyName());
-            data.put("memberCount", companyMemberRepository.countByCompany(company));
-            
-            List<Expense> companyExpenses = expenseRepository.findAll().stream()
-                .filter(e -> e.getCompanyId() != null && e.getCompanyId().equals(company.getId()))
-                .collect(Collectors.toList());
-            data.put("expenseCount", companyExpenses.size());
-            data.put("totalExpenses", companyExpenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
-            
-            long pendingReimbursements = companyExpenses.stream()
-                .filter(e -> e.isReimbursable() && "PENDING".equals(e.getReimbursementStatus()))
-                .count();
-            data.put("pendingReimbursements", pendingReimbursements);
-            
-            return data;
-        }).collect(Collectors.toList());
-    }
-    
-    /**
-     * Generate user activity report
-     */
-    @Transactional(readOnly = true)
-    public List<Map<String, Object>> getUserActivityReport(int topN) {
-        log.info("[AdminService] Generating top {} user activity report", topN);
-        
-        List<User> users = userRepository.findAll();
-        
-        return users.stream()
-            .map(user -> {
-                Map<String, Object> data = new HashMap<>();
-                data.put("userId", user.getId());
-                data.put("userName", user.getName());
-                data.put("userEmail", user.getEmail());
-                data.put("role", user.getRole().name());
-                
-                List<Expense> userExpenses = expenseRepository.findAll().stream()
-                    .filter(e -> e.getUser() != null && e.getUser().getId().equals(user.getId()))
-                    .collect(Collectors.toList());
-                data.put("expenseCount", userExpenses.size());
-                data.put("totalAmount", userExpenses.stream()
-                    .map(Expense::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add));
-                
-                return data;
-            })
-            .sorted((a, b) -> Integer.compare(
-                (Integer) b.get("expenseCount"), 
-                (Integer) a.get("expenseCount")
-            ))
-            .limit(topN)
-            .collect(Collectors.toList());
-    }
-    
     /**
      * Bulk update user status
      */
@@ -343,6 +210,7 @@ public class AdminService {
                     .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
                 user.setEnabled(enabled);
                 userRepository.save(user);
+                principalCache.invalidate(user);
                 successCount++;
             } catch (Exception e) {
                 failCount++;
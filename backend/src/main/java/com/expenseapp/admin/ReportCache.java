@@ -0,0 +1,44 @@
+package com.expenseapp.admin;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived result cache for admin reports. Entries expire {@code ttlMillis} after they were computed;
+ * the whole cache is dropped when it grows past {@code maxEntries} distinct parameter combinations.
+ * Two requests that miss at the same moment may both compute the report; the later result wins.
+ */
+class ReportCache {
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;
+        Entry(Object value, long expiresAt) { this.value = value; this.expiresAt = expiresAt; }
+    }
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    ReportCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String key, Supplier<T> loader) {
+        if (ttlMillis <= 0) return loader.get();
+        long now = System.currentTimeMillis();
+        Entry e = entries.get(key);
+        if (e != null && e.expiresAt > now) return (T) e.value;
+        T value = loader.get();
+        if (entries.size() >= maxEntries) entries.clear();
+        entries.put(key, new Entry(value, now + ttlMillis));
+        return value;
+    }
+
+    void clear() {
+        entries.clear();
+    }
+}
@@ -3,6 +3,7 @@ package com.expenseapp.admin;
 import com.expenseapp.audit.AuditLogService;
 import com.expenseapp.role.RoleService;
 import com.expenseapp.security.CurrentUser;
+import com.expenseapp.security.PrincipalCache;
 import com.expenseapp.user.Role;
 import com.expenseapp.user.User;
 import com.expenseapp.user.UserRepository;
@@ -23,6 +24,7 @@ public class UserManagementController {
     private final UserRepository userRepository;
     private final RoleService roleService;
     private final AuditLogService auditLogService;
+    private final PrincipalCache principalCache;
     
     /**
      * Get all users (ADMIN and above)
@@ -107,6 +109,7 @@ public class UserManagementController {
         }
         
         userRepository.save(user);
+        principalCache.invalidate(user);
         
         // Log the changes
         auditLogService.log(
@@ -205,6 +208,7 @@ public class UserManagementController {
         
         String userEmail = user.getEmail();
         userRepository.delete(user);
+        principalCache.invalidate(user);
         
         auditLogService.log(
             admin.getEmail(),
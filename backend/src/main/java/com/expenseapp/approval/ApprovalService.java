@@ -3,6 +3,7 @@ package com.expenseapp.approval;
 import com.expenseapp.expense.Expense;
 import com.expenseapp.expense.ExpenseRepository;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import com.expenseapp.notification.NotificationPublisher;
 import org.springframework.stereotype.Service;
@@ -40,7 +41,7 @@ public class ApprovalService {
 
     @Transactional
     public Approval submit(String requesterEmail, Long expenseId, Long approverId, Long companyId) {
-        User requester = userRepository.findByEmail(requesterEmail).orElseThrow();
+        User requester = RequestPrincipal.findByEmail(userRepository, requesterEmail).orElseThrow();
         Expense expense = expenseRepository.findById(expenseId).orElseThrow();
         // Verify company context matches
         if (companyId == null && expense.getCompanyId() != null) {
@@ -104,7 +105,7 @@ public class ApprovalService {
 
     @Transactional
     public Approval approve(String approverEmail, Long approvalId, String notes, Long companyId) {
-        User approver = userRepository.findByEmail(approverEmail).orElseThrow();
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail).orElseThrow();
         Approval a = approvalRepository.findById(approvalId).orElseThrow();
         // Verify company context matches
         Expense expense = a.getExpense();
@@ -161,7 +162,7 @@ public class ApprovalService {
 
     @Transactional
     public Approval reject(String approverEmail, Long approvalId, String notes, Long companyId) {
-        User approver = userRepository.findByEmail(approverEmail).orElseThrow();
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail).orElseThrow();
         Approval a = approvalRepository.findById(approvalId).orElseThrow();
         // Verify company context matches
         Expense expense = a.getExpense();
@@ -205,13 +206,13 @@ public class ApprovalService {
 
     @Transactional(readOnly = true)
     public List<Approval> myRequests(String email) {
-        User u = userRepository.findByEmail(email).orElseThrow();
+        User u = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         return approvalRepository.findAllByRequester(u);
     }
 
     @Transactional(readOnly = true)
     public List<Approval> toApprove(String email) {
-        User u = userRepository.findByEmail(email).orElseThrow();
+        User u = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         return approvalRepository.findAllByApprover(u);
     }
 
@@ -0,0 +1,41 @@
+package com.expenseapp.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link AccessLogWriter} pipeline statistics to Actuator
+ * ({@code /actuator/metrics/audit.access_log.enqueued}, {@code .dropped}, {@code .written}, {@code .failed},
+ * {@code .queue.size}).
+ */
+@Component
+public class AccessLogMetrics implements MeterBinder {
+
+    private final AccessLogWriter writer;
+
+    public AccessLogMetrics(AccessLogWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audit.access_log.enqueued", writer, AccessLogWriter::enqueued)
+                .description("Access log rows accepted into the write queue")
+                .register(registry);
+        FunctionCounter.builder("audit.access_log.dropped", writer, AccessLogWriter::dropped)
+                .description("Access log rows dropped because the queue stayed full")
+                .register(registry);
+        FunctionCounter.builder("audit.access_log.written", writer, AccessLogWriter::written)
+                .description("Access log rows inserted")
+                .register(registry);
+        FunctionCounter.builder("audit.access_log.failed", writer, AccessLogWriter::failed)
+                .description("Access log rows lost to failed batch inserts")
+                .register(registry);
+        Gauge.builder("audit.access_log.queue.size", writer, AccessLogWriter::queueSize)
+                .description("Access log rows waiting to be written")
+                .register(registry);
+    }
+}
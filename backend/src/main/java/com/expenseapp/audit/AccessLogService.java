@@ -2,12 +2,16 @@ package com.expenseapp.audit;
 
 import org.springframework.stereotype.Service;
 
+/**
+ * Records access decisions. Rows are handed to {@link AccessLogWriter} and inserted in the background,
+ * so logging neither joins nor turns the caller's (possibly read-only) transaction into a write.
+ */
 @Service
 public class AccessLogService {
-    private final AccessLogRepository repo;
+    private final AccessLogWriter writer;
 
-    public AccessLogService(AccessLogRepository repo) {
-        this.repo = repo;
+    public AccessLogService(AccessLogWriter writer) {
+        this.writer = writer;
     }
 
     public void log(Long actorId, String actorEmail, String action, String resourceType, Long resourceId, String outcome, String metadata) {
@@ -19,6 +23,6 @@ public class AccessLogService {
         l.setResourceId(resourceId);
         l.setOutcome(outcome);
         l.setMetadata(metadata);
-        repo.save(l);
+        writer.append(l);
     }
 }
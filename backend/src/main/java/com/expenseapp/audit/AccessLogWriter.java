@@ -0,0 +1,165 @@
+package com.expenseapp.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background writer for {@code access_logs}. Callers enqueue rows into a bounded queue; a single worker
+ * thread drains it and inserts in JDBC batches of up to {@code batch-size} rows, flushing at least every
+ * {@code flush-interval-ms}. When the queue is full a caller waits up to {@code enqueue-timeout-ms} and the
+ * row is then dropped (counted in {@link #dropped()}). Pending rows are flushed on shutdown.
+ */
+@Component
+public class AccessLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO access_logs (actor_id, actor_email, action, resource_type, resource_id, outcome, metadata, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AccessLog> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long enqueueTimeoutMs;
+    private final long shutdownTimeoutMs;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AccessLogWriter(JdbcTemplate jdbcTemplate,
+                           @Value("${app.audit.access-log.queue-capacity:10000}") int queueCapacity,
+                           @Value("${app.audit.access-log.batch-size:200}") int batchSize,
+                           @Value("${app.audit.access-log.flush-interval-ms:500}") long flushIntervalMs,
+                           @Value("${app.audit.access-log.enqueue-timeout-ms:10}") long enqueueTimeoutMs,
+                           @Value("${app.audit.access-log.shutdown-timeout-ms:5000}") long shutdownTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.enqueueTimeoutMs = Math.max(0, enqueueTimeoutMs);
+        this.shutdownTimeoutMs = Math.max(0, shutdownTimeoutMs);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::run, "access-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(shutdownTimeoutMs);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever the worker did not get to (or anything appended during shutdown)
+        List<AccessLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            write(rest.subList(i, Math.min(rest.size(), i + batchSize)));
+        }
+        log.info("[Audit] Access log writer stopped: written={}, dropped={}, failed={}", written(), dropped(), failed());
+    }
+
+    /** Queue a row for insertion; never throws and blocks for at most {@code enqueue-timeout-ms}. */
+    public void append(AccessLog row) {
+        boolean accepted;
+        try {
+            accepted = enqueueTimeoutMs > 0
+                    ? queue.offer(row, enqueueTimeoutMs, TimeUnit.MILLISECONDS)
+                    : queue.offer(row);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (accepted) {
+            enqueued.increment();
+        } else {
+            dropped.increment();
+            log.warn("[Audit] Access log queue full, dropped {} {}:{} ({})",
+                    row.getAction(), row.getResourceType(), row.getResourceId(), row.getOutcome());
+        }
+    }
+
+    private void run() {
+        List<AccessLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AccessLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    AccessLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException ie) {
+                write(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("[Audit] Access log writer error: {}", ex.toString(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AccessLog> rows) {
+        if (rows.isEmpty()) return;
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, r) -> {
+                ps.setObject(1, r.getActorId(), Types.BIGINT);
+                ps.setString(2, r.getActorEmail());
+                ps.setString(3, r.getAction());
+                ps.setString(4, r.getResourceType());
+                ps.setObject(5, r.getResourceId(), Types.BIGINT);
+                ps.setString(6, r.getOutcome());
+                ps.setString(7, r.getMetadata());
+                ps.setTimestamp(8, Timestamp.from(r.getCreatedAt()));
+            });
+            written.add(rows.size());
+        } catch (DataAccessException ex) {
+            failed.add(rows.size());
+            log.error("[Audit] Failed to write {} access log row(s): {}", rows.size(), ex.getMessage());
+        }
+    }
+
+    public long enqueued() { return enqueued.sum(); }
+    public long dropped() { return dropped.sum(); }
+    public long written() { return written.sum(); }
+    public long failed() { return failed.sum(); }
+    public int queueSize() { return queue.size(); }
+}
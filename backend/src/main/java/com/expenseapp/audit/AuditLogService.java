@@ -1,6 +1,7 @@
 package com.expenseapp.audit;
 
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -22,7 +23,7 @@ public class AuditLogService {
     @Transactional
     public void log(String userEmail, String action, String resourceType, Long resourceId, 
                     String oldValue, String newValue, Long companyId) {
-        User user = userRepository.findByEmail(userEmail).orElse(null);
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElse(null);
         
         AuditLog log = new AuditLog();
         log.setUser(user);
@@ -58,7 +59,7 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public Page<AuditLog> getLogsByUser(String userEmail, Pageable pageable) {
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         return auditLogRepository.findByUserOrderByCreatedAtDesc(user, pageable);
     }
@@ -6,6 +6,7 @@ import com.expenseapp.auth.dto.SignupRequest;
 import com.expenseapp.auth.dto.TokenResponse;
 import com.expenseapp.auth.dto.SessionView;
 import com.expenseapp.security.JwtService;
+import com.expenseapp.security.PrincipalCache;
 import com.expenseapp.token.RefreshToken;
 import com.expenseapp.token.RefreshTokenRepository;
 import com.expenseapp.token.PasswordResetToken;
@@ -35,6 +36,7 @@ public class AuthService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final PrincipalCache principalCache;
 
     @Value("${JWT_ACCESS_TTL_MIN:15}")
     private long accessTtlMin;
@@ -46,12 +48,14 @@ public class AuthService {
                        RefreshTokenRepository refreshTokenRepository,
                        PasswordResetTokenRepository passwordResetTokenRepository,
                        PasswordEncoder passwordEncoder,
-                       JwtService jwtService) {
+                       JwtService jwtService,
+                       PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.refreshTokenRepository = refreshTokenRepository;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.principalCache = principalCache;
     }
 
     @Transactional
@@ -205,6 +209,7 @@ public class AuthService {
         User user = prt.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
         prt.setUsed(true);
+        principalCache.invalidate(user);
     }
 
     // ----- Sessions management -----
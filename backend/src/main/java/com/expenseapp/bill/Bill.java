@@ -30,6 +30,7 @@ public class Bill {
     
     private Long fileSize;
     private String mimeType;
+    private String contentSha256;
     private Long categoryId;
     private String merchant;
     private BigDecimal amount;
@@ -1,13 +1,18 @@
 package com.expenseapp.bill;
 
+import com.expenseapp.search.SearchPage;
+import com.expenseapp.storage.FileResponder;
+import com.expenseapp.storage.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -17,6 +22,8 @@ import java.util.List;
 public class BillController {
     
     private final BillService billService;
+    private final FileResponder fileResponder;
+    private final FileStorageService fileStorageService;
     
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Bill> uploadBill(
@@ -55,6 +62,10 @@ public class BillController {
         return ResponseEntity.ok(billService.listBills(auth.getName(), cid));
     }
     
+    /**
+     * Up to 1000 matches. When there are more, the response carries {@link SearchPage#TRUNCATED_HEADER} and the
+     * {@link SearchPage#NEXT_CURSOR_HEADER} to continue with in {@code /search/page}.
+     */
     @GetMapping("/search")
     public ResponseEntity<List<Bill>> searchBills(
             @RequestParam(required = false, defaultValue = "0") Long companyId,
@@ -69,8 +80,33 @@ public class BillController {
         LocalDate start = startDate != null ? LocalDate.parse(startDate) : null;
         LocalDate end = endDate != null ? LocalDate.parse(endDate) : null;
         
-        return ResponseEntity.ok(billService.searchBills(auth.getName(), cid, billNumber, 
-                                                         merchant, categoryId, start, end));
+        SearchPage<Bill> page = billService.searchBills(auth.getName(), cid, billNumber,
+                                                        merchant, categoryId, start, end);
+        if (!page.isHasMore()) return ResponseEntity.ok(page.getItems());
+        ResponseEntity.BodyBuilder truncated = ResponseEntity.ok().header(SearchPage.TRUNCATED_HEADER, "true");
+        if (page.getNextCursor() != null) truncated.header(SearchPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        return truncated.body(page.getItems());
+    }
+    
+    @GetMapping("/search/page")
+    public ResponseEntity<SearchPage<Bill>> searchBillsPage(
+            @RequestParam(required = false, defaultValue = "0") Long companyId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String billNumber,
+            @RequestParam(required = false) String merchant,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth) {
+        
+        Long cid = (companyId != null && companyId > 0) ? companyId : null;
+        LocalDate start = startDate != null ? LocalDate.parse(startDate) : null;
+        LocalDate end = endDate != null ? LocalDate.parse(endDate) : null;
+        
+        return ResponseEntity.ok(billService.searchBillsPage(auth.getName(), cid, billNumber, merchant, q,
+                                                             categoryId, start, end, cursor, limit));
     }
     
     @GetMapping("/{id}")
@@ -79,18 +115,11 @@ public class BillController {
     }
     
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadBill(@PathVariable Long id, Authentication auth) {
-        try {
-            Bill bill = billService.getBill(id, auth.getName());
-            byte[] data = billService.getBillFile(id, auth.getName());
-            
-            return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + bill.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(bill.getMimeType()))
-                .body(data);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<StreamingResponseBody> downloadBill(@PathVariable Long id, Authentication auth,
+                                                              HttpServletRequest request) throws IOException {
+        Bill bill = billService.getBill(id, auth.getName());
+        return fileResponder.respond(request, fileStorageService.resolve(bill.getFilePath()), bill.getMimeType(),
+                bill.getFileName(), bill.getContentSha256(), false);
     }
     
     @DeleteMapping("/{id}")
@@ -0,0 +1,58 @@
+package com.expenseapp.bill;
+
+import com.expenseapp.search.SearchSql;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bill search for {@link BillService}: the query is built from only the filters given and returns one page of
+ * bill ids in result order. A free-text term matches bill number or merchant by substring or fuzzily and ranks
+ * results by {@code word_similarity}; otherwise the newest bills come first.
+ */
+@Component
+@RequiredArgsConstructor
+class BillSearch {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    List<Long> ids(Long userId, Long companyId, String billNumber, String merchant, String text, Long categoryId,
+                   LocalDate startDate, LocalDate endDate, int offset, int limit) {
+        String number = SearchSql.term(billNumber);
+        String merchantTerm = SearchSql.term(merchant);
+        String textTerm = SearchSql.term(text);
+
+        SearchSql sql = new SearchSql().and("b.user_id = ?", userId);
+        if (companyId == null) {
+            sql.and("b.company_id IS NULL");
+        } else {
+            sql.and("b.company_id = ?", companyId);
+        }
+        sql.andIf(number, "lower(b.bill_number) LIKE ?", number != null ? SearchSql.contains(number) : null)
+                .andIf(merchantTerm, "lower(b.merchant) LIKE ?", merchantTerm != null ? SearchSql.contains(merchantTerm) : null)
+                .andIf(categoryId, "b.category_id = ?", categoryId)
+                .andIf(startDate, "b.bill_date >= ?", startDate)
+                .andIf(endDate, "b.bill_date <= ?", endDate);
+
+        String order = "b.bill_date DESC NULLS LAST, b.uploaded_at DESC, b.id DESC";
+        List<Object> orderArgs = new ArrayList<>();
+        if (textTerm != null) {
+            String like = SearchSql.contains(textTerm);
+            sql.and("lower(b.bill_number) LIKE ? OR lower(b.merchant) LIKE ? OR ? <% lower(b.bill_number) OR ? <% lower(b.merchant)",
+                    like, like, textTerm, textTerm);
+            order = "COALESCE(GREATEST(word_similarity(?, lower(b.bill_number)), word_similarity(?, lower(b.merchant))), 0) DESC, " + order;
+            orderArgs.add(textTerm);
+            orderArgs.add(textTerm);
+        }
+        List<Object> args = new ArrayList<>(sql.args());
+        args.addAll(orderArgs);
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.queryForList("SELECT b.id FROM bills b WHERE " + sql.where()
+                + " ORDER BY " + order + " LIMIT ? OFFSET ?", Long.class, args.toArray());
+    }
+}
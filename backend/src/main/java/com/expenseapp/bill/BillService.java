@@ -1,5 +1,9 @@
 package com.expenseapp.bill;
 
+import com.expenseapp.search.SearchCursor;
+import com.expenseapp.search.SearchPage;
+import com.expenseapp.security.RequestPrincipal;
+import com.expenseapp.storage.FileStorageService;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,12 +13,12 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -23,27 +27,19 @@ public class BillService {
     
     private final BillRepository billRepository;
     private final UserRepository userRepository;
+    private final BillSearch billSearch;
+    private final FileStorageService fileStorageService;
     
-    private static final String UPLOAD_DIR = "bills";
+    private static final int DEFAULT_SEARCH_PAGE = 50;
+    private static final int MAX_SEARCH_RESULTS = 1000;
     
     @Transactional
     public Bill uploadBill(String userEmail, MultipartFile file, BillUploadRequest request, Long companyId) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // Generate unique filename
             String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                : "";
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
             
             // Check for duplicate bill number
             if (request.getBillNumber() != null && !request.getBillNumber().trim().isEmpty()) {
@@ -63,9 +59,8 @@ public class BillService {
                 }
             }
             
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Save file (content-addressed: identical uploads share one blob)
+            FileStorageService.StoredFile stored = fileStorageService.store(file);
             
             // Create bill record
             Bill bill = new Bill();
@@ -74,9 +69,10 @@ public class BillService {
             bill.setBillNumber(request.getBillNumber());
             bill.setExpenseId(request.getExpenseId());
             bill.setFileName(originalFilename);
-            bill.setFilePath(filePath.toString());
+            bill.setFilePath(stored.getPath());
             bill.setFileSize(file.getSize());
             bill.setMimeType(file.getContentType());
+            bill.setContentSha256(stored.getSha256());
             bill.setCategoryId(request.getCategoryId());
             bill.setMerchant(request.getMerchant());
             bill.setAmount(request.getAmount());
@@ -93,7 +89,7 @@ public class BillService {
     }
     
     public List<Bill> listBills(String userEmail, Long companyId) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         if (companyId != null && companyId > 0) {
@@ -102,17 +98,37 @@ public class BillService {
         return billRepository.findByUserIdAndCompanyIdIsNull(user.getId());
     }
     
-    public List<Bill> searchBills(String userEmail, Long companyId, String billNumber, 
+    /** First {@code MAX_SEARCH_RESULTS} matches as one page; its cursor continues in {@link #searchBillsPage}. */
+    @Transactional(readOnly = true)
+    public SearchPage<Bill> searchBills(String userEmail, Long companyId, String billNumber, 
                                   String merchant, Long categoryId, LocalDate startDate, LocalDate endDate) {
-        var user = userRepository.findByEmail(userEmail)
+        return searchBillsPage(userEmail, companyId, billNumber, merchant, null, categoryId,
+                startDate, endDate, null, MAX_SEARCH_RESULTS);
+    }
+    
+    @Transactional(readOnly = true)
+    public SearchPage<Bill> searchBillsPage(String userEmail, Long companyId, String billNumber, String merchant,
+                                            String text, Long categoryId, LocalDate startDate, LocalDate endDate,
+                                            String cursor, Integer limit) {
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        return billRepository.searchBills(user.getId(), companyId, billNumber, merchant, 
-                                         categoryId, startDate, endDate);
+        int offset = SearchCursor.decode(cursor);
+        int size = (limit == null || limit <= 0) ? DEFAULT_SEARCH_PAGE : Math.min(limit, MAX_SEARCH_RESULTS);
+        List<Long> ids = billSearch.ids(user.getId(), companyId, billNumber, merchant, text, categoryId,
+                startDate, endDate, offset, size + 1);
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+        
+        Map<Long, Bill> byId = new HashMap<>();
+        for (Bill b : billRepository.findAllById(pageIds)) byId.put(b.getId(), b);
+        List<Bill> bills = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        String nextCursor = hasMore ? SearchCursor.encode(offset + size) : null;
+        return new SearchPage<>(bills, nextCursor, hasMore, hasMore && nextCursor == null);
     }
     
     public Bill getBill(Long id, String userEmail) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         Bill bill = billRepository.findById(id)
@@ -129,18 +145,17 @@ public class BillService {
     public void deleteBill(Long id, String userEmail) {
         Bill bill = getBill(id, userEmail);
         
-        // Delete file
-        try {
-            Files.deleteIfExists(Paths.get(bill.getFilePath()));
-        } catch (IOException e) {
-            log.error("Failed to delete bill file", e);
-        }
-        
         billRepository.delete(bill);
-    }
-    
-    public byte[] getBillFile(Long id, String userEmail) throws IOException {
-        Bill bill = getBill(id, userEmail);
-        return Files.readAllBytes(Paths.get(bill.getFilePath()));
+        
+        // Delete file: drop the blob reference, or remove a file stored before content addressing
+        if (FileStorageService.isBlob(bill.getFilePath())) {
+            fileStorageService.release(bill.getFilePath());
+        } else {
+            try {
+                Files.deleteIfExists(Paths.get(bill.getFilePath()));
+            } catch (IOException e) {
+                log.error("Failed to delete bill file", e);
+            }
+        }
     }
 }
@@ -44,6 +44,16 @@ public class Budget {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
+    // Maintained in SQL by BudgetAlertEvaluator; never written through JPA
+    @Column(insertable = false, updatable = false)
+    private java.math.BigDecimal spent;
+
+    @Column(name = "alerted_80", insertable = false, updatable = false)
+    private boolean alerted80;
+
+    @Column(name = "alerted_100", insertable = false, updatable = false)
+    private boolean alerted100;
+
     public Long getId() { return id; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
@@ -62,4 +72,7 @@ public class Budget {
     public Instant getCreatedAt() { return createdAt; }
     public Long getCompanyId() { return companyId; }
     public void setCompanyId(Long companyId) { this.companyId = companyId; }
+    public java.math.BigDecimal getSpent() { return spent; }
+    public boolean isAlerted80() { return alerted80; }
+    public boolean isAlerted100() { return alerted100; }
 }
@@ -0,0 +1,176 @@
+package com.expenseapp.budget;
+
+import com.expenseapp.expense.ExpenseSpendChangedEvent;
+import com.expenseapp.notification.NotificationPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps {@code budgets.spent} (V64) current from {@link ExpenseSpendChangedEvent}s and fires the 80% / 100%
+ * alerts when a budget crosses a threshold. Only budgets matching a changed expense's user or group, category
+ * and month are touched. Group budgets count the group's expenses; personal budgets count everything the
+ * owner spent, matching {@code groupCategoryTotals} / {@code userCategoryTotals}.
+ * <p>
+ * {@code alerted_80} / {@code alerted_100} record which thresholds have been reached, so each crossing
+ * notifies once; they are cleared when spend drops back below the threshold.
+ */
+@Service
+public class BudgetAlertEvaluator {
+    private static final Logger log = LoggerFactory.getLogger(BudgetAlertEvaluator.class);
+
+    private static final String APPLY_DELTA_SQL = """
+        UPDATE budgets SET spent = spent + ?
+        WHERE period = ?
+          AND (category_id IS NULL OR category_id = ?)
+          AND ((group_id IS NULL AND user_id = ?) OR group_id = ?)
+        RETURNING id
+        """;
+
+    private static final String STATE_SQL = """
+        SELECT b.id, b.user_id, b.amount, b.spent, b.alert80, b.alert100, b.alerted_80, b.alerted_100, c.name
+        FROM budgets b LEFT JOIN categories c ON c.id = b.category_id
+        WHERE b.id = ANY(?) AND b.user_id IS NOT NULL
+        ORDER BY b.id
+        """;
+
+    // Ledger sum per budget, using the same matching rules as APPLY_DELTA_SQL
+    private static final String RECONCILE_SQL = """
+        UPDATE budgets b SET spent = s.total
+        FROM (
+            SELECT b2.id, COALESCE(SUM(e.amount), 0) AS total
+            FROM budgets b2
+            LEFT JOIN expenses e
+              ON e.occurred_on >= to_date(b2.period || '-01', 'YYYY-MM-DD')
+             AND e.occurred_on < (to_date(b2.period || '-01', 'YYYY-MM-DD') + INTERVAL '1 month')
+             AND (b2.category_id IS NULL OR e.category_id = b2.category_id)
+             AND ((b2.group_id IS NULL AND e.user_id = b2.user_id) OR e.group_id = b2.group_id)
+            WHERE b2.period ~ '^[0-9]{4}-[0-9]{2}$' AND %s
+            GROUP BY b2.id
+        ) s
+        WHERE s.id = b.id AND b.spent IS DISTINCT FROM s.total
+        RETURNING b.id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationPublisher notificationPublisher;
+
+    public BudgetAlertEvaluator(JdbcTemplate jdbcTemplate, NotificationPublisher notificationPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationPublisher = notificationPublisher;
+    }
+
+    /** Runs in the expense writer's transaction, so spend and alert state commit or roll back with it. */
+    @EventListener
+    public void onSpendChanged(ExpenseSpendChangedEvent event) {
+        Set<Long> touched = new LinkedHashSet<>();
+        for (ExpenseSpendChangedEvent.Delta d : event.getDeltas()) {
+            if (d.getAmount() == null || d.getAmount().signum() == 0 || d.getDay() == null) continue;
+            String period = YearMonth.from(d.getDay()).toString();
+            touched.addAll(jdbcTemplate.queryForList(APPLY_DELTA_SQL, Long.class,
+                    d.getAmount(), period, d.getCategoryId(), d.getUserId(), d.getGroupId()));
+        }
+        if (!touched.isEmpty()) evaluate(touched);
+    }
+
+    /** Recompute spent for one budget (after create) and evaluate its thresholds. */
+    @Transactional
+    public int refresh(Long budgetId) {
+        jdbcTemplate.queryForList(RECONCILE_SQL.formatted("b2.id = ?"), Long.class, budgetId);
+        return evaluate(List.of(budgetId));
+    }
+
+    /**
+     * Recompute spent from the ledger for every budget of {@code period} (all periods when null) and evaluate
+     * the ones that drifted. Returns the number of alerts fired.
+     */
+    @Transactional
+    public int reconcile(String period) {
+        List<Long> drifted = period != null
+                ? jdbcTemplate.queryForList(RECONCILE_SQL.formatted("b2.period = ?"), Long.class, period)
+                : jdbcTemplate.queryForList(RECONCILE_SQL.formatted("TRUE"), Long.class);
+        if (drifted.isEmpty()) return 0;
+        log.warn("[Budgets] Corrected spent on {} budget(s){}", drifted.size(), period != null ? " for " + period : "");
+        return evaluate(drifted);
+    }
+
+    /**
+     * Compare stored spend with the thresholds, update the alerted flags and notify on upward crossings.
+     * Returns the number of alerts fired.
+     */
+    @Transactional
+    public int evaluate(Collection<Long> budgetIds) {
+        if (budgetIds.isEmpty()) return 0;
+        List<Object[]> changes = new ArrayList<>();
+        int fired = 0;
+        List<BudgetState> states = jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(STATE_SQL);
+            Array ids = con.createArrayOf("bigint", budgetIds.toArray());
+            ps.setArray(1, ids);
+            return ps;
+        }, (rs, i) -> new BudgetState(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), rs.getBigDecimal(4),
+                rs.getBoolean(5), rs.getBoolean(6), rs.getBoolean(7), rs.getBoolean(8), rs.getString(9)));
+
+        for (BudgetState b : states) {
+            boolean reached80 = b.reached(new BigDecimal("0.8"));
+            boolean reached100 = b.reached(BigDecimal.ONE);
+            if (reached80 == b.alerted80 && reached100 == b.alerted100) continue;
+            changes.add(new Object[]{reached80, reached100, b.id});
+
+            String categoryName = b.categoryName != null ? b.categoryName : "All Categories";
+            if (reached100 && !b.alerted100 && b.alert100) {
+                notify(b, "Budget Exceeded", "You have exceeded your budget for " + categoryName);
+                fired++;
+            } else if (reached80 && !b.alerted80 && b.alert80 && !(reached100 && b.alert100)) {
+                notify(b, "Budget Warning", "You are approaching your budget limit for " + categoryName);
+                fired++;
+            }
+        }
+        if (!changes.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE budgets SET alerted_80 = ?, alerted_100 = ? WHERE id = ?", changes);
+        }
+        return fired;
+    }
+
+    private void notify(BudgetState b, String title, String body) {
+        double percentUsed = b.spent.divide(b.amount, 4, RoundingMode.HALF_UP).doubleValue() * 100;
+        notificationPublisher.publish(b.userId, "BUDGET_ALERT", title, body,
+                "{\"budgetId\":" + b.id + ",\"percent\":" + percentUsed + "}");
+        log.info("[Budgets] {} for budget {} (user {}, {}%)", title, b.id, b.userId, percentUsed);
+    }
+
+    private static final class BudgetState {
+        final long id;
+        final long userId;
+        final BigDecimal amount;
+        final BigDecimal spent;
+        final boolean alert80, alert100, alerted80, alerted100;
+        final String categoryName;
+
+        BudgetState(long id, long userId, BigDecimal amount, BigDecimal spent, boolean alert80, boolean alert100,
+                    boolean alerted80, boolean alerted100, String categoryName) {
+            this.id = id; this.userId = userId; this.amount = amount; this.spent = spent;
+            this.alert80 = alert80; this.alert100 = alert100; this.alerted80 = alerted80; this.alerted100 = alerted100;
+            this.categoryName = categoryName;
+        }
+
+        // Budgets without a positive amount never alert
+        boolean reached(BigDecimal fraction) {
+            return amount != null && amount.signum() > 0 && spent != null
+                    && spent.compareTo(amount.multiply(fraction)) >= 0;
+        }
+    }
+}
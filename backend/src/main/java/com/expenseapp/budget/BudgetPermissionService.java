@@ -5,6 +5,7 @@ import com.expenseapp.company.CompanyMember;
 import com.expenseapp.company.CompanyMemberRepository;
 import com.expenseapp.company.CompanyRepository;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -60,7 +61,7 @@ public class BudgetPermissionService {
      */
     @Transactional
     public BudgetPermission grantPermission(String adminEmail, Long companyId, Long userId, String notes) {
-        User admin = userRepository.findByEmail(adminEmail)
+        User admin = RequestPrincipal.findByEmail(userRepository, adminEmail)
             .orElseThrow(() -> new IllegalArgumentException("Admin not found"));
         
         Company company = companyRepository.findById(companyId)
@@ -107,7 +108,7 @@ public class BudgetPermissionService {
      */
     @Transactional
     public void revokePermission(String adminEmail, Long companyId, Long userId) {
-        User admin = userRepository.findByEmail(adminEmail)
+        User admin = RequestPrincipal.findByEmail(userRepository, adminEmail)
             .orElseThrow(() -> new IllegalArgumentException("Admin not found"));
         
         Company company = companyRepository.findById(companyId)
@@ -3,10 +3,15 @@ package com.expenseapp.budget;
 import com.expenseapp.group.Group;
 import com.expenseapp.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     List<Budget> findAllByUserAndPeriod(User user, String period);
     List<Budget> findAllByGroupAndPeriod(Group group, String period);
+
+    // Periods are YYYY-MM, so string comparison orders them chronologically
+    @Query("SELECT COALESCE(SUM(b.amount), 0) FROM Budget b WHERE b.companyId = :companyId AND b.period BETWEEN :startPeriod AND :endPeriod")
+    java.math.BigDecimal sumAmountByCompanyAndPeriodBetween(Long companyId, String startPeriod, String endPeriod);
 }
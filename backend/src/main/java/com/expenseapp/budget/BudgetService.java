@@ -6,12 +6,13 @@ import com.expenseapp.budget.dto.BudgetView;
 import com.expenseapp.expense.ExpenseRepository;
 import com.expenseapp.expense.CategoryRepository;
 import com.expenseapp.expense.Category;
+import com.expenseapp.expense.SpendAggregate;
+import com.expenseapp.expense.SpendAggregator;
 import com.expenseapp.group.Group;
 import com.expenseapp.group.GroupRepository;
-import com.expenseapp.notification.NotificationPublisher;
-import com.expenseapp.notification.NotificationRepository;
 import com.expenseapp.fx.FXService;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,35 +29,35 @@ public class BudgetService {
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
     private final ExpenseRepository expenseRepository;
-    private final NotificationPublisher notificationPublisher;
-    private final NotificationRepository notificationRepository;
     private final CategoryRepository categoryRepository;
     private final FXService fxService;
     private final BudgetPermissionService budgetPermissionService;
+    private final SpendAggregator spendAggregator;
+    private final BudgetAlertEvaluator alertEvaluator;
 
     public BudgetService(BudgetRepository budgetRepository,
                          UserRepository userRepository,
                          GroupRepository groupRepository,
                          ExpenseRepository expenseRepository,
-                         NotificationPublisher notificationPublisher,
-                         NotificationRepository notificationRepository,
                          CategoryRepository categoryRepository,
                          FXService fxService,
-                         BudgetPermissionService budgetPermissionService) {
+                         BudgetPermissionService budgetPermissionService,
+                         SpendAggregator spendAggregator,
+                         BudgetAlertEvaluator alertEvaluator) {
         this.budgetRepository = budgetRepository;
         this.userRepository = userRepository;
         this.groupRepository = groupRepository;
         this.expenseRepository = expenseRepository;
-        this.notificationPublisher = notificationPublisher;
-        this.notificationRepository = notificationRepository;
         this.categoryRepository = categoryRepository;
         this.fxService = fxService;
         this.budgetPermissionService = budgetPermissionService;
+        this.spendAggregator = spendAggregator;
+        this.alertEvaluator = alertEvaluator;
     }
 
     @Transactional
     public Budget createEntity(String userEmail, BudgetCreateRequest req) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         
         // STRICT ISOLATION: Set companyId for proper scoping
         Long resolvedCompanyId = (req.getCompanyId() != null && req.getCompanyId() > 0) ? req.getCompanyId() : null;
@@ -83,7 +84,9 @@ public class BudgetService {
         budget.setAmount(req.getAmount());
         budget.setAlert80(req.isAlert80());
         budget.setAlert100(req.isAlert100());
-        return budgetRepository.save(budget);
+        Budget saved = budgetRepository.saveAndFlush(budget);
+        alertEvaluator.refresh(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -94,7 +97,7 @@ public class BudgetService {
 
     @Transactional
     public BudgetView update(String userEmail, Long id, BudgetUpdateRequest req) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Budget budget = budgetRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Budget not found"));
         
@@ -111,13 +114,15 @@ public class BudgetService {
         budget.setAmount(req.getAmount());
         budget.setAlert80(req.isAlert80());
         budget.setAlert100(req.isAlert100());
-        Budget saved = budgetRepository.save(budget);
+        Budget saved = budgetRepository.saveAndFlush(budget);
+        // A new amount can move the budget across a threshold in either direction
+        alertEvaluator.evaluate(List.of(saved.getId()));
         return toView(saved);
     }
 
     @Transactional
     public void delete(String userEmail, Long id) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Budget budget = budgetRepository.findById(id).orElseThrow();
         
         // SUPER_ADMIN and ADMIN can delete any budget
@@ -132,7 +137,7 @@ public class BudgetService {
 
     @Transactional(readOnly = true)
     public List<BudgetView> list(String userEmail, String period) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         List<Budget> budgets = budgetRepository.findAllByUserAndPeriod(user, period);
         List<BudgetView> views = new ArrayList<>();
         
@@ -200,7 +205,7 @@ public class BudgetService {
 
     @Transactional(readOnly = true)
     public List<java.util.Map<String, Object>> anomalies(String userEmail, String period, Long groupId, boolean base) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         LocalDate from = LocalDate.parse(period + "-01");
         LocalDate to = from.plusMonths(1).minusDays(1);
         LocalDate prevFrom = from.minusMonths(1);
@@ -275,7 +280,7 @@ public class BudgetService {
 
     @Transactional(readOnly = true)
     public java.util.Map<String, Object> predicted(String userEmail, String period, Long groupId, boolean base) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         LocalDate from = LocalDate.parse(period + "-01");
         LocalDate to = from.plusMonths(1).minusDays(1);
         int totalDays = to.getDayOfMonth();
@@ -287,12 +292,7 @@ public class BudgetService {
                     : expenseRepository.userCategoryTotals(user.getId(), from, to);
             spent = totals.stream().map(r -> (java.math.BigDecimal) r[2]).reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
         } else {
-            java.util.List<com.expenseapp.expense.Expense> list = (groupId != null)
-                    ? expenseRepository.findAllByGroupAndOccurredOnBetween(groupRepository.findById(groupId).orElseThrow(), from, to)
-                    : expenseRepository.findAllByUserAndOccurredOnBetween(user, from, to);
-            spent = list.stream()
-                    .map(e -> fxService.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount()))
-                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+            spent = aggregateBase(user, groupId, from, to).getTotal();
         }
         java.math.BigDecimal daily = elapsedDays == 0 ? java.math.BigDecimal.ZERO : spent.divide(new java.math.BigDecimal(elapsedDays), 4, java.math.RoundingMode.HALF_UP);
         java.math.BigDecimal predicted = daily.multiply(new java.math.BigDecimal(totalDays)).setScale(2, java.math.RoundingMode.HALF_UP);
@@ -307,7 +307,7 @@ public class BudgetService {
 
     @Transactional(readOnly = true)
     public List<java.util.Map<String, Object>> variance(String userEmail, String period, Long groupId, Long categoryFilterId, boolean base) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Group group = null;
         if (groupId != null) {
             group = groupRepository.findById(groupId).orElseThrow();
@@ -407,115 +407,33 @@ public class BudgetService {
     }
 
     private java.util.Map<Long, java.math.BigDecimal> sumByCategoryBase(User user, Long groupId, LocalDate from, LocalDate to) {
-        java.util.List<com.expenseapp.expense.Expense> list = (groupId != null)
-                ? expenseRepository.findAllByGroupAndOccurredOnBetween(groupRepository.findById(groupId).orElseThrow(), from, to)
-                : expenseRepository.findAllByUserAndOccurredOnBetween(user, from, to);
-        java.util.Map<Long, java.math.BigDecimal> map = new java.util.HashMap<>();
-        for (com.expenseapp.expense.Expense e : list) {
-            Long cid = (e.getCategory() == null) ? -1L : e.getCategory().getId();
-            java.math.BigDecimal val = fxService.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount());
-            map.put(cid, map.getOrDefault(cid, java.math.BigDecimal.ZERO).add(val));
+        // Keys use -1 for uncategorized, matching the non-base paths
+        return aggregateBase(user, groupId, from, to).getByCategory();
+    }
+
+    private SpendAggregate aggregateBase(User user, Long groupId, LocalDate from, LocalDate to) {
+        if (groupId != null) {
+            Group group = groupRepository.findById(groupId).orElseThrow();
+            return spendAggregator.forGroup(group.getId(), from, to);
         }
-        return map;
+        return spendAggregator.forUser(user.getId(), from, to);
     }
 
     @Transactional
     public int checkAlerts(String period) {
-        // System-level check for ALL budgets (use for scheduled jobs only)
-        LocalDate from = LocalDate.parse(period + "-01");
-        LocalDate to = from.plusMonths(1).minusDays(1);
-        
-        List<Budget> allBudgets = budgetRepository.findAll().stream()
-                .filter(b -> b.getPeriod().equals(period))
-                .filter(b -> b.getUser() != null) // Guard against orphaned budgets
-                .toList();
-        
-        int alertCount = 0;
-        for (Budget budget : allBudgets) {
-            // Guard against invalid amounts to avoid division-by-zero
-            BigDecimal amount = budget.getAmount();
-            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                continue;
-            }
-            BigDecimal spent = calculateSpent(budget, from, to);
-            double percentUsed = spent.divide(amount, 4, java.math.RoundingMode.HALF_UP).doubleValue() * 100;
-            
-            if (budget.isAlert100() && percentUsed >= 100) {
-                Long userId = budget.getUser().getId();
-                String title = "Budget Exceeded";
-                long dup = notificationRepository.countByUserAndTypeAndTitleAndBudgetId(userId, "BUDGET_ALERT", title, budget.getId());
-                if (dup == 0) {
-                    notificationPublisher.publish(userId, "BUDGET_ALERT",
-                            title, "You have exceeded your budget for " + 
-                            (budget.getCategory() != null ? budget.getCategory().getName() : "All Categories"),
-                            "{\"budgetId\":" + budget.getId() + ",\"percent\":" + percentUsed + "}");
-                    alertCount++;
-                }
-            } else if (budget.isAlert80() && percentUsed >= 80) {
-                Long userId = budget.getUser().getId();
-                String title = "Budget Warning";
-                long dup = notificationRepository.countByUserAndTypeAndTitleAndBudgetId(userId, "BUDGET_ALERT", title, budget.getId());
-                if (dup == 0) {
-                    notificationPublisher.publish(userId, "BUDGET_ALERT",
-                            title, "You are approaching your budget limit for " + 
-                            (budget.getCategory() != null ? budget.getCategory().getName() : "All Categories"),
-                            "{\"budgetId\":" + budget.getId() + ",\"percent\":" + percentUsed + "}");
-                    alertCount++;
-                }
-            }
-        }
-        return alertCount;
+        // System-level reconciliation (scheduled jobs only); alerts normally fire as expenses change
+        return alertEvaluator.reconcile(period);
     }
 
     @Transactional
     public int checkAlertsForUser(String email, String period) {
-        // User-specific check - only process budgets for the authenticated user
-        User user = userRepository.findByEmail(email)
+        // User-specific check - only evaluate budgets owned by the authenticated user
+        User user = RequestPrincipal.findByEmail(userRepository, email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        LocalDate from = LocalDate.parse(period + "-01");
-        LocalDate to = from.plusMonths(1).minusDays(1);
-        
-        // Only get budgets for THIS user
-        List<Budget> userBudgets = budgetRepository.findAll().stream()
-                .filter(b -> b.getPeriod().equals(period))
-                .filter(b -> b.getUser() != null && b.getUser().getId().equals(user.getId()))
+        List<Long> ids = budgetRepository.findAllByUserAndPeriod(user, period).stream()
+                .map(Budget::getId)
                 .toList();
-        
-        int alertCount = 0;
-        for (Budget budget : userBudgets) {
-            // Guard against invalid amounts
-            BigDecimal amount = budget.getAmount();
-            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                continue;
-            }
-            
-            BigDecimal spent = calculateSpent(budget, from, to);
-            double percentUsed = spent.divide(amount, 4, java.math.RoundingMode.HALF_UP).doubleValue() * 100;
-            
-            if (budget.isAlert100() && percentUsed >= 100) {
-                String title = "Budget Exceeded";
-                long dup = notificationRepository.countByUserAndTypeAndTitleAndBudgetId(user.getId(), "BUDGET_ALERT", title, budget.getId());
-                if (dup == 0) {
-                    notificationPublisher.publish(user.getId(), "BUDGET_ALERT",
-                            title, "You have exceeded your budget for " + 
-                            (budget.getCategory() != null ? budget.getCategory().getName() : "All Categories"),
-                            "{\"budgetId\":" + budget.getId() + ",\"percent\":" + percentUsed + "}");
-                    alertCount++;
-                }
-            } else if (budget.isAlert80() && percentUsed >= 80) {
-                String title = "Budget Warning";
-                long dup = notificationRepository.countByUserAndTypeAndTitleAndBudgetId(user.getId(), "BUDGET_ALERT", title, budget.getId());
-                if (dup == 0) {
-                    notificationPublisher.publish(user.getId(), "BUDGET_ALERT",
-                            title, "You are approaching your budget limit for " + 
-                            (budget.getCategory() != null ? budget.getCategory().getName() : "All Categories"),
-                            "{\"budgetId\":" + budget.getId() + ",\"percent\":" + percentUsed + "}");
-                    alertCount++;
-                }
-            }
-        }
-        return alertCount;
+        return alertEvaluator.evaluate(ids);
     }
 
     private BigDecimal calculateSpent(Budget budget, LocalDate from, LocalDate to) {
@@ -0,0 +1,49 @@
+package com.expenseapp.budget;
+
+import com.expenseapp.group.TeamBudgetService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+@Component
+public class BudgetSpendScheduler {
+    private static final Logger log = LoggerFactory.getLogger(BudgetSpendScheduler.class);
+
+    private final BudgetAlertEvaluator alertEvaluator;
+    private final CompanyBudgetService companyBudgetService;
+    private final TeamBudgetService teamBudgetService;
+    private final boolean enabled;
+
+    public BudgetSpendScheduler(
+            BudgetAlertEvaluator alertEvaluator,
+            CompanyBudgetService companyBudgetService,
+            TeamBudgetService teamBudgetService,
+            @Value("${app.budgets.reconcile.enabled:true}") boolean enabled
+    ) {
+        this.alertEvaluator = alertEvaluator;
+        this.companyBudgetService = companyBudgetService;
+        this.teamBudgetService = teamBudgetService;
+        this.enabled = enabled;
+    }
+
+    // Run hourly; recompute running spend for the current and previous month (late-dated expenses) from the ledger
+    @Scheduled(cron = "${app.budgets.reconcile.cron:0 15 * * * *}")
+    public void reconcile() {
+        if (!enabled) return;
+        YearMonth now = YearMonth.now();
+        int fired = alertEvaluator.reconcile(now.minusMonths(1).toString()) + alertEvaluator.reconcile(now.toString());
+        log.debug("[Budgets] Reconciled running spend, {} alert(s) fired", fired);
+    }
+
+    // Refresh spent on all active company and team budgets; one grouped query per table
+    @Scheduled(cron = "${app.budgets.recalculate.cron:0 45 * * * *}")
+    public void recalculateCompanyAndTeamBudgets() {
+        if (!enabled) return;
+        int fired = companyBudgetService.recalculateAllActive() + teamBudgetService.recalculateAllActive();
+        log.debug("[Budgets] Recalculated company and team budgets, {} alert(s) fired", fired);
+    }
+}
@@ -60,13 +60,20 @@ public class CompanyBudget {
      * Calculate percentage of budget spent
      */
     public int getSpentPercentage() {
+        return spentPercentage(spentAmount);
+    }
+
+    /**
+     * Percentage of this budget that {@code spent} amounts to (e.g. a previous spent value)
+     */
+    public int spentPercentage(BigDecimal spent) {
         if (totalAmount == null || totalAmount.compareTo(BigDecimal.ZERO) == 0) {
             return 0;
         }
-        if (spentAmount == null) {
+        if (spent == null) {
             return 0;
         }
-        return spentAmount.multiply(BigDecimal.valueOf(100))
+        return spent.multiply(BigDecimal.valueOf(100))
                 .divide(totalAmount, 0, java.math.RoundingMode.HALF_UP)
                 .intValue();
     }
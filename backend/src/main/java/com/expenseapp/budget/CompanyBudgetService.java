@@ -4,9 +4,10 @@ import com.expenseapp.company.Company;
 import com.expenseapp.company.CompanyMember;
 import com.expenseapp.company.CompanyMemberRepository;
 import com.expenseapp.company.CompanyRepository;
-import com.expenseapp.expense.ExpenseRepository;
+import com.expenseapp.expense.SpendQueryService;
 import com.expenseapp.notification.NotificationPublisher;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +29,7 @@ public class CompanyBudgetService {
     private final CompanyRepository companyRepository;
     private final CompanyMemberRepository companyMemberRepository;
     private final UserRepository userRepository;
-    private final ExpenseRepository expenseRepository;
+    private final SpendQueryService spendQueryService;
     private final BudgetRepository budgetRepository;
     private final NotificationPublisher notificationPublisher;
     
@@ -40,7 +41,7 @@ public class CompanyBudgetService {
         log.info("[CompanyBudgetService] Creating company budget - User: {}, CompanyId: {}, Amount: {}", 
                 userEmail, companyId, budget.getTotalAmount());
         
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Company company = companyRepository.findById(companyId)
@@ -88,7 +89,7 @@ public class CompanyBudgetService {
         log.info("[CompanyBudgetService] Updating company budget - User: {}, BudgetId: {}", 
                 userEmail, budgetId);
         
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         CompanyBudget existing = companyBudgetRepository.findById(budgetId)
@@ -145,7 +146,7 @@ public class CompanyBudgetService {
      */
     @Transactional(readOnly = true)
     public List<CompanyBudget> listCompanyBudgets(String userEmail, Long companyId) {
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Company company = companyRepository.findById(companyId)
@@ -164,7 +165,7 @@ public class CompanyBudgetService {
         log.info("[CompanyBudgetService] Extending budget - User: {}, BudgetId: {}, Additional: {}", 
                 userEmail, budgetId, additionalAmount);
         
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         CompanyBudget budget = companyBudgetRepository.findById(budgetId)
@@ -208,20 +209,30 @@ public class CompanyBudgetService {
         }
     }
     
+    /**
+     * Recalculate spent on every active company budget in one grouped query and alert on budgets that
+     * crossed their threshold since the last calculation
+     */
+    @Transactional
+    public int recalculateAllActive() {
+        java.util.Map<Long, BigDecimal> previous = spendQueryService.recalculateActiveCompanyBudgets();
+        int alerts = 0;
+        for (CompanyBudget budget : companyBudgetRepository.findAllById(previous.keySet())) {
+            if (budget.isAlertThresholdReached() && budget.spentPercentage(previous.get(budget.getId()))
+                    < budget.getAlertThresholdPercent()) {
+                sendBudgetAlert(budget);
+                alerts++;
+            }
+        }
+        log.info("[CompanyBudgetService] Recalculated active budgets - Changed: {}, Alerts: {}", previous.size(), alerts);
+        return alerts;
+    }
+    
     /**
      * Calculate total spent amount for company in period
      */
     private BigDecimal calculateSpentAmount(Long companyId, LocalDate start, LocalDate end) {
-        // Sum all expenses for company in period
-        List<Object[]> results = expenseRepository.findAll().stream()
-                .filter(e -> e.getCompanyId() != null && e.getCompanyId().equals(companyId))
-                .filter(e -> !e.getOccurredOn().isBefore(start) && !e.getOccurredOn().isAfter(end))
-                .map(e -> new Object[]{e.getAmount()})
-                .toList();
-        
-        return results.stream()
-                .map(r -> (BigDecimal) r[0])
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return spendQueryService.companySpend(companyId, start, end);
     }
     
     /**
@@ -229,23 +240,11 @@ public class CompanyBudgetService {
      */
     private void validateCategoryBudgetsWithinOverall(Long companyId, LocalDate start, LocalDate end, 
                                                       BigDecimal overallAmount) {
-        // Get all category budgets for this company and period
-        // Period format is YYYY-MM, so we need to match based on year-month
+        // Sum category budgets for this company whose YYYY-MM period falls within the range
         String startPeriod = start.getYear() + "-" + String.format("%02d", start.getMonthValue());
         String endPeriod = end.getYear() + "-" + String.format("%02d", end.getMonthValue());
         
-        List<Budget> categoryBudgets = budgetRepository.findAll().stream()
-                .filter(b -> b.getCompanyId() != null && b.getCompanyId().equals(companyId))
-                .filter(b -> {
-                    String period = b.getPeriod();
-                    // Check if period is within range
-                    return period.compareTo(startPeriod) >= 0 && period.compareTo(endPeriod) <= 0;
-                })
-                .toList();
-        
-        BigDecimal categoryTotal = categoryBudgets.stream()
-                .map(Budget::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal categoryTotal = budgetRepository.sumAmountByCompanyAndPeriodBetween(companyId, startPeriod, endPeriod);
         
         if (categoryTotal.compareTo(overallAmount) > 0) {
             throw new BudgetExceededException(
@@ -315,16 +314,14 @@ public class CompanyBudgetService {
                 budget.getTotalAmount()
         );
         
-        for (CompanyMember recipient : recipients) {
-            notificationPublisher.publish(
-                    recipient.getUser().getId(),
-                    "COMPANY_BUDGET_" + alertType,
-                    title,
-                    message,
-                    String.format("{\"type\":\"company_budget_alert\",\"budgetId\":%d,\"percentage\":%d}", 
-                            budget.getId(), budget.getSpentPercentage()),
-                    budget.getCompanyId()
-            );
-        }
+        notificationPublisher.publishAll(
+                recipients.stream().map(m -> m.getUser().getId()).toList(),
+                "COMPANY_BUDGET_" + alertType,
+                title,
+                message,
+                String.format("{\"type\":\"company_budget_alert\",\"budgetId\":%d,\"percentage\":%d}", 
+                        budget.getId(), budget.getSpentPercentage()),
+                budget.getCompanyId()
+        );
     }
 }
@@ -34,5 +34,9 @@ public interface CompanyMemberRepository extends JpaRepository<CompanyMember, Lo
     @Query("SELECT cm FROM CompanyMember cm WHERE cm.company.id = :companyId AND cm.user.id = :userId")
     Optional<CompanyMember> findByCompanyIdAndUserId(@Param("companyId") Long companyId, @Param("userId") Long userId);
     
+    // (user id, role) pairs for CompanyRoleResolver
+    @Query("SELECT cm.user.id, cm.role FROM CompanyMember cm WHERE cm.company.id = :companyId")
+    List<Object[]> findUserRolesByCompanyId(@Param("companyId") Long companyId);
+    
     long countByCompany(Company company);
 }
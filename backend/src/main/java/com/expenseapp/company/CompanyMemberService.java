@@ -3,6 +3,7 @@ package com.expenseapp.company;
 import com.expenseapp.company.dto.CompanyMemberView;
 import com.expenseapp.user.User;
 import com.expenseapp.user.Role;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import com.expenseapp.notification.NotificationPublisher;
 import com.expenseapp.email.EmailService;
@@ -25,28 +26,31 @@ public class CompanyMemberService {
     private final UserRepository userRepository;
     private final NotificationPublisher notificationPublisher;
     private final EmailService emailService;
+    private final CompanyRoleResolver roleResolver;
     
     public CompanyMemberService(CompanyMemberRepository memberRepository,
                                CompanyRepository companyRepository,
                                UserRepository userRepository,
                                NotificationPublisher notificationPublisher,
-                               EmailService emailService) {
+                               EmailService emailService,
+                               CompanyRoleResolver roleResolver) {
         this.memberRepository = memberRepository;
         this.companyRepository = companyRepository;
         this.userRepository = userRepository;
         this.notificationPublisher = notificationPublisher;
         this.emailService = emailService;
+        this.roleResolver = roleResolver;
     }
     
     @Transactional
     public CompanyMemberView inviteMember(String inviterEmail, Long companyId, String memberEmail, String role) {
-        User inviter = userRepository.findByEmail(inviterEmail).orElseThrow(() -> 
+        User inviter = RequestPrincipal.findByEmail(userRepository, inviterEmail).orElseThrow(() -> 
             new IllegalArgumentException("Inviter not found"));
         Company company = companyRepository.findById(companyId).orElseThrow(() -> 
             new IllegalArgumentException("Company not found"));
         
         // Find or create user for the invitation
-        User member = userRepository.findByEmail(memberEmail).orElseGet(() -> {
+        User member = RequestPrincipal.findByEmail(userRepository, memberEmail).orElseGet(() -> {
             // Create a placeholder user for the invitation
             User newUser = new User();
             newUser.setName(memberEmail.split("@")[0]); // Use email prefix as temporary name
@@ -86,6 +90,7 @@ public class CompanyMemberService {
         newMember.setInvitedBy(inviter);
         newMember.setInvitedAt(Instant.now());
         newMember = memberRepository.save(newMember);
+        roleResolver.invalidate(companyId);
         
         // Send notification to invited user
         String notificationTitle = "Company Invitation";
@@ -125,7 +130,7 @@ public class CompanyMemberService {
     
     @Transactional
     public CompanyMemberView acceptInvitation(String userEmail, Long companyId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         Company company = companyRepository.findById(companyId).orElseThrow(() -> 
             new IllegalArgumentException("Company not found"));
@@ -141,6 +146,7 @@ public class CompanyMemberService {
         member.setJoinedAt(Instant.now());
         member.setUpdatedAt(Instant.now());
         member = memberRepository.save(member);
+        roleResolver.invalidate(companyId);
         
         // Notify admin that invitation was accepted
         User inviter = member.getInvitedBy();
@@ -179,7 +185,7 @@ public class CompanyMemberService {
     
     @Transactional
     public void declineInvitation(String userEmail, Long companyId, String reason) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         Company company = companyRepository.findById(companyId).orElseThrow(() -> 
             new IllegalArgumentException("Company not found"));
@@ -196,6 +202,7 @@ public class CompanyMemberService {
         
         // Delete the invitation
         memberRepository.delete(member);
+        roleResolver.invalidate(companyId);
         
         // Notify admin that invitation was declined
         if (inviter != null) {
@@ -238,7 +245,7 @@ public class CompanyMemberService {
     
     @Transactional
     public void removeMember(String removerEmail, Long companyId, Long memberId) {
-        User remover = userRepository.findByEmail(removerEmail).orElseThrow(() -> 
+        User remover = RequestPrincipal.findByEmail(userRepository, removerEmail).orElseThrow(() -> 
             new IllegalArgumentException("Remover not found"));
         Company company = companyRepository.findById(companyId).orElseThrow(() -> 
             new IllegalArgumentException("Company not found"));
@@ -263,11 +270,12 @@ public class CompanyMemberService {
         }
         
         memberRepository.delete(memberToRemove);
+        roleResolver.invalidate(companyId);
     }
     
     @Transactional(readOnly = true)
     public List<CompanyMemberView> listMembers(String userEmail, Long companyId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         Company company = companyRepository.findById(companyId).orElseThrow(() -> 
             new IllegalArgumentException("Company not found"));
@@ -287,7 +295,7 @@ public class CompanyMemberService {
     
     @Transactional(readOnly = true)
     public List<CompanyMemberView> listPendingInvitations(String userEmail) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         
         return memberRepository.findAllByUserAndStatus(user, "INVITED").stream()
@@ -297,7 +305,7 @@ public class CompanyMemberService {
     
     @Transactional(readOnly = true)
     public List<Company> listUserCompanies(String userEmail) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         
         // SUPER_ADMIN and ADMIN can see all companies
@@ -312,7 +320,7 @@ public class CompanyMemberService {
     
     @Transactional(readOnly = true)
     public List<com.expenseapp.company.dto.CompanyView> listUserCompaniesView(String userEmail) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         
         // SUPER_ADMIN and ADMIN can see all companies
@@ -0,0 +1,55 @@
+package com.expenseapp.company;
+
+import com.expenseapp.util.GenerationalTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-company map of user id to membership role, loaded with one query and kept until membership changes.
+ * Like {@code findByCompanyAndUser}, it covers members in any status, so invited members resolve to their
+ * invited role. {@link CompanyMemberService} and {@link CompanyService} call {@link #invalidate} whenever
+ * they add, accept or remove a member.
+ */
+@Component
+public class CompanyRoleResolver {
+
+    private final CompanyMemberRepository memberRepository;
+    private final GenerationalTtlCache<Long, Map<Long, String>> byCompany;
+
+    public CompanyRoleResolver(CompanyMemberRepository memberRepository,
+                               @Value("${app.company.role-cache.max-companies:1000}") int maxCompanies) {
+        this.memberRepository = memberRepository;
+        this.byCompany = new GenerationalTtlCache<>(Long.MAX_VALUE, maxCompanies);
+    }
+
+    /** Role of {@code userId} in {@code companyId}, or null when they are not a member. */
+    public String roleOf(Long companyId, Long userId) {
+        if (companyId == null || userId == null) return null;
+        return rolesOf(companyId).get(userId);
+    }
+
+    /** Read-only user id to role map for one company; empty when the company has no members or does not exist. */
+    public Map<Long, String> rolesOf(Long companyId) {
+        return byCompany.get(companyId, id -> {
+            Map<Long, String> roles = new HashMap<>();
+            for (Object[] row : memberRepository.findUserRolesByCompanyId(id)) {
+                roles.put((Long) row[0], (String) row[1]);
+            }
+            return Collections.unmodifiableMap(roles);
+        });
+    }
+
+    public void invalidate(Long companyId) {
+        invalidate(List.of(companyId));
+    }
+
+    /** Drop cached roles now and again after the surrounding transaction completes. */
+    public void invalidate(List<Long> companyIds) {
+        byCompany.invalidate(companyIds);
+    }
+}
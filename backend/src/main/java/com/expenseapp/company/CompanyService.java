@@ -1,6 +1,7 @@
 package com.expenseapp.company;
 
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,14 +16,17 @@ public class CompanyService {
     private final CompanyRepository companyRepository;
     private final CompanyMemberRepository memberRepository;
     private final UserRepository userRepository;
+    private final CompanyRoleResolver roleResolver;
     
     public CompanyService(
             CompanyRepository companyRepository,
             CompanyMemberRepository memberRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            CompanyRoleResolver roleResolver) {
         this.companyRepository = companyRepository;
         this.memberRepository = memberRepository;
         this.userRepository = userRepository;
+        this.roleResolver = roleResolver;
     }
     
     /**
@@ -31,7 +35,7 @@ public class CompanyService {
      */
     @Transactional(readOnly = true)
     public List<Company> listUserCompanies(String userEmail) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         
         // SUPER_ADMIN and ADMIN can see all companies
@@ -51,7 +55,7 @@ public class CompanyService {
      */
     @Transactional(readOnly = true)
     public Company getCompany(String userEmail, Long companyId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         Company company = companyRepository.findById(companyId).orElseThrow(() -> 
             new IllegalArgumentException("Company not found"));
@@ -75,7 +79,7 @@ public class CompanyService {
      */
     @Transactional
     public Company createCompany(String userEmail, Company company) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> 
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow(() -> 
             new IllegalArgumentException("User not found"));
         
         // Check for duplicate company code
@@ -106,6 +110,7 @@ public class CompanyService {
         ownerMember.setCreatedAt(Instant.now());
         ownerMember.setUpdatedAt(Instant.now());
         memberRepository.save(ownerMember);
+        roleResolver.invalidate(savedCompany.getId());
         
         return savedCompany;
     }
@@ -1,9 +1,50 @@
 package com.expenseapp.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    public static final String IO_EXECUTOR = "ioTaskExecutor";
+
+    /**
+     * Executor for {@code @Async} work that mostly waits on I/O (OCR, provider calls). With
+     * {@code spring.threads.virtual.enabled} every task gets a virtual thread and at most {@code concurrency}
+     * run at once (further submitters block); otherwise it is a bounded platform-thread pool that runs overflow
+     * on the caller. Database access from these tasks is still bounded by the connection limiter.
+     */
+    @Bean(name = IO_EXECUTOR)
+    public AsyncTaskExecutor ioTaskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                            @Value("${app.async.io.concurrency:16}") int concurrency,
+                                            @Value("${app.async.io.queue-capacity:500}") int queueCapacity) {
+        int limit = Math.max(1, concurrency);
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("io-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(limit);
+            executor.setTaskTerminationTimeout(5_000);
+            log.info("[Async] {} on virtual threads (concurrency limit {})", IO_EXECUTOR, limit);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("io-");
+        executor.setCorePoolSize(limit);
+        executor.setMaxPoolSize(limit);
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        log.info("[Async] {} on a pool of {} platform thread(s)", IO_EXECUTOR, limit);
+        return executor;
+    }
 }
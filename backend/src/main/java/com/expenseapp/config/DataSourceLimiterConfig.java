@@ -0,0 +1,40 @@
+package com.expenseapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application {@link DataSource} in a {@link ConcurrencyLimitedDataSource} when
+ * {@code app.datasource.limiter.enabled} is set (by default together with virtual threads). With request
+ * handling on virtual threads the number of concurrent callers is no longer bounded by Tomcat's pool, while
+ * prod runs Hikari with only five connections.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.limiter", name = "enabled", havingValue = "true")
+public class DataSourceLimiterConfig {
+    private static final Logger log = LoggerFactory.getLogger(DataSourceLimiterConfig.class);
+
+    // Static so the post-processor is registered without instantiating this configuration early
+    @Bean
+    public static BeanPostProcessor dataSourceLimiterPostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                int permits = env.getProperty("app.datasource.limiter.permits", Integer.class, 10);
+                long timeoutMs = env.getProperty("app.datasource.limiter.acquire-timeout-ms", Long.class, 30_000L);
+                log.info("[DataSource] Limiting '{}' to {} concurrent connection(s), waiting up to {}ms", beanName, permits, timeoutMs);
+                return new ConcurrencyLimitedDataSource(dataSource, permits, timeoutMs);
+            }
+        };
+    }
+}
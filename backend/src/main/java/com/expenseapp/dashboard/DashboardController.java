@@ -61,6 +61,11 @@ public class DashboardController {
             DashboardSummary result = dashboardService.getSummary(email, from, to, base, normalizedCompanyId);
             return ResponseEntity.ok(result);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
                 "status", "error",
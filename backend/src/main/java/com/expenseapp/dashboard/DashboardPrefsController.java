@@ -2,6 +2,7 @@ package com.expenseapp.dashboard;
 
 import com.expenseapp.dashboard.dto.DashboardPrefsDto;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -44,6 +45,6 @@ public class DashboardPrefsController {
     private User currentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = ((UserDetails) auth.getPrincipal()).getUsername();
-        return userRepository.findByEmail(email).orElseThrow();
+        return RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
     }
 }
@@ -0,0 +1,85 @@
+package com.expenseapp.expense;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma-separated fields, double-quoted fields with {@code ""} escapes and
+ * embedded separators or line breaks, LF or CRLF record ends. Reads one record at a time, so memory use is
+ * bounded by the longest record (capped at {@code maxRecordChars}) rather than the file.
+ */
+class CsvReader {
+
+    private static final int BUFFER = 64 * 1024;
+
+    private final Reader in;
+    private final int maxRecordChars;
+    private final char[] buf = new char[BUFFER];
+    private int pos;
+    private int len;
+    private long line = 1;
+
+    CsvReader(Reader in, int maxRecordChars) {
+        this.in = in;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /** Next record, or null at end of input. A blank line yields a single empty field. */
+    List<String> next() throws IOException {
+        if (!fill()) return null;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean afterQuote = false;
+        int recordChars = 0;
+        while (fill()) {
+            char c = buf[pos++];
+            if (++recordChars > maxRecordChars) {
+                throw new IOException("Record starting near line " + line + " exceeds " + maxRecordChars + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (fill() && buf[pos] == '"') {
+                        field.append('"');
+                        pos++;
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append(c);
+                }
+                continue;
+            }
+            if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c == '\r') {
+                if (fill() && buf[pos] == '\n') pos++;
+                line++;
+                break;
+            } else if (c == '"' && field.isEmpty() && !afterQuote) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IOException("Unterminated quoted field before line " + line);
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < len) return true;
+        len = in.read(buf, 0, buf.length);
+        pos = 0;
+        return len > 0;
+    }
+}
@@ -88,6 +88,9 @@ public class Expense {
     @Column(name = "reimbursement_notes")
     private String reimbursementNotes;
 
+    @Column(name = "fx_pending", nullable = false)
+    private boolean fxPending = false; // no stored FX rate yet; cleared by PendingFxRates
+
     public Long getId() { return id; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
@@ -132,4 +135,6 @@ public class Expense {
     public void setReimbursementPaidAt(Instant reimbursementPaidAt) { this.reimbursementPaidAt = reimbursementPaidAt; }
     public String getReimbursementNotes() { return reimbursementNotes; }
     public void setReimbursementNotes(String reimbursementNotes) { this.reimbursementNotes = reimbursementNotes; }
+    public boolean isFxPending() { return fxPending; }
+    public void setFxPending(boolean fxPending) { this.fxPending = fxPending; }
 }
@@ -1,19 +1,23 @@
 package com.expenseapp.expense;
 
 import com.expenseapp.expense.dto.ExpenseCreateRequest;
+import com.expenseapp.expense.dto.ExpensePageView;
 import com.expenseapp.expense.dto.ExpenseUpdateRequest;
 import com.expenseapp.expense.dto.ExpenseView;
 import com.expenseapp.expense.dto.ReceiptView;
+import com.expenseapp.search.SearchPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -25,10 +29,12 @@ import java.util.Map;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseExportWriter exportWriter;
     private static final Logger log = LoggerFactory.getLogger(ExpenseController.class);
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, ExpenseExportWriter exportWriter) {
         this.expenseService = expenseService;
+        this.exportWriter = exportWriter;
     }
 
     @PostMapping
@@ -68,6 +74,37 @@ public class ExpenseController {
         return ResponseEntity.ok(expenseService.list(email, from, to, coId));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<ExpensePageView> listPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-Company-Id", required = false) Long companyId,
+            @RequestParam(value = "companyId", required = false) Long companyIdParam,
+            @RequestParam(value = "company_id", required = false) Long companyIdSnake
+    ) {
+        String email = currentEmail();
+        Long coId = companyId != null ? companyId : (companyIdParam != null ? companyIdParam : companyIdSnake);
+        return ResponseEntity.ok(expenseService.listPage(email, from, to, coId, cursor, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "X-Company-Id", required = false) Long companyId,
+            @RequestParam(value = "companyId", required = false) Long companyIdParam,
+            @RequestParam(value = "company_id", required = false) Long companyIdSnake
+    ) {
+        // Resolve the caller on the request thread; the body is written later on an async thread
+        String email = currentEmail();
+        Long coId = companyId != null ? companyId : (companyIdParam != null ? companyIdParam : companyIdSnake);
+        log.info("[Expenses] export() email={}, coId={}, from={}, to={}", email, coId, from, to);
+        StreamingResponseBody body = out -> exportWriter.write(email, from, to, coId, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ExpenseView> get(
             @PathVariable Long id,
@@ -126,6 +163,10 @@ public class ExpenseController {
         return ResponseEntity.ok(Map.of("success", true, "message", "Expense linked to group successfully"));
     }
     
+    /**
+     * Up to 1000 matches. When there are more, the response carries {@link SearchPage#TRUNCATED_HEADER} and the
+     * {@link SearchPage#NEXT_CURSOR_HEADER} to continue with in {@code /search/page}.
+     */
     @GetMapping("/search")
     public ResponseEntity<List<ExpenseView>> searchExpenses(
             @RequestParam(required = false) Long categoryId,
@@ -142,9 +183,38 @@ public class ExpenseController {
         String email = auth.getName();
         Long coId = (companyId != null && companyId > 0) ? companyId : null;
         
-        return ResponseEntity.ok(expenseService.searchExpenses(
+        ExpensePageView page = expenseService.searchExpenses(
                 email, coId, categoryId, currency, merchant, description,
                 minAmount, maxAmount, startDate, endDate
+        );
+        if (!page.isHasMore()) return ResponseEntity.ok(page.getItems());
+        ResponseEntity.BodyBuilder truncated = ResponseEntity.ok().header(SearchPage.TRUNCATED_HEADER, "true");
+        if (page.getNextCursor() != null) truncated.header(SearchPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        return truncated.body(page.getItems());
+    }
+
+    @GetMapping("/search/page")
+    public ResponseEntity<ExpensePageView> searchExpensesPage(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String merchant,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) java.math.BigDecimal minAmount,
+            @RequestParam(required = false) java.math.BigDecimal maxAmount,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-Company-Id", required = false) Long companyId,
+            Authentication auth) {
+
+        String email = auth.getName();
+        Long coId = (companyId != null && companyId > 0) ? companyId : null;
+
+        return ResponseEntity.ok(expenseService.searchPage(
+                email, coId, categoryId, currency, merchant, description, q,
+                minAmount, maxAmount, startDate, endDate, cursor, limit
         ));
     }
 
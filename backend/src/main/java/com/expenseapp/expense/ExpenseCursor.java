@@ -0,0 +1,50 @@
+package com.expenseapp.expense;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for expense listings ordered by (occurredOn DESC, id DESC).
+ * Encoded as URL-safe base64 of "yyyy-MM-dd:id" so clients treat it as a token.
+ */
+final class ExpenseCursor {
+
+    private final LocalDate occurredOn;
+    private final long id;
+
+    ExpenseCursor(LocalDate occurredOn, long id) {
+        this.occurredOn = occurredOn;
+        this.id = id;
+    }
+
+    /** Cursor positioned just past the newest possible row in a window ending at {@code to}. */
+    static ExpenseCursor start(LocalDate to) {
+        return new ExpenseCursor(to.plusDays(1), Long.MAX_VALUE);
+    }
+
+    static ExpenseCursor after(Expense e) {
+        return new ExpenseCursor(e.getOccurredOn(), e.getId());
+    }
+
+    static ExpenseCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new ExpenseCursor(LocalDate.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = occurredOn + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDate getOccurredOn() { return occurredOn; }
+    long getId() { return id; }
+}
@@ -0,0 +1,50 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.expense.dto.ExpensePageView;
+import com.expenseapp.expense.dto.ExpenseView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Streams an expense listing as a JSON array by walking keyset pages. Each page is loaded in its own
+ * read-only transaction and written before the next is fetched, so heap use stays at one page no
+ * matter how large the ledger is.
+ */
+@Component
+public class ExpenseExportWriter {
+
+    private final ExpenseService expenseService;
+    private final ObjectMapper objectMapper;
+    private static final Logger log = LoggerFactory.getLogger(ExpenseExportWriter.class);
+
+    public ExpenseExportWriter(ExpenseService expenseService, ObjectMapper objectMapper) {
+        this.expenseService = expenseService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(String email, LocalDate from, LocalDate to, Long companyId, OutputStream out) throws IOException {
+        int written = 0;
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            String cursor = null;
+            do {
+                ExpensePageView page = expenseService.listPage(email, from, to, companyId, cursor, ExpenseService.MAX_PAGE_SIZE);
+                for (ExpenseView v : page.getItems()) {
+                    objectMapper.writeValue(gen, v);
+                    written++;
+                }
+                gen.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            gen.writeEndArray();
+        }
+        log.info("[Expenses] export streamed {} items for email={}, companyId={}", written, email, companyId);
+    }
+}
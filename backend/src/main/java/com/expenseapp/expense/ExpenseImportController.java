@@ -0,0 +1,107 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.expense.dto.ExpenseImportView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk CSV import. The file is either the raw request body ({@code text/csv}) or a multipart {@code file} part;
+ * both are read as a stream, but multipart uploads are subject to {@code spring.servlet.multipart.max-file-size}, so
+ * large statements should be sent as the body. To resume a failed import, upload the same file again with
+ * {@code resumeImportId}.
+ */
+@RestController
+@RequestMapping("/api/v1/expenses/imports")
+public class ExpenseImportController {
+
+    private final ExpenseImportService importService;
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportController.class);
+
+    public ExpenseImportController(ExpenseImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ExpenseImportView> importBody(
+            InputStream body,
+            @RequestParam(value = "fileName", required = false) String fileName,
+            @RequestParam(value = "resumeImportId", required = false) Long resumeImportId,
+            @RequestParam(value = "dateFormat", required = false) String dateFormat,
+            @RequestParam(value = "currency", required = false) String currency,
+            @RequestHeader(value = "X-Company-Id", required = false) Long companyId,
+            @RequestParam(value = "companyId", required = false) Long companyIdParam,
+            @RequestParam(value = "company_id", required = false) Long companyIdSnake
+    ) {
+        String email = requireEmail();
+        Long coId = companyId != null ? companyId : (companyIdParam != null ? companyIdParam : companyIdSnake);
+        log.info("[Expenses] Import upload email={}, companyId={}, fileName={}, resumeImportId={}", email, coId, fileName, resumeImportId);
+        return ResponseEntity.ok(importService.importCsv(email, coId, fileName, body, resumeImportId, dateFormat, currency));
+    }
+
+    @PostMapping(consumes = {"multipart/form-data"})
+    public ResponseEntity<ExpenseImportView> importFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "resumeImportId", required = false) Long resumeImportId,
+            @RequestParam(value = "dateFormat", required = false) String dateFormat,
+            @RequestParam(value = "currency", required = false) String currency,
+            @RequestHeader(value = "X-Company-Id", required = false) Long companyId,
+            @RequestParam(value = "companyId", required = false) Long companyIdParam,
+            @RequestParam(value = "company_id", required = false) Long companyIdSnake
+    ) throws IOException {
+        String email = requireEmail();
+        Long coId = companyId != null ? companyId : (companyIdParam != null ? companyIdParam : companyIdSnake);
+        log.info("[Expenses] Import upload email={}, companyId={}, fileName={}, size={}, resumeImportId={}",
+                email, coId, file.getOriginalFilename(), file.getSize(), resumeImportId);
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(importService.importCsv(email, coId, file.getOriginalFilename(), in, resumeImportId, dateFormat, currency));
+        }
+    }
+
+    /** Progress of an import (readable while it runs), with a page of row errors after {@code afterRow}. */
+    @GetMapping("/{id}")
+    public ResponseEntity<ExpenseImportView> get(
+            @PathVariable Long id,
+            @RequestParam(value = "afterRow", defaultValue = "0") int afterRow,
+            @RequestParam(value = "errors", defaultValue = "100") int errors
+    ) {
+        String email = requireEmail();
+        return ResponseEntity.ok(importService.get(email, id, afterRow, errors));
+    }
+
+    private String requireEmail() {
+        String email = currentEmail();
+        if (email == null || email.isBlank()) {
+            throw new org.springframework.web.server.ResponseStatusException(org.springframework.http.HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        return email;
+    }
+
+    private String currentEmail() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = auth != null ? auth.getPrincipal() : null;
+        if (principal instanceof UserDetails) {
+            String u = ((UserDetails) principal).getUsername();
+            return u != null ? u.toLowerCase() : null;
+        }
+        if (principal instanceof String) {
+            String name = (String) principal;
+            if (name != null && !name.equalsIgnoreCase("anonymousUser") && !name.isBlank()) {
+                return name.toLowerCase();
+            }
+        }
+        String n = auth != null ? auth.getName() : null;
+        if (n != null && !n.equalsIgnoreCase("anonymousUser") && !n.isBlank()) {
+            return n.toLowerCase();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,546 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.company.CompanyRepository;
+import com.expenseapp.company.CompanyRoleResolver;
+import com.expenseapp.expense.dto.ExpenseImportView;
+import com.expenseapp.fx.FXRateTable;
+import com.expenseapp.fx.FXService;
+import com.expenseapp.security.RequestPrincipal;
+import com.expenseapp.user.Role;
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk CSV import (bank statements, historical data). The file is parsed as a stream and handled in chunks of
+ * {@code app.expenses.import.chunk-size} rows: each chunk resolves categories, users and FX rates with a handful
+ * of set queries, then inserts its expenses, rollup credits, row errors and the import's checkpoint in one
+ * transaction using JDBC batches. A failed import keeps everything up to its last committed chunk; uploading the
+ * same file again with its id resumes after {@code checkpoint_row}. Each upload holds the import under its own
+ * {@code lease_owner} token, and every checkpoint and final status is conditional on it, so an upload whose lease
+ * was taken over stops at its next chunk instead of writing rows the new owner writes too.
+ * <p>
+ * Rows are plain expenses: no groups, split shares or receipts. Expenses whose FX rate is not stored yet are
+ * saved {@code fx_pending} and their currencies are backfilled by date range once the import finishes.
+ */
+@Service
+public class ExpenseImportService {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportService.class);
+
+    static final String COMPLETED = "COMPLETED";
+
+    private static final String INSERT_EXPENSE_SQL = """
+        INSERT INTO expenses (user_id, company_id, category_id, amount, currency, occurred_on, description, notes,
+                              merchant, is_reimbursable, fx_pending, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_ERROR_SQL =
+            "INSERT INTO expense_import_errors (import_id, row_number, message) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String CHECKPOINT_SQL = """
+        UPDATE expense_imports SET checkpoint_row = ?, rows_imported = rows_imported + ?,
+               rows_failed = rows_failed + ?, updated_at = NOW()
+        WHERE id = ? AND lease_owner = ?
+        """;
+
+    private static final String SELECT_IMPORT_SQL = """
+        SELECT id, user_id, company_id, file_name, header, status, checkpoint_row, rows_imported, rows_failed,
+               error_message, created_at, updated_at, completed_at
+        FROM expense_imports WHERE id = ?
+        """;
+
+    private static final int MAX_MERCHANT = 200;
+    private static final int MAX_ERROR_PAGE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final CompanyRoleResolver companyRoleResolver;
+    private final CompanyRepository companyRepository;
+    private final FXService fxService;
+    private final ExpenseRollupService rollupService;
+    private final PendingFxRates pendingFxRates;
+    private final int chunkSize;
+    private final int maxRecordChars;
+    private final long leaseSeconds;
+
+    public ExpenseImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                UserRepository userRepository, CategoryRepository categoryRepository,
+                                CompanyRoleResolver companyRoleResolver, CompanyRepository companyRepository,
+                                FXService fxService, ExpenseRollupService rollupService, PendingFxRates pendingFxRates,
+                                @Value("${app.expenses.import.chunk-size:1000}") int chunkSize,
+                                @Value("${app.expenses.import.max-record-chars:65536}") int maxRecordChars,
+                                @Value("${app.expenses.import.lease-seconds:300}") long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.companyRoleResolver = companyRoleResolver;
+        this.companyRepository = companyRepository;
+        this.fxService = fxService;
+        this.rollupService = rollupService;
+        this.pendingFxRates = pendingFxRates;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRecordChars = Math.max(1024, maxRecordChars);
+        this.leaseSeconds = Math.max(1, leaseSeconds);
+    }
+
+    /**
+     * Import {@code in} for the caller, into {@code companyId} when given. With {@code resumeImportId} the file must
+     * be the one that import started with (same header); rows up to its checkpoint are skipped. Returns the import's
+     * final state: COMPLETED, or FAILED with the reason when the file could not be read to the end.
+     */
+    public ExpenseImportView importCsv(String email, Long companyId, String fileName, InputStream in,
+                                       Long resumeImportId, String dateFormat, String defaultCurrency) {
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        Long coId = (companyId != null && companyId > 0) ? companyId : null;
+        boolean importForOthers = checkCompanyAccess(user, coId);
+        DateTimeFormatter dates = dateFormatter(dateFormat);
+        String fallbackCurrency = defaultCurrency != null && !defaultCurrency.isBlank()
+                ? defaultCurrency.trim().toUpperCase(Locale.ROOT) : fxService.getBaseCurrency();
+
+        CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxRecordChars);
+        List<String> header;
+        try {
+            header = reader.next();
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unreadable CSV header: " + e.getMessage());
+        }
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+        }
+        Columns columns = Columns.of(header);
+        String headerLine = String.join(",", header);
+
+        UUID leaseOwner = UUID.randomUUID();
+        long importId;
+        int checkpoint;
+        if (resumeImportId != null) {
+            checkpoint = claim(user, coId, resumeImportId, headerLine, leaseOwner);
+            importId = resumeImportId;
+        } else {
+            importId = jdbcTemplate.queryForObject("""
+                INSERT INTO expense_imports (user_id, company_id, file_name, header, status, lease_owner)
+                VALUES (?, ?, ?, ?, 'RUNNING', ?) RETURNING id
+                """, Long.class, user.getId(), coId, truncate(fileName, 255), headerLine, leaseOwner);
+            checkpoint = 0;
+        }
+        log.info("[Expenses] Import {} started by user {} (companyId={}, file={}, resumeAfterRow={})",
+                importId, user.getId(), coId, fileName, checkpoint);
+
+        Chunk chunk = new Chunk(importId, leaseOwner, user, coId, importForOthers, columns, dates, fallbackCurrency,
+                loadCategories(coId), coId != null ? companyRoleResolver.rolesOf(coId) : Map.of());
+        long started = System.nanoTime();
+        int row = 0;
+        try {
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                row++;
+                if (row <= checkpoint) continue;
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                chunk.add(row, fields);
+                if (chunk.size() >= chunkSize) chunk.flush(row);
+            }
+            chunk.flush(row);
+        } catch (LeaseLostException e) {
+            log.warn("[Expenses] Import {} was taken over by another upload near data row {}; stopping", importId, row);
+            pendingFxRates.backfillAfterCommit(chunk.pendingRanges);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import was taken over by another upload");
+        } catch (IOException | RuntimeException e) {
+            // Rows of the chunk being built were not written; the checkpoint still points at the last commit
+            String message = e instanceof IOException ? "Malformed CSV: " + e.getMessage() : "Import failed: " + e.getMessage();
+            log.error("[Expenses] Import {} failed near data row {}: {}", importId, row, e.toString());
+            jdbcTemplate.update("UPDATE expense_imports SET status = 'FAILED', error_message = ?, updated_at = NOW() WHERE id = ? AND lease_owner = ?",
+                    truncate(message, 2000), importId, leaseOwner);
+            pendingFxRates.backfillAfterCommit(chunk.pendingRanges);
+            return view(importId);
+        }
+        int completed = jdbcTemplate.update("UPDATE expense_imports SET status = 'COMPLETED', completed_at = NOW(), updated_at = NOW() WHERE id = ? AND lease_owner = ?",
+                importId, leaseOwner);
+        pendingFxRates.backfillAfterCommit(chunk.pendingRanges);
+        if (completed == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import was taken over by another upload");
+        }
+        long ms = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("[Expenses] Import {} completed: {} row(s) imported, {} failed in {} ms ({} rows/min)",
+                importId, chunk.imported, chunk.failed, ms, (chunk.imported + chunk.failed) * 60_000L / ms);
+        return view(importId);
+    }
+
+    /** Progress of one of the caller's imports, with up to {@code errorLimit} row errors after {@code afterRow}. */
+    public ExpenseImportView get(String email, Long importId, int afterRow, int errorLimit) {
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        ExpenseImportView view = view(importId);
+        Long ownerId = jdbcTemplate.queryForObject("SELECT user_id FROM expense_imports WHERE id = ?", Long.class, importId);
+        if (!user.getId().equals(ownerId) && user.getRole() != Role.SUPER_ADMIN) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found");
+        }
+        int limit = Math.max(0, Math.min(errorLimit, MAX_ERROR_PAGE));
+        if (limit > 0) {
+            view.setErrors(jdbcTemplate.query("""
+                SELECT row_number, message FROM expense_import_errors
+                WHERE import_id = ? AND row_number > ? ORDER BY row_number LIMIT ?
+                """, (rs, i) -> new ExpenseImportView.RowError(rs.getInt(1), rs.getString(2)), importId, afterRow, limit));
+        }
+        return view;
+    }
+
+    private ExpenseImportView view(long importId) {
+        List<ExpenseImportView> rows = jdbcTemplate.query(SELECT_IMPORT_SQL, (rs, i) -> new ExpenseImportView(
+                rs.getLong("id"), rs.getString("status"), rs.getString("file_name"),
+                rs.getObject("company_id", Long.class), rs.getInt("checkpoint_row"),
+                rs.getInt("rows_imported"), rs.getInt("rows_failed"), rs.getString("error_message"),
+                instant(rs.getTimestamp("created_at")), instant(rs.getTimestamp("updated_at")),
+                instant(rs.getTimestamp("completed_at"))), importId);
+        if (rows.isEmpty()) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found");
+        return rows.get(0);
+    }
+
+    /** Whether the caller may import rows for other members; throws when they may not import into the company at all. */
+    private boolean checkCompanyAccess(User user, Long coId) {
+        if (coId == null) return false;
+        if (user.getRole() == Role.SUPER_ADMIN) return true;
+        String role = companyRoleResolver.roleOf(coId, user.getId());
+        if (role == null) {
+            if (!companyRepository.existsById(coId)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Company not found");
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a member of this company");
+        }
+        return "ADMIN".equals(role);
+    }
+
+    /**
+     * Take over a previous import of the same file for {@code leaseOwner} and return its checkpoint. Only one upload
+     * works on an import at a time: a RUNNING import is taken over only once it has made no progress for
+     * {@code lease-seconds}, and the previous upload's writes stop matching from then on.
+     */
+    private int claim(User user, Long coId, long importId, String headerLine, UUID leaseOwner) {
+        List<Object[]> rows = jdbcTemplate.query("SELECT user_id, company_id, header, status FROM expense_imports WHERE id = ?",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3), rs.getString(4)}, importId);
+        if (rows.isEmpty() || !user.getId().equals(rows.get(0)[0])) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found");
+        }
+        Object[] existing = rows.get(0);
+        if (COMPLETED.equals(existing[3])) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import already completed");
+        }
+        if (!java.util.Objects.equals(existing[1], coId) || !headerLine.equals(existing[2])) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File or company does not match the import being resumed");
+        }
+        List<Integer> claimed = jdbcTemplate.query("""
+            UPDATE expense_imports SET status = 'RUNNING', lease_owner = ?, error_message = NULL, updated_at = NOW()
+            WHERE id = ? AND (status <> 'RUNNING' OR updated_at < NOW() - make_interval(secs => ?))
+            RETURNING checkpoint_row
+            """, (rs, i) -> rs.getInt(1), leaseOwner, importId, leaseSeconds);
+        if (claimed.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import is still running");
+        }
+        return claimed.get(0);
+    }
+
+    private Categories loadCategories(Long coId) {
+        List<Category> all = coId != null ? categoryRepository.findByCompanyIdIsNullOrCompanyId(coId)
+                : categoryRepository.findByCompanyIdIsNull();
+        Categories c = new Categories();
+        for (Category cat : all) {
+            c.ids.add(cat.getId());
+            if (cat.getName() == null) continue;
+            String key = cat.getName().trim().toLowerCase(Locale.ROOT);
+            // A company's own category wins over a global one with the same name
+            if (cat.getCompanyId() != null || !c.byName.containsKey(key)) c.byName.put(key, cat.getId());
+        }
+        return c;
+    }
+
+    private static DateTimeFormatter dateFormatter(String pattern) {
+        if (pattern == null || pattern.isBlank()) return DateTimeFormatter.ISO_LOCAL_DATE;
+        try {
+            return DateTimeFormatter.ofPattern(pattern.trim(), Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format: " + pattern);
+        }
+    }
+
+    private static Instant instant(Timestamp ts) {
+        return ts != null ? ts.toInstant() : null;
+    }
+
+    private static String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+
+    /** The import's lease moved to another upload; nothing of the current chunk was written. */
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException(long importId) {
+            super("Lease on import " + importId + " lost");
+        }
+    }
+
+    private static final class Categories {
+        final Set<Long> ids = new HashSet<>();
+        final Map<String, Long> byName = new HashMap<>();
+    }
+
+    /** Header positions of the recognised columns (-1 when absent). Names are matched case-insensitively. */
+    static final class Columns {
+        int date = -1, amount = -1, currency = -1, description = -1, merchant = -1, notes = -1,
+                category = -1, reimbursable = -1, email = -1;
+
+        static Columns of(List<String> header) {
+            Columns c = new Columns();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+                switch (name) {
+                    case "date", "occurred_on", "transaction_date" -> c.date = first(c.date, i);
+                    case "amount", "debit" -> c.amount = first(c.amount, i);
+                    case "currency" -> c.currency = first(c.currency, i);
+                    case "description" -> c.description = first(c.description, i);
+                    case "merchant", "payee" -> c.merchant = first(c.merchant, i);
+                    case "notes", "memo" -> c.notes = first(c.notes, i);
+                    case "category", "category_id" -> c.category = first(c.category, i);
+                    case "reimbursable" -> c.reimbursable = first(c.reimbursable, i);
+                    case "email", "user_email" -> c.email = first(c.email, i);
+                    default -> { }
+                }
+            }
+            if (c.date < 0 || c.amount < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header needs a date and an amount column");
+            }
+            return c;
+        }
+
+        private static int first(int current, int i) {
+            return current >= 0 ? current : i;
+        }
+    }
+
+    /** One validated row, ready to insert. */
+    private static final class Parsed {
+        int row;
+        long userId;
+        Long categoryId;
+        BigDecimal amount;
+        String currency;
+        LocalDate date;
+        String description;
+        String notes;
+        String merchant;
+        boolean reimbursable;
+        String email;
+    }
+
+    /** Rows collected since the last flush, plus the import's running totals. */
+    private final class Chunk {
+        final long importId;
+        final UUID leaseOwner;
+        final User user;
+        final Long coId;
+        final boolean importForOthers;
+        final Columns columns;
+        final DateTimeFormatter dates;
+        final String fallbackCurrency;
+        final Categories categories;
+        final Map<Long, String> members;
+        final Map<String, LocalDate[]> pendingRanges = new HashMap<>();
+        final List<Parsed> rows = new ArrayList<>();
+        final List<Object[]> errors = new ArrayList<>();
+        int imported;
+        int failed;
+
+        Chunk(long importId, UUID leaseOwner, User user, Long coId, boolean importForOthers, Columns columns,
+              DateTimeFormatter dates, String fallbackCurrency, Categories categories, Map<Long, String> members) {
+            this.importId = importId; this.leaseOwner = leaseOwner; this.user = user; this.coId = coId; this.importForOthers = importForOthers;
+            this.columns = columns; this.dates = dates; this.fallbackCurrency = fallbackCurrency;
+            this.categories = categories; this.members = members;
+        }
+
+        int size() {
+            return rows.size() + errors.size();
+        }
+
+        void add(int row, List<String> fields) {
+            try {
+                rows.add(parse(row, fields));
+            } catch (IllegalArgumentException e) {
+                errors.add(new Object[]{importId, row, e.getMessage()});
+            }
+        }
+
+        private Parsed parse(int row, List<String> f) {
+            Parsed p = new Parsed();
+            p.row = row;
+            p.userId = user.getId();
+            String rawDate = field(f, columns.date);
+            if (rawDate == null) throw new IllegalArgumentException("Missing date");
+            try {
+                p.date = LocalDate.parse(rawDate, dates);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date '" + rawDate + "'");
+            }
+            String rawAmount = field(f, columns.amount);
+            if (rawAmount == null) throw new IllegalArgumentException("Missing amount");
+            try {
+                // Statements often use grouping separators
+                p.amount = new BigDecimal(rawAmount.replace(",", "").replace(" ", "")).setScale(2, RoundingMode.HALF_UP);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount '" + rawAmount + "'");
+            }
+            if (p.amount.signum() == 0) throw new IllegalArgumentException("Amount must not be zero");
+            // Credits, refunds and deposits are not expenses; importing their absolute value would inflate spend
+            if (p.amount.signum() < 0) throw new IllegalArgumentException("Negative amount '" + rawAmount + "' (credit or refund) is not imported");
+            if (p.amount.precision() - p.amount.scale() > 12) throw new IllegalArgumentException("Amount too large");
+            String currency = field(f, columns.currency);
+            p.currency = currency != null ? currency.toUpperCase(Locale.ROOT) : fallbackCurrency;
+            if (!p.currency.matches("[A-Z]{3}")) throw new IllegalArgumentException("Invalid currency '" + currency + "'");
+            String category = field(f, columns.category);
+            if (category != null) {
+                Long id = categories.byName.get(category.toLowerCase(Locale.ROOT));
+                if (id == null && category.chars().allMatch(Character::isDigit) && category.length() < 19
+                        && categories.ids.contains(Long.parseLong(category))) {
+                    id = Long.parseLong(category);
+                }
+                if (id == null) throw new IllegalArgumentException("Unknown category '" + category + "'");
+                p.categoryId = id;
+            }
+            String email = field(f, columns.email);
+            if (email != null && !email.equalsIgnoreCase(user.getEmail())) {
+                if (!importForOthers) throw new IllegalArgumentException("Not allowed to import expenses for " + email);
+                p.email = email.toLowerCase(Locale.ROOT);
+            }
+            p.description = field(f, columns.description);
+            p.notes = field(f, columns.notes);
+            p.merchant = truncate(field(f, columns.merchant), MAX_MERCHANT);
+            String reimbursable = field(f, columns.reimbursable);
+            p.reimbursable = reimbursable != null && switch (reimbursable.toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "y", "1" -> true;
+                default -> false;
+            };
+            return p;
+        }
+
+        /** Write the collected rows and advance the checkpoint to {@code lastRow}, all in one transaction. */
+        void flush(int lastRow) {
+            if (rows.isEmpty() && errors.isEmpty()) return;
+            List<Parsed> valid = resolveUsers();
+            FXRateTable rates = rateTable(valid);
+            List<Object[]> inserts = new ArrayList<>(valid.size());
+            List<ExpenseRollupService.Entry> credits = new ArrayList<>(valid.size());
+            Timestamp now = Timestamp.from(Instant.now());
+            for (Parsed p : valid) {
+                boolean pending = !rates.hasRate(p.date, p.currency);
+                if (pending) {
+                    pendingRanges.merge(p.currency, new LocalDate[]{p.date, p.date}, (a, b) -> new LocalDate[]{
+                            a[0].isBefore(b[0]) ? a[0] : b[0], a[1].isAfter(b[1]) ? a[1] : b[1]});
+                }
+                inserts.add(new Object[]{p.userId, coId, p.categoryId, p.amount, p.currency, Date.valueOf(p.date),
+                        p.description, p.notes, p.merchant, p.reimbursable, pending, now});
+                credits.add(new ExpenseRollupService.Entry(p.userId, p.date, p.categoryId != null ? p.categoryId : 0L,
+                        coId != null ? coId : 0L, 0L, p.currency, p.amount));
+            }
+            int[] types = {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.NUMERIC, Types.VARCHAR, Types.DATE,
+                    Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.BOOLEAN, Types.TIMESTAMP};
+            transactionTemplate.executeWithoutResult(s -> {
+                // Fenced first: when another upload holds the lease the transaction rolls back before any insert
+                if (jdbcTemplate.update(CHECKPOINT_SQL, lastRow, inserts.size(), errors.size(), importId, leaseOwner) == 0) {
+                    throw new LeaseLostException(importId);
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_EXPENSE_SQL, inserts, types);
+                    rollupService.addAll(credits);
+                }
+                if (!errors.isEmpty()) jdbcTemplate.batchUpdate(INSERT_ERROR_SQL, errors);
+            });
+            imported += inserts.size();
+            failed += errors.size();
+            log.debug("[Expenses] Import {} committed through row {} ({} imported, {} failed so far)", importId, lastRow, imported, failed);
+            rows.clear();
+            errors.clear();
+        }
+
+        /**
+         * Map the chunk's other-member emails to user ids with one query; rows for unknown users or non-members become
+         * errors. Emails are compared lower-cased on both sides, as stored addresses may carry the case they were
+         * registered with.
+         */
+        private List<Parsed> resolveUsers() {
+            Set<String> emails = new HashSet<>();
+            for (Parsed p : rows) if (p.email != null) emails.add(p.email);
+            if (emails.isEmpty()) return rows;
+            Map<String, Long> ids = new HashMap<>();
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement("SELECT email, id FROM users WHERE lower(email) = ANY(?)");
+                Array arr = con.createArrayOf("varchar", emails.toArray());
+                ps.setArray(1, arr);
+                return ps;
+            }, rs -> {
+                ids.put(rs.getString(1).toLowerCase(Locale.ROOT), rs.getLong(2));
+            });
+            List<Parsed> valid = new ArrayList<>(rows.size());
+            for (Parsed p : rows) {
+                if (p.email != null) {
+                    Long id = ids.get(p.email);
+                    if (id == null || !members.containsKey(id)) {
+                        errors.add(new Object[]{importId, p.row, "No company member with email " + p.email});
+                        continue;
+                    }
+                    p.userId = id;
+                }
+                valid.add(p);
+            }
+            return valid;
+        }
+
+        private FXRateTable rateTable(List<Parsed> valid) {
+            Set<String> currencies = new HashSet<>();
+            LocalDate from = null, to = null;
+            for (Parsed p : valid) {
+                if (p.currency.equalsIgnoreCase(fxService.getBaseCurrency())) continue;
+                currencies.add(p.currency);
+                if (from == null || p.date.isBefore(from)) from = p.date;
+                if (to == null || p.date.isAfter(to)) to = p.date;
+            }
+            return currencies.isEmpty() ? new FXRateTable(fxService.getBaseCurrency(), Map.of())
+                    : fxService.rateTable(currencies, from, to);
+        }
+
+        private String field(List<String> f, int index) {
+            if (index < 0 || index >= f.size()) return null;
+            String v = f.get(index).trim();
+            return v.isEmpty() ? null : v;
+        }
+    }
+}
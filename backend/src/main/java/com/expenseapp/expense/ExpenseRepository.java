@@ -1,5 +1,6 @@
 package com.expenseapp.expense;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,13 +10,15 @@ import java.util.List;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
-    @Query(value = "SELECT COALESCE(SUM(e.amount),0) FROM expenses e WHERE e.user_id = :userId AND e.occurred_on BETWEEN :from AND :to", nativeQuery = true)
+    // Spend aggregates read expense_daily_rollups (V63, kept current by ExpenseRollupService);
+    // category_id = 0 in the rollup means uncategorized and yields a NULL c.id below.
+    @Query(value = "SELECT COALESCE(SUM(r.amount),0) FROM expense_daily_rollups r WHERE r.user_id = :userId AND r.day BETWEEN :from AND :to", nativeQuery = true)
     BigDecimal totalSpent(Long userId, LocalDate from, LocalDate to);
 
-    @Query(value = "SELECT c.id, COALESCE(c.name,''), COALESCE(SUM(e.amount),0) FROM expenses e LEFT JOIN categories c ON e.category_id = c.id WHERE e.user_id = :userId AND e.occurred_on BETWEEN :from AND :to GROUP BY c.id, c.name ORDER BY 3 DESC", nativeQuery = true)
+    @Query(value = "SELECT c.id, COALESCE(c.name,''), COALESCE(SUM(r.amount),0) FROM expense_daily_rollups r LEFT JOIN categories c ON r.category_id = c.id WHERE r.user_id = :userId AND r.day BETWEEN :from AND :to GROUP BY c.id, c.name ORDER BY 3 DESC", nativeQuery = true)
     List<Object[]> categoryTotals(Long userId, LocalDate from, LocalDate to);
 
-    @Query(value = "SELECT e.occurred_on, COALESCE(SUM(e.amount),0) FROM expenses e WHERE e.user_id = :userId AND e.occurred_on BETWEEN :from AND :to GROUP BY e.occurred_on ORDER BY e.occurred_on", nativeQuery = true)
+    @Query(value = "SELECT r.day, COALESCE(SUM(r.amount),0) FROM expense_daily_rollups r WHERE r.user_id = :userId AND r.day BETWEEN :from AND :to GROUP BY r.day ORDER BY r.day", nativeQuery = true)
     List<Object[]> trends(Long userId, LocalDate from, LocalDate to);
 
     // Group ledger: credit per payer (sum of others' shares on their expenses)
@@ -43,11 +46,11 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Object[]> pairwiseDebits(Long userId);
 
     // Group category totals for a date range (used by budgets)
-    @Query(value = "SELECT c.id, COALESCE(c.name,''), COALESCE(SUM(e.amount),0) FROM expenses e LEFT JOIN categories c ON e.category_id = c.id WHERE e.group_id = :groupId AND e.occurred_on BETWEEN :from AND :to GROUP BY c.id, c.name ORDER BY 3 DESC", nativeQuery = true)
+    @Query(value = "SELECT c.id, COALESCE(c.name,''), COALESCE(SUM(r.amount),0) FROM expense_daily_rollups r LEFT JOIN categories c ON r.category_id = c.id WHERE r.group_id = :groupId AND r.day BETWEEN :from AND :to GROUP BY c.id, c.name ORDER BY 3 DESC", nativeQuery = true)
     List<Object[]> groupCategoryTotals(Long groupId, java.time.LocalDate from, java.time.LocalDate to);
 
     // Personal category totals for a date range (used by budgets)
-    @Query(value = "SELECT c.id, COALESCE(c.name,''), COALESCE(SUM(e.amount),0) FROM expenses e LEFT JOIN categories c ON e.category_id = c.id WHERE e.user_id = :userId AND e.occurred_on BETWEEN :from AND :to GROUP BY c.id, c.name ORDER BY 3 DESC", nativeQuery = true)
+    @Query(value = "SELECT c.id, COALESCE(c.name,''), COALESCE(SUM(r.amount),0) FROM expense_daily_rollups r LEFT JOIN categories c ON r.category_id = c.id WHERE r.user_id = :userId AND r.day BETWEEN :from AND :to GROUP BY c.id, c.name ORDER BY 3 DESC", nativeQuery = true)
     List<Object[]> userCategoryTotals(Long userId, java.time.LocalDate from, java.time.LocalDate to);
 
     // For base-currency aggregations in service layer
@@ -67,6 +70,35 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.category WHERE e.group = :group AND e.occurredOn BETWEEN :from AND :to")
     List<Expense> findAllByGroupAndOccurredOnBetween(@Param("group") com.expenseapp.group.Group group, @Param("from") java.time.LocalDate from, @Param("to") java.time.LocalDate to);
     
+    // Projection rows for single-pass base-currency aggregation (see SpendAggregator)
+    @Query("""
+        SELECT new com.expenseapp.expense.dto.ExpenseAmountRow(e.occurredOn, e.amount, e.currency, c.id, c.name, g.id)
+        FROM Expense e
+        LEFT JOIN e.category c
+        LEFT JOIN e.group g
+        WHERE e.user.id = :userId
+          AND e.occurredOn BETWEEN :from AND :to
+    """)
+    List<com.expenseapp.expense.dto.ExpenseAmountRow> findAmountRowsByUser(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    @Query("""
+        SELECT new com.expenseapp.expense.dto.ExpenseAmountRow(e.occurredOn, e.amount, e.currency, c.id, c.name, g.id)
+        FROM Expense e
+        LEFT JOIN e.category c
+        JOIN e.group g
+        WHERE g.id = :groupId
+          AND e.occurredOn BETWEEN :from AND :to
+    """)
+    List<com.expenseapp.expense.dto.ExpenseAmountRow> findAmountRowsByGroup(
+            @Param("groupId") Long groupId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
     @Query(value = """
         SELECT 
             e.occurred_on as occurred_on,
@@ -115,34 +147,9 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
             @Param("to") java.time.LocalDate to
     );
     
-    // Comprehensive search with multiple filters
-    @Query("""
-        SELECT e FROM Expense e
-        LEFT JOIN FETCH e.category c
-        WHERE e.user = :user
-          AND (:companyId IS NULL AND e.companyId IS NULL OR e.companyId = :companyId)
-          AND (:categoryId IS NULL OR e.category.id = :categoryId)
-          AND (:currency IS NULL OR LOWER(e.currency) = LOWER(:currency))
-          AND (:merchant IS NULL OR LOWER(e.merchant) LIKE LOWER(CONCAT('%', :merchant, '%')))
-          AND (:description IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', :description, '%')))
-          AND (:minAmount IS NULL OR e.amount >= :minAmount)
-          AND (:maxAmount IS NULL OR e.amount <= :maxAmount)
-          AND (:startDate IS NULL OR e.occurredOn >= :startDate)
-          AND (:endDate IS NULL OR e.occurredOn <= :endDate)
-        ORDER BY e.occurredOn DESC, e.id DESC
-    """)
-    List<Expense> searchExpenses(
-            @Param("user") com.expenseapp.user.User user,
-            @Param("companyId") Long companyId,
-            @Param("categoryId") Long categoryId,
-            @Param("currency") String currency,
-            @Param("merchant") String merchant,
-            @Param("description") String description,
-            @Param("minAmount") java.math.BigDecimal minAmount,
-            @Param("maxAmount") java.math.BigDecimal maxAmount,
-            @Param("startDate") java.time.LocalDate startDate,
-            @Param("endDate") java.time.LocalDate endDate
-    );
+    // Search results, loaded by id in one query (ExpenseSearch picks and orders the ids)
+    @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.category WHERE e.id IN :ids")
+    List<Expense> findAllWithCategoryByIdIn(@Param("ids") java.util.Collection<Long> ids);
     
     // Reimbursement queries
     List<Expense> findByCompanyIdAndReimbursementStatusOrderByReimbursementRequestedAtDesc(
@@ -181,19 +188,21 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     
     // Role-based visibility queries
     
-    // For MANAGER: See own expenses + employee expenses in same company
-    @Query(value = """
-        SELECT DISTINCT e.* FROM expenses e
-        WHERE e.company_id = :companyId
-          AND e.occurred_on BETWEEN :from AND :to
-          AND (e.user_id = :managerId 
-               OR e.user_id IN (
-                   SELECT cm.user_id FROM company_members cm
-                   WHERE cm.company_id = :companyId
-                   AND cm.role = 'EMPLOYEE'
+    // For MANAGER: See own expenses + employee expenses in same company.
+    // The membership subquery is a semi-join on idx_company_members_company_role, so no DISTINCT is needed.
+    @Query("""
+        SELECT e FROM Expense e
+        LEFT JOIN FETCH e.category c
+        WHERE e.companyId = :companyId
+          AND e.occurredOn BETWEEN :from AND :to
+          AND (e.user.id = :managerId
+               OR e.user.id IN (
+                   SELECT cm.user.id FROM CompanyMember cm
+                   WHERE cm.company.id = :companyId
+                     AND cm.role = 'EMPLOYEE'
                ))
-        ORDER BY e.occurred_on DESC, e.id DESC
-    """, nativeQuery = true)
+        ORDER BY e.occurredOn DESC, e.id DESC
+    """)
     List<Expense> findManagerVisibleExpenses(
             @Param("managerId") Long managerId,
             @Param("companyId") Long companyId,
@@ -216,4 +225,84 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
             @Param("from") java.time.LocalDate from,
             @Param("to") java.time.LocalDate to
     );
+
+    // Keyset pages for the list API. Rows strictly after the cursor (afterDate, afterId) in
+    // ORDER BY occurredOn DESC, id DESC; the first page passes a cursor just past the window.
+    @Query("""
+        SELECT e FROM Expense e
+        LEFT JOIN FETCH e.category c
+        WHERE e.user = :user
+          AND e.companyId IS NULL
+          AND e.occurredOn BETWEEN :from AND :to
+          AND (e.occurredOn < :afterDate OR (e.occurredOn = :afterDate AND e.id < :afterId))
+        ORDER BY e.occurredOn DESC, e.id DESC
+    """)
+    List<Expense> findPersonalPage(
+            @Param("user") com.expenseapp.user.User user,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable page
+    );
+
+    @Query("""
+        SELECT e FROM Expense e
+        LEFT JOIN FETCH e.category c
+        WHERE e.companyId = :companyId
+          AND e.occurredOn BETWEEN :from AND :to
+          AND (e.occurredOn < :afterDate OR (e.occurredOn = :afterDate AND e.id < :afterId))
+        ORDER BY e.occurredOn DESC, e.id DESC
+    """)
+    List<Expense> findCompanyPage(
+            @Param("companyId") Long companyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable page
+    );
+
+    @Query("""
+        SELECT e FROM Expense e
+        LEFT JOIN FETCH e.category c
+        WHERE e.companyId = :companyId
+          AND e.occurredOn BETWEEN :from AND :to
+          AND (e.user.id = :managerId
+               OR e.user.id IN (
+                   SELECT cm.user.id FROM CompanyMember cm
+                   WHERE cm.company.id = :companyId
+                     AND cm.role = 'EMPLOYEE'
+               ))
+          AND (e.occurredOn < :afterDate OR (e.occurredOn = :afterDate AND e.id < :afterId))
+        ORDER BY e.occurredOn DESC, e.id DESC
+    """)
+    List<Expense> findManagerVisiblePage(
+            @Param("managerId") Long managerId,
+            @Param("companyId") Long companyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable page
+    );
+
+    @Query("""
+        SELECT e FROM Expense e
+        LEFT JOIN FETCH e.category c
+        WHERE e.user.id = :userId
+          AND e.companyId = :companyId
+          AND e.occurredOn BETWEEN :from AND :to
+          AND (e.occurredOn < :afterDate OR (e.occurredOn = :afterDate AND e.id < :afterId))
+        ORDER BY e.occurredOn DESC, e.id DESC
+    """)
+    List<Expense> findEmployeeOwnPage(
+            @Param("userId") Long userId,
+            @Param("companyId") Long companyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable page
+    );
 }
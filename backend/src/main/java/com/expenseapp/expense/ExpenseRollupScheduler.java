@@ -0,0 +1,36 @@
+package com.expenseapp.expense;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ExpenseRollupScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseRollupScheduler.class);
+
+    private final ExpenseRollupService rollupService;
+    private final boolean enabled;
+
+    public ExpenseRollupScheduler(
+            ExpenseRollupService rollupService,
+            @Value("${app.rollups.verify.enabled:true}") boolean enabled
+    ) {
+        this.rollupService = rollupService;
+        this.enabled = enabled;
+    }
+
+    // Run daily at 03:30 AM server time; rebuild only when the rollup has drifted from the ledger
+    @Scheduled(cron = "${app.rollups.verify.cron:0 30 3 * * *}")
+    public void verifyAndRepair() {
+        if (!enabled) return;
+        long drift = rollupService.verify();
+        if (drift == 0) {
+            log.debug("[Rollups] expense_daily_rollups matches ledger");
+            return;
+        }
+        log.warn("[Rollups] {} bucket(s) differ from ledger, rebuilding", drift);
+        rollupService.rebuild();
+    }
+}
@@ -0,0 +1,192 @@
+package com.expenseapp.expense;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains {@code expense_daily_rollups} (V63). Writers call {@link #add}, {@link #remove} or {@link #move}
+ * inside their own transaction so the rollup commits or rolls back with the expense row. Each call is a
+ * single upsert per bucket, so concurrent writers to the same day serialize on that row only.
+ * Every change is also published as an {@link ExpenseSpendChangedEvent} in the same transaction.
+ */
+@Service
+public class ExpenseRollupService {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO expense_daily_rollups (user_id, day, category_id, company_id, group_id, currency, amount, expense_count)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (user_id, day, category_id, company_id, group_id, currency)
+        DO UPDATE SET amount = expense_daily_rollups.amount + EXCLUDED.amount,
+                      expense_count = expense_daily_rollups.expense_count + EXCLUDED.expense_count
+        """;
+
+    private static final String PRUNE_SQL = """
+        DELETE FROM expense_daily_rollups
+        WHERE user_id = ? AND day = ? AND category_id = ? AND company_id = ? AND group_id = ? AND currency = ?
+          AND expense_count <= 0
+        """;
+
+    private static final String LEDGER_BUCKETS_SQL = """
+        SELECT e.user_id, e.occurred_on AS day, COALESCE(e.category_id, 0) AS category_id,
+               COALESCE(e.company_id, 0) AS company_id, COALESCE(e.group_id, 0) AS group_id,
+               e.currency, SUM(e.amount) AS amount, COUNT(*) AS expense_count
+        FROM expenses e
+        GROUP BY e.user_id, e.occurred_on, COALESCE(e.category_id, 0), COALESCE(e.company_id, 0),
+                 COALESCE(e.group_id, 0), e.currency
+        """;
+
+    /** Rollup bucket and amount of one expense, captured before a mutation so the old bucket can be debited. */
+    public static final class Entry {
+        private final long userId;
+        private final LocalDate day;
+        private final long categoryId;
+        private final long companyId;
+        private final long groupId;
+        private final String currency;
+        private final BigDecimal amount;
+
+        Entry(long userId, LocalDate day, long categoryId, long companyId, long groupId, String currency, BigDecimal amount) {
+            this.userId = userId; this.day = day; this.categoryId = categoryId; this.companyId = companyId;
+            this.groupId = groupId; this.currency = currency; this.amount = amount;
+        }
+
+        boolean sameBucket(Entry o) {
+            return userId == o.userId && categoryId == o.categoryId && companyId == o.companyId
+                    && groupId == o.groupId && Objects.equals(day, o.day) && Objects.equals(currency, o.currency);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ExpenseRollupService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Rollup maintenance only, without spend events (tools and tests). */
+    public ExpenseRollupService(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, event -> {});
+    }
+
+    public Entry entryOf(Expense e) {
+        return new Entry(
+                e.getUser().getId(),
+                e.getOccurredOn(),
+                e.getCategory() != null ? e.getCategory().getId() : 0L,
+                e.getCompanyId() != null ? e.getCompanyId() : 0L,
+                e.getGroup() != null ? e.getGroup().getId() : 0L,
+                e.getCurrency(),
+                e.getAmount() != null ? e.getAmount() : BigDecimal.ZERO);
+    }
+
+    /** Credit a newly created expense. */
+    public void add(Expense e) {
+        Entry now = entryOf(e);
+        apply(now, 1);
+        publish(List.of(delta(now, 1)));
+    }
+
+    /**
+     * Credit many newly created expenses (bulk import): entries are summed per bucket and written as one batch of
+     * upserts, in bucket order so concurrent batches lock rows in the same order, followed by one event.
+     */
+    public void addAll(Collection<Entry> entries) {
+        if (entries.isEmpty()) return;
+        Map<List<Object>, Object[]> buckets = new LinkedHashMap<>();
+        for (Entry k : entries) {
+            Object[] row = buckets.computeIfAbsent(List.of(k.userId, k.day, k.categoryId, k.companyId, k.groupId, k.currency),
+                    key -> new Object[]{k.userId, k.day, k.categoryId, k.companyId, k.groupId, k.currency, BigDecimal.ZERO, 0});
+            row[6] = ((BigDecimal) row[6]).add(k.amount);
+            row[7] = (Integer) row[7] + 1;
+        }
+        List<Object[]> rows = new ArrayList<>(buckets.values());
+        rows.sort(Comparator.<Object[], Long>comparing(r -> (Long) r[0])
+                .thenComparing(r -> (LocalDate) r[1])
+                .thenComparing(r -> (Long) r[2])
+                .thenComparing(r -> (Long) r[3])
+                .thenComparing(r -> (Long) r[4])
+                .thenComparing(r -> (String) r[5]));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        List<ExpenseSpendChangedEvent.Delta> deltas = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            deltas.add(delta(new Entry((Long) r[0], (LocalDate) r[1], (Long) r[2], (Long) r[3], (Long) r[4], (String) r[5], (BigDecimal) r[6]), 1));
+        }
+        publish(deltas);
+        log.debug("[Rollups] Credited {} expense(s) into {} bucket(s)", entries.size(), rows.size());
+    }
+
+    /** Debit an expense that is being deleted; pass the entry captured before deletion. */
+    public void remove(Entry before) {
+        apply(before, -1);
+        publish(List.of(delta(before, -1)));
+    }
+
+    /** Re-bucket an expense after its amount, day, currency, category, company or group changed. */
+    public void move(Entry before, Expense after) {
+        Entry now = entryOf(after);
+        if (now.sameBucket(before) && now.amount.compareTo(before.amount) == 0) return;
+        apply(before, -1);
+        apply(now, 1);
+        publish(List.of(delta(before, -1), delta(now, 1)));
+    }
+
+    private void apply(Entry k, int sign) {
+        BigDecimal delta = sign < 0 ? k.amount.negate() : k.amount;
+        jdbcTemplate.update(UPSERT_SQL, k.userId, k.day, k.categoryId, k.companyId, k.groupId, k.currency, delta, sign);
+        if (sign < 0) {
+            jdbcTemplate.update(PRUNE_SQL, k.userId, k.day, k.categoryId, k.companyId, k.groupId, k.currency);
+        }
+    }
+
+    private static ExpenseSpendChangedEvent.Delta delta(Entry k, int sign) {
+        return new ExpenseSpendChangedEvent.Delta(k.userId, k.day,
+                k.categoryId != 0 ? k.categoryId : null,
+                k.groupId != 0 ? k.groupId : null,
+                sign < 0 ? k.amount.negate() : k.amount);
+    }
+
+    private void publish(List<ExpenseSpendChangedEvent.Delta> deltas) {
+        eventPublisher.publishEvent(new ExpenseSpendChangedEvent(deltas));
+    }
+
+    /** Number of buckets whose rollup disagrees with the ledger (missing, extra or different sums). */
+    @Transactional(readOnly = true)
+    public long verify() {
+        Long drift = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (" + LEDGER_BUCKETS_SQL + ") src " +
+                "FULL OUTER JOIN expense_daily_rollups r USING (user_id, day, category_id, company_id, group_id, currency) " +
+                "WHERE src.amount IS DISTINCT FROM r.amount OR src.expense_count IS DISTINCT FROM r.expense_count",
+                Long.class);
+        return drift != null ? drift : 0L;
+    }
+
+    /** Recompute every bucket from the ledger. Writers block on the table lock until this commits. */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE expense_daily_rollups IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM expense_daily_rollups");
+        int rows = jdbcTemplate.update(
+                "INSERT INTO expense_daily_rollups (user_id, day, category_id, company_id, group_id, currency, amount, expense_count) "
+                + LEDGER_BUCKETS_SQL);
+        log.info("[Rollups] Rebuilt expense_daily_rollups: {} buckets", rows);
+        return rows;
+    }
+}
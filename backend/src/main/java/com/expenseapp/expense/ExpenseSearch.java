@@ -0,0 +1,82 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.search.SearchSql;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Expense search for {@link ExpenseService#searchPage}. The query is assembled from only the filters given and
+ * returns one page of expense ids in result order. With a free-text term, rows match when the merchant or
+ * description contains the term or is a close fuzzy match for it (typos, word order), and are ranked by
+ * {@code word_similarity}; otherwise they come newest first.
+ */
+@Component
+class ExpenseSearch {
+
+    /** Search filters; null fields are not applied. Text fields are matched case-insensitively. */
+    static final class Criteria {
+        long userId;
+        Long companyId;
+        Long categoryId;
+        String currency;
+        String merchant;
+        String description;
+        String text;
+        BigDecimal minAmount;
+        BigDecimal maxAmount;
+        LocalDate startDate;
+        LocalDate endDate;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ExpenseSearch(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Ids of up to {@code limit} matches starting at {@code offset}. */
+    List<Long> ids(Criteria c, int offset, int limit) {
+        String currency = c.currency != null && !c.currency.isBlank() ? c.currency.trim().toLowerCase(Locale.ROOT) : null;
+        String merchant = SearchSql.term(c.merchant);
+        String description = SearchSql.term(c.description);
+        String text = SearchSql.term(c.text);
+
+        SearchSql sql = new SearchSql().and("e.user_id = ?", c.userId);
+        if (c.companyId == null) {
+            sql.and("e.company_id IS NULL");
+        } else {
+            sql.and("e.company_id = ?", c.companyId);
+        }
+        sql.andIf(c.categoryId, "e.category_id = ?", c.categoryId)
+                .andIf(currency, "lower(e.currency) = ?", currency)
+                .andIf(merchant, "lower(e.merchant) LIKE ?", merchant != null ? SearchSql.contains(merchant) : null)
+                .andIf(description, "lower(e.description) LIKE ?", description != null ? SearchSql.contains(description) : null)
+                .andIf(c.minAmount, "e.amount >= ?", c.minAmount)
+                .andIf(c.maxAmount, "e.amount <= ?", c.maxAmount)
+                .andIf(c.startDate, "e.occurred_on >= ?", c.startDate)
+                .andIf(c.endDate, "e.occurred_on <= ?", c.endDate);
+
+        String order = "e.occurred_on DESC, e.id DESC";
+        List<Object> orderArgs = new ArrayList<>();
+        if (text != null) {
+            String like = SearchSql.contains(text);
+            sql.and("lower(e.merchant) LIKE ? OR lower(e.description) LIKE ? OR ? <% lower(e.merchant) OR ? <% lower(e.description)",
+                    like, like, text, text);
+            order = "COALESCE(GREATEST(word_similarity(?, lower(e.merchant)), word_similarity(?, lower(e.description))), 0) DESC, " + order;
+            orderArgs.add(text);
+            orderArgs.add(text);
+        }
+        List<Object> args = new ArrayList<>(sql.args());
+        args.addAll(orderArgs);
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.queryForList("SELECT e.id FROM expenses e WHERE " + sql.where()
+                + " ORDER BY " + order + " LIMIT ? OFFSET ?", Long.class, args.toArray());
+    }
+}
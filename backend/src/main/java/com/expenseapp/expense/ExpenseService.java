@@ -1,10 +1,12 @@
 package com.expenseapp.expense;
 
 import com.expenseapp.expense.dto.ExpenseCreateRequest;
+import com.expenseapp.expense.dto.ExpensePageView;
 import com.expenseapp.expense.dto.ExpenseUpdateRequest;
 import com.expenseapp.expense.dto.ExpenseView;
 import com.expenseapp.expense.dto.ReceiptView;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import com.expenseapp.storage.FileStorageService;
 import com.expenseapp.group.Group;
@@ -40,17 +42,36 @@ public class ExpenseService {
     private final com.expenseapp.group.GroupMemberRepository groupMemberRepository;
     private final org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
     private final BillRepository billRepository;
-    private final com.expenseapp.company.CompanyMemberRepository companyMemberRepository;
+    private final com.expenseapp.company.CompanyRoleResolver companyRoleResolver;
     private final com.expenseapp.company.CompanyRepository companyRepository;
+    private final ExpenseRollupService rollupService;
+    private final com.expenseapp.group.GroupChatHub groupChatHub;
+    private final com.expenseapp.notification.UnreadCounterService unreadCounters;
+    private final PendingFxRates pendingFxRates;
+    private final com.expenseapp.receipt.ReceiptVariantService receiptVariants;
+    private final ExpenseSearch search;
     private static final Logger log = LoggerFactory.getLogger(ExpenseService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_SEARCH_RESULTS = 1000;
+
+    /** Row visibility for list endpoints, derived from the platform role and company membership. */
+    private enum ListScope { PERSONAL, COMPANY_ALL, MANAGER, EMPLOYEE }
+
     public ExpenseService(ExpenseRepository expenseRepository, CategoryRepository categoryRepository, UserRepository userRepository,
                           com.expenseapp.receipt.ReceiptRepository receiptRepository, FileStorageService fileStorageService,
                           GroupRepository groupRepository, FXService fxService, ACLEntryService aclService, AccessLogService accessLogService,
                           SplitShareRepository splitShareRepository, com.expenseapp.group.GroupMemberRepository groupMemberRepository,
                           org.springframework.jdbc.core.JdbcTemplate jdbcTemplate, BillRepository billRepository,
-                          com.expenseapp.company.CompanyMemberRepository companyMemberRepository,
-                          com.expenseapp.company.CompanyRepository companyRepository) {
+                          com.expenseapp.company.CompanyRoleResolver companyRoleResolver,
+                          com.expenseapp.company.CompanyRepository companyRepository,
+                          ExpenseRollupService rollupService,
+                          com.expenseapp.group.GroupChatHub groupChatHub,
+                          com.expenseapp.notification.UnreadCounterService unreadCounters,
+                          PendingFxRates pendingFxRates,
+                          com.expenseapp.receipt.ReceiptVariantService receiptVariants,
+                          ExpenseSearch search) {
         this.expenseRepository = expenseRepository;
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
@@ -64,8 +85,14 @@ public class ExpenseService {
         this.aclService = aclService;
         this.accessLogService = accessLogService;
         this.billRepository = billRepository;
-        this.companyMemberRepository = companyMemberRepository;
+        this.companyRoleResolver = companyRoleResolver;
         this.companyRepository = companyRepository;
+        this.rollupService = rollupService;
+        this.groupChatHub = groupChatHub;
+        this.unreadCounters = unreadCounters;
+        this.pendingFxRates = pendingFxRates;
+        this.receiptVariants = receiptVariants;
+        this.search = search;
     }
 
     @Transactional
@@ -76,7 +103,7 @@ public class ExpenseService {
                 req != null ? req.getGroupId() : null, req != null ? req.getMerchant() : null,
                 req != null && req.isReimbursable());
         try {
-            User user = userRepository.findByEmail(email).orElseThrow(() ->
+            User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow(() ->
                 new org.springframework.web.server.ResponseStatusException(
                     org.springframework.http.HttpStatus.UNAUTHORIZED, "User not found"));
             log.debug("[Expenses] Using user id={}", user.getId());
@@ -110,11 +137,15 @@ public class ExpenseService {
                 e.setGroup(g);
                 log.debug("[Expenses] Group id={} validated", g.getId());
             }
-            // Ensure we have a historical FX rate for occurredOn/currency before returning view
-            java.math.BigDecimal ensured = fxService.ensureRate(e.getOccurredOn(), e.getCurrency());
-            log.debug("[Expenses] ensureRate ok -> {}", ensured);
+            // A missing FX rate is fetched off this transaction; the expense is flagged until it lands
+            java.util.concurrent.CompletableFuture<java.math.BigDecimal> rate = fxService.requestRate(e.getOccurredOn(), e.getCurrency());
+            e.setFxPending(rate.getNow(null) == null);
             e = expenseRepository.save(e);
-            log.info("[Expenses] Created expense id={}", e.getId());
+            rollupService.add(e);
+            if (e.isFxPending()) {
+                pendingFxRates.track(e.getCurrency(), e.getOccurredOn(), rate);
+            }
+            log.info("[Expenses] Created expense id={} (fxPending={})", e.getId(), e.isFxPending());
             
             // Create split shares if participants are provided
             if (req.getParticipants() != null && !req.getParticipants().isEmpty()) {
@@ -138,7 +169,7 @@ public class ExpenseService {
 
     @Transactional(readOnly = true)
     public List<ExpenseView> list(String email, LocalDate from, LocalDate to, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
 
         // Normalize company scope
         Long normalizedCompanyId = (companyId != null && companyId > 0) ? companyId : null;
@@ -151,70 +182,95 @@ public class ExpenseService {
                 email, user.getRole(), companyId, normalizedCompanyId, fromEff, toEff);
 
         List<Expense> scoped;
-        if (normalizedCompanyId == null) {
-            // Personal expenses - user sees only their own
-            scoped = expenseRepository.findPersonalByUserAndDate(user, fromEff, toEff);
-        } else {
-            // Company expenses - role-based visibility
-            // SUPER_ADMIN and ADMIN can see ALL expenses in the company
-            if (user.getRole() == com.expenseapp.user.Role.SUPER_ADMIN) {
-                // SUPER_ADMIN sees all expenses in any company
+        switch (resolveListScope(user, normalizedCompanyId)) {
+            case COMPANY_ALL -> {
+                // SUPER_ADMIN and company ADMIN see all expenses in the company
                 scoped = expenseRepository.findAllByCompanyAndDate(normalizedCompanyId, fromEff, toEff);
-                log.info("[Expenses] SUPER_ADMIN viewing all {} expenses in company {}", scoped.size(), normalizedCompanyId);
-            } else {
-                // Check if user is ADMIN in this company
-                com.expenseapp.company.Company company = companyRepository.findById(normalizedCompanyId)
-                    .orElseThrow(() -> new IllegalArgumentException("Company not found"));
-                java.util.Optional<com.expenseapp.company.CompanyMember> memberOpt = 
-                    companyMemberRepository.findByCompanyAndUser(company, user);
-                
-                String memberRole = memberOpt.isPresent() ? memberOpt.get().getRole() : null;
-                boolean isCompanyAdmin = "ADMIN".equals(memberRole);
-                boolean isManager = "MANAGER".equals(memberRole);
-                
-                if (isCompanyAdmin) {
-                    // ADMIN sees all expenses in their company
-                    scoped = expenseRepository.findAllByCompanyAndDate(normalizedCompanyId, fromEff, toEff);
-                    log.info("[Expenses] Company ADMIN viewing all {} expenses in company {}", scoped.size(), normalizedCompanyId);
-                } else if (isManager) {
-                    // MANAGER sees own expenses + employee expenses
-                    scoped = expenseRepository.findManagerVisibleExpenses(user.getId(), normalizedCompanyId, fromEff, toEff);
-                    log.info("[Expenses] MANAGER viewing {} expenses (own + employees) in company {}", scoped.size(), normalizedCompanyId);
-                } else {
-                    // EMPLOYEE sees only their own expenses
-                    scoped = expenseRepository.findEmployeeOwnExpenses(user.getId(), normalizedCompanyId, fromEff, toEff);
-                    log.info("[Expenses] EMPLOYEE viewing own {} expenses in company {}", scoped.size(), normalizedCompanyId);
-                }
+                log.info("[Expenses] {} viewing all {} expenses in company {}", user.getRole(), scoped.size(), normalizedCompanyId);
+            }
+            case MANAGER -> {
+                // MANAGER sees own expenses + employee expenses
+                scoped = expenseRepository.findManagerVisibleExpenses(user.getId(), normalizedCompanyId, fromEff, toEff);
+                log.info("[Expenses] MANAGER viewing {} expenses (own + employees) in company {}", scoped.size(), normalizedCompanyId);
+            }
+            case EMPLOYEE -> {
+                // EMPLOYEE sees only their own expenses
+                scoped = expenseRepository.findEmployeeOwnExpenses(user.getId(), normalizedCompanyId, fromEff, toEff);
+                log.info("[Expenses] EMPLOYEE viewing own {} expenses in company {}", scoped.size(), normalizedCompanyId);
+            }
+            default -> {
+                // Personal expenses - user sees only their own
+                scoped = expenseRepository.findPersonalByUserAndDate(user, fromEff, toEff);
             }
         }
 
-        java.util.List<ExpenseView> result = scoped.stream()
-                .map(e -> {
-                    try {
-                        return toView(e);
-                    } catch (Exception ex) {
-                        log.error("[Expenses] Failed to build view for expense id={} on {} (currency {}): {}", e.getId(), e.getOccurredOn(), e.getCurrency(), ex.toString());
-                        boolean hasSplitShares = !splitShareRepository.findByExpenseId(e.getId()).isEmpty();
-                        return new ExpenseView(
-                                e.getId(), e.getAmount(), e.getCurrency(), null, fxService.getBaseCurrency(), e.getOccurredOn(),
-                                e.getCompanyId(),
-                                e.getCategory() != null ? e.getCategory().getId() : null,
-                                e.getCategory() != null ? e.getCategory().getName() : null,
-                                e.getDescription(), e.getNotes(), e.getMerchant(), e.isReimbursable(), e.getCreatedAt(), hasSplitShares,
-                                null, null, null, null
-                        );
-                    }
-                })
-                .toList();
+        java.util.List<ExpenseView> result = toViews(scoped);
 
         log.info("[Expenses] list() returning {} items for companyId={} (personal={}, company={})",
                 result.size(), companyId, normalizedCompanyId == null, normalizedCompanyId != null);
         return result;
     }
 
+    /**
+     * Keyset-paginated variant of {@link #list}. Pages are ordered by (occurredOn DESC, id DESC) and
+     * continue strictly after the supplied cursor, so cost and memory per page are independent of
+     * how deep into the ledger the client has scrolled.
+     */
+    @Transactional(readOnly = true)
+    public ExpensePageView listPage(String email, LocalDate from, LocalDate to, Long companyId, String cursor, Integer limit) {
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
+        Long normalizedCompanyId = (companyId != null && companyId > 0) ? companyId : null;
+        LocalDate toEff = (to != null) ? to : LocalDate.now();
+        LocalDate fromEff = (from != null) ? from : toEff.minusDays(90);
+        int size = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        ExpenseCursor after = (cursor != null && !cursor.isBlank()) ? ExpenseCursor.decode(cursor) : ExpenseCursor.start(toEff);
+        // Fetch one extra row to learn whether another page exists without a COUNT
+        org.springframework.data.domain.Pageable window = org.springframework.data.domain.PageRequest.of(0, size + 1);
+
+        List<Expense> rows = switch (resolveListScope(user, normalizedCompanyId)) {
+            case COMPANY_ALL -> expenseRepository.findCompanyPage(normalizedCompanyId, fromEff, toEff,
+                    after.getOccurredOn(), after.getId(), window);
+            case MANAGER -> expenseRepository.findManagerVisiblePage(user.getId(), normalizedCompanyId, fromEff, toEff,
+                    after.getOccurredOn(), after.getId(), window);
+            case EMPLOYEE -> expenseRepository.findEmployeeOwnPage(user.getId(), normalizedCompanyId, fromEff, toEff,
+                    after.getOccurredOn(), after.getId(), window);
+            default -> expenseRepository.findPersonalPage(user, fromEff, toEff,
+                    after.getOccurredOn(), after.getId(), window);
+        };
+
+        boolean hasMore = rows.size() > size;
+        List<Expense> pageRows = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? ExpenseCursor.after(pageRows.get(pageRows.size() - 1)).encode() : null;
+        log.debug("[Expenses] listPage() email={}, companyId={}, size={}, returned={}, hasMore={}",
+                email, normalizedCompanyId, size, pageRows.size(), hasMore);
+        return new ExpensePageView(toViews(pageRows), nextCursor, hasMore);
+    }
+
+    private ListScope resolveListScope(User user, Long normalizedCompanyId) {
+        if (normalizedCompanyId == null) {
+            return ListScope.PERSONAL;
+        }
+        // SUPER_ADMIN sees all expenses in any company
+        if (user.getRole() == com.expenseapp.user.Role.SUPER_ADMIN) {
+            return ListScope.COMPANY_ALL;
+        }
+        String memberRole = companyRoleResolver.roleOf(normalizedCompanyId, user.getId());
+        if (memberRole == null && !companyRepository.existsById(normalizedCompanyId)) {
+            throw new IllegalArgumentException("Company not found");
+        }
+        if ("ADMIN".equals(memberRole)) {
+            return ListScope.COMPANY_ALL;
+        }
+        if ("MANAGER".equals(memberRole)) {
+            return ListScope.MANAGER;
+        }
+        return ListScope.EMPLOYEE;
+    }
+
     @Transactional
     public ExpenseView get(String email, Long id, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense e = expenseRepository.findById(id).orElseThrow();
         // Verify company access if companyId is provided
         if (companyId != null && companyId > 0 && (e.getCompanyId() == null || !e.getCompanyId().equals(companyId))) {
@@ -233,7 +289,7 @@ public class ExpenseService {
 
     @Transactional
     public ExpenseView update(String email, Long id, ExpenseUpdateRequest req, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense e = expenseRepository.findById(id).orElseThrow();
         
         // SUPER_ADMIN and ADMIN can update any expense
@@ -252,6 +308,7 @@ public class ExpenseService {
                 accessLogService.log(user.getId(), user.getEmail(), "EXPENSE_UPDATE", "EXPENSE", id, "ALLOWED", null);
             }
         }
+        ExpenseRollupService.Entry before = rollupService.entryOf(e);
         if (req.getAmount() != null) e.setAmount(req.getAmount());
         if (req.getCurrency() != null) e.setCurrency(req.getCurrency());
         if (req.getOccurredOn() != null) e.setOccurredOn(req.getOccurredOn());
@@ -262,14 +319,19 @@ public class ExpenseService {
             Category c = categoryRepository.findById(req.getCategoryId()).orElseThrow();
             e.setCategory(c);
         }
-        // Ensure rate for the (possibly updated) date/currency
-        fxService.ensureRate(e.getOccurredOn(), e.getCurrency());
+        rollupService.move(before, e);
+        // Request the rate for the (possibly updated) date/currency without waiting on the providers
+        java.util.concurrent.CompletableFuture<java.math.BigDecimal> rate = fxService.requestRate(e.getOccurredOn(), e.getCurrency());
+        e.setFxPending(rate.getNow(null) == null);
+        if (e.isFxPending()) {
+            pendingFxRates.track(e.getCurrency(), e.getOccurredOn(), rate);
+        }
         return toView(e);
     }
 
     @Transactional
     public void delete(String email, Long id, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense e = expenseRepository.findById(id).orElseThrow();
         
         // SUPER_ADMIN and ADMIN can delete any expense
@@ -294,15 +356,24 @@ public class ExpenseService {
         if (!bills.isEmpty()) {
             log.info("Deleting {} bill(s) associated with expense {}", bills.size(), id);
             billRepository.deleteAll(bills);
+            fileStorageService.releaseAll(bills.stream().map(com.expenseapp.bill.Bill::getFilePath).toList());
         }
+        // Receipts and their variants go with the expense (ON DELETE CASCADE); drop their blob references first
+        fileStorageService.releaseAll(jdbcTemplate.queryForList("""
+                SELECT file_uri FROM receipts WHERE expense_id = ?
+                UNION ALL
+                SELECT v.file_uri FROM receipt_variants v JOIN receipts r ON r.id = v.receipt_id WHERE r.expense_id = ?
+                """, String.class, id, id));
         
+        ExpenseRollupService.Entry before = rollupService.entryOf(e);
         expenseRepository.delete(e);
+        rollupService.remove(before);
     }
 
     @Transactional
     public ReceiptView uploadReceipt(String email, Long expenseId, MultipartFile file) throws java.io.IOException {
         log.info("[RECEIPT] Upload started - email: {}, expenseId: {}, fileName: {}", email, expenseId, file.getOriginalFilename());
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense e = expenseRepository.findById(expenseId).orElseThrow();
         if (!e.getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "EXPENSE", expenseId, "WRITE");
@@ -313,26 +384,29 @@ public class ExpenseService {
             accessLogService.log(user.getId(), user.getEmail(), "RECEIPT_UPLOAD", "EXPENSE", expenseId, "ALLOWED", null);
         }
         log.info("[RECEIPT] Saving file to storage...");
-        String uri = fileStorageService.save("receipts/" + user.getId(), file);
+        FileStorageService.StoredFile stored = fileStorageService.store(file);
+        String uri = stored.getPath();
         log.info("[RECEIPT] File saved to: {}", uri);
         Receipt r = new Receipt();
         r.setExpense(e);
-        // Map storage path to fileName; capture contentType and size when available
-        // Persist both full storage path (fileUri) and basename (fileName)
+        // fileUri is the content-addressed blob ("blob:<sha256>"); fileName is what the user uploaded
         r.setFileUri(uri);
-        r.setFileName(java.nio.file.Paths.get(uri).getFileName().toString());
+        String originalName = org.springframework.util.StringUtils.getFilename(file.getOriginalFilename());
+        r.setFileName(originalName != null && !originalName.isBlank() ? originalName : stored.getSha256());
         r.setContentType(file.getContentType());
         r.setFileSize(file.getSize());
+        r.setContentSha256(stored.getSha256());
         log.info("[RECEIPT] Creating receipt record - fileName: {}, contentType: {}, size: {}", r.getFileName(), r.getContentType(), r.getFileSize());
         // status defaults to UPLOADED; extractedJson remains null initially
         r = receiptRepository.save(r);
         log.info("[RECEIPT] Receipt saved successfully - id: {}", r.getId());
+        receiptVariants.enqueue(r.getId());
         return new ReceiptView(r.getId(), r.getFileName(), r.getStatus(), r.getCreatedAt(), r.getExtractedJson());
     }
 
     @Transactional(readOnly = true)
     public List<ReceiptView> listReceipts(String email, Long expenseId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense e = expenseRepository.findById(expenseId).orElseThrow();
         if (!e.getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "EXPENSE", expenseId, "READ");
@@ -342,15 +416,14 @@ public class ExpenseService {
             }
             accessLogService.log(user.getId(), user.getEmail(), "EXPENSE_RECEIPTS_LIST", "EXPENSE", expenseId, "ALLOWED", null);
         }
-        return receiptRepository.findAll().stream()
-                .filter(rc -> rc.getExpense().getId().equals(expenseId))
+        return receiptRepository.findAllByExpense(e).stream()
                 .map(rc -> new ReceiptView(rc.getId(), rc.getFileName(), rc.getStatus(), rc.getCreatedAt(), rc.getExtractedJson()))
                 .toList();
     }
 
     @Transactional
     public void linkExpenseToGroup(String email, Long expenseId, Long groupId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense expense = expenseRepository.findById(expenseId).orElseThrow(() -> 
             new org.springframework.web.server.ResponseStatusException(
                 org.springframework.http.HttpStatus.NOT_FOUND, "Expense not found"));
@@ -362,6 +435,8 @@ public class ExpenseService {
                 org.springframework.http.HttpStatus.FORBIDDEN, "Not authorized");
         }
         
+        ExpenseRollupService.Entry before = rollupService.entryOf(expense);
+
         // Verify group exists and user has access
         com.expenseapp.group.Group group = null;
         if (groupId != null) {
@@ -416,6 +491,7 @@ public class ExpenseService {
         }
         
         expenseRepository.save(expense);
+        rollupService.move(before, expense);
         
         // Post expense as a message in the group chat
         if (groupId != null && group != null) {
@@ -448,9 +524,9 @@ public class ExpenseService {
             
             // Insert message into group_messages table
             String sql = "INSERT INTO group_messages(group_id, sender_user_id, type, text, split_title, split_total_amount, split_currency, split_involved_ids, created_at) " +
-                         "VALUES(?, ?, ?, ?, ?, ?, ?, ?, NOW())";
+                         "VALUES(?, ?, ?, ?, ?, ?, ?, ?, NOW()) RETURNING id";
             
-            jdbcTemplate.update(sql,
+            Long messageId = jdbcTemplate.queryForObject(sql, Long.class,
                 grp.getId(),
                 user.getId(),
                 "split",
@@ -460,6 +536,9 @@ public class ExpenseService {
                 expense.getCurrency(),
                 involvedIds
             );
+            unreadCounters.messagePosted(grp.getId(), user.getId());
+            // Pushed to chat subscribers once this transaction commits
+            groupChatHub.announce(grp.getId(), messageId);
             
             log.info("[Expenses] Posted expense {} to group {} chat", expense.getId(), grp.getId());
         } catch (Exception e) {
@@ -470,7 +549,7 @@ public class ExpenseService {
 
     @Transactional
     public java.util.Map<String, Object> getSplitShares(String email, Long expenseId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Expense expense = expenseRepository.findById(expenseId).orElseThrow(() -> 
             new org.springframework.web.server.ResponseStatusException(
                 org.springframework.http.HttpStatus.NOT_FOUND, "Expense not found"));
@@ -540,37 +619,92 @@ public class ExpenseService {
     }
 
     private ExpenseView toView(Expense e) {
-        java.math.BigDecimal baseAmount = null;
-        String baseCurrency = fxService.getBaseCurrency();
+        return toViews(List.of(e)).get(0);
+    }
+
+    /**
+     * Build views for a batch of expenses. Receipts, split-share existence and FX rates are each
+     * fetched with one set-based query for the whole batch, then joined in memory.
+     */
+    private List<ExpenseView> toViews(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return List.of();
+        }
+        java.util.List<Long> ids = expenses.stream()
+                .map(Expense::getId)
+                .filter(java.util.Objects::nonNull)
+                .toList();
+
+        java.util.Set<Long> withSplitShares = new java.util.HashSet<>();
+        java.util.Map<Long, com.expenseapp.receipt.Receipt> firstReceipt = new java.util.HashMap<>();
+        if (!ids.isEmpty()) {
+            withSplitShares.addAll(splitShareRepository.findExpenseIdsWithShares(ids));
+            for (com.expenseapp.receipt.Receipt r : receiptRepository.findAllByExpenseIdIn(ids)) {
+                firstReceipt.putIfAbsent(r.getExpense().getId(), r);
+            }
+        }
+
+        java.util.Set<String> currencies = new java.util.HashSet<>();
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        for (Expense e : expenses) {
+            if (e.getCurrency() != null) currencies.add(e.getCurrency());
+            LocalDate d = e.getOccurredOn();
+            if (d == null) continue;
+            if (minDate == null || d.isBefore(minDate)) minDate = d;
+            if (maxDate == null || d.isAfter(maxDate)) maxDate = d;
+        }
+        com.expenseapp.fx.FXRateTable rates = null;
         try {
             // Do not fetch/write rates during listing; just read existing (falls back to 1:1 if missing)
-            baseAmount = fxService.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount());
+            rates = fxService.rateTable(currencies, minDate, maxDate);
         } catch (Exception ex) {
-            log.error("[Expenses] FX conversion failed for expense id={} on {} (currency {}): {}", e.getId(), e.getOccurredOn(), e.getCurrency(), ex.toString());
+            log.error("[Expenses] FX rate lookup failed for {} expenses ({} to {}): {}", expenses.size(), minDate, maxDate, ex.toString());
             // baseAmount remains null to keep response stable
         }
-        // Check if expense has split shares
-        boolean hasSplitShares = !splitShareRepository.findByExpenseId(e.getId()).isEmpty();
-        
+
+        String baseCurrency = fxService.getBaseCurrency();
+        java.util.List<ExpenseView> views = new java.util.ArrayList<>(expenses.size());
+        for (Expense e : expenses) {
+            boolean hasSplitShares = withSplitShares.contains(e.getId());
+            try {
+                views.add(buildView(e, rates, baseCurrency, hasSplitShares, firstReceipt.get(e.getId())));
+            } catch (Exception ex) {
+                log.error("[Expenses] Failed to build view for expense id={} on {} (currency {}): {}", e.getId(), e.getOccurredOn(), e.getCurrency(), ex.toString());
+                views.add(new ExpenseView(
+                        e.getId(), e.getAmount(), e.getCurrency(), null, baseCurrency, e.getOccurredOn(),
+                        e.getCompanyId(),
+                        e.getCategory() != null ? e.getCategory().getId() : null,
+                        e.getCategory() != null ? e.getCategory().getName() : null,
+                        e.getDescription(), e.getNotes(), e.getMerchant(), e.isReimbursable(), e.getCreatedAt(), hasSplitShares,
+                        null, null, null, null
+                ));
+            }
+        }
+        return views;
+    }
+
+    private ExpenseView buildView(Expense e, com.expenseapp.fx.FXRateTable rates, String baseCurrency,
+                                  boolean hasSplitShares, com.expenseapp.receipt.Receipt receipt) {
+        java.math.BigDecimal baseAmount = null;
+        if (rates != null && !e.isFxPending()) {
+            baseAmount = rates.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount());
+        }
+
         // Get receipt information
         String receiptUrl = null;
         String receiptFileName = null;
         Long receiptFileSize = null;
         String receiptFileType = null;
-        
-        java.util.List<com.expenseapp.receipt.Receipt> receipts = receiptRepository.findAll().stream()
-                .filter(r -> r.getExpense().getId().equals(e.getId()))
-                .toList();
-        if (!receipts.isEmpty()) {
-            com.expenseapp.receipt.Receipt receipt = receipts.get(0);
+        if (receipt != null) {
             receiptFileName = receipt.getFileName();
             receiptFileSize = receipt.getFileSize();
             receiptFileType = receipt.getContentType();
             // Generate receipt URL (assuming receipts are served from /api/v1/receipts/{id}/download)
             receiptUrl = "/api/v1/receipts/" + receipt.getId() + "/download";
         }
-        
-        return new ExpenseView(
+
+        ExpenseView view = new ExpenseView(
                 e.getId(), e.getAmount(), e.getCurrency(), baseAmount, baseCurrency, e.getOccurredOn(),
                 e.getCompanyId(),
                 e.getCategory() != null ? e.getCategory().getId() : null,
@@ -578,33 +712,75 @@ public class ExpenseService {
                 e.getDescription(), e.getNotes(), e.getMerchant(), e.isReimbursable(), e.getCreatedAt(), hasSplitShares,
                 receiptUrl, receiptFileName, receiptFileSize, receiptFileType
         );
+        view.setFxPending(e.isFxPending());
+        if (receipt != null && com.expenseapp.receipt.ReceiptVariantService.isImage(receipt.getContentType())) {
+            // Served from the original until the variants are rendered
+            view.setReceiptThumbnailUrl("/api/v1/receipts/" + receipt.getId() + "/variants/thumbnail");
+            view.setReceiptPreviewUrl("/api/v1/receipts/" + receipt.getId() + "/variants/preview");
+        }
+        return view;
     }
     
     /**
-     * Comprehensive search for expenses with multiple filter options
+     * Comprehensive search for expenses with multiple filter options. Returns the first
+     * {@link #MAX_SEARCH_RESULTS} matches as one page; its cursor continues in {@link #searchPage}.
      */
-    public List<ExpenseView> searchExpenses(String userEmail, Long companyId, Long categoryId, 
+    @Transactional(readOnly = true)
+    public ExpensePageView searchExpenses(String userEmail, Long companyId, Long categoryId, 
                                            String currency, String merchant, String description,
                                            java.math.BigDecimal minAmount, java.math.BigDecimal maxAmount,
                                            LocalDate startDate, LocalDate endDate) {
-        User user = userRepository.findByEmail(userEmail)
+        return searchPage(userEmail, companyId, categoryId, currency, merchant, description, null,
+                minAmount, maxAmount, startDate, endDate, null, MAX_SEARCH_RESULTS);
+    }
+
+    /**
+     * Paginated search over the caller's own expenses. {@code text} matches merchant or description, fuzzily, and
+     * ranks the results by closeness; without it results are newest first. Pages continue from {@code cursor} up to
+     * {@link com.expenseapp.search.SearchCursor#MAX_OFFSET}; a page with more matches beyond that has
+     * {@code hasMore} and {@code truncated} set but no cursor.
+     */
+    @Transactional(readOnly = true)
+    public ExpensePageView searchPage(String userEmail, Long companyId, Long categoryId,
+                                      String currency, String merchant, String description, String text,
+                                      java.math.BigDecimal minAmount, java.math.BigDecimal maxAmount,
+                                      LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userEmail));
-        
-        Long cid = (companyId != null && companyId > 0) ? companyId : null;
-        
-        List<Expense> expenses = expenseRepository.searchExpenses(
-                user, cid, categoryId, currency, merchant, description,
-                minAmount, maxAmount, startDate, endDate
-        );
-        
-        return expenses.stream()
-                .map(this::toView)
-                .toList();
+
+        ExpenseSearch.Criteria c = new ExpenseSearch.Criteria();
+        c.userId = user.getId();
+        c.companyId = (companyId != null && companyId > 0) ? companyId : null;
+        c.categoryId = categoryId;
+        c.currency = currency;
+        c.merchant = merchant;
+        c.description = description;
+        c.text = text;
+        c.minAmount = minAmount;
+        c.maxAmount = maxAmount;
+        c.startDate = startDate;
+        c.endDate = endDate;
+
+        int offset = com.expenseapp.search.SearchCursor.decode(cursor);
+        int size = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_SEARCH_RESULTS);
+        List<Long> ids = search.ids(c, offset, size + 1);
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+
+        java.util.Map<Long, Expense> byId = new java.util.HashMap<>();
+        if (!pageIds.isEmpty()) {
+            for (Expense e : expenseRepository.findAllWithCategoryByIdIn(pageIds)) byId.put(e.getId(), e);
+        }
+        List<Expense> rows = pageIds.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+        String nextCursor = hasMore ? com.expenseapp.search.SearchCursor.encode(offset + size) : null;
+        log.debug("[Expenses] searchPage() email={}, companyId={}, text={}, offset={}, returned={}, hasMore={}",
+                userEmail, c.companyId, text, offset, rows.size(), hasMore);
+        return new ExpensePageView(toViews(rows), nextCursor, hasMore, hasMore && nextCursor == null);
     }
 
     @Transactional
     public ExpenseView approve(String approverEmail, Long expenseId, Long companyId, String notes) {
-        User approver = userRepository.findByEmail(approverEmail)
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail)
                 .orElseThrow(() -> new RuntimeException("User not found: " + approverEmail));
         
         Expense expense = expenseRepository.findById(expenseId)
@@ -617,12 +793,8 @@ public class ExpenseService {
             canApprove = true;
         } else if (companyId != null && companyId > 0) {
             // Check company role
-            com.expenseapp.company.CompanyMember membership = companyMemberRepository
-                    .findByCompanyIdAndUserId(companyId, approver.getId())
-                    .orElse(null);
-            
-            if (membership != null) {
-                String role = membership.getRole();
+            String role = companyRoleResolver.roleOf(companyId, approver.getId());
+            if (role != null) {
                 // ADMIN can approve all company expenses
                 if ("ADMIN".equals(role)) {
                     canApprove = true;
@@ -659,7 +831,7 @@ public class ExpenseService {
 
     @Transactional
     public ExpenseView reject(String approverEmail, Long expenseId, Long companyId, String reason) {
-        User approver = userRepository.findByEmail(approverEmail)
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail)
                 .orElseThrow(() -> new RuntimeException("User not found: " + approverEmail));
         
         Expense expense = expenseRepository.findById(expenseId)
@@ -672,12 +844,8 @@ public class ExpenseService {
             canReject = true;
         } else if (companyId != null && companyId > 0) {
             // Check company role
-            com.expenseapp.company.CompanyMember membership = companyMemberRepository
-                    .findByCompanyIdAndUserId(companyId, approver.getId())
-                    .orElse(null);
-            
-            if (membership != null) {
-                String role = membership.getRole();
+            String role = companyRoleResolver.roleOf(companyId, approver.getId());
+            if (role != null) {
                 // ADMIN can reject all company expenses
                 if ("ADMIN".equals(role)) {
                     canReject = true;
@@ -713,6 +881,10 @@ public class ExpenseService {
      * Check if a user can view a specific expense based on role hierarchy
      */
     public boolean canViewExpense(User viewer, Expense expense) {
+        return canView(viewer, expense, rolesFor(expense));
+    }
+
+    private boolean canView(User viewer, Expense expense, java.util.Map<Long, String> companyRoles) {
         // Owner can always view
         if (expense.getUser().getId().equals(viewer.getId())) {
             return true;
@@ -724,35 +896,16 @@ public class ExpenseService {
         }
         
         // For company expenses, check role-based access
-        if (expense.getCompanyId() != null) {
-            com.expenseapp.company.Company company = companyRepository.findById(expense.getCompanyId()).orElse(null);
-            if (company == null) return false;
-            
-            java.util.Optional<com.expenseapp.company.CompanyMember> memberOpt = 
-                companyMemberRepository.findByCompanyAndUser(company, viewer);
-            
-            if (memberOpt.isEmpty()) return false;
-            
-            String viewerRole = memberOpt.get().getRole();
-            
-            // ADMIN can view all company expenses
-            if ("ADMIN".equals(viewerRole)) {
-                return true;
-            }
-            
-            // MANAGER can view employee expenses
-            if ("MANAGER".equals(viewerRole)) {
-                // Check if expense owner is an employee
-                java.util.Optional<com.expenseapp.company.CompanyMember> ownerMemberOpt = 
-                    companyMemberRepository.findByCompanyAndUser(company, expense.getUser());
-                
-                if (ownerMemberOpt.isPresent() && "EMPLOYEE".equals(ownerMemberOpt.get().getRole())) {
-                    return true;
-                }
-            }
+        String viewerRole = companyRoles.get(viewer.getId());
+        if (viewerRole == null) return false;
+        
+        // ADMIN can view all company expenses
+        if ("ADMIN".equals(viewerRole)) {
+            return true;
         }
         
-        return false;
+        // MANAGER can view employee expenses
+        return "MANAGER".equals(viewerRole) && "EMPLOYEE".equals(companyRoles.get(expense.getUser().getId()));
     }
     
     /**
@@ -770,33 +923,22 @@ public class ExpenseService {
         }
         
         // For company expenses, check role-based approval
-        if (expense.getCompanyId() != null) {
-            com.expenseapp.company.Company company = companyRepository.findById(expense.getCompanyId()).orElse(null);
-            if (company == null) return false;
-            
-            java.util.Optional<com.expenseapp.company.CompanyMember> approverMemberOpt = 
-                companyMemberRepository.findByCompanyAndUser(company, approver);
-            
-            if (approverMemberOpt.isEmpty()) return false;
-            
-            String approverRole = approverMemberOpt.get().getRole();
-            
-            // ADMIN can approve all reimbursements
-            if ("ADMIN".equals(approverRole)) {
-                return true;
-            }
-            
-            // MANAGER can approve employee reimbursements only
-            if ("MANAGER".equals(approverRole)) {
-                java.util.Optional<com.expenseapp.company.CompanyMember> ownerMemberOpt = 
-                    companyMemberRepository.findByCompanyAndUser(company, expense.getUser());
-                
-                if (ownerMemberOpt.isPresent() && "EMPLOYEE".equals(ownerMemberOpt.get().getRole())) {
-                    return true;
-                }
-            }
+        java.util.Map<Long, String> companyRoles = rolesFor(expense);
+        String approverRole = companyRoles.get(approver.getId());
+        if (approverRole == null) return false;
+        
+        // ADMIN can approve all reimbursements
+        if ("ADMIN".equals(approverRole)) {
+            return true;
         }
         
-        return false;
+        // MANAGER can approve employee reimbursements only
+        return "MANAGER".equals(approverRole) && "EMPLOYEE".equals(companyRoles.get(expense.getUser().getId()));
+    }
+
+    private java.util.Map<Long, String> rolesFor(Expense expense) {
+        return expense.getCompanyId() != null
+                ? companyRoleResolver.rolesOf(expense.getCompanyId())
+                : java.util.Map.of();
     }
 }
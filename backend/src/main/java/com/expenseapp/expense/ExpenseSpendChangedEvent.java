@@ -0,0 +1,44 @@
+package com.expenseapp.expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published by {@link ExpenseRollupService} whenever an expense write changes spend, inside the writer's
+ * transaction. An update that moves an expense carries both the debit of the old bucket and the credit of
+ * the new one, so listeners can evaluate the net effect once.
+ */
+public class ExpenseSpendChangedEvent {
+
+    /** Signed amount added to (or removed from) one user/day/category/group bucket. */
+    public static final class Delta {
+        private final Long userId;
+        private final LocalDate day;
+        private final Long categoryId; // null when uncategorized
+        private final Long groupId;    // null when not linked to a group
+        private final BigDecimal amount;
+
+        public Delta(Long userId, LocalDate day, Long categoryId, Long groupId, BigDecimal amount) {
+            this.userId = userId;
+            this.day = day;
+            this.categoryId = categoryId;
+            this.groupId = groupId;
+            this.amount = amount;
+        }
+
+        public Long getUserId() { return userId; }
+        public LocalDate getDay() { return day; }
+        public Long getCategoryId() { return categoryId; }
+        public Long getGroupId() { return groupId; }
+        public BigDecimal getAmount() { return amount; }
+    }
+
+    private final List<Delta> deltas;
+
+    public ExpenseSpendChangedEvent(List<Delta> deltas) {
+        this.deltas = List.copyOf(deltas);
+    }
+
+    public List<Delta> getDeltas() { return deltas; }
+}
@@ -0,0 +1,111 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.config.AsyncConfig;
+import com.expenseapp.fx.FXService;
+import com.expenseapp.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Clears {@code expenses.fx_pending} (V69) once the missing rate has been fetched. Expenses are saved with the
+ * flag when {@link FXService#requestRate} could not answer from stored rates; {@link #track} clears it when that
+ * fetch completes, and {@link #retry} periodically re-requests rates for anything still pending (fetches that
+ * found nothing, failed, or finished before the expense committed). Bulk imports use {@link #backfillAfterCommit},
+ * which fetches whole date ranges instead of one (currency, date) key at a time.
+ */
+@Component
+public class PendingFxRates {
+    private static final Logger log = LoggerFactory.getLogger(PendingFxRates.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FXService fxService;
+    private final Executor executor;
+    private final int retryBatch;
+
+    public PendingFxRates(JdbcTemplate jdbcTemplate, FXService fxService,
+                          @Qualifier(AsyncConfig.IO_EXECUTOR) Executor executor,
+                          @Value("${app.fx.pending.retry-batch:100}") int retryBatch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fxService = fxService;
+        this.executor = executor;
+        this.retryBatch = Math.max(1, retryBatch);
+    }
+
+    /**
+     * Clear the flag of expenses in {@code currency} dated {@code date} when {@code rate} completes with a rate.
+     * Registered after the surrounding transaction commits so the flagged rows are visible to the update, and run
+     * on the I/O executor: a future that is already complete would otherwise run the update on the committing
+     * thread, inside the finished transaction.
+     */
+    public void track(String currency, LocalDate date, CompletableFuture<BigDecimal> rate) {
+        Runnable attach = () -> rate.thenAcceptAsync(r -> {
+            if (r != null) clear(currency, date);
+        }, executor);
+        TransactionCallbacks.runAfterCommit(attach);
+    }
+
+    /**
+     * After commit, backfill each currency's {@code [from, to]} range ({@code ranges} maps a currency to a
+     * two-element array) with one range request on the I/O executor, then clear the flag of every pending expense
+     * in that range a stored rate now covers. Whatever is still pending afterwards is left to {@link #retry}.
+     */
+    public void backfillAfterCommit(Map<String, LocalDate[]> ranges) {
+        if (ranges.isEmpty()) return;
+        Map<String, LocalDate[]> copy = Map.copyOf(ranges);
+        Runnable submit = () -> copy.forEach((currency, range) -> executor.execute(() -> {
+            try {
+                fxService.backfill(range[0], range[1], List.of(currency));
+                int cleared = jdbcTemplate.update("""
+                    UPDATE expenses e SET fx_pending = FALSE
+                    WHERE e.fx_pending AND e.currency = ? AND e.occurred_on BETWEEN ? AND ?
+                      AND EXISTS (SELECT 1 FROM fx_rates f WHERE f.currency = e.currency AND f.rate_date <= e.occurred_on)
+                    """, currency, Date.valueOf(range[0]), Date.valueOf(range[1]));
+                log.info("[Expenses] FX backfill for {} {}..{} cleared {} pending expense(s)", currency, range[0], range[1], cleared);
+            } catch (Exception e) {
+                log.warn("[Expenses] FX backfill for {} {}..{} failed: {}", currency, range[0], range[1], e.getMessage());
+            }
+        }));
+        TransactionCallbacks.runAfterCommit(submit);
+    }
+
+    @Scheduled(fixedDelayString = "${app.fx.pending.retry-ms:300000}", initialDelayString = "${app.fx.pending.retry-ms:300000}")
+    public void retry() {
+        List<Object[]> keys = jdbcTemplate.query("""
+            SELECT DISTINCT currency, occurred_on FROM expenses WHERE fx_pending
+            ORDER BY occurred_on DESC LIMIT ?
+            """, (rs, i) -> new Object[]{rs.getString(1), rs.getDate(2).toLocalDate()}, retryBatch);
+        if (keys.isEmpty()) return;
+        log.info("[Expenses] Retrying FX rates for {} pending (currency, date) key(s)", keys.size());
+        for (Object[] key : keys) {
+            String currency = (String) key[0];
+            LocalDate date = (LocalDate) key[1];
+            try {
+                track(currency, date, fxService.requestRate(date, currency));
+            } catch (Exception e) {
+                log.warn("[Expenses] FX retry for {} on {} failed: {}", currency, date, e.getMessage());
+            }
+        }
+    }
+
+    int clear(String currency, LocalDate date) {
+        int cleared = jdbcTemplate.update("UPDATE expenses SET fx_pending = FALSE WHERE fx_pending AND currency = ? AND occurred_on = ?",
+                currency, Date.valueOf(date));
+        if (cleared > 0) {
+            log.debug("[Expenses] FX rate for {} on {} available; cleared {} pending expense(s)", currency, date, cleared);
+        }
+        return cleared;
+    }
+}
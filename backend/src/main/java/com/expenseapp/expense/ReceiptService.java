@@ -4,6 +4,7 @@ import com.expenseapp.expense.dto.ReceiptView;
 import com.expenseapp.receipt.Receipt;
 import com.expenseapp.receipt.ReceiptRepository;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.format.DateTimeFormatter;
@@ -21,7 +22,7 @@ public class ReceiptService {
 
     @Transactional
     public ReceiptView processOcr(String email, Long receiptId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Receipt receipt = receiptRepository.findById(receiptId).orElseThrow();
         if (!receipt.getExpense().getUser().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Not found");
@@ -41,7 +42,7 @@ public class ReceiptService {
 
     @Transactional(readOnly = true)
     public ReceiptView getReceipt(String email, Long receiptId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) throw new IllegalArgumentException("Not found");
         return new ReceiptView(r.getId(), r.getFileName(), r.getStatus(), r.getCreatedAt(), r.getExtractedJson());
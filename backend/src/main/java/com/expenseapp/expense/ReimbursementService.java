@@ -1,11 +1,10 @@
 package com.expenseapp.expense;
 
-import com.expenseapp.company.Company;
-import com.expenseapp.company.CompanyMember;
-import com.expenseapp.company.CompanyMemberRepository;
 import com.expenseapp.company.CompanyRepository;
+import com.expenseapp.company.CompanyRoleResolver;
 import com.expenseapp.notification.NotificationPublisher;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,14 +22,14 @@ public class ReimbursementService {
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
     private final CompanyRepository companyRepository;
-    private final CompanyMemberRepository companyMemberRepository;
+    private final CompanyRoleResolver companyRoleResolver;
     private final NotificationPublisher notificationPublisher;
     
     @Transactional
     public Expense requestReimbursement(String userEmail, Long expenseId) {
         log.info("[ReimbursementService] Requesting reimbursement - User: {}, ExpenseId: {}", userEmail, expenseId);
         
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Expense expense = expenseRepository.findById(expenseId)
@@ -81,7 +80,7 @@ public class ReimbursementService {
     
     @Transactional
     public Expense approveReimbursement(String approverEmail, Long expenseId, String notes) {
-        User approver = userRepository.findByEmail(approverEmail)
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Expense expense = expenseRepository.findById(expenseId)
@@ -117,7 +116,7 @@ public class ReimbursementService {
     
     @Transactional
     public Expense rejectReimbursement(String approverEmail, Long expenseId, String reason) {
-        User approver = userRepository.findByEmail(approverEmail)
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Expense expense = expenseRepository.findById(expenseId)
@@ -154,7 +153,7 @@ public class ReimbursementService {
     
     @Transactional
     public Expense markAsPaid(String approverEmail, Long expenseId) {
-        User approver = userRepository.findByEmail(approverEmail)
+        User approver = RequestPrincipal.findByEmail(userRepository, approverEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Expense expense = expenseRepository.findById(expenseId)
@@ -193,7 +192,7 @@ public class ReimbursementService {
     public List<Expense> listPendingReimbursements(String managerEmail, Long companyId) {
         log.info("[ReimbursementService] Listing pending reimbursements for manager: {}, companyId: {}", managerEmail, companyId);
         
-        User manager = userRepository.findByEmail(managerEmail)
+        User manager = RequestPrincipal.findByEmail(userRepository, managerEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         // Verify manager has permission
@@ -214,7 +213,7 @@ public class ReimbursementService {
     
     @Transactional(readOnly = true)
     public List<Expense> listReimbursementHistory(String managerEmail, Long companyId) {
-        User manager = userRepository.findByEmail(managerEmail)
+        User manager = RequestPrincipal.findByEmail(userRepository, managerEmail)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         // Verify manager has permission
@@ -226,13 +225,7 @@ public class ReimbursementService {
     
     // Overload for listing reimbursements - just check if user has permission to view
     private void verifyCanApproveReimbursement(User user, Long companyId) {
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> new IllegalArgumentException("Company not found"));
-        
-        CompanyMember member = companyMemberRepository.findByCompanyAndUser(company, user)
-            .orElseThrow(() -> new IllegalArgumentException("Not a member of this company"));
-        
-        String role = member.getRole();
+        String role = requireRole(companyId, user);
         if (!"ADMIN".equals(role) && !"MANAGER".equals(role) && !"OWNER".equals(role)) {
             throw new IllegalArgumentException("Only OWNER, ADMIN or MANAGER can view reimbursements");
         }
@@ -240,13 +233,7 @@ public class ReimbursementService {
     
     // Check if user can approve a specific expense's reimbursement
     private void verifyCanApproveReimbursement(User approver, Long companyId, Expense expense) {
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> new IllegalArgumentException("Company not found"));
-        
-        CompanyMember approverMember = companyMemberRepository.findByCompanyAndUser(company, approver)
-            .orElseThrow(() -> new IllegalArgumentException("Not a member of this company"));
-        
-        String approverRole = approverMember.getRole();
+        String approverRole = requireRole(companyId, approver);
         
         // OWNER and ADMIN can approve all reimbursements
         if ("OWNER".equals(approverRole) || "ADMIN".equals(approverRole)) {
@@ -256,10 +243,10 @@ public class ReimbursementService {
         // MANAGER can only approve EMPLOYEE reimbursements
         if ("MANAGER".equals(approverRole)) {
             // Get expense owner's role
-            CompanyMember expenseOwnerMember = companyMemberRepository.findByCompanyAndUser(company, expense.getUser())
-                .orElseThrow(() -> new IllegalArgumentException("Expense owner not found in company"));
-            
-            String ownerRole = expenseOwnerMember.getRole();
+            String ownerRole = companyRoleResolver.roleOf(companyId, expense.getUser().getId());
+            if (ownerRole == null) {
+                throw new IllegalArgumentException("Expense owner not found in company");
+            }
             
             if ("EMPLOYEE".equals(ownerRole)) {
                 return; // Manager can approve employee expenses
@@ -272,27 +259,33 @@ public class ReimbursementService {
         throw new IllegalArgumentException("Only OWNER, ADMIN or MANAGER can approve reimbursements");
     }
     
+    // Role from the cached company role map; the company lookup only runs for non-members
+    private String requireRole(Long companyId, User user) {
+        String role = companyRoleResolver.roleOf(companyId, user.getId());
+        if (role != null) return role;
+        if (!companyRepository.existsById(companyId)) {
+            throw new IllegalArgumentException("Company not found");
+        }
+        throw new IllegalArgumentException("Not a member of this company");
+    }
+    
     private void notifyAdminsOfReimbursementRequest(Expense expense) {
-        Company company = companyRepository.findById(expense.getCompanyId()).orElse(null);
-        if (company == null) return;
-        
         // Find all owners, admins and managers
-        List<CompanyMember> adminMembers = companyMemberRepository.findAllByCompany(company).stream()
-            .filter(m -> "OWNER".equals(m.getRole()) || "ADMIN".equals(m.getRole()) || "MANAGER".equals(m.getRole()))
+        List<Long> adminUserIds = companyRoleResolver.rolesOf(expense.getCompanyId()).entrySet().stream()
+            .filter(m -> "OWNER".equals(m.getValue()) || "ADMIN".equals(m.getValue()) || "MANAGER".equals(m.getValue()))
+            .map(java.util.Map.Entry::getKey)
             .toList();
         
-        // Send notification to each
-        for (CompanyMember admin : adminMembers) {
-            notificationPublisher.publish(
-                admin.getUser().getId(),
-                "REIMBURSEMENT_REQUEST",
-                "New Reimbursement Request",
-                String.format("%s requested reimbursement for %s %.2f", 
-                    expense.getUser().getEmail(), expense.getCurrency(), expense.getAmount()),
-                String.format("{\"type\":\"reimbursement_request\",\"expenseId\":%d,\"userId\":%d}", 
-                    expense.getId(), expense.getUser().getId()),
-                expense.getCompanyId()
-            );
-        }
+        // One batched notification for all of them
+        notificationPublisher.publishAll(
+            adminUserIds,
+            "REIMBURSEMENT_REQUEST",
+            "New Reimbursement Request",
+            String.format("%s requested reimbursement for %s %.2f", 
+                expense.getUser().getEmail(), expense.getCurrency(), expense.getAmount()),
+            String.format("{\"type\":\"reimbursement_request\",\"expenseId\":%d,\"userId\":%d}", 
+                expense.getId(), expense.getUser().getId()),
+            expense.getCompanyId()
+        );
     }
 }
@@ -0,0 +1,95 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.expense.dto.ExpenseAmountRow;
+import com.expenseapp.fx.FXRateTable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Single-pass base-currency accumulator. Each row is converted exactly once (same rounding as
+ * {@link com.expenseapp.fx.FXService#convertToBase}) and added as scaled {@code long} minor units to the
+ * total, its category, its day and its group. Day buckets are a flat array over [from, to], so the range is
+ * capped at {@link #MAX_DAYS}.
+ */
+public class SpendAccumulator {
+
+    /** Widest range accepted, about ten years; wider requests are rejected rather than sized by the caller. */
+    public static final int MAX_DAYS = 3_660;
+
+    private final FXRateTable rates;
+    private final LocalDate from;
+    private final long[] byDay;
+    private final boolean[] dayHasRows;
+    private final Map<Long, long[]> byCategory = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, long[]> byGroup = new HashMap<>();
+    private long total;
+    private int rows;
+
+    public SpendAccumulator(FXRateTable rates, LocalDate from, LocalDate to) {
+        int days = checkRange(from, to);
+        this.rates = rates;
+        this.from = from;
+        this.byDay = new long[days];
+        this.dayHasRows = new boolean[days];
+    }
+
+    /** Number of days in [from, to]; throws when the range is reversed or wider than {@link #MAX_DAYS}. */
+    public static int checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+        }
+        long days = to.toEpochDay() - from.toEpochDay() + 1;
+        if (days > MAX_DAYS) {
+            throw new IllegalArgumentException("Range " + from + " to " + to + " spans " + days
+                    + " days; at most " + MAX_DAYS + " are allowed");
+        }
+        return (int) days;
+    }
+
+    public void add(ExpenseAmountRow row) {
+        add(row.getOccurredOn(), row.getCurrency(), row.getAmount(), row.getCategoryId(), row.getCategoryName(), row.getGroupId());
+    }
+
+    public void add(LocalDate occurredOn, String currency, BigDecimal amount, Long categoryId, String categoryName, Long groupId) {
+        if (amount == null) return;
+        long minor = rates.convertToBase(occurredOn, currency, amount).unscaledValue().longValueExact();
+        total += minor;
+        rows++;
+
+        long cat = categoryId != null ? categoryId : SpendAggregate.UNCATEGORIZED;
+        byCategory.computeIfAbsent(cat, k -> new long[1])[0] += minor;
+        if (categoryName != null) categoryNames.putIfAbsent(cat, categoryName);
+
+        long grp = groupId != null ? groupId : SpendAggregate.NO_GROUP;
+        byGroup.computeIfAbsent(grp, k -> new long[1])[0] += minor;
+
+        if (occurredOn != null) {
+            long idx = occurredOn.toEpochDay() - from.toEpochDay();
+            if (idx >= 0 && idx < byDay.length) {
+                byDay[(int) idx] += minor;
+                dayHasRows[(int) idx] = true;
+            }
+        }
+    }
+
+    public SpendAggregate result() {
+        Map<Long, BigDecimal> categories = new HashMap<>();
+        byCategory.forEach((k, v) -> categories.put(k, toAmount(v[0])));
+        Map<Long, BigDecimal> groups = new HashMap<>();
+        byGroup.forEach((k, v) -> groups.put(k, toAmount(v[0])));
+        TreeMap<LocalDate, BigDecimal> days = new TreeMap<>();
+        for (int i = 0; i < byDay.length; i++) {
+            if (dayHasRows[i]) days.put(from.plusDays(i), toAmount(byDay[i]));
+        }
+        return new SpendAggregate(toAmount(total), categories, new HashMap<>(categoryNames), days, groups, rows);
+    }
+
+    private static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
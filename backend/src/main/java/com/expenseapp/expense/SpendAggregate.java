@@ -0,0 +1,36 @@
+package com.expenseapp.expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Base-currency spend totals for one scope and date window, produced by {@link SpendAccumulator}.
+ * Expenses without a category or group are keyed by {@link #UNCATEGORIZED} / {@link #NO_GROUP}.
+ */
+public class SpendAggregate {
+
+    public static final long UNCATEGORIZED = -1L;
+    public static final long NO_GROUP = -1L;
+
+    private final BigDecimal total;
+    private final Map<Long, BigDecimal> byCategory;
+    private final Map<Long, String> categoryNames;
+    private final NavigableMap<LocalDate, BigDecimal> byDay;
+    private final Map<Long, BigDecimal> byGroup;
+    private final int rowCount;
+
+    public SpendAggregate(BigDecimal total, Map<Long, BigDecimal> byCategory, Map<Long, String> categoryNames,
+                          NavigableMap<LocalDate, BigDecimal> byDay, Map<Long, BigDecimal> byGroup, int rowCount) {
+        this.total = total; this.byCategory = byCategory; this.categoryNames = categoryNames;
+        this.byDay = byDay; this.byGroup = byGroup; this.rowCount = rowCount;
+    }
+
+    public BigDecimal getTotal() { return total; }
+    public Map<Long, BigDecimal> getByCategory() { return byCategory; }
+    public Map<Long, String> getCategoryNames() { return categoryNames; }
+    public NavigableMap<LocalDate, BigDecimal> getByDay() { return byDay; }
+    public Map<Long, BigDecimal> getByGroup() { return byGroup; }
+    public int getRowCount() { return rowCount; }
+}
@@ -0,0 +1,54 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.expense.dto.ExpenseAmountRow;
+import com.expenseapp.fx.FXRateTable;
+import com.expenseapp.fx.FXService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Computes base-currency totals (overall, by category, by day, by group) for a user or group in one
+ * pass over projection rows. Rates for the window are loaded once via {@link FXService#rateTable}. Ranges are
+ * checked against {@link SpendAccumulator#MAX_DAYS} before anything is loaded.
+ */
+@Component
+public class SpendAggregator {
+
+    private final ExpenseRepository expenseRepository;
+    private final FXService fxService;
+
+    public SpendAggregator(ExpenseRepository expenseRepository, FXService fxService) {
+        this.expenseRepository = expenseRepository;
+        this.fxService = fxService;
+    }
+
+    @Transactional(readOnly = true)
+    public SpendAggregate forUser(Long userId, LocalDate from, LocalDate to) {
+        SpendAccumulator.checkRange(from, to);
+        return aggregate(expenseRepository.findAmountRowsByUser(userId, from, to), from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public SpendAggregate forGroup(Long groupId, LocalDate from, LocalDate to) {
+        SpendAccumulator.checkRange(from, to);
+        return aggregate(expenseRepository.findAmountRowsByGroup(groupId, from, to), from, to);
+    }
+
+    private SpendAggregate aggregate(List<ExpenseAmountRow> rows, LocalDate from, LocalDate to) {
+        Set<String> currencies = new HashSet<>();
+        for (ExpenseAmountRow r : rows) {
+            if (r.getCurrency() != null) currencies.add(r.getCurrency());
+        }
+        FXRateTable rates = fxService.rateTable(currencies, from, to);
+        SpendAccumulator acc = new SpendAccumulator(rates, from, to);
+        for (ExpenseAmountRow r : rows) {
+            acc.add(r);
+        }
+        return acc.result();
+    }
+}
@@ -0,0 +1,92 @@
+package com.expenseapp.expense;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Company and group spend for budget tracking, summed from {@code expense_daily_rollups} over
+ * {@code (company_id, day)} / {@code (group_id, day)} index ranges. Date bounds are inclusive. Amounts are raw
+ * sums across currencies, as the budget screens have always shown them.
+ * <p>
+ * The {@code recalculate*} methods refresh every active budget in one grouped statement and return the
+ * previous spent amount of each budget whose value changed, so callers can detect threshold crossings.
+ */
+@Service
+public class SpendQueryService {
+
+    private static final String RECALCULATE_COMPANY_SQL = """
+        UPDATE company_budgets cb
+        SET spent_amount = s.total, updated_at = NOW()
+        FROM (
+            SELECT b.id, b.spent_amount AS previous, COALESCE(SUM(r.amount), 0) AS total
+            FROM company_budgets b
+            LEFT JOIN expense_daily_rollups r
+              ON r.company_id = b.company_id AND r.day BETWEEN b.period_start AND b.period_end
+            WHERE b.is_active
+            GROUP BY b.id, b.spent_amount
+        ) s
+        WHERE s.id = cb.id AND cb.spent_amount IS DISTINCT FROM s.total
+        RETURNING cb.id, s.previous
+        """;
+
+    private static final String RECALCULATE_TEAM_SQL = """
+        UPDATE team_budget_tracking tb
+        SET spent_amount = s.total, updated_at = NOW()
+        FROM (
+            SELECT b.id, b.spent_amount AS previous, COALESCE(SUM(r.amount), 0) AS total
+            FROM team_budget_tracking b
+            LEFT JOIN expense_daily_rollups r
+              ON r.group_id = b.group_id AND r.day BETWEEN b.period_start AND b.period_end
+            WHERE b.is_active
+            GROUP BY b.id, b.spent_amount
+        ) s
+        WHERE s.id = tb.id AND tb.spent_amount IS DISTINCT FROM s.total
+        RETURNING tb.id, s.previous
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SpendQueryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public BigDecimal companySpend(Long companyId, LocalDate from, LocalDate to) {
+        return sum("SELECT COALESCE(SUM(amount), 0) FROM expense_daily_rollups WHERE company_id = ? AND day BETWEEN ? AND ?",
+                companyId, from, to);
+    }
+
+    public BigDecimal groupSpend(Long groupId, LocalDate from, LocalDate to) {
+        return sum("SELECT COALESCE(SUM(amount), 0) FROM expense_daily_rollups WHERE group_id = ? AND day BETWEEN ? AND ?",
+                groupId, from, to);
+    }
+
+    /** Refresh spent on all active company budgets; returns budget id to previous spent for the ones that changed. */
+    public Map<Long, BigDecimal> recalculateActiveCompanyBudgets() {
+        return changed(RECALCULATE_COMPANY_SQL);
+    }
+
+    /** Refresh spent on all active team budgets; returns budget id to previous spent for the ones that changed. */
+    public Map<Long, BigDecimal> recalculateActiveTeamBudgets() {
+        return changed(RECALCULATE_TEAM_SQL);
+    }
+
+    private BigDecimal sum(String sql, Long id, LocalDate from, LocalDate to) {
+        if (id == null) return BigDecimal.ZERO;
+        BigDecimal total = jdbcTemplate.queryForObject(sql, BigDecimal.class, id, from, to);
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
+    private Map<Long, BigDecimal> changed(String sql) {
+        Map<Long, BigDecimal> previous = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            BigDecimal before = rs.getBigDecimal(2);
+            previous.put(rs.getLong(1), before != null ? before : BigDecimal.ZERO);
+        });
+        return previous;
+    }
+}
@@ -2,6 +2,8 @@ package com.expenseapp.expense;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface SplitShareRepository extends JpaRepository<SplitShare, Long> {
@@ -9,4 +11,8 @@ public interface SplitShareRepository extends JpaRepository<SplitShare, Long> {
     long countPendingForUser(Long userId);
     
     List<SplitShare> findByExpenseId(Long expenseId);
+
+    // Which of the given expenses have at least one split share (one query for a whole page)
+    @Query("SELECT DISTINCT s.expense.id FROM SplitShare s WHERE s.expense.id IN :expenseIds")
+    List<Long> findExpenseIdsWithShares(@Param("expenseIds") Collection<Long> expenseIds);
 }
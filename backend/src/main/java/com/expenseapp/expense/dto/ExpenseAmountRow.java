@@ -0,0 +1,30 @@
+package com.expenseapp.expense.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Minimal per-expense row for in-memory aggregation; selected with a JPQL constructor
+ * expression so no Expense entities (or their lazy associations) are hydrated.
+ */
+public class ExpenseAmountRow {
+    private final LocalDate occurredOn;
+    private final BigDecimal amount;
+    private final String currency;
+    private final Long categoryId;
+    private final String categoryName;
+    private final Long groupId;
+
+    public ExpenseAmountRow(LocalDate occurredOn, BigDecimal amount, String currency,
+                            Long categoryId, String categoryName, Long groupId) {
+        this.occurredOn = occurredOn; this.amount = amount; this.currency = currency;
+        this.categoryId = categoryId; this.categoryName = categoryName; this.groupId = groupId;
+    }
+
+    public LocalDate getOccurredOn() { return occurredOn; }
+    public BigDecimal getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public Long getCategoryId() { return categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public Long getGroupId() { return groupId; }
+}
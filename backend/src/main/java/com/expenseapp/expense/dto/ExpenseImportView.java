@@ -0,0 +1,55 @@
+package com.expenseapp.expense.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class ExpenseImportView {
+    private Long id;
+    private String status;
+    private String fileName;
+    private Long companyId;
+    private int checkpointRow;
+    private int rowsImported;
+    private int rowsFailed;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+    private List<RowError> errors;
+
+    public ExpenseImportView(Long id, String status, String fileName, Long companyId, int checkpointRow,
+                             int rowsImported, int rowsFailed, String errorMessage,
+                             Instant createdAt, Instant updatedAt, Instant completedAt) {
+        this.id = id; this.status = status; this.fileName = fileName; this.companyId = companyId;
+        this.checkpointRow = checkpointRow; this.rowsImported = rowsImported; this.rowsFailed = rowsFailed;
+        this.errorMessage = errorMessage; this.createdAt = createdAt; this.updatedAt = updatedAt;
+        this.completedAt = completedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getStatus() { return status; }
+    public String getFileName() { return fileName; }
+    public Long getCompanyId() { return companyId; }
+    public int getCheckpointRow() { return checkpointRow; }
+    public int getRowsImported() { return rowsImported; }
+    public int getRowsFailed() { return rowsFailed; }
+    public String getErrorMessage() { return errorMessage; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    /** A data row (1-based, header excluded) that was not imported, and why. */
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError(int row, String message) {
+            this.row = row; this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,24 @@
+package com.expenseapp.expense.dto;
+
+import java.util.List;
+
+public class ExpensePageView {
+    private List<ExpenseView> items;
+    private String nextCursor;
+    private boolean hasMore;
+    // Search pages only: more matches exist past SearchCursor.MAX_OFFSET, so nextCursor is null although hasMore is set
+    private boolean truncated;
+
+    public ExpensePageView(List<ExpenseView> items, String nextCursor, boolean hasMore) {
+        this(items, nextCursor, hasMore, false);
+    }
+
+    public ExpensePageView(List<ExpenseView> items, String nextCursor, boolean hasMore, boolean truncated) {
+        this.items = items; this.nextCursor = nextCursor; this.hasMore = hasMore; this.truncated = truncated;
+    }
+
+    public List<ExpenseView> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public boolean isTruncated() { return truncated; }
+}
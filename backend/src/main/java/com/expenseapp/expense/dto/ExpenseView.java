@@ -24,6 +24,9 @@ public class ExpenseView {
     private String receiptFileName;
     private Long receiptFileSize;
     private String receiptFileType;
+    private boolean fxPending;
+    private String receiptThumbnailUrl;
+    private String receiptPreviewUrl;
 
     public ExpenseView(Long id, BigDecimal amount, String currency, BigDecimal baseAmount, String baseCurrency, LocalDate occurredOn,
                        Long companyId, Long categoryId, String categoryName, String description, String notes, String merchant,
@@ -54,4 +57,11 @@ public class ExpenseView {
     public String getReceiptFileName() { return receiptFileName; }
     public Long getReceiptFileSize() { return receiptFileSize; }
     public String getReceiptFileType() { return receiptFileType; }
+    /** True while the FX rate is still being fetched; {@code baseAmount} is null until then. */
+    public boolean isFxPending() { return fxPending; }
+    public void setFxPending(boolean fxPending) { this.fxPending = fxPending; }
+    public String getReceiptThumbnailUrl() { return receiptThumbnailUrl; }
+    public void setReceiptThumbnailUrl(String receiptThumbnailUrl) { this.receiptThumbnailUrl = receiptThumbnailUrl; }
+    public String getReceiptPreviewUrl() { return receiptPreviewUrl; }
+    public void setReceiptPreviewUrl(String receiptPreviewUrl) { this.receiptPreviewUrl = receiptPreviewUrl; }
 }
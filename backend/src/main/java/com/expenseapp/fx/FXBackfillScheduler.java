@@ -7,8 +7,14 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class FXBackfillScheduler {
@@ -17,17 +23,20 @@ public class FXBackfillScheduler {
     private final FXService fxService;
     private final boolean enabled;
     private final List<String> currencies;
+    private final int concurrency;
 
     public FXBackfillScheduler(
             FXService fxService,
             @Value("${fx.backfill.enabled:false}") boolean enabled,
-            @Value("${fx.backfill.currencies:}") String currenciesCsv
+            @Value("${fx.backfill.currencies:}") String currenciesCsv,
+            @Value("${fx.backfill.concurrency:4}") int concurrency
     ) {
         this.fxService = fxService;
         this.enabled = enabled;
         this.currencies = currenciesCsv == null || currenciesCsv.isBlank()
                 ? java.util.Collections.emptyList()
                 : Arrays.stream(currenciesCsv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        this.concurrency = Math.max(1, concurrency);
     }
 
     // Run daily at 02:15 AM server time
@@ -35,9 +44,47 @@ public class FXBackfillScheduler {
     public void backfillPreviousDay() {
         if (!enabled || currencies.isEmpty()) return;
         LocalDate yesterday = LocalDate.now().minusDays(1);
-        int inserted = fxService.backfill(yesterday, yesterday, currencies);
+        int inserted = backfill(yesterday, yesterday, currencies);
         if (inserted > 0) {
             log.info("FX backfill inserted {} rates for {}", inserted, yesterday);
         }
     }
+
+    /**
+     * Backfill each currency as its own task, at most {@code fx.backfill.concurrency} at a time, so one slow
+     * provider response does not hold up the others. A currency that fails is logged and skipped.
+     */
+    int backfill(LocalDate from, LocalDate to, List<String> currencies) {
+        int workers = Math.min(concurrency, currencies.size());
+        if (workers <= 1) {
+            return fxService.backfill(from, to, currencies);
+        }
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "fx-backfill-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Integer>> results = new ArrayList<>(currencies.size());
+            for (String currency : currencies) {
+                results.add(pool.submit(() -> fxService.backfill(from, to, List.of(currency))));
+            }
+            int inserted = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    inserted += results.get(i).get();
+                } catch (ExecutionException e) {
+                    log.error("FX backfill for {} between {} and {} failed: {}", currencies.get(i), from, to,
+                            e.getCause() != null ? e.getCause().toString() : e.toString());
+                }
+            }
+            return inserted;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package com.expenseapp.fx;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link FXService} rate-cache statistics to Actuator
+ * ({@code /actuator/metrics/fx.rate.cache.hits}, {@code .misses}, {@code .size}) together with the provider
+ * fetch counters ({@code fx.rate.fetch.*}).
+ */
+@Component
+public class FXCacheMetrics implements MeterBinder {
+
+    private final FXService fxService;
+
+    public FXCacheMetrics(FXService fxService) {
+        this.fxService = fxService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fx.rate.cache.hits", fxService, FXService::cacheHits)
+                .description("FX rate lookups answered from the in-process cache")
+                .register(registry);
+        FunctionCounter.builder("fx.rate.cache.misses", fxService, FXService::cacheMisses)
+                .description("FX rate lookups that required a database query")
+                .register(registry);
+        Gauge.builder("fx.rate.cache.size", fxService, FXService::cacheSize)
+                .description("FX rate rows currently cached")
+                .register(registry);
+        FunctionCounter.builder("fx.rate.fetch.started", fxService, FXService::providerFetches)
+                .description("Provider fetches started for missing rates")
+                .register(registry);
+        FunctionCounter.builder("fx.rate.fetch.coalesced", fxService, FXService::coalescedFetches)
+                .description("Rate requests that joined a fetch already in flight for the same currency and date")
+                .register(registry);
+        Gauge.builder("fx.rate.fetch.in-flight", fxService, FXService::fetchesInFlight)
+                .description("Provider fetches currently running")
+                .register(registry);
+        Gauge.builder("fx.rate.fetch.open-circuits", fxService, FXService::openProviderCircuits)
+                .description("FX providers currently skipped by their circuit breaker")
+                .register(registry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.expenseapp.fx;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Per-provider circuit breaker used by {@link FXRateResolver}. After {@code failureThreshold} consecutive
+ * failures (timeouts, 5xx, I/O errors) the provider is skipped for {@code openNanos}; then a single trial call
+ * is let through and its outcome closes or re-opens the circuit. An empty answer counts as a success: the
+ * provider is up, it just has no rate.
+ */
+class FXCircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    FXCircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = Math.max(0, openNanos);
+        this.nanoClock = nanoClock;
+    }
+
+    /** Whether a call may go out now. In half-open state only the first caller gets through. */
+    synchronized boolean allow() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void success() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void failure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            trialInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -15,8 +15,10 @@ public class FXConfig {
     @Bean
     @ConditionalOnProperty(name = "fx.provider", havingValue = "openexchangerates")
     public FXProviderClient fxProviderClient(
-            @Value("${openexchangerates.appId}") String oxrAppId
+            @Value("${openexchangerates.appId}") String oxrAppId,
+            @Value("${app.fx.provider.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${app.fx.provider.read-timeout-ms:3000}") int readTimeoutMs
     ) {
-        return new OpenExchangeRatesClient(oxrAppId);
+        return new OpenExchangeRatesClient(oxrAppId, connectTimeoutMs, readTimeoutMs);
     }
 }
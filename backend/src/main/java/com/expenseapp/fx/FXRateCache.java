@@ -0,0 +1,159 @@
+package com.expenseapp.fx;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of historical rates used by {@link FXService}.
+ *
+ * For each currency it keeps the known rates in a sorted map together with the date intervals over
+ * which that map is complete. A floor lookup ("latest rate on or before date") for a date inside a
+ * covered interval is answered from memory; anything else is a miss and the caller goes to the DB.
+ * Each interval starts at the floor rate of its first day (or at {@link LocalDate#MIN} when no earlier
+ * rate exists), so the floor of every covered date is always present in the map.
+ */
+class FXRateCache {
+
+    /** Result of a covered lookup; {@code rate} is null when no rate exists on or before the date. */
+    static final class Hit {
+        private final BigDecimal rate;
+        Hit(BigDecimal rate) { this.rate = rate; }
+        BigDecimal rate() { return rate; }
+    }
+
+    private final int maxEntriesPerCurrency;
+    private final Map<String, CurrencyRates> byCurrency = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    FXRateCache(int maxEntriesPerCurrency) {
+        this.maxEntriesPerCurrency = maxEntriesPerCurrency;
+    }
+
+    Hit lookup(String currency, LocalDate date) {
+        CurrencyRates rates = byCurrency.get(currency);
+        Hit hit = rates != null ? rates.lookup(date) : null;
+        if (hit != null) hits.increment(); else misses.increment();
+        return hit;
+    }
+
+    /** Snapshot of the rates needed to resolve any date in [from, to], or null if not fully cached. */
+    NavigableMap<LocalDate, BigDecimal> window(String currency, LocalDate from, LocalDate to) {
+        CurrencyRates rates = byCurrency.get(currency);
+        NavigableMap<LocalDate, BigDecimal> w = rates != null ? rates.window(from, to) : null;
+        if (w != null) hits.increment(); else misses.increment();
+        return w;
+    }
+
+    /** Generation token to read before a DB load; stores from stale loads are discarded. */
+    long generation(String currency) {
+        return rates(currency).generation();
+    }
+
+    /** Record the result of a single floor query: {@code found} is the latest rate on or before {@code date}. */
+    void storeFloor(String currency, long generation, LocalDate date, FXRate found) {
+        LocalDate start = found != null ? found.getRateDate() : LocalDate.MIN;
+        NavigableMap<LocalDate, BigDecimal> rows = new TreeMap<>();
+        if (found != null) rows.put(found.getRateDate(), found.getRateToBase());
+        rates(currency).store(generation, start, date, rows, maxEntriesPerCurrency);
+    }
+
+    /**
+     * Record a range load: {@code rows} holds every rate in [from, to] plus the floor rate of {@code from}
+     * when one exists (as returned by {@link FXRateRepository#findRateWindow}).
+     */
+    NavigableMap<LocalDate, BigDecimal> storeWindow(String currency, long generation, LocalDate from, LocalDate to,
+                                                    Collection<FXRate> rows) {
+        NavigableMap<LocalDate, BigDecimal> loaded = new TreeMap<>();
+        for (FXRate r : rows) loaded.put(r.getRateDate(), r.getRateToBase());
+        LocalDate start = !loaded.isEmpty() && !loaded.firstKey().isAfter(from) ? loaded.firstKey() : LocalDate.MIN;
+        rates(currency).store(generation, start, to, loaded, maxEntriesPerCurrency);
+        return loaded;
+    }
+
+    void invalidate(String currency) {
+        CurrencyRates rates = byCurrency.get(currency);
+        if (rates != null) rates.clear();
+    }
+
+    long hits() { return hits.sum(); }
+    long misses() { return misses.sum(); }
+
+    long size() {
+        long n = 0;
+        for (CurrencyRates r : byCurrency.values()) n += r.size();
+        return n;
+    }
+
+    private CurrencyRates rates(String currency) {
+        return byCurrency.computeIfAbsent(currency, k -> new CurrencyRates());
+    }
+
+    private static final class CurrencyRates {
+        private final TreeMap<LocalDate, BigDecimal> rates = new TreeMap<>();
+        // Disjoint, non-adjacent covered intervals: start -> end (inclusive)
+        private final TreeMap<LocalDate, LocalDate> covered = new TreeMap<>();
+        private long generation;
+
+        synchronized long generation() { return generation; }
+
+        synchronized int size() { return rates.size(); }
+
+        synchronized Hit lookup(LocalDate date) {
+            if (!isCovered(date, date)) return null;
+            Map.Entry<LocalDate, BigDecimal> floor = rates.floorEntry(date);
+            return new Hit(floor != null ? floor.getValue() : null);
+        }
+
+        synchronized NavigableMap<LocalDate, BigDecimal> window(LocalDate from, LocalDate to) {
+            if (!isCovered(from, to)) return null;
+            LocalDate floorKey = rates.floorKey(from);
+            return new TreeMap<>(rates.subMap(floorKey != null ? floorKey : from, true, to, true));
+        }
+
+        synchronized void store(long expectedGeneration, LocalDate start, LocalDate end,
+                                NavigableMap<LocalDate, BigDecimal> rows, int maxEntries) {
+            if (expectedGeneration != generation) return; // invalidated while the caller was loading
+            if (rates.size() + rows.size() > maxEntries) {
+                rates.clear();
+                covered.clear();
+            }
+            rates.putAll(rows);
+            addCovered(start, end);
+        }
+
+        synchronized void clear() {
+            rates.clear();
+            covered.clear();
+            generation++;
+        }
+
+        private boolean isCovered(LocalDate from, LocalDate to) {
+            Map.Entry<LocalDate, LocalDate> iv = covered.floorEntry(from);
+            return iv != null && !iv.getValue().isBefore(to);
+        }
+
+        private void addCovered(LocalDate start, LocalDate end) {
+            LocalDate s = start;
+            LocalDate e = end;
+            Map.Entry<LocalDate, LocalDate> lo = covered.floorEntry(s);
+            if (lo != null && !lo.getValue().plusDays(1).isBefore(s)) {
+                s = lo.getKey();
+                if (lo.getValue().isAfter(e)) e = lo.getValue();
+                covered.remove(lo.getKey());
+            }
+            Map.Entry<LocalDate, LocalDate> hi;
+            while ((hi = covered.ceilingEntry(s)) != null && !hi.getKey().isAfter(e.plusDays(1))) {
+                if (hi.getValue().isAfter(e)) e = hi.getValue();
+                covered.remove(hi.getKey());
+            }
+            covered.put(s, e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.expenseapp.fx;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -9,4 +11,27 @@ public interface FXRateRepository extends JpaRepository<FXRate, Long> {
     Optional<FXRate> findByRateDateAndCurrency(LocalDate rateDate, String currency);
     Optional<FXRate> findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(String currency, LocalDate rateDate);
     java.util.List<FXRate> findAllByCurrencyAndRateDateBetweenOrderByRateDateAsc(String currency, LocalDate from, LocalDate to);
+
+    // (currency, rate_date) pairs already stored in [from, to]; backfill skips them
+    @Query("SELECT r.currency, r.rateDate FROM FXRate r WHERE r.currency IN :currencies AND r.rateDate BETWEEN :from AND :to")
+    java.util.List<Object[]> findStoredDays(@Param("currencies") java.util.Collection<String> currencies,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to);
+
+    // All rates needed to resolve any date in [from, to] for the given currencies:
+    // the latest rate on or before :from plus every rate inside the window.
+    @Query(value = """
+        SELECT f.* FROM fx_rates f
+        WHERE f.currency IN (:currencies)
+          AND f.rate_date <= :to
+          AND f.rate_date >= COALESCE(
+              (SELECT MAX(f2.rate_date) FROM fx_rates f2 WHERE f2.currency = f.currency AND f2.rate_date <= :from),
+              :from)
+        ORDER BY f.currency, f.rate_date
+    """, nativeQuery = true)
+    java.util.List<FXRate> findRateWindow(
+            @Param("currencies") java.util.Collection<String> currencies,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
 }
@@ -0,0 +1,202 @@
+package com.expenseapp.fx;
+
+import com.expenseapp.fx.provider.FXProviderClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Fetches missing historical rates from the configured providers for {@link FXService}.
+ * <p>
+ * Concurrent requests for the same (currency, date) share one in-flight fetch, which runs on
+ * {@code executor} rather than on the caller's thread (and outside its transaction). Providers are tried
+ * in order, Frankfurter first; each probes up to {@code probeDays} days back from the requested date, as
+ * {@code ensureRate} always did. A provider that fails is abandoned for that fetch and counted against its
+ * {@link FXCircuitBreaker}; providers with an open circuit are skipped. When every provider answered without
+ * a rate the key is negatively cached for {@code negativeTtlNanos}, so repeated misses for a currency the
+ * providers do not carry stay local. Fetched rates are handed to {@code sink} before the future completes.
+ */
+class FXRateResolver {
+    private static final Logger log = LoggerFactory.getLogger(FXRateResolver.class);
+
+    /** Stores a fetched rate (the date is the probe date the provider answered for). */
+    interface RateSink {
+        void store(LocalDate date, String currency, BigDecimal rateToBase);
+    }
+
+    private static final class Key {
+        final String currency;
+        final LocalDate date;
+        Key(String currency, LocalDate date) { this.currency = currency; this.date = date; }
+        @Override public boolean equals(Object o) {
+            return o instanceof Key k && k.currency.equals(currency) && k.date.equals(date);
+        }
+        @Override public int hashCode() { return Objects.hash(currency, date); }
+    }
+
+    private static final int MAX_NEGATIVE_ENTRIES = 10_000;
+
+    private final String baseCurrency;
+    private final Map<FXProviderClient, FXCircuitBreaker> providers = new LinkedHashMap<>();
+    private final Executor executor;
+    private final RateSink sink;
+    private final int probeDays;
+    private final long negativeTtlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<Key, CompletableFuture<BigDecimal>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Key, Long> negative = new ConcurrentHashMap<>();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    FXRateResolver(String baseCurrency, List<FXProviderClient> providers, Executor executor, RateSink sink,
+                   int probeDays, int failureThreshold, long openNanos, long negativeTtlNanos, LongSupplier nanoClock) {
+        this.baseCurrency = baseCurrency;
+        this.executor = executor;
+        this.sink = sink;
+        this.probeDays = Math.max(1, probeDays);
+        this.negativeTtlNanos = Math.max(0, negativeTtlNanos);
+        this.nanoClock = nanoClock;
+        for (FXProviderClient client : ordered(providers)) {
+            this.providers.put(client, new FXCircuitBreaker(failureThreshold, openNanos, nanoClock));
+        }
+    }
+
+    boolean hasProviders() {
+        return !providers.isEmpty();
+    }
+
+    /**
+     * Rate for {@code currency} on or shortly before {@code date}; completes with null when no provider
+     * had one (or all were failing). Never completes exceptionally.
+     */
+    CompletableFuture<BigDecimal> resolve(String currency, LocalDate date) {
+        Key key = new Key(currency, date);
+        Long negativeUntil = negative.get(key);
+        if (negativeUntil != null) {
+            if (nanoClock.getAsLong() - negativeUntil < 0) return CompletableFuture.completedFuture(null);
+            negative.remove(key, negativeUntil);
+        }
+        CompletableFuture<BigDecimal> created = new CompletableFuture<>();
+        CompletableFuture<BigDecimal> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        fetches.increment();
+        try {
+            executor.execute(() -> complete(key, created));
+        } catch (RejectedExecutionException e) {
+            log.warn("[FX] Fetch for {} on {} rejected by executor; running on caller", currency, date);
+            complete(key, created);
+        }
+        return created;
+    }
+
+    long fetches() { return fetches.sum(); }
+    long coalesced() { return coalesced.sum(); }
+    int inFlight() { return inFlight.size(); }
+
+    /** Number of providers whose circuit is currently open (not counting half-open ones). */
+    int openCircuits() {
+        int open = 0;
+        for (FXCircuitBreaker b : providers.values()) {
+            if (b.state() == FXCircuitBreaker.State.OPEN) open++;
+        }
+        return open;
+    }
+
+    FXCircuitBreaker.State circuitOf(FXProviderClient client) {
+        FXCircuitBreaker b = providers.get(client);
+        return b != null ? b.state() : null;
+    }
+
+    private void complete(Key key, CompletableFuture<BigDecimal> future) {
+        BigDecimal rate = null;
+        try {
+            rate = fetch(key);
+        } catch (Exception e) {
+            log.error("[FX] Fetch for {} on {} failed: {}", key.currency, key.date, e.toString());
+        } finally {
+            inFlight.remove(key, future);
+            future.complete(rate);
+        }
+    }
+
+    private BigDecimal fetch(Key key) {
+        boolean allAnswered = true;
+        for (Map.Entry<FXProviderClient, FXCircuitBreaker> p : providers.entrySet()) {
+            FXProviderClient client = p.getKey();
+            FXCircuitBreaker breaker = p.getValue();
+            String name = client.getClass().getSimpleName();
+            if (!breaker.allow()) {
+                log.debug("[FX] Skipping {} for {} on {}: circuit open", name, key.currency, key.date);
+                allAnswered = false;
+                continue;
+            }
+            LocalDate probe = key.date;
+            boolean failed = false;
+            for (int i = 0; i < probeDays; i++) {
+                Optional<BigDecimal> rate;
+                try {
+                    rate = client.historicalRateToBase(probe, baseCurrency, key.currency);
+                } catch (Exception ex) {
+                    breaker.failure();
+                    log.error("[FX] Error fetching rate from {} for {} -> {} on {}: {}", name, key.currency, baseCurrency, probe, ex.toString());
+                    failed = true;
+                    break;
+                }
+                if (rate.isPresent()) {
+                    breaker.success();
+                    log.info("[FX] Fetched historical rate via {} {} -> {} for {} = {} (requested {}, used {})", name, key.currency, baseCurrency, probe, rate.get(), key.date, probe);
+                    sink.store(probe, key.currency, rate.get());
+                    return rate.get();
+                }
+                log.warn("[FX] No rate from {} for {} -> {} on {} (attempt {} of {})", name, key.currency, baseCurrency, probe, i + 1, probeDays);
+                probe = probe.minusDays(1);
+            }
+            if (failed) {
+                allAnswered = false;
+            } else {
+                breaker.success();
+            }
+        }
+        if (allAnswered && negativeTtlNanos > 0) {
+            if (negative.size() >= MAX_NEGATIVE_ENTRIES) {
+                long now = nanoClock.getAsLong();
+                negative.values().removeIf(until -> now - until >= 0);
+                if (negative.size() >= MAX_NEGATIVE_ENTRIES) negative.clear();
+            }
+            negative.put(key, nanoClock.getAsLong() + negativeTtlNanos);
+        }
+        return null;
+    }
+
+    // Prefer Frankfurter first if present, then others by class name
+    static List<FXProviderClient> ordered(List<FXProviderClient> providers) {
+        List<FXProviderClient> ordered = new ArrayList<>(providers);
+        ordered.sort((a, b) -> {
+            String an = a.getClass().getSimpleName().toLowerCase();
+            String bn = b.getClass().getSimpleName().toLowerCase();
+            boolean af = an.contains("frankfurter");
+            boolean bf = bn.contains("frankfurter");
+            if (af == bf) return an.compareTo(bn);
+            return af ? -1 : 1;
+        });
+        return ordered;
+    }
+}
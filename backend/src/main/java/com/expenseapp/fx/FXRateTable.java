@@ -0,0 +1,49 @@
+package com.expenseapp.fx;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * In-memory snapshot of historical rates for a set of currencies over a date window.
+ * Lets callers convert many rows with a single query instead of one lookup per row.
+ * Lookups follow the same rules as {@link FXService#rateFor}: latest rate on or before
+ * the date, 1:1 for the base currency and 1:1 when no rate is known.
+ */
+public class FXRateTable {
+
+    private final String baseCurrency;
+    private final Map<String, NavigableMap<LocalDate, BigDecimal>> ratesByCurrency;
+
+    public FXRateTable(String baseCurrency, Map<String, NavigableMap<LocalDate, BigDecimal>> ratesByCurrency) {
+        this.baseCurrency = baseCurrency;
+        this.ratesByCurrency = ratesByCurrency;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public BigDecimal rateFor(LocalDate date, String currency) {
+        if (currency == null || currency.equalsIgnoreCase(baseCurrency) || date == null) return BigDecimal.ONE;
+        NavigableMap<LocalDate, BigDecimal> rates = ratesByCurrency.get(currency.toUpperCase());
+        if (rates == null) return BigDecimal.ONE;
+        Map.Entry<LocalDate, BigDecimal> floor = rates.floorEntry(date);
+        return floor != null ? floor.getValue() : BigDecimal.ONE;
+    }
+
+    /** Whether a stored rate covers {@code date} (always true for the base currency); {@link #rateFor} falls back to 1 otherwise. */
+    public boolean hasRate(LocalDate date, String currency) {
+        if (currency == null || currency.equalsIgnoreCase(baseCurrency)) return true;
+        if (date == null) return false;
+        NavigableMap<LocalDate, BigDecimal> rates = ratesByCurrency.get(currency.toUpperCase());
+        return rates != null && rates.floorEntry(date) != null;
+    }
+
+    public BigDecimal convertToBase(LocalDate date, String currency, BigDecimal amount) {
+        if (amount == null) return null;
+        return amount.multiply(rateFor(date, currency)).setScale(2, RoundingMode.HALF_UP);
+    }
+}
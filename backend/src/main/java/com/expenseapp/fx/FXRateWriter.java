@@ -0,0 +1,60 @@
+package com.expenseapp.fx;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes to {@code fx_rates}: batched inserts for {@link FXService#backfill}, which leave existing rows alone, and
+ * single-rate upserts for {@link FXService#upsertRate} and fetched rates. Callers go through this bean so the
+ * transaction settings below apply.
+ */
+@Component
+public class FXRateWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO fx_rates (rate_date, currency, rate_to_base) VALUES (?, ?, ?) " +
+            "ON CONFLICT (rate_date, currency) DO NOTHING";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO fx_rates (rate_date, currency, rate_to_base) VALUES (?, ?, ?) " +
+            "ON CONFLICT (rate_date, currency) DO UPDATE SET rate_to_base = EXCLUDED.rate_to_base";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FXRateWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Store one rate in a transaction of its own, so it is kept even when the caller's transaction rolls back and
+     * a concurrent insert of the same key cannot abort the caller's.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void upsert(LocalDate date, String currency, BigDecimal rateToBase) {
+        jdbcTemplate.update(UPSERT_SQL, Date.valueOf(date), currency, rateToBase);
+    }
+
+    /** Insert {@code rates} for one currency in a single batch and transaction; returns the rows inserted. */
+    @Transactional
+    public int insertMissing(String currency, Map<LocalDate, BigDecimal> rates) {
+        if (rates.isEmpty()) return 0;
+        List<Object[]> rows = new ArrayList<>(rates.size());
+        rates.forEach((date, rate) -> rows.add(new Object[]{Date.valueOf(date), currency, rate}));
+        int inserted = 0;
+        for (int n : jdbcTemplate.batchUpdate(INSERT_SQL, rows)) {
+            // Drivers that rewrite batches report SUCCESS_NO_INFO rather than per-row counts
+            if (n > 0 || n == Statement.SUCCESS_NO_INFO) inserted++;
+        }
+        return inserted;
+    }
+}
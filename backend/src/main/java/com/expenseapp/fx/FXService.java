@@ -1,6 +1,9 @@
 package com.expenseapp.fx;
 
+import com.expenseapp.config.AsyncConfig;
 import com.expenseapp.fx.provider.FXProviderClient;
+import com.expenseapp.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
@@ -15,6 +18,11 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class FXService {
@@ -22,54 +30,114 @@ public class FXService {
     private final FXRateRepository fxRateRepository;
     private final String baseCurrency;
     private final java.util.List<FXProviderClient> providers; // can have multiple
+    private final FXRateCache cache;
+    private final FXRateResolver resolver;
+    private final long fetchWaitMs;
+    private final FXRateWriter rateWriter;
     private static final Logger log = LoggerFactory.getLogger(FXService.class);
 
+    static final int DEFAULT_CACHE_MAX_ENTRIES_PER_CURRENCY = 4096;
+    static final int DEFAULT_PROBE_DAYS = 7;
+
     @Autowired
     public FXService(FXRateRepository fxRateRepository,
                      @Value("${app.baseCurrency:INR}") String baseCurrency,
-                     @Nullable java.util.List<FXProviderClient> providers) {
+                     @Nullable java.util.List<FXProviderClient> providers,
+                     @Value("${app.fx.cache.max-entries-per-currency:4096}") int cacheMaxEntriesPerCurrency,
+                     @Qualifier(AsyncConfig.IO_EXECUTOR) Executor fetchExecutor,
+                     @Value("${app.fx.fetch.probe-days:7}") int probeDays,
+                     @Value("${app.fx.fetch.failure-threshold:3}") int failureThreshold,
+                     @Value("${app.fx.fetch.open-seconds:60}") long openSeconds,
+                     @Value("${app.fx.fetch.negative-ttl-seconds:600}") long negativeTtlSeconds,
+                     @Value("${app.fx.fetch.wait-ms:5000}") long fetchWaitMs,
+                     FXRateWriter rateWriter) {
         this.fxRateRepository = fxRateRepository;
         this.baseCurrency = baseCurrency;
         this.providers = providers == null ? java.util.List.of() : providers;
+        this.cache = new FXRateCache(cacheMaxEntriesPerCurrency);
+        this.rateWriter = rateWriter;
+        this.resolver = new FXRateResolver(baseCurrency, this.providers, fetchExecutor, this::storeFetched,
+                probeDays, failureThreshold, TimeUnit.SECONDS.toNanos(openSeconds),
+                TimeUnit.SECONDS.toNanos(negativeTtlSeconds), System::nanoTime);
+        this.fetchWaitMs = Math.max(0, fetchWaitMs);
     }
 
-    // Convenience constructor for tests and manual wiring with a single provider
+    // Convenience constructor for tests and manual wiring with a single provider; fetches run on the caller
     public FXService(FXRateRepository fxRateRepository,
                      String baseCurrency,
-                     @Nullable FXProviderClient provider) {
+                     @Nullable FXProviderClient provider,
+                     FXRateWriter rateWriter) {
         this(fxRateRepository, baseCurrency,
-                provider == null ? java.util.List.of() : java.util.List.of(provider));
+                provider == null ? java.util.List.of() : java.util.List.of(provider),
+                DEFAULT_CACHE_MAX_ENTRIES_PER_CURRENCY, Runnable::run, DEFAULT_PROBE_DAYS, 3, 60, 600, 5000, rateWriter);
     }
 
     public String getBaseCurrency() {
         return baseCurrency;
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /** Store a rate (committed on its own through {@link FXRateWriter#upsert}) and return the stored row. */
     public FXRate upsertRate(LocalDate date, String currency, BigDecimal rateToBase) {
+        storeFetched(date, currency, rateToBase);
+        return fxRateRepository.findByRateDateAndCurrency(date, currency.toUpperCase()).orElseThrow();
+    }
+
+    private void storeFetched(LocalDate date, String currency, BigDecimal rateToBase) {
         log.debug("[FX] Upserting rate {} -> {} on {} = {}", currency, baseCurrency, date, rateToBase);
-        try {
-            FXRate rate = fxRateRepository.findByRateDateAndCurrency(date, currency.toUpperCase()).orElseGet(FXRate::new);
-            rate.setRateDate(date);
-            rate.setCurrency(currency.toUpperCase());
-            rate.setRateToBase(rateToBase);
-            return fxRateRepository.save(rate);
-        } catch (org.springframework.dao.DataIntegrityViolationException ex) {
-            // Handle race condition on unique(rate_date, currency): fetch existing and return
-            log.warn("[FX] Unique constraint hit for {} on {} (likely concurrent insert); returning existing", currency, date);
-            return fxRateRepository.findByRateDateAndCurrency(date, currency.toUpperCase()).orElseThrow(() -> ex);
-        }
+        rateWriter.upsert(date, currency.toUpperCase(), rateToBase);
+        evict(currency.toUpperCase());
     }
 
     @Transactional(readOnly = true)
     public BigDecimal rateFor(LocalDate date, String currency) {
         if (currency == null) return BigDecimal.ONE;
         if (currency.equalsIgnoreCase(baseCurrency)) return BigDecimal.ONE;
-        return fxRateRepository.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(currency.toUpperCase(), date)
-                .map(FXRate::getRateToBase)
-                .orElse(BigDecimal.ONE); // fallback: 1:1 if missing
+        BigDecimal rate = floorRate(currency.toUpperCase(), date);
+        return rate != null ? rate : BigDecimal.ONE; // fallback: 1:1 if missing
+    }
+
+    /**
+     * Latest stored rate on or before the date, or null if none. Served from the in-process cache when
+     * the date falls inside a range already loaded; otherwise one floor query whose answer is cached.
+     */
+    private BigDecimal floorRate(String currency, LocalDate date) {
+        if (date == null) {
+            return fxRateRepository.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(currency, date)
+                    .map(FXRate::getRateToBase).orElse(null);
+        }
+        FXRateCache.Hit hit = cache.lookup(currency, date);
+        if (hit != null) return hit.rate();
+        long generation = cache.generation(currency);
+        FXRate found = fxRateRepository.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(currency, date).orElse(null);
+        cache.storeFloor(currency, generation, date, found);
+        return found != null ? found.getRateToBase() : null;
+    }
+
+    /**
+     * Bulk-load the rates needed to resolve any date in [from, to] for the given currencies, so later
+     * {@link #rateFor}/{@link #convertToBase} calls in that range are served from memory. Currencies whose
+     * range is already cached are skipped; the rest are loaded with a single query.
+     */
+    @Transactional(readOnly = true)
+    public void preload(java.util.Collection<String> currencies, LocalDate from, LocalDate to) {
+        loadWindows(currencies, from, to);
+    }
+
+    // Drop cached rates now and again once the surrounding transaction commits, so a reader that
+    // loaded the pre-commit state in between cannot leave a stale window behind.
+    private void evict(String currency) {
+        cache.invalidate(currency);
+        TransactionCallbacks.runAfterCompletion(() -> cache.invalidate(currency));
     }
 
+    public long cacheHits() { return cache.hits(); }
+    public long cacheMisses() { return cache.misses(); }
+    public long cacheSize() { return cache.size(); }
+    public long providerFetches() { return resolver.fetches(); }
+    public long coalescedFetches() { return resolver.coalesced(); }
+    public int fetchesInFlight() { return resolver.inFlight(); }
+    public int openProviderCircuits() { return resolver.openCircuits(); }
+
     @Transactional(readOnly = true)
     public BigDecimal convertToBase(LocalDate date, String currency, BigDecimal amount) {
         if (amount == null) return null;
@@ -77,57 +145,96 @@ public class FXService {
         return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * Load every rate needed to convert amounts dated within [from, to] for the given currencies
+     * in one query. Use this instead of {@link #convertToBase} when converting many rows.
+     */
+    @Transactional(readOnly = true)
+    public FXRateTable rateTable(java.util.Collection<String> currencies, LocalDate from, LocalDate to) {
+        return new FXRateTable(baseCurrency, loadWindows(currencies, from, to));
+    }
+
+    private java.util.Map<String, java.util.NavigableMap<LocalDate, BigDecimal>> loadWindows(
+            java.util.Collection<String> currencies, LocalDate from, LocalDate to) {
+        java.util.Map<String, java.util.NavigableMap<LocalDate, BigDecimal>> byCurrency = new java.util.HashMap<>();
+        if (currencies == null || from == null || to == null) return byCurrency;
+        java.util.Map<String, Long> missing = new java.util.HashMap<>();
+        for (String c : currencies) {
+            if (c == null || c.equalsIgnoreCase(baseCurrency)) continue;
+            String cur = c.toUpperCase();
+            if (byCurrency.containsKey(cur) || missing.containsKey(cur)) continue;
+            java.util.NavigableMap<LocalDate, BigDecimal> cached = cache.window(cur, from, to);
+            if (cached != null) {
+                byCurrency.put(cur, cached);
+            } else {
+                missing.put(cur, cache.generation(cur));
+            }
+        }
+        if (!missing.isEmpty()) {
+            java.util.Map<String, java.util.List<FXRate>> rows = new java.util.HashMap<>();
+            for (FXRate r : fxRateRepository.findRateWindow(missing.keySet(), from, to)) {
+                rows.computeIfAbsent(r.getCurrency(), k -> new java.util.ArrayList<>()).add(r);
+            }
+            for (java.util.Map.Entry<String, Long> m : missing.entrySet()) {
+                byCurrency.put(m.getKey(), cache.storeWindow(m.getKey(), m.getValue(), from, to,
+                        rows.getOrDefault(m.getKey(), java.util.List.of())));
+            }
+            log.debug("[FX] Preloaded rates for {} between {} and {}", missing.keySet(), from, to);
+        }
+        return byCurrency;
+    }
+
     /**
      * Ensure a historical rate exists for the given date and currency relative to base.
-     * If missing and a provider client is configured, fetch and upsert. Returns the rate (or 1 if base).
+     * If missing, fetch it from the providers (sharing any fetch already in flight for the same key) and wait
+     * up to {@code app.fx.fetch.wait-ms} for it. Returns the rate, or 1 if base or no rate could be had in time.
+     * Write paths that can tolerate a late rate should use {@link #requestRate} instead.
      */
     @Transactional(propagation = Propagation.SUPPORTS, readOnly = false)
     public BigDecimal ensureRate(LocalDate date, String currency) {
         if (currency == null || currency.equalsIgnoreCase(baseCurrency)) {
             return BigDecimal.ONE;
         }
-        Optional<FXRate> existing = fxRateRepository.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(currency.toUpperCase(), date);
-        if (existing.isPresent()) {
-            log.debug("[FX] Found existing rate for {} -> {} on or before {} = {}", currency, baseCurrency, date, existing.get().getRateToBase());
-            return existing.get().getRateToBase();
+        BigDecimal existing = floorRate(currency.toUpperCase(), date);
+        if (existing != null) {
+            log.debug("[FX] Found existing rate for {} -> {} on or before {} = {}", currency, baseCurrency, date, existing);
+            return existing;
         }
-        if (providers != null && !providers.isEmpty()) {
-            // Prefer Frankfurter first if present, then others
-            java.util.List<FXProviderClient> ordered = new java.util.ArrayList<>(providers);
-            ordered.sort((a, b) -> {
-                String an = a.getClass().getSimpleName().toLowerCase();
-                String bn = b.getClass().getSimpleName().toLowerCase();
-                boolean af = an.contains("frankfurter");
-                boolean bf = bn.contains("frankfurter");
-                if (af == bf) return an.compareTo(bn);
-                return af ? -1 : 1;
-            });
-
-            for (FXProviderClient client : ordered) {
-                LocalDate probe = date;
-                for (int i = 0; i < 7; i++) {
-                    try {
-                        Optional<BigDecimal> rate = client.historicalRateToBase(probe, baseCurrency, currency.toUpperCase());
-                        if (rate.isPresent()) {
-                            log.info("[FX] Fetched historical rate via {} {} -> {} for {} = {} (requested {}, used {})", client.getClass().getSimpleName(), currency, baseCurrency, probe, rate.get(), date, probe);
-                            upsertRate(probe, currency, rate.get());
-                            return rate.get();
-                        } else {
-                            log.warn("[FX] No rate from {} for {} -> {} on {} (attempt {} of 7)", client.getClass().getSimpleName(), currency, baseCurrency, probe, i + 1);
-                        }
-                    } catch (Exception ex) {
-                        log.error("[FX] Error fetching rate from {} for {} -> {} on {}: {}", client.getClass().getSimpleName(), currency, baseCurrency, probe, ex.toString());
-                    }
-                    probe = probe.minusDays(1);
-                }
-            }
-        } else {
+        if (!resolver.hasProviders() || date == null) {
             log.warn("[FX] No FXProviderClient configured; returning 1:1 for {} -> {} on {}", currency, baseCurrency, date);
+            return BigDecimal.ONE;
+        }
+        CompletableFuture<BigDecimal> pending = resolver.resolve(currency.toUpperCase(), date);
+        try {
+            BigDecimal fetched = pending.get(fetchWaitMs, TimeUnit.MILLISECONDS);
+            if (fetched != null) return fetched;
+        } catch (TimeoutException te) {
+            log.warn("[FX] Rate for {} -> {} on {} not fetched within {}ms; using 1:1 for now", currency, baseCurrency, date, fetchWaitMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            log.error("[FX] Rate fetch for {} on {} failed: {}", currency, date, ee.getCause() != null ? ee.getCause().toString() : ee.toString());
         }
         // Fallback when provider is not configured or rate unavailable
         return BigDecimal.ONE;
     }
 
+    /**
+     * Non-blocking variant of {@link #ensureRate}: completes immediately with the stored rate (1 for base), or
+     * returns the in-flight provider fetch for a miss, which completes with the fetched rate or null when none
+     * could be had. The caller's thread and transaction never wait on the providers.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<BigDecimal> requestRate(LocalDate date, String currency) {
+        if (currency == null || currency.equalsIgnoreCase(baseCurrency)) {
+            return CompletableFuture.completedFuture(BigDecimal.ONE);
+        }
+        BigDecimal existing = floorRate(currency.toUpperCase(), date);
+        if (existing != null) return CompletableFuture.completedFuture(existing);
+        if (!resolver.hasProviders() || date == null) return CompletableFuture.completedFuture(null);
+        return resolver.resolve(currency.toUpperCase(), date);
+    }
+
     @Transactional(readOnly = true)
     public java.util.Optional<FXRate> rateRecordFor(LocalDate date, String currency) {
         if (currency == null || currency.equalsIgnoreCase(baseCurrency)) {
@@ -145,44 +252,60 @@ public class FXService {
         return fxRateRepository.findAllByCurrencyAndRateDateBetweenOrderByRateDateAsc(currency.toUpperCase(), from, to);
     }
 
-    @Transactional
+    /**
+     * Store a rate for every day in [from, to] that does not have one yet. Stored days are found with one query;
+     * each currency with gaps then costs one range request to the first provider that has data (see
+     * {@link FXProviderClient#rangeRatesToBase}) and one batched insert. A day the provider did not publish
+     * (weekend, holiday) gets the latest earlier publication, as a single-day request would have returned.
+     * Not transactional: provider calls hold no connection, and each currency is written in its own batch.
+     */
     public int backfill(LocalDate from, LocalDate to, List<String> currencies) {
         int inserted = 0;
-        if (currencies == null || currencies.isEmpty()) return inserted;
+        if (currencies == null || currencies.isEmpty() || from == null || to == null || from.isAfter(to)) return inserted;
+        java.util.Set<String> wanted = new java.util.LinkedHashSet<>();
         for (String cur : currencies) {
-            if (cur == null) continue;
-            String c = cur.toUpperCase();
-            if (c.equalsIgnoreCase(baseCurrency)) continue;
-            LocalDate d = from;
-            while (!d.isAfter(to)) {
-                Optional<FXRate> existing = fxRateRepository.findByRateDateAndCurrency(d, c);
-                if (existing.isEmpty()) {
-                    if (providers != null && !providers.isEmpty()) {
-                        // Prefer Frankfurter first
-                        java.util.List<FXProviderClient> ordered = new java.util.ArrayList<>(providers);
-                        ordered.sort((a, b) -> {
-                            String an = a.getClass().getSimpleName().toLowerCase();
-                            String bn = b.getClass().getSimpleName().toLowerCase();
-                            boolean af = an.contains("frankfurter");
-                            boolean bf = bn.contains("frankfurter");
-                            if (af == bf) return an.compareTo(bn);
-                            return af ? -1 : 1;
-                        });
-                        for (FXProviderClient client : ordered) {
-                            try {
-                                Optional<BigDecimal> rate = client.historicalRateToBase(d, baseCurrency, c);
-                                if (rate.isPresent()) {
-                                    upsertRate(d, c, rate.get());
-                                    inserted++;
-                                    break;
-                                }
-                            } catch (Exception ignore) { }
-                        }
-                    }
-                }
-                d = d.plusDays(1);
+            if (cur != null && !cur.isBlank() && !cur.equalsIgnoreCase(baseCurrency)) wanted.add(cur.trim().toUpperCase());
+        }
+        if (wanted.isEmpty()) return inserted;
+
+        java.util.Map<String, java.util.Set<LocalDate>> stored = new java.util.HashMap<>();
+        for (Object[] row : fxRateRepository.findStoredDays(wanted, from, to)) {
+            stored.computeIfAbsent((String) row[0], k -> new java.util.HashSet<>()).add((LocalDate) row[1]);
+        }
+        for (String c : wanted) {
+            java.util.Set<LocalDate> have = stored.getOrDefault(c, java.util.Set.of());
+            java.util.List<LocalDate> missing = new java.util.ArrayList<>();
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                if (!have.contains(d)) missing.add(d);
             }
+            if (missing.isEmpty()) continue;
+            java.util.NavigableMap<LocalDate, BigDecimal> published = fetchRange(c, missing.get(0), missing.get(missing.size() - 1));
+            if (published.isEmpty()) continue;
+
+            java.util.Map<LocalDate, BigDecimal> rows = new java.util.TreeMap<>();
+            for (LocalDate d : missing) {
+                java.util.Map.Entry<LocalDate, BigDecimal> floor = published.floorEntry(d);
+                if (floor != null) rows.put(d, floor.getValue());
+            }
+            int n = rateWriter.insertMissing(c, rows);
+            inserted += n;
+            log.info("[FX] Backfilled {} rate(s) for {} between {} and {}", n, c, from, to);
+            evict(c);
         }
         return inserted;
     }
+
+    // Range rates for one currency from the first provider (Frankfurter first) that returns any
+    private java.util.NavigableMap<LocalDate, BigDecimal> fetchRange(String currency, LocalDate from, LocalDate to) {
+        for (FXProviderClient client : FXRateResolver.ordered(providers)) {
+            try {
+                java.util.Map<LocalDate, BigDecimal> rates = client.rangeRatesToBase(from, to, baseCurrency, currency);
+                if (rates != null && !rates.isEmpty()) return new java.util.TreeMap<>(rates);
+                log.warn("[FX] No rates from {} for {} -> {} between {} and {}", client.getClass().getSimpleName(), currency, baseCurrency, from, to);
+            } catch (Exception ex) {
+                log.error("[FX] Error fetching range from {} for {} -> {} between {} and {}: {}", client.getClass().getSimpleName(), currency, baseCurrency, from, to, ex.toString());
+            }
+        }
+        return new java.util.TreeMap<>();
+    }
 }
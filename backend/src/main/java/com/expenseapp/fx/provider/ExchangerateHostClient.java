@@ -1,6 +1,8 @@
 package com.expenseapp.fx.provider;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
@@ -16,9 +18,14 @@ import java.util.Optional;
 @Service
 public class ExchangerateHostClient implements FXProviderClient {
 
-    private final RestTemplate rest = new RestTemplate();
+    private final RestTemplate rest;
     private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    public ExchangerateHostClient(@Value("${app.fx.provider.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                  @Value("${app.fx.provider.read-timeout-ms:3000}") int readTimeoutMs) {
+        this.rest = ProviderHttp.restTemplate(connectTimeoutMs, readTimeoutMs);
+    }
+
     @Override
     public Optional<BigDecimal> historicalRateToBase(LocalDate date, String baseCurrency, String currency) {
         try {
@@ -42,7 +49,9 @@ public class ExchangerateHostClient implements FXProviderClient {
                 } catch (Exception ignore) { }
             }
             return Optional.empty();
-        } catch (Exception e) {
+        } catch (HttpClientErrorException e) {
+            // 4xx: the provider answered, it just has no rate for this pair/date. Timeouts and 5xx propagate
+            // so the caller can count them against the provider.
             return Optional.empty();
         }
     }
@@ -2,8 +2,24 @@ package com.expenseapp.fx.provider;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 public interface FXProviderClient {
     Optional<BigDecimal> historicalRateToBase(LocalDate date, String baseCurrency, String currency);
+
+    /**
+     * Every rate the provider publishes for [from, to], keyed by rate date; days without a publication (weekends,
+     * holidays) are absent. Providers with a time-series endpoint override this with a single request and may also
+     * include the last publication before {@code from}. The default asks {@link #historicalRateToBase} day by day.
+     */
+    default Map<LocalDate, BigDecimal> rangeRatesToBase(LocalDate from, LocalDate to, String baseCurrency, String currency) {
+        Map<LocalDate, BigDecimal> rates = new TreeMap<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            LocalDate day = d;
+            historicalRateToBase(day, baseCurrency, currency).ifPresent(r -> rates.put(day, r));
+        }
+        return rates;
+    }
 }
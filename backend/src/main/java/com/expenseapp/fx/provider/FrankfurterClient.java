@@ -1,6 +1,8 @@
 package com.expenseapp.fx.provider;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
@@ -8,6 +10,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * FX provider client using Frankfurter (ECB) for historical rates.
@@ -16,9 +19,14 @@ import java.util.Optional;
 @Service
 public class FrankfurterClient implements FXProviderClient {
 
-    private final RestTemplate rest = new RestTemplate();
+    private final RestTemplate rest;
     private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    public FrankfurterClient(@Value("${app.fx.provider.connect-timeout-ms:2000}") int connectTimeoutMs,
+                             @Value("${app.fx.provider.read-timeout-ms:3000}") int readTimeoutMs) {
+        this.rest = ProviderHttp.restTemplate(connectTimeoutMs, readTimeoutMs);
+    }
+
     @Override
     public Optional<BigDecimal> historicalRateToBase(LocalDate date, String baseCurrency, String currency) {
         try {
@@ -42,8 +50,37 @@ public class FrankfurterClient implements FXProviderClient {
                 } catch (Exception ignore) { }
             }
             return Optional.empty();
-        } catch (Exception e) {
+        } catch (HttpClientErrorException e) {
+            // 4xx: the provider answered, it just has no rate for this pair/date. Timeouts and 5xx propagate
+            // so the caller can count them against the provider.
             return Optional.empty();
         }
     }
+
+    // Time series: one request for the whole range. ECB publishes on business days only; when {@code from} is not
+    // one, the series starts at the previous publication.
+    @Override
+    public Map<LocalDate, BigDecimal> rangeRatesToBase(LocalDate from, LocalDate to, String baseCurrency, String currency) {
+        Map<LocalDate, BigDecimal> out = new TreeMap<>();
+        try {
+            if (currency == null || baseCurrency == null || from.isAfter(to)) return out;
+            // Example: https://api.frankfurter.app/2020-01-01..2020-01-31?from=USD&to=INR
+            String url = String.format("https://api.frankfurter.app/%s..%s?from=%s&to=%s", DF.format(from), DF.format(to),
+                    currency.toUpperCase(), baseCurrency.toUpperCase());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> resp = rest.getForObject(url, Map.class);
+            if (resp == null || !(resp.get("rates") instanceof Map<?, ?> byDate)) return out;
+            for (Map.Entry<?, ?> day : byDate.entrySet()) {
+                if (!(day.getValue() instanceof Map<?, ?> rates)) continue;
+                Object rateVal = rates.get(baseCurrency.toUpperCase());
+                if (rateVal == null) continue;
+                try {
+                    out.put(LocalDate.parse(String.valueOf(day.getKey())), new BigDecimal(rateVal.toString()));
+                } catch (Exception ignore) { }
+            }
+            return out;
+        } catch (HttpClientErrorException e) {
+            return out;
+        }
+    }
 }
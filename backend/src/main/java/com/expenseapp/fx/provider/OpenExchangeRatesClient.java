@@ -1,5 +1,6 @@
 package com.expenseapp.fx.provider;
 
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
@@ -13,8 +14,12 @@ public class OpenExchangeRatesClient implements FXProviderClient {
     private final RestTemplate rest;
 
     public OpenExchangeRatesClient(String appId) {
+        this(appId, 2000, 3000);
+    }
+
+    public OpenExchangeRatesClient(String appId, int connectTimeoutMs, int readTimeoutMs) {
         this.appId = appId;
-        this.rest = new RestTemplate();
+        this.rest = ProviderHttp.restTemplate(connectTimeoutMs, readTimeoutMs);
     }
 
     @SuppressWarnings("unchecked")
@@ -38,7 +43,7 @@ public class OpenExchangeRatesClient implements FXProviderClient {
                 BigDecimal rateToBase = BigDecimal.valueOf(usdToBase / usdToCurrency);
                 return Optional.of(rateToBase);
             }
-        } catch (Exception ex) {
+        } catch (HttpClientErrorException ex) {
             return Optional.empty();
         }
     }
@@ -0,0 +1,17 @@
+package com.expenseapp.fx.provider;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/** RestTemplate for provider calls with bounded connect and read times, so a stalled upstream cannot hang a fetch. */
+final class ProviderHttp {
+
+    private ProviderHttp() {}
+
+    static RestTemplate restTemplate(int connectTimeoutMs, int readTimeoutMs) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(Math.max(1, connectTimeoutMs));
+        factory.setReadTimeout(Math.max(1, readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+}
@@ -0,0 +1,268 @@
+package com.expenseapp.group;
+
+import com.expenseapp.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * In-process fan-out of new group chat messages to SSE subscribers, keyed by group id. Messages are pushed
+ * as {@code message} events whose event id is the message id, so a reconnecting client's
+ * {@code Last-Event-ID} resumes the stream through {@link GroupMessageReader#since}. Each subscriber has its own
+ * queue of events, drained in order on a small shared pool off the request that posted the message, so a slow
+ * client only delays itself. A subscriber is dropped when a send fails, when its queue passes
+ * {@code app.chat.sse.max-queued} events or when one send has been stuck for {@code app.chat.sse.send-timeout-ms};
+ * {@link #disconnect} closes the streams of a user who left the group (membership is only checked on subscribe).
+ * <p>
+ * Subscriptions are per instance: with several backend instances a client only hears messages posted to
+ * the one it is connected to and falls back to {@code ?since=} on reconnect.
+ */
+@Component
+public class GroupChatHub {
+    private static final Logger log = LoggerFactory.getLogger(GroupChatHub.class);
+
+    private final GroupMessageReader reader;
+    private final long timeoutMs;
+    private final int replayLimit;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final long sendTimeoutNanos;
+    private final int maxQueued;
+    private final ThreadPoolExecutor sendPool;
+
+    public GroupChatHub(GroupMessageReader reader,
+                        @Value("${app.chat.sse.timeout-ms:1800000}") long timeoutMs,
+                        @Value("${app.chat.sse.replay-limit:500}") int replayLimit,
+                        @Value("${app.chat.sse.send-threads:4}") int sendThreads,
+                        @Value("${app.chat.sse.send-timeout-ms:10000}") long sendTimeoutMs,
+                        @Value("${app.chat.sse.max-queued:200}") int maxQueued) {
+        this.reader = reader;
+        this.timeoutMs = timeoutMs;
+        this.replayLimit = Math.max(1, replayLimit);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sendTimeoutMs));
+        this.maxQueued = Math.max(1, maxQueued);
+        AtomicInteger seq = new AtomicInteger();
+        // Unbounded task queue: a subscriber has at most one drain task queued or running at a time
+        this.sendPool = new ThreadPoolExecutor(Math.max(1, sendThreads), Math.max(1, sendThreads), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "group-chat-hub-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Open a stream for {@code groupId}. When {@code lastEventId} is set, messages after it are replayed first.
+     * The subscriber is registered before the replay, so a message posted in between may arrive twice;
+     * clients de-duplicate by id.
+     */
+    public SseEmitter subscribe(Long groupId, Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(groupId, userId, emitter);
+        subscribers.compute(groupId, (k, group) -> {
+            Set<Subscriber> open = group != null ? group : new CopyOnWriteArraySet<>();
+            open.add(subscriber);
+            return open;
+        });
+        emitter.onCompletion(() -> forget(subscriber));
+        emitter.onTimeout(() -> forget(subscriber));
+        emitter.onError(e -> forget(subscriber));
+        if (lastEventId != null) {
+            for (Map<String,Object> dto : reader.since(groupId, lastEventId, replayLimit)) {
+                if (!send(subscriber, dto)) break;
+            }
+        }
+        log.debug("[GroupChat] Subscriber joined group {} ({} open)", groupId, subscriberCount(groupId));
+        return emitter;
+    }
+
+    /** Push a message that has already been committed and mapped. */
+    public void publish(Long groupId, Map<String,Object> dto) {
+        broadcast(groupId, dto);
+    }
+
+    /**
+     * Push message {@code messageId} once the surrounding transaction commits (immediately when there is
+     * none). The row is only read when the group has subscribers.
+     */
+    public void announce(Long groupId, Long messageId) {
+        TransactionCallbacks.runAfterCommit(() -> dispatchLoad(groupId, messageId));
+    }
+
+    /** Close {@code userId}'s streams for the group once the surrounding transaction commits (they left or were removed). */
+    public void disconnect(Long groupId, Long userId) {
+        TransactionCallbacks.runAfterCommit(() -> close(groupId, s -> s.userId.equals(userId)));
+    }
+
+    /** Close every stream of a group that is being deleted, once the surrounding transaction commits. */
+    public void disconnectAll(Long groupId) {
+        TransactionCallbacks.runAfterCommit(() -> close(groupId, s -> true));
+    }
+
+    public int subscriberCount(Long groupId) {
+        Set<Subscriber> group = subscribers.get(groupId);
+        return group != null ? group.size() : 0;
+    }
+
+    // Comment frames keep proxies from closing idle streams and surface dead connections. A subscriber whose
+    // current send has not returned within the send timeout is dropped instead; the pool thread stuck in that
+    // write is released when the container's own write timeout fails it
+    @Scheduled(fixedDelayString = "${app.chat.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscribers.forEach((groupId, group) -> {
+            for (Subscriber subscriber : group) {
+                long since = subscriber.sendingSince;
+                if (since != 0 && now - since > sendTimeoutNanos) {
+                    drop(subscriber, "send timed out");
+                } else {
+                    enqueue(subscriber, SseEmitter.event().comment("ping"));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        sendPool.shutdownNow();
+        subscribers.values().forEach(group -> group.forEach(s -> s.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void dispatchLoad(Long groupId, Long messageId) {
+        if (!hasSubscribers(groupId)) return;
+        sendPool.execute(() -> {
+            try {
+                reader.find(messageId).ifPresent(dto -> broadcast(groupId, dto));
+            } catch (Exception e) {
+                log.warn("[GroupChat] Could not load message {} for group {}: {}", messageId, groupId, e.getMessage());
+            }
+        });
+    }
+
+    private void broadcast(Long groupId, Map<String,Object> dto) {
+        Set<Subscriber> group = subscribers.get(groupId);
+        if (group == null) return;
+        for (Subscriber subscriber : group) {
+            enqueue(subscriber, event(dto));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.dropped) return;
+        if (subscriber.queued.incrementAndGet() > maxQueued) {
+            drop(subscriber, "more than " + maxQueued + " events queued");
+            return;
+        }
+        subscriber.pending.add(event);
+        if (subscriber.draining.compareAndSet(false, true)) sendPool.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        SseEmitter.SseEventBuilder event;
+        while (!subscriber.dropped && (event = subscriber.pending.poll()) != null) {
+            subscriber.queued.decrementAndGet();
+            subscriber.sendingSince = System.nanoTime();
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                drop(subscriber, "send failed");
+            } finally {
+                subscriber.sendingSince = 0;
+            }
+        }
+        subscriber.draining.set(false);
+        // An event queued after the loop saw an empty queue but before the flag was cleared
+        if (!subscriber.dropped && !subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            sendPool.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (subscriber.dropped) return;
+        forget(subscriber);
+        subscriber.emitter.complete();
+        log.debug("[GroupChat] Dropped subscriber of group {} (user {}): {}", subscriber.groupId, subscriber.userId, reason);
+    }
+
+    private void close(Long groupId, Predicate<Subscriber> which) {
+        Set<Subscriber> group = subscribers.get(groupId);
+        if (group == null) return;
+        for (Subscriber subscriber : List.copyOf(group)) {
+            if (which.test(subscriber)) drop(subscriber, "no longer a member");
+        }
+    }
+
+    // Builders are single-use, so every subscriber gets its own
+    private static SseEmitter.SseEventBuilder event(Map<String,Object> dto) {
+        return SseEmitter.event()
+                .id(String.valueOf(dto.get("id")))
+                .name("message")
+                .data(dto, MediaType.APPLICATION_JSON);
+    }
+
+    // Replay runs on the subscribing request before the stream is handed back, so it never waits on the client
+    private boolean send(Subscriber subscriber, Map<String,Object> dto) {
+        try {
+            subscriber.emitter.send(event(dto));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber, "send failed");
+            return false;
+        }
+    }
+
+    private boolean hasSubscribers(Long groupId) {
+        Set<Subscriber> group = subscribers.get(groupId);
+        return group != null && !group.isEmpty();
+    }
+
+    // The stream ended on its own (completed, timed out or errored)
+    private void forget(Subscriber subscriber) {
+        subscriber.dropped = true;
+        subscriber.pending.clear();
+        remove(subscriber);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.groupId, (k, group) -> {
+            group.remove(subscriber);
+            return group.isEmpty() ? null : group;
+        });
+    }
+
+    /** One open stream, the member it was opened for and the events waiting to be sent to it. */
+    private static final class Subscriber {
+        final Long groupId;
+        final Long userId;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile long sendingSince;
+        volatile boolean dropped;
+
+        Subscriber(Long groupId, Long userId, SseEmitter emitter) {
+            this.groupId = groupId; this.userId = userId; this.emitter = emitter;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.expenseapp.group;
 
 import com.expenseapp.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +12,7 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     List<GroupMember> findAllByGroup(Group group);
     List<GroupMember> findAllByUser(User user);
     Optional<GroupMember> findByGroupAndUser(Group group, User user);
+
+    @Query("SELECT m.group.id FROM GroupMember m WHERE m.user.id = :userId")
+    List<Long> findGroupIdsByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,113 @@
+package com.expenseapp.group;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads {@code group_messages} as the chat DTOs served by {@link GroupMessagesController} and pushed by
+ * {@link GroupChatHub}. The sender is joined in the same statement, so a page costs one query. Incremental and
+ * backfill reads walk {@code (group_id, id)}; message ids are assigned in insert order.
+ */
+@Component
+public class GroupMessageReader {
+
+    private static final String SELECT_SQL =
+            "SELECT m.id, m.group_id, m.sender_user_id, m.type, m.text, m.split_title, m.split_total_amount, m.split_currency, " +
+            "m.split_involved_ids, m.created_at, COALESCE(u.name, u.email, CONCAT('User #', m.sender_user_id)) AS sender_name, " +
+            "COALESCE(u.email, '') AS sender_email " +
+            "FROM group_messages m LEFT JOIN users u ON u.id = m.sender_user_id ";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public GroupMessageReader(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Entire history, oldest first. Kept for clients that have not moved to {@link #since} / {@link #before}. */
+    public List<Map<String,Object>> history(Long groupId) {
+        return read(SELECT_SQL + "WHERE m.group_id=:g ORDER BY m.created_at ASC, m.id ASC",
+                new MapSqlParameterSource().addValue("g", groupId));
+    }
+
+    /** Up to {@code limit} messages newer than {@code afterId}, oldest first. */
+    public List<Map<String,Object>> since(Long groupId, long afterId, int limit) {
+        return read(SELECT_SQL + "WHERE m.group_id=:g AND m.id > :after ORDER BY m.id ASC LIMIT :limit",
+                new MapSqlParameterSource().addValue("g", groupId).addValue("after", afterId).addValue("limit", limit));
+    }
+
+    /**
+     * Up to {@code limit} messages older than {@code beforeId} (the latest ones when null), returned oldest
+     * first so a page can be prepended as is.
+     */
+    public List<Map<String,Object>> before(Long groupId, Long beforeId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("g", groupId).addValue("limit", limit);
+        String where = "WHERE m.group_id=:g ";
+        if (beforeId != null) {
+            where += "AND m.id < :before ";
+            params.addValue("before", beforeId);
+        }
+        List<Map<String,Object>> page = new ArrayList<>(read(SELECT_SQL + where + "ORDER BY m.id DESC LIMIT :limit", params));
+        Collections.reverse(page);
+        return page;
+    }
+
+    public Optional<Map<String,Object>> find(Long messageId) {
+        return read(SELECT_SQL + "WHERE m.id=:id", new MapSqlParameterSource().addValue("id", messageId))
+                .stream().findFirst();
+    }
+
+    private List<Map<String,Object>> read(String sql, MapSqlParameterSource params) {
+        List<Map<String,Object>> rows = jdbc.queryForList(sql, params);
+        List<Map<String,Object>> out = new ArrayList<>(rows.size());
+        for (Map<String,Object> r : rows) {
+            out.add(toDto(r));
+        }
+        return out;
+    }
+
+    private static Map<String,Object> toDto(Map<String,Object> r) {
+        Map<String,Object> dto = new LinkedHashMap<>();
+        Long groupId = asLong(r.get("group_id"));
+        Long id = asLong(r.get("id"));
+        Long senderUserId = asLong(r.get("sender_user_id"));
+        String type = asString(r.get("type"));
+        String text = asString(r.get("text"));
+        String st = asString(r.get("split_title"));
+        Double sa = asDouble(r.get("split_total_amount"));
+        String sc = asString(r.get("split_currency"));
+        String ids = asString(r.get("split_involved_ids"));
+        Object created = r.get("created_at");
+        dto.put("id", String.valueOf(id));
+        dto.put("groupId", groupId);
+        dto.put("createdAt", created != null ? created.toString() : Instant.now().toString());
+        // sender summary
+        Map<String,Object> sender = new HashMap<>();
+        sender.put("id", senderUserId);
+        sender.put("name", asString(r.get("sender_name")));
+        sender.put("email", asString(r.get("sender_email")));
+        dto.put("sender", sender);
+        dto.put("type", type);
+        if ("text".equals(type)) {
+            dto.put("text", text != null ? text : "");
+        } else if ("split".equals(type)) {
+            Map<String,Object> split = new LinkedHashMap<>();
+            split.put("id", id);
+            split.put("title", st != null ? st : "Untitled");
+            split.put("totalAmount", sa != null ? sa : 0.0);
+            split.put("currency", sc != null ? sc : "INR");
+            List<Long> involved = (ids == null || ids.isBlank()) ? List.of() : Arrays.stream(ids.split(",")).map(String::trim).filter(s -> !s.isBlank()).map(Long::parseLong).collect(Collectors.toList());
+            split.put("involvedUserIds", involved);
+            dto.put("split", split);
+        }
+        return dto;
+    }
+
+    private static Long asLong(Object o) { return (o instanceof Number) ? ((Number)o).longValue() : (o != null ? Long.parseLong(String.valueOf(o)) : null); }
+    private static String asString(Object o) { return o != null ? String.valueOf(o) : null; }
+    private static Double asDouble(Object o) { return (o instanceof Number) ? ((Number)o).doubleValue() : (o != null ? Double.parseDouble(String.valueOf(o)) : null); }
+}
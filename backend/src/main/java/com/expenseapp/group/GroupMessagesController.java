@@ -1,6 +1,9 @@
 package com.expenseapp.group;
 
+import com.expenseapp.acl.ACLPrincipalCache;
 import com.expenseapp.notification.NotificationPublisher;
+import com.expenseapp.notification.UnreadCounterService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -8,6 +11,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.sql.Timestamp;
 import java.time.Instant;
@@ -20,10 +24,23 @@ public class GroupMessagesController {
 
     private final NamedParameterJdbcTemplate jdbc;
     private final NotificationPublisher notificationPublisher;
+    private final GroupMessageReader messageReader;
+    private final GroupChatHub chatHub;
+    private final UnreadCounterService unreadCounters;
+    private final ACLPrincipalCache aclPrincipalCache;
 
-    public GroupMessagesController(NamedParameterJdbcTemplate jdbc, NotificationPublisher notificationPublisher) {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    public GroupMessagesController(NamedParameterJdbcTemplate jdbc, NotificationPublisher notificationPublisher,
+                                   GroupMessageReader messageReader, GroupChatHub chatHub,
+                                   UnreadCounterService unreadCounters, ACLPrincipalCache aclPrincipalCache) {
         this.jdbc = jdbc;
         this.notificationPublisher = notificationPublisher;
+        this.messageReader = messageReader;
+        this.chatHub = chatHub;
+        this.unreadCounters = unreadCounters;
+        this.aclPrincipalCache = aclPrincipalCache;
     }
 
     public static class MessageBody {
@@ -43,20 +60,51 @@ public class GroupMessagesController {
         public Double amount;
     }
 
+    /**
+     * Messages oldest first. {@code since} returns only messages newer than that id (incremental fetch);
+     * {@code before} and/or {@code limit} return the page preceding {@code before} (the latest page when absent)
+     * for backfill. With no parameters the full history is returned, as before.
+     */
     @GetMapping
-    public ResponseEntity<List<Map<String,Object>>> list(@PathVariable("groupId") Long groupId) {
+    public ResponseEntity<List<Map<String,Object>>> list(@PathVariable("groupId") Long groupId,
+                                                         @RequestParam(value = "since", required = false) Long since,
+                                                         @RequestParam(value = "before", required = false) Long before,
+                                                         @RequestParam(value = "limit", required = false) Integer limit) {
         String email = currentEmail();
         // Optional: ensure requester is member of group
         if (!isGroupMember(email, groupId)) {
             return ResponseEntity.status(403).build();
         }
-        String sql = "SELECT id, group_id, sender_user_id, type, text, split_title, split_total_amount, split_currency, split_involved_ids, created_at FROM group_messages WHERE group_id=:g ORDER BY created_at ASC, id ASC";
-        List<Map<String, Object>> rows = jdbc.queryForList(sql, new MapSqlParameterSource().addValue("g", groupId));
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Map<String,Object> r : rows) {
-            out.add(toDto(r));
+        int size = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (since != null) {
+            return ResponseEntity.ok(messageReader.since(groupId, since, size));
         }
-        return ResponseEntity.ok(out);
+        if (before != null || limit != null) {
+            return ResponseEntity.ok(messageReader.before(groupId, before, size));
+        }
+        return ResponseEntity.ok(messageReader.history(groupId));
+    }
+
+    /**
+     * Server-sent event stream of new messages for the group. Each event is named {@code message}, carries the
+     * same DTO as {@link #list} and uses the message id as event id; {@code Last-Event-ID} (or {@code since})
+     * replays what was missed while disconnected.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable("groupId") Long groupId,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                             @RequestParam(value = "since", required = false) Long since) {
+        String email = currentEmail();
+        if (!isGroupMember(email, groupId)) {
+            return ResponseEntity.status(403).build();
+        }
+        Long resumeFrom = since;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ignored) {}
+        }
+        return ResponseEntity.ok(chatHub.subscribe(groupId, ensureUser(email), resumeFrom));
     }
 
     @PostMapping
@@ -70,6 +118,7 @@ public class GroupMessagesController {
             try {
                 jdbc.update("INSERT INTO group_members(group_id,user_id,role) VALUES(:g,:u,'MEMBER') ON CONFLICT DO NOTHING",
                         new MapSqlParameterSource().addValue("g", groupId).addValue("u", senderId));
+                aclPrincipalCache.invalidate(senderId);
             } catch (Exception ignored) {}
         }
         String type = (body != null && body.type != null) ? body.type.trim().toLowerCase() : "text";
@@ -100,9 +149,8 @@ public class GroupMessagesController {
                         .addValue("ts", Timestamp.from(Instant.now())),
                 Long.class
         );
-        Map<String,Object> row = jdbc.queryForMap("SELECT id, group_id, sender_user_id, type, text, split_title, split_total_amount, split_currency, split_involved_ids, created_at FROM group_messages WHERE id=:id",
-                new MapSqlParameterSource().addValue("id", id));
-        Map<String, Object> dto = toDto(row);
+        Map<String, Object> dto = messageReader.find(id).orElseThrow();
+        chatHub.publish(groupId, dto);
         // Mark sender as read up to this message
         try {
             jdbc.update(
@@ -110,6 +158,8 @@ public class GroupMessagesController {
                 "ON CONFLICT (group_id, user_id) DO UPDATE SET last_read_message_id=GREATEST(group_reads.last_read_message_id, EXCLUDED.last_read_message_id), last_read_at=NOW()",
                 new MapSqlParameterSource().addValue("g", groupId).addValue("u", senderId).addValue("m", id)
             );
+            unreadCounters.messagePosted(groupId, senderId);
+            unreadCounters.groupRead(groupId, senderId);
         } catch (Exception ignored) {}
         
         // Send notifications for split creation
@@ -127,25 +177,23 @@ public class GroupMessagesController {
                 (rs, i) -> rs.getLong("user_id")
             );
             
-            // Notify all group members
+            // Notify all group members: involved users and everyone else get different texts, one batch each
+            List<Long> involvedRecipients = new ArrayList<>();
+            List<Long> otherRecipients = new ArrayList<>();
             for (Long memberId : allMemberIds) {
                 if (memberId.equals(senderId)) continue; // Don't notify sender
-                
-                boolean isInvolved = involvedIds.contains(memberId);
-                String dataJson = String.format(
-                    "{\"groupId\":%d,\"splitId\":%d,\"isInvolved\":%b,\"groupName\":\"%s\",\"splitTitle\":\"%s\"}",
-                    groupId, id, isInvolved,
-                    groupName.replace("\"", "\\\""),
-                    (splitTitle != null ? splitTitle : "Untitled").replace("\"", "\\\"")
-                );
-                
-                String notifTitle = isInvolved ? "New Split" : "Group Activity";
-                String notifBody = isInvolved 
-                    ? String.format("%s created a split '%s' in %s", senderName, splitTitle, groupName)
-                    : String.format("New split '%s' in %s", splitTitle, groupName);
-                
-                notificationPublisher.publish(memberId, "SPLIT_CREATED", notifTitle, notifBody, dataJson);
+                (involvedIds.contains(memberId) ? involvedRecipients : otherRecipients).add(memberId);
             }
+            String safeGroupName = groupName.replace("\"", "\\\"");
+            String safeSplitTitle = (splitTitle != null ? splitTitle : "Untitled").replace("\"", "\\\"");
+            String dataFormat = "{\"groupId\":%d,\"splitId\":%d,\"isInvolved\":%b,\"groupName\":\"%s\",\"splitTitle\":\"%s\"}";
+            
+            notificationPublisher.publishAll(involvedRecipients, "SPLIT_CREATED", "New Split",
+                String.format("%s created a split '%s' in %s", senderName, splitTitle, groupName),
+                String.format(dataFormat, groupId, id, true, safeGroupName, safeSplitTitle));
+            notificationPublisher.publishAll(otherRecipients, "SPLIT_CREATED", "Group Activity",
+                String.format("New split '%s' in %s", splitTitle, groupName),
+                String.format(dataFormat, groupId, id, false, safeGroupName, safeSplitTitle));
         }
         
         return ResponseEntity.ok(dto);
@@ -172,6 +220,7 @@ public class GroupMessagesController {
                 "ON CONFLICT (group_id, user_id) DO UPDATE SET last_read_message_id=GREATEST(group_reads.last_read_message_id, EXCLUDED.last_read_message_id), last_read_at=NOW()",
                 new MapSqlParameterSource().addValue("g", groupId).addValue("u", userId).addValue("m", targetMessageId)
             );
+            unreadCounters.groupRead(groupId, userId);
         } catch (Exception ignored) {}
         return ResponseEntity.ok(Map.of("groupId", groupId, "lastReadMessageId", targetMessageId));
     }
@@ -199,65 +248,16 @@ public class GroupMessagesController {
         return ResponseEntity.ok(out);
     }
 
-    private Map<String,Object> toDto(Map<String,Object> r) {
-        Map<String,Object> dto = new LinkedHashMap<>();
-        Long groupId = asLong(r.get("group_id"));
-        Long id = asLong(r.get("id"));
-        Long senderUserId = asLong(r.get("sender_user_id"));
-        String type = asString(r.get("type"));
-        String text = asString(r.get("text"));
-        String st = asString(r.get("split_title"));
-        Double sa = asDouble(r.get("split_total_amount"));
-        String sc = asString(r.get("split_currency"));
-        String ids = asString(r.get("split_involved_ids"));
-        Object created = r.get("created_at");
-        dto.put("id", String.valueOf(id));
-        dto.put("groupId", groupId);
-        dto.put("createdAt", created != null ? created.toString() : Instant.now().toString());
-        // sender summary
-        Map<String,Object> sender = jdbc.queryForObject(
-                "SELECT id, COALESCE(name, email, CONCAT('User #', id)) AS name, COALESCE(email,'') AS email FROM users WHERE id=:id",
-                new MapSqlParameterSource().addValue("id", senderUserId),
-                (rs, i) -> {
-                    Map<String,Object> m = new HashMap<>();
-                    m.put("id", rs.getLong("id"));
-                    m.put("name", rs.getString("name"));
-                    m.put("email", rs.getString("email"));
-                    return m;
-                }
-        );
-        dto.put("sender", sender);
-        dto.put("type", type);
-        if ("text".equals(type)) {
-            dto.put("text", text != null ? text : "");
-        } else if ("split".equals(type)) {
-            Map<String,Object> split = new LinkedHashMap<>();
-            split.put("id", id);
-            split.put("title", st != null ? st : "Untitled");
-            split.put("totalAmount", sa != null ? sa : 0.0);
-            split.put("currency", sc != null ? sc : "INR");
-            List<Long> involved = (ids == null || ids.isBlank()) ? List.of() : Arrays.stream(ids.split(",")).map(String::trim).filter(s -> !s.isBlank()).map(Long::parseLong).collect(Collectors.toList());
-            split.put("involvedUserIds", involved);
-            dto.put("split", split);
-        }
-        return dto;
-    }
-
     private boolean isGroupMember(String email, Long groupId) {
         String norm = email == null ? null : email.trim().toLowerCase();
         if (norm == null || norm.isBlank()) return false;
 
-        // 1) Check by email via join to avoid problems with duplicate user rows
-        Long ce = jdbc.queryForObject(
-                "SELECT COUNT(1) FROM group_members gm JOIN users u ON u.id=gm.user_id WHERE gm.group_id=:g AND lower(u.email)=:e",
-                new MapSqlParameterSource().addValue("g", groupId).addValue("e", norm), Long.class);
-        if (ce != null && ce > 0) return true;
-
-        // also owner by email
-        Long coe = jdbc.queryForObject(
-                "SELECT COUNT(1) FROM groups gr JOIN users u ON gr.owner_id=u.id WHERE gr.id=:g AND lower(u.email)=:e",
-                new MapSqlParameterSource().addValue("g", groupId).addValue("e", norm), Long.class);
-        if (coe != null && coe > 0) return true;
+        // 1) Member or owner by email via join to avoid problems with duplicate user rows
+        Boolean byEmail = jdbc.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM group_members gm JOIN users u ON u.id=gm.user_id WHERE gm.group_id=:g AND lower(u.email)=:e) " +
+                "OR EXISTS(SELECT 1 FROM groups gr JOIN users u ON gr.owner_id=u.id WHERE gr.id=:g AND lower(u.email)=:e)",
+                new MapSqlParameterSource().addValue("g", groupId).addValue("e", norm), Boolean.class);
+        if (Boolean.TRUE.equals(byEmail)) return true;
 
         // 2) Fallback: resolve UID and check by ID
         Long uid = ensureUser(norm);
@@ -408,7 +408,6 @@ public class GroupMessagesController {
         ));
     }
 
-    private static Long asLong(Object o) { return (o instanceof Number) ? ((Number)o).longValue() : (o != null ? Long.parseLong(String.valueOf(o)) : null); }
     private static String asString(Object o) { return o != null ? String.valueOf(o) : null; }
     private static Double asDouble(Object o) { return (o instanceof Number) ? ((Number)o).doubleValue() : (o != null ? Double.parseDouble(String.valueOf(o)) : null); }
 }
@@ -5,8 +5,11 @@ import com.expenseapp.group.dto.GroupView;
 import com.expenseapp.group.dto.MemberChangeRequest;
 import com.expenseapp.group.dto.GroupLedgerView;
 import com.expenseapp.group.dto.GroupDefaultsDto;
+import com.expenseapp.acl.ACLPrincipalCache;
 import com.expenseapp.expense.ExpenseRepository;
+import com.expenseapp.expense.ExpenseRollupService;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import com.expenseapp.notification.NotificationPublisher;
 import org.springframework.stereotype.Service;
@@ -26,6 +29,10 @@ public class GroupService {
     private final NotificationPublisher notificationPublisher;
     private final com.expenseapp.company.CompanyMemberRepository companyMemberRepository;
     private final com.expenseapp.company.CompanyRepository companyRepository;
+    private final ExpenseRollupService rollupService;
+    private final ACLPrincipalCache aclPrincipalCache;
+    private final com.expenseapp.notification.UnreadCounterService unreadCounters;
+    private final GroupChatHub chatHub;
 
     public GroupService(GroupRepository groupRepository,
                         GroupMemberRepository groupMemberRepository,
@@ -34,7 +41,11 @@ public class GroupService {
                         GroupDefaultsRepository groupDefaultsRepository,
                         NotificationPublisher notificationPublisher,
                         com.expenseapp.company.CompanyMemberRepository companyMemberRepository,
-                        com.expenseapp.company.CompanyRepository companyRepository) {
+                        com.expenseapp.company.CompanyRepository companyRepository,
+                        ExpenseRollupService rollupService,
+                        ACLPrincipalCache aclPrincipalCache,
+                        com.expenseapp.notification.UnreadCounterService unreadCounters,
+                        GroupChatHub chatHub) {
         this.groupRepository = groupRepository;
         this.groupMemberRepository = groupMemberRepository;
         this.userRepository = userRepository;
@@ -43,11 +54,15 @@ public class GroupService {
         this.notificationPublisher = notificationPublisher;
         this.companyMemberRepository = companyMemberRepository;
         this.companyRepository = companyRepository;
+        this.rollupService = rollupService;
+        this.aclPrincipalCache = aclPrincipalCache;
+        this.unreadCounters = unreadCounters;
+        this.chatHub = chatHub;
     }
 
     @Transactional
     public GroupView create(String ownerEmail, GroupCreateRequest req, Long companyId) {
-        User owner = userRepository.findByEmail(ownerEmail).orElseThrow();
+        User owner = RequestPrincipal.findByEmail(userRepository, ownerEmail).orElseThrow();
         
         // Permission check: Only ADMIN, MANAGER, and SUPER_ADMIN can create teams
         if (companyId != null && companyId > 0) {
@@ -83,12 +98,13 @@ public class GroupService {
         m.setUser(owner);
         m.setRole("OWNER");
         groupMemberRepository.save(m);
+        aclPrincipalCache.invalidate(owner.getId());
         return toView(g);
     }
 
     @Transactional(readOnly = true)
     public List<GroupView> myGroups(String email, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         // owner groups + member-of groups, filtered by company
         List<Group> owned = groupRepository.findAllByOwner(user);
         List<Group> memberOf = groupMemberRepository.findAllByUser(user).stream().map(GroupMember::getGroup).toList();
@@ -111,7 +127,7 @@ public class GroupService {
 
     @Transactional(readOnly = true)
     public GroupView get(String email, Long groupId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureMember(user, g);
         return toView(g);
@@ -119,7 +135,7 @@ public class GroupService {
 
     @Transactional
     public GroupView addMember(String email, Long groupId, MemberChangeRequest req) {
-        User actor = userRepository.findByEmail(email).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureOwnerOrAdmin(actor, g);
         User target = userRepository.findById(req.getUserId()).orElseThrow();
@@ -129,6 +145,7 @@ public class GroupService {
         m.setUser(target);
         m.setRole(req.getRole() != null && !req.getRole().isBlank() ? req.getRole().toUpperCase() : "MEMBER");
         groupMemberRepository.save(m);
+        aclPrincipalCache.invalidate(target.getId());
         
         // Notify the added member
         String dataJson = String.format("{\"groupId\":%d,\"groupName\":\"%s\"}", g.getId(), g.getName().replace("\"", "\\\""));
@@ -145,7 +162,7 @@ public class GroupService {
 
     @Transactional
     public void deleteGroup(String email, Long groupId) {
-        User actor = userRepository.findByEmail(email).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow(() -> 
             new IllegalArgumentException("Group not found"));
         
@@ -161,6 +178,8 @@ public class GroupService {
         // Delete all group members
         List<GroupMember> members = groupMemberRepository.findAllByGroup(g);
         groupMemberRepository.deleteAll(members);
+        aclPrincipalCache.invalidate(members.stream().map(gm -> gm.getUser().getId()).toList());
+        chatHub.disconnectAll(groupId);
         
         // Delete group defaults if any
         groupDefaultsRepository.findByGroup(g).ifPresent(groupDefaultsRepository::delete);
@@ -171,8 +190,10 @@ public class GroupService {
             .collect(Collectors.toList());
         
         for (com.expenseapp.expense.Expense expense : expenses) {
+            ExpenseRollupService.Entry before = rollupService.entryOf(expense);
             expense.setGroup(null);
             expenseRepository.save(expense);
+            rollupService.move(before, expense);
         }
         
         // Delete the group
@@ -183,7 +204,7 @@ public class GroupService {
 
     @Transactional
     public GroupView removeMember(String email, Long groupId, Long userId) {
-        User actor = userRepository.findByEmail(email).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureOwnerOrAdmin(actor, g);
         User target = userRepository.findById(userId).orElseThrow();
@@ -197,12 +218,15 @@ public class GroupService {
             throw new IllegalArgumentException("Admins cannot remove other admins");
         }
         groupMemberRepository.delete(m);
+        unreadCounters.forgetGroup(groupId, target.getId());
+        aclPrincipalCache.invalidate(target.getId());
+        chatHub.disconnect(groupId, target.getId());
         return toView(g);
     }
 
     @Transactional
     public GroupView archive(String email, Long groupId) {
-        User actor = userRepository.findByEmail(email).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureOwner(actor, g);
         g.setArchived(true);
@@ -211,7 +235,7 @@ public class GroupService {
 
     @Transactional
     public GroupView updateMemberRole(String email, Long groupId, MemberChangeRequest req) {
-        User actor = userRepository.findByEmail(email).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureOwnerOrAdmin(actor, g);
         User target = userRepository.findById(req.getUserId()).orElseThrow();
@@ -295,7 +319,7 @@ public class GroupService {
 
     @Transactional(readOnly = true)
     public GroupLedgerView getLedger(String email, Long groupId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureMember(user, g);
         var credits = expenseRepository.groupCredits(groupId);
@@ -323,7 +347,7 @@ public class GroupService {
 
     @Transactional(readOnly = true)
     public GroupDefaultsDto getDefaults(String email, Long groupId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureMember(user, g);
         GroupDefaults def = groupDefaultsRepository.findByGroup(g).orElse(null);
@@ -333,7 +357,7 @@ public class GroupService {
 
     @Transactional
     public GroupDefaultsDto updateDefaults(String email, Long groupId, GroupDefaultsDto dto) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Group g = groupRepository.findById(groupId).orElseThrow();
         ensureOwner(user, g);
         GroupDefaults def = groupDefaultsRepository.findByGroup(g).orElseGet(() -> { GroupDefaults d = new GroupDefaults(); d.setGroup(g); return d; });
@@ -349,7 +373,7 @@ public class GroupService {
      */
     @Transactional
     public Group assignTeamLead(String assignerEmail, Long groupId, Long teamLeadUserId) {
-        User assigner = userRepository.findByEmail(assignerEmail)
+        User assigner = RequestPrincipal.findByEmail(userRepository, assignerEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Group group = groupRepository.findById(groupId)
@@ -395,7 +419,7 @@ public class GroupService {
      */
     @Transactional
     public Group removeTeamLead(String assignerEmail, Long groupId) {
-        User assigner = userRepository.findByEmail(assignerEmail)
+        User assigner = RequestPrincipal.findByEmail(userRepository, assignerEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Group group = groupRepository.findById(groupId)
@@ -1,9 +1,11 @@
 package com.expenseapp.group;
 
+import com.expenseapp.acl.ACLPrincipalCache;
 import com.expenseapp.group.dto.GroupDefaultsDto;
 import com.expenseapp.group.dto.GroupLedgerView;
 import com.expenseapp.group.dto.GroupView;
 import com.expenseapp.group.dto.MemberChangeRequest;
+import com.expenseapp.notification.UnreadCounterService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -25,10 +27,15 @@ public class GroupsController {
 
     private final NamedParameterJdbcTemplate jdbc;
     private final GroupService groupService;
+    private final UnreadCounterService unreadCounters;
+    private final ACLPrincipalCache aclPrincipalCache;
 
-    public GroupsController(NamedParameterJdbcTemplate jdbc, GroupService groupService) {
+    public GroupsController(NamedParameterJdbcTemplate jdbc, GroupService groupService, UnreadCounterService unreadCounters,
+                            ACLPrincipalCache aclPrincipalCache) {
         this.jdbc = jdbc;
         this.groupService = groupService;
+        this.unreadCounters = unreadCounters;
+        this.aclPrincipalCache = aclPrincipalCache;
     }
 
     public static class CreateGroupRequest {
@@ -96,13 +103,16 @@ public class GroupsController {
         // ensure owner member as OWNER
         jdbc.update("INSERT INTO group_members(group_id,user_id,role) VALUES(:g,:u,'OWNER') ON CONFLICT DO NOTHING",
                 new MapSqlParameterSource().addValue("g", groupId).addValue("u", ownerId));
+        List<Long> memberIds = new java.util.ArrayList<>(List.of(ownerId));
         if (req.memberIds != null) {
             for (Long uid : req.memberIds) {
                 if (uid == null) continue;
                 jdbc.update("INSERT INTO group_members(group_id,user_id,role) VALUES(:g,:u,'MEMBER') ON CONFLICT DO NOTHING",
                         new MapSqlParameterSource().addValue("g", groupId).addValue("u", uid));
+                memberIds.add(uid);
             }
         }
+        aclPrincipalCache.invalidate(memberIds);
         Map<String,Object> out = new HashMap<>();
         out.put("id", groupId);
         out.put("name", req.name.trim());
@@ -185,7 +195,7 @@ public class GroupsController {
         Long normalizedCompanyId = (coId != null && coId > 0) ? coId : null;
         
         List<GroupView> list = groupService.myGroups(email, normalizedCompanyId);
-        // compute unread counts per group for current user
+        // unread counts per group for current user, from the counters kept by UnreadCounterService
         try {
             Long userId = jdbc.queryForObject(
                 "SELECT id FROM users WHERE lower(email)=:e ORDER BY id ASC LIMIT 1",
@@ -193,23 +203,9 @@ public class GroupsController {
                 Long.class
             );
             if (userId != null) {
+                Map<Long, Integer> unread = unreadCounters.groupCounts(userId);
                 for (GroupView gv : list) {
-                    Long groupId = gv.getId();
-                    // Baseline read moment: last_read_at if present else membership created_at
-                    java.sql.Timestamp baseline = jdbc.queryForObject(
-                        "SELECT COALESCE(\n" +
-                        "  (SELECT last_read_at FROM group_reads WHERE group_id=:g AND user_id=:u),\n" +
-                        "  (SELECT created_at FROM group_members WHERE group_id=:g AND user_id=:u)\n" +
-                        ")",
-                        new MapSqlParameterSource().addValue("g", groupId).addValue("u", userId),
-                        java.sql.Timestamp.class
-                    );
-                    Integer unread = jdbc.queryForObject(
-                        "SELECT COUNT(1) FROM group_messages WHERE group_id=:g AND created_at > COALESCE(:b, to_timestamp(0)) AND sender_user_id != :u",
-                        new MapSqlParameterSource().addValue("g", groupId).addValue("b", baseline).addValue("u", userId),
-                        Integer.class
-                    );
-                    gv.setUnreadCount(unread != null ? unread : 0);
+                    gv.setUnreadCount(unread.getOrDefault(gv.getId(), 0));
                 }
             }
         } catch (Exception ignored) {}
@@ -6,9 +6,10 @@ import com.expenseapp.company.Company;
 import com.expenseapp.company.CompanyMember;
 import com.expenseapp.company.CompanyMemberRepository;
 import com.expenseapp.company.CompanyRepository;
-import com.expenseapp.expense.ExpenseRepository;
+import com.expenseapp.expense.SpendQueryService;
 import com.expenseapp.notification.NotificationPublisher;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,7 +34,7 @@ public class TeamBudgetService {
     private final CompanyMemberRepository companyMemberRepository;
     private final CompanyBudgetRepository companyBudgetRepository;
     private final UserRepository userRepository;
-    private final ExpenseRepository expenseRepository;
+    private final SpendQueryService spendQueryService;
     private final NotificationPublisher notificationPublisher;
     
     /**
@@ -44,7 +45,7 @@ public class TeamBudgetService {
         log.info("[TeamBudgetService] Setting team budget - User: {}, GroupId: {}, Amount: {}", 
                 userEmail, groupId, budget.getAllocatedAmount());
         
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Group group = groupRepository.findById(groupId)
@@ -115,7 +116,7 @@ public class TeamBudgetService {
         log.info("[TeamBudgetService] Updating team budget - User: {}, BudgetId: {}", 
                 userEmail, budgetId);
         
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         TeamBudget existing = teamBudgetRepository.findById(budgetId)
@@ -180,7 +181,7 @@ public class TeamBudgetService {
      */
     @Transactional(readOnly = true)
     public List<TeamBudget> listTeamBudgets(String userEmail, Long groupId) {
-        User user = userRepository.findByEmail(userEmail)
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
         Group group = groupRepository.findById(groupId)
@@ -214,20 +215,30 @@ public class TeamBudgetService {
         }
     }
     
+    /**
+     * Recalculate spent on every active team budget in one grouped query and alert on budgets that
+     * crossed their threshold since the last calculation
+     */
+    @Transactional
+    public int recalculateAllActive() {
+        java.util.Map<Long, BigDecimal> previous = spendQueryService.recalculateActiveTeamBudgets();
+        int alerts = 0;
+        for (TeamBudget budget : teamBudgetRepository.findAllById(previous.keySet())) {
+            if (budget.isAlertThresholdReached() && budget.spentPercentage(previous.get(budget.getId()))
+                    < budget.getAlertThresholdPercent()) {
+                sendBudgetAlert(budget);
+                alerts++;
+            }
+        }
+        log.info("[TeamBudgetService] Recalculated active budgets - Changed: {}, Alerts: {}", previous.size(), alerts);
+        return alerts;
+    }
+    
     /**
      * Calculate total spent amount for team in period
      */
     private BigDecimal calculateSpentAmount(Long groupId, LocalDate start, LocalDate end) {
-        // Sum all expenses for this group in period
-        List<Object[]> results = expenseRepository.findAll().stream()
-                .filter(e -> e.getGroup() != null && e.getGroup().getId().equals(groupId))
-                .filter(e -> !e.getOccurredOn().isBefore(start) && !e.getOccurredOn().isAfter(end))
-                .map(e -> new Object[]{e.getAmount()})
-                .toList();
-        
-        return results.stream()
-                .map(r -> (BigDecimal) r[0])
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return spendQueryService.groupSpend(groupId, start, end);
     }
     
     /**
@@ -350,39 +361,28 @@ public class TeamBudgetService {
                 budget.getAllocatedAmount()
         );
         
-        // Notify team lead
+        // Team lead plus company admins/managers if company group, in one batch
+        java.util.Set<Long> recipients = new java.util.LinkedHashSet<>();
         if (group.getTeamLead() != null) {
-            notificationPublisher.publish(
-                    group.getTeamLead().getId(),
-                    "TEAM_BUDGET_" + alertType,
-                    title,
-                    message,
-                    String.format("{\"type\":\"team_budget_alert\",\"groupId\":%d,\"budgetId\":%d,\"percentage\":%d}", 
-                            group.getId(), budget.getId(), budget.getSpentPercentage()),
-                    group.getCompanyId()
-            );
+            recipients.add(group.getTeamLead().getId());
         }
-        
-        // Also notify company admins/managers if company group
         if (group.getCompanyId() != null) {
             Company company = companyRepository.findById(group.getCompanyId()).orElse(null);
             if (company != null) {
-                List<CompanyMember> admins = companyMemberRepository.findAllByCompany(company).stream()
+                companyMemberRepository.findAllByCompany(company).stream()
                         .filter(m -> "OWNER".equals(m.getRole()) || "ADMIN".equals(m.getRole()) || "MANAGER".equals(m.getRole()))
-                        .toList();
-                
-                for (CompanyMember admin : admins) {
-                    notificationPublisher.publish(
-                            admin.getUser().getId(),
-                            "TEAM_BUDGET_" + alertType,
-                            title,
-                            message,
-                            String.format("{\"type\":\"team_budget_alert\",\"groupId\":%d,\"budgetId\":%d,\"percentage\":%d}", 
-                                    group.getId(), budget.getId(), budget.getSpentPercentage()),
-                            group.getCompanyId()
-                    );
-                }
+                        .forEach(m -> recipients.add(m.getUser().getId()));
             }
         }
+        
+        notificationPublisher.publishAll(
+                recipients,
+                "TEAM_BUDGET_" + alertType,
+                title,
+                message,
+                String.format("{\"type\":\"team_budget_alert\",\"groupId\":%d,\"budgetId\":%d,\"percentage\":%d}", 
+                        group.getId(), budget.getId(), budget.getSpentPercentage()),
+                group.getCompanyId()
+        );
     }
 }
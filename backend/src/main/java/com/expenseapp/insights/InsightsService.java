@@ -4,6 +4,7 @@ import com.expenseapp.budget.Budget;
 import com.expenseapp.budget.BudgetRepository;
 import com.expenseapp.expense.ExpenseRepository;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,7 +33,7 @@ public class InsightsService {
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getTips(String userEmail, String period) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         List<Map<String, Object>> tips = new ArrayList<>();
         
         LocalDate from = LocalDate.parse(period + "-01");
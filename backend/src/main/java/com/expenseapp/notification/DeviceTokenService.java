@@ -1,6 +1,7 @@
 package com.expenseapp.notification;
 
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,7 +21,7 @@ public class DeviceTokenService {
 
     @Transactional
     public DeviceToken register(String email, String token, String platform) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         DeviceToken dt = deviceTokenRepository.findByToken(token).orElseGet(DeviceToken::new);
         dt.setUser(user);
         dt.setToken(token);
@@ -31,7 +32,7 @@ public class DeviceTokenService {
 
     @Transactional
     public void remove(String email, Long id) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         DeviceToken dt = deviceTokenRepository.findById(id).orElseThrow();
         if (!dt.getUser().getId().equals(user.getId())) throw new IllegalArgumentException("Not authorized");
         deviceTokenRepository.delete(dt);
@@ -39,7 +40,7 @@ public class DeviceTokenService {
 
     @Transactional(readOnly = true)
     public List<DeviceToken> listMine(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         return deviceTokenRepository.findAllByUser(user);
     }
 }
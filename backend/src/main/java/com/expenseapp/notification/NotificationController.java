@@ -27,6 +27,12 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.list(email, unreadOnly, companyId));
     }
 
+    @GetMapping("/badge")
+    public ResponseEntity<UnreadBadgeView> badge(@RequestParam(name = "companyId", required = false) Long companyId) {
+        String email = currentEmail();
+        return ResponseEntity.ok(notificationService.badge(email, companyId));
+    }
+
     @PostMapping("/mark-read")
     public ResponseEntity<Void> markRead(@Valid @RequestBody List<Long> ids) {
         String email = currentEmail();
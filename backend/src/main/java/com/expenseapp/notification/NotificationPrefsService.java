@@ -1,6 +1,7 @@
 package com.expenseapp.notification;
 
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,7 +19,7 @@ public class NotificationPrefsService {
 
     @Transactional(readOnly = true)
     public NotificationPrefs get(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         return prefsRepository.findByUser(user).orElseGet(() -> {
             NotificationPrefs p = new NotificationPrefs();
             p.setUser(user);
@@ -29,7 +30,7 @@ public class NotificationPrefsService {
 
     @Transactional
     public NotificationPrefs update(String email, NotificationPrefs req) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         NotificationPrefs p = prefsRepository.findByUser(user).orElseGet(() -> { NotificationPrefs np = new NotificationPrefs(); np.setUser(user); return np; });
         p.setCategoriesJson(req.getCategoriesJson());
         p.setQuietStart(req.getQuietStart());
@@ -1,22 +1,88 @@
 package com.expenseapp.notification;
 
-import com.expenseapp.user.User;
 import com.expenseapp.user.UserRepository;
+import com.expenseapp.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Array;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class NotificationPublisher {
+    private static final Logger log = LoggerFactory.getLogger(NotificationPublisher.class);
+
+    // Basic dedup window: 2 minutes for same (type,title)
+    private static final Duration DEDUP_WINDOW = Duration.ofMinutes(2);
+
+    private static final String RECENT_DUPLICATES_SQL =
+            "SELECT DISTINCT user_id FROM notifications WHERE user_id = ANY(?) AND type = ? AND title = ? AND created_at >= ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, type, title, body, data, company_id, created_at) " +
+            "VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?, ?)";
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final UnreadCounterService unreadCounters;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor fanOutExecutor;
 
-    public NotificationPublisher(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationPublisher(NotificationRepository notificationRepository, UserRepository userRepository,
+                                 UnreadCounterService unreadCounters,
+                                 JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 @Value("${app.notifications.fan-out.threads:2}") int threads,
+                                 @Value("${app.notifications.fan-out.queue-capacity:1000}") int queueCapacity) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.unreadCounters = unreadCounters;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A batch delivered on the caller (full queue) runs inside afterCommit, where joining would write into the
+        // already committed transaction and never commit
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger seq = new AtomicInteger();
+        // When the queue is full the submitting thread delivers the batch itself rather than dropping it
+        this.fanOutExecutor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "notification-fan-out-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        fanOutExecutor.shutdown();
+        try {
+            if (!fanOutExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("[Notifications] Fan-out executor still had {} batch(es) queued at shutdown", fanOutExecutor.getQueue().size());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @Transactional
@@ -26,18 +92,73 @@ public class NotificationPublisher {
 
     @Transactional
     public void publish(Long userId, String type, String title, String body, String dataJson, Long companyId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        // Basic dedup window: 2 minutes for same (type,title)
-        Instant windowStart = Instant.now().minus(Duration.ofMinutes(2));
+        Instant windowStart = Instant.now().minus(DEDUP_WINDOW);
         long dup = notificationRepository.countRecentDuplicates(userId, type, title, windowStart);
         if (dup > 0) return;
         Notification n = new Notification();
-        n.setUser(user);
+        n.setUser(userRepository.getReferenceById(userId));
         n.setType(type);
         n.setTitle(title);
         n.setBody(body);
         n.setData(dataJson);
         n.setCompanyId(companyId);
         notificationRepository.save(n);
+        unreadCounters.notificationAdded(userId, companyId);
+    }
+
+    public void publishAll(Collection<Long> userIds, String type, String title, String body, String dataJson) {
+        publishAll(userIds, type, title, body, dataJson, null);
+    }
+
+    /**
+     * Send the same notification to many users. Delivery runs after the caller's transaction commits (right
+     * away when there is none) on the fan-out executor: one dedup query, one batched insert and one counter
+     * update for the whole set, in a transaction of its own. Users that got the same (type, title) within
+     * the dedup window are skipped, as in {@link #publish}.
+     */
+    public void publishAll(Collection<Long> userIds, String type, String title, String body, String dataJson, Long companyId) {
+        if (userIds == null || userIds.isEmpty()) return;
+        // Sorted so concurrent batches lock counter rows in the same order
+        Set<Long> recipients = new TreeSet<>();
+        userIds.stream().filter(Objects::nonNull).forEach(recipients::add);
+        if (recipients.isEmpty()) return;
+
+        Runnable task = () -> {
+            try {
+                Integer sent = transactionTemplate.execute(s -> deliver(recipients, type, title, body, dataJson, companyId));
+                log.debug("[Notifications] {} '{}' sent to {} of {} user(s)", type, title, sent, recipients.size());
+            } catch (Exception e) {
+                log.error("[Notifications] Failed to deliver {} '{}' to {} user(s): {}", type, title, recipients.size(), e.getMessage(), e);
+            }
+        };
+        TransactionCallbacks.runAfterCommit(() -> fanOutExecutor.execute(task));
+    }
+
+    /** Insert one notification per recipient without a recent duplicate; returns the number inserted. */
+    int deliver(Set<Long> recipients, String type, String title, String body, String dataJson, Long companyId) {
+        Instant now = Instant.now();
+        Timestamp windowStart = Timestamp.from(now.minus(DEDUP_WINDOW));
+        Set<Long> recent = new HashSet<>(jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(RECENT_DUPLICATES_SQL);
+            Array ids = con.createArrayOf("bigint", recipients.toArray());
+            ps.setArray(1, ids);
+            ps.setString(2, type);
+            ps.setString(3, title);
+            ps.setTimestamp(4, windowStart);
+            return ps;
+        }, (rs, i) -> rs.getLong(1)));
+
+        List<Long> fresh = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp createdAt = Timestamp.from(now);
+        for (Long userId : recipients) {
+            if (recent.contains(userId)) continue;
+            fresh.add(userId);
+            rows.add(new Object[]{userId, type, title, body, dataJson, companyId, createdAt});
+        }
+        if (rows.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        unreadCounters.notificationsAdded(fresh, companyId);
+        return fresh.size();
     }
 }
@@ -2,6 +2,7 @@ package com.expenseapp.notification;
 
 import com.expenseapp.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -20,6 +21,14 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findAllByUserAndCompanyIdIsNullOrderByCreatedAtDesc(User user);
     List<Notification> findAllByUserAndCompanyIdIsNullAndReadAtIsNullOrderByCreatedAtDesc(User user);
 
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :now WHERE n.user.id = :userId AND n.id IN :ids AND n.readAt IS NULL")
+    int markRead(@Param("userId") Long userId, @Param("ids") List<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :now WHERE n.user.id = :userId AND n.readAt IS NULL")
+    int markAllRead(@Param("userId") Long userId, @Param("now") Instant now);
+
     @Query(value = "SELECT COUNT(1) FROM notifications WHERE user_id = :userId AND type = :type AND title = :title AND created_at >= :since", nativeQuery = true)
     long countRecentDuplicates(@Param("userId") Long userId, @Param("type") String type, @Param("title") String title, @Param("since") Instant since);
 
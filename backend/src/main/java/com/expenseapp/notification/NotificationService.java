@@ -1,6 +1,7 @@
 package com.expenseapp.notification;
 
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,10 +14,13 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final UnreadCounterService unreadCounters;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository,
+                               UnreadCounterService unreadCounters) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.unreadCounters = unreadCounters;
     }
 
     @Transactional(readOnly = true)
@@ -26,7 +30,7 @@ public class NotificationService {
 
     @Transactional(readOnly = true)
     public List<Notification> list(String email, boolean unreadOnly, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         
         if (companyId != null) {
             // Filter by company context
@@ -45,22 +49,25 @@ public class NotificationService {
 
     @Transactional
     public void markRead(String email, List<Long> ids) {
-        User user = userRepository.findByEmail(email).orElseThrow();
-        var now = Instant.now();
-        ids.forEach(id -> {
-            Notification n = notificationRepository.findById(id).orElseThrow();
-            if (!n.getUser().getId().equals(user.getId())) return;
-            if (n.getReadAt() == null) {
-                n.setReadAt(now);
-            }
-        });
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
+        if (ids == null || ids.isEmpty()) return;
+        // Ids of other users' notifications are ignored by the user filter
+        if (notificationRepository.markRead(user.getId(), ids, Instant.now()) > 0) {
+            unreadCounters.notificationsRead(user.getId());
+        }
     }
 
     @Transactional
     public void markAllRead(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow();
-        var list = notificationRepository.findAllByUserAndReadAtIsNullOrderByCreatedAtDesc(user);
-        var now = Instant.now();
-        list.forEach(n -> n.setReadAt(now));
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
+        notificationRepository.markAllRead(user.getId(), Instant.now());
+        unreadCounters.allNotificationsRead(user.getId());
+    }
+
+    /** Unread notification and group message counts for the badge, read from the counter tables. */
+    @Transactional(readOnly = true)
+    public UnreadBadgeView badge(String email, Long companyId) {
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
+        return unreadCounters.badge(user.getId(), companyId);
     }
 }
@@ -0,0 +1,19 @@
+package com.expenseapp.notification;
+
+import java.util.Map;
+
+public class UnreadBadgeView {
+    private final int notifications;
+    private final int groupMessages;
+    private final Map<Long, Integer> groups; // groupId -> unread messages, only groups with unread
+
+    public UnreadBadgeView(int notifications, Map<Long, Integer> groups) {
+        this.notifications = notifications;
+        this.groups = groups;
+        this.groupMessages = groups.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getNotifications() { return notifications; }
+    public int getGroupMessages() { return groupMessages; }
+    public Map<Long, Integer> getGroups() { return groups; }
+}
@@ -0,0 +1,130 @@
+package com.expenseapp.notification;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unread counters per (user, group) and per (user, company) notifications (V68), kept in step with the writes
+ * that change them so badges are a primary-key read. Increments happen on message post and notification
+ * publish; reads recount the affected user's rows from the source tables, which also repairs any drift.
+ * Personal notifications are counted under company id 0.
+ */
+@Service
+public class UnreadCounterService {
+
+    // Same baseline the group list has always used: last read time, else when the user joined
+    private static final String RECOUNT_GROUP_SQL = """
+        INSERT INTO group_unread_counts(user_id, group_id, unread)
+        SELECT ?, ?, COUNT(m.id) FROM group_messages m
+        WHERE m.group_id = ? AND m.sender_user_id <> ?
+          AND m.created_at > COALESCE(
+              (SELECT last_read_at FROM group_reads WHERE group_id = ? AND user_id = ?),
+              (SELECT created_at FROM group_members WHERE group_id = ? AND user_id = ?),
+              to_timestamp(0))
+        ON CONFLICT (user_id, group_id) DO UPDATE SET unread = EXCLUDED.unread
+        """;
+
+    // Rows are locked in user order so concurrent posts to one group cannot deadlock
+    private static final String MESSAGE_POSTED_SQL = """
+        INSERT INTO group_unread_counts(user_id, group_id, unread)
+        SELECT gm.user_id, gm.group_id, 1 FROM group_members gm
+        WHERE gm.group_id = ? AND gm.user_id <> ?
+        ORDER BY gm.user_id
+        ON CONFLICT (user_id, group_id) DO UPDATE SET unread = group_unread_counts.unread + 1
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UnreadCounterService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** A message was posted to {@code groupId}; every other member has one more unread. */
+    public void messagePosted(Long groupId, Long senderId) {
+        jdbcTemplate.update(MESSAGE_POSTED_SQL, groupId, senderId);
+    }
+
+    /** Recount one user's unread messages in a group after their read position moved. */
+    public void groupRead(Long groupId, Long userId) {
+        jdbcTemplate.update(RECOUNT_GROUP_SQL, userId, groupId, groupId, userId, groupId, userId, groupId, userId);
+    }
+
+    /** Drop the counter of a user who left or was removed from a group. */
+    public void forgetGroup(Long groupId, Long userId) {
+        jdbcTemplate.update("DELETE FROM group_unread_counts WHERE group_id = ? AND user_id = ?", groupId, userId);
+    }
+
+    public void notificationAdded(Long userId, Long companyId) {
+        jdbcTemplate.update("""
+            INSERT INTO notification_unread_counts(user_id, company_id, unread) VALUES (?, ?, 1)
+            ON CONFLICT (user_id, company_id) DO UPDATE SET unread = notification_unread_counts.unread + 1
+            """, userId, scopeOf(companyId));
+    }
+
+    /** One more unread notification for each of {@code userIds}, in one batch. */
+    public void notificationsAdded(Collection<Long> userIds, Long companyId) {
+        if (userIds.isEmpty()) return;
+        long scope = scopeOf(companyId);
+        List<Object[]> rows = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) rows.add(new Object[]{userId, scope});
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO notification_unread_counts(user_id, company_id, unread) VALUES (?, ?, 1)
+            ON CONFLICT (user_id, company_id) DO UPDATE SET unread = notification_unread_counts.unread + 1
+            """, rows);
+    }
+
+    /** Recount all of a user's unread notifications (after marking some read). */
+    public void notificationsRead(Long userId) {
+        jdbcTemplate.update("UPDATE notification_unread_counts SET unread = 0 WHERE user_id = ? AND unread <> 0", userId);
+        jdbcTemplate.update("""
+            INSERT INTO notification_unread_counts(user_id, company_id, unread)
+            SELECT user_id, COALESCE(company_id, 0), COUNT(*) FROM notifications
+            WHERE user_id = ? AND read_at IS NULL
+            GROUP BY user_id, COALESCE(company_id, 0)
+            ON CONFLICT (user_id, company_id) DO UPDATE SET unread = EXCLUDED.unread
+            """, userId);
+    }
+
+    public void allNotificationsRead(Long userId) {
+        jdbcTemplate.update("UPDATE notification_unread_counts SET unread = 0 WHERE user_id = ? AND unread <> 0", userId);
+    }
+
+    /**
+     * Badge counts for one context: unread notifications of {@code companyId} (personal when null) and unread
+     * messages of the user's groups in that context.
+     */
+    public UnreadBadgeView badge(Long userId, Long companyId) {
+        Integer notifications = jdbcTemplate.query(
+                "SELECT unread FROM notification_unread_counts WHERE user_id = ? AND company_id = ?",
+                rs -> rs.next() ? rs.getInt(1) : 0, userId, scopeOf(companyId));
+        Map<Long, Integer> groups = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+            SELECT c.group_id, c.unread FROM group_unread_counts c JOIN groups g ON g.id = c.group_id
+            WHERE c.user_id = ? AND c.unread > 0 AND g.company_id IS NOT DISTINCT FROM CAST(? AS BIGINT)
+            ORDER BY c.group_id
+            """, rs -> {
+            groups.put(rs.getLong(1), rs.getInt(2));
+        }, userId, companyId);
+        return new UnreadBadgeView(notifications != null ? notifications : 0, groups);
+    }
+
+    /** Unread message counts of all the user's groups with anything unread. */
+    public Map<Long, Integer> groupCounts(Long userId) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT group_id, unread FROM group_unread_counts WHERE user_id = ? AND unread > 0",
+                rs -> {
+                    counts.put(rs.getLong(1), rs.getInt(2));
+                }, userId);
+        return counts;
+    }
+
+    private static long scopeOf(Long companyId) {
+        return companyId != null ? companyId : 0L;
+    }
+}
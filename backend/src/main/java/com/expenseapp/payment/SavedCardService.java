@@ -1,5 +1,6 @@
 package com.expenseapp.payment;
 
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
@@ -34,7 +35,7 @@ public class SavedCardService {
     
     @Transactional
     public SavedCard saveCard(String userEmail, String paymentMethodId, boolean setAsDefault) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         try {
@@ -73,14 +74,14 @@ public class SavedCardService {
     }
     
     public List<SavedCard> listCards(String userEmail) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         return savedCardRepository.findByUserIdOrderByIsDefaultDescCreatedAtDesc(user.getId());
     }
     
     public SavedCard getDefaultCard(String userEmail) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         return savedCardRepository.findByUserIdAndIsDefaultTrue(user.getId())
@@ -89,7 +90,7 @@ public class SavedCardService {
     
     @Transactional
     public SavedCard setDefaultCard(String userEmail, Long cardId) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         SavedCard card = savedCardRepository.findById(cardId)
@@ -108,7 +109,7 @@ public class SavedCardService {
     
     @Transactional
     public void deleteCard(String userEmail, Long cardId) {
-        var user = userRepository.findByEmail(userEmail)
+        var user = RequestPrincipal.findByEmail(userRepository, userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         SavedCard card = savedCardRepository.findById(cardId)
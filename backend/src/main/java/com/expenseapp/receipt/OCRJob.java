@@ -19,7 +19,7 @@ public class OCRJob {
     private String provider = "STUB";
 
     @Column(nullable = false)
-    private String status = "QUEUED"; // QUEUED | RUNNING | COMPLETED | FAILED
+    private String status = "QUEUED"; // QUEUED | RUNNING | COMPLETED | FAILED | DEAD (retries exhausted)
 
     @Column(name = "error_message", columnDefinition = "text")
     private String errorMessage;
@@ -30,6 +30,25 @@ public class OCRJob {
     @Column(name = "finished_at")
     private Instant finishedAt;
 
+    // Queue bookkeeping below is written by OCRJobQueue in SQL, never by entity saves
+    @Column(nullable = false, updatable = false)
+    private int attempts;
+
+    @Column(name = "run_after", nullable = false, updatable = false)
+    private Instant runAfter = Instant.now();
+
+    @Column(name = "locked_by", updatable = false)
+    private String lockedBy;
+
+    @Column(name = "lease_until", updatable = false)
+    private Instant leaseUntil;
+
+    @Column(name = "heartbeat_at", updatable = false)
+    private Instant heartbeatAt;
+
+    @Column(name = "started_at", updatable = false)
+    private Instant startedAt;
+
     public Long getId() { return id; }
     public Receipt getReceipt() { return receipt; }
     public void setReceipt(Receipt receipt) { this.receipt = receipt; }
@@ -42,4 +61,10 @@ public class OCRJob {
     public Instant getCreatedAt() { return createdAt; }
     public Instant getFinishedAt() { return finishedAt; }
     public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+    public int getAttempts() { return attempts; }
+    public Instant getRunAfter() { return runAfter; }
+    public String getLockedBy() { return lockedBy; }
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public Instant getHeartbeatAt() { return heartbeatAt; }
+    public Instant getStartedAt() { return startedAt; }
 }
@@ -0,0 +1,44 @@
+package com.expenseapp.receipt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link OCRJobQueue} worker statistics for this instance to Actuator
+ * ({@code /actuator/metrics/ocr.jobs.claimed}, {@code .completed}, {@code .retried}, {@code .dead},
+ * {@code .reclaimed}, {@code .in_flight}).
+ */
+@Component
+public class OCRJobMetrics implements MeterBinder {
+
+    private final OCRJobQueue queue;
+
+    public OCRJobMetrics(OCRJobQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ocr.jobs.claimed", queue, OCRJobQueue::claimed)
+                .description("OCR job attempts claimed by workers")
+                .register(registry);
+        FunctionCounter.builder("ocr.jobs.completed", queue, OCRJobQueue::completed)
+                .description("OCR jobs completed")
+                .register(registry);
+        FunctionCounter.builder("ocr.jobs.retried", queue, OCRJobQueue::retried)
+                .description("Failed OCR attempts requeued with backoff")
+                .register(registry);
+        FunctionCounter.builder("ocr.jobs.dead", queue, OCRJobQueue::deadLettered)
+                .description("OCR jobs dead-lettered after exhausting their attempts")
+                .register(registry);
+        FunctionCounter.builder("ocr.jobs.reclaimed", queue, OCRJobQueue::reclaimed)
+                .description("Running OCR jobs requeued after their worker's lease expired")
+                .register(registry);
+        Gauge.builder("ocr.jobs.in_flight", queue, OCRJobQueue::inFlight)
+                .description("OCR jobs this instance is processing")
+                .register(registry);
+    }
+}
@@ -0,0 +1,411 @@
+package com.expenseapp.receipt;
+
+import com.expenseapp.storage.FileStorageService;
+import com.expenseapp.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable OCR work queue on {@code ocr_jobs}. Worker threads claim ready jobs with {@code FOR UPDATE SKIP LOCKED}
+ * (so any number of instances share the table), hand them to the {@link OCRProvider} in batches and record the
+ * outcome. A claimed job carries a lease that a heartbeat keeps extending while it runs; when an instance dies
+ * its leases lapse and {@link #reapExpiredLeases} requeues the jobs. Failures retry with exponential backoff
+ * and jitter until {@code max-attempts}, after which the job is dead-lettered as {@code DEAD}.
+ *
+ * Workers only start when an OCR provider is configured; without one, jobs wait in {@code QUEUED}.
+ */
+@Slf4j
+@Service
+public class OCRJobQueue {
+
+    static final List<String> LIVE_STATUSES = List.of("QUEUED", "RUNNING");
+
+    private static final String CLAIM_SQL = """
+            WITH next AS (
+                SELECT id FROM ocr_jobs
+                WHERE status = 'QUEUED' AND run_after <= NOW()
+                ORDER BY run_after, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE ocr_jobs j
+            SET status = 'RUNNING', attempts = j.attempts + 1, locked_by = ?, started_at = NOW(),
+                heartbeat_at = NOW(), lease_until = NOW() + (? * INTERVAL '1 second')
+            FROM next
+            WHERE j.id = next.id
+            RETURNING j.id, j.receipt_id, j.attempts,
+                      (SELECT r.file_uri FROM receipts r WHERE r.id = j.receipt_id) AS file_uri,
+                      (SELECT r.content_type FROM receipts r WHERE r.id = j.receipt_id) AS content_type
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<OCRProvider> providers;
+    private final ReceiptService receiptService;
+    private final FileStorageService fileStorageService;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final long retryMaxMs;
+    private final String workerId = "ocr-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+    private ScheduledExecutorService heartbeats;
+    private volatile OCRProvider provider;
+    private volatile boolean running;
+
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder reclaimed = new LongAdder();
+
+    private static final class Claimed {
+        final long id;
+        final long receiptId;
+        final int attempts;
+        final String fileUri;
+        final String contentType;
+
+        Claimed(long id, long receiptId, int attempts, String fileUri, String contentType) {
+            this.id = id;
+            this.receiptId = receiptId;
+            this.attempts = attempts;
+            this.fileUri = fileUri;
+            this.contentType = contentType;
+        }
+    }
+
+    public OCRJobQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       ObjectProvider<OCRProvider> providers, @Lazy ReceiptService receiptService,
+                       FileStorageService fileStorageService,
+                       @Value("${app.ocr.enabled:true}") boolean enabled,
+                       @Value("${app.ocr.workers:2}") int workers,
+                       @Value("${app.ocr.batch-size:8}") int batchSize,
+                       @Value("${app.ocr.poll-interval-ms:2000}") long pollIntervalMs,
+                       @Value("${app.ocr.lease-seconds:120}") int leaseSeconds,
+                       @Value("${app.ocr.max-attempts:5}") int maxAttempts,
+                       @Value("${app.ocr.retry.base-ms:30000}") long retryBaseMs,
+                       @Value("${app.ocr.retry.max-ms:3600000}") long retryMaxMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.providers = providers;
+        this.receiptService = receiptService;
+        this.fileStorageService = fileStorageService;
+        this.enabled = enabled;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMs = Math.max(100, pollIntervalMs);
+        this.leaseSeconds = Math.max(10, leaseSeconds);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMs = Math.max(0, retryBaseMs);
+        this.retryMaxMs = Math.max(this.retryBaseMs, retryMaxMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        provider = providers.getIfAvailable();
+        if (!enabled || provider == null) {
+            log.info("[OCR] Job workers not started (enabled={}, provider={})", enabled, provider != null ? provider.name() : "none");
+            return;
+        }
+        running = true;
+        for (int i = 1; i <= workers; i++) {
+            Thread t = new Thread(this::work, "ocr-worker-" + i);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, leaseSeconds / 3);
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, every, every, TimeUnit.SECONDS);
+        log.info("[OCR] {} job worker(s) started as {} (provider {}, batch {})",
+                workers, workerId, provider.name(), Math.min(batchSize, provider.maxBatchSize()));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) return;
+        running = false;
+        wakeups.release(workers);
+        for (Thread t : threads) {
+            try {
+                t.join(5_000);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        heartbeats.shutdownNow();
+        // Jobs still running are handed back now rather than after their lease lapses; the attempt does not count
+        if (!inFlight.isEmpty()) {
+            int released = updateInFlight("""
+                    UPDATE ocr_jobs SET status = 'QUEUED', attempts = GREATEST(attempts - 1, 0), run_after = NOW(),
+                           locked_by = NULL, lease_until = NULL
+                    WHERE id = ANY(?) AND status = 'RUNNING' AND locked_by = ?
+                    """);
+            log.info("[OCR] Released {} running job(s) at shutdown", released);
+        }
+    }
+
+    /** Provider name recorded on new jobs. */
+    String providerName() {
+        OCRProvider p = provider != null ? provider : providers.getIfAvailable();
+        return p != null ? p.name() : "NONE";
+    }
+
+    /** Wake idle workers once the caller's transaction commits, instead of waiting for their next poll. */
+    public void wake() {
+        TransactionCallbacks.runAfterCommit(() -> wakeups.release(workers));
+    }
+
+    /**
+     * Queue a scan for up to {@code limit} of the user's receipts that were never scanned (status UPLOADED, no live
+     * job), in the personal or company scope. Returns the receipt ids queued.
+     */
+    List<Long> enqueueUnscanned(Long userId, Long companyId, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (companyId != null) args.add(companyId);
+        args.add(limit);
+        args.add(providerName());
+        List<Long> queued = jdbcTemplate.queryForList("""
+                WITH picked AS (
+                    SELECT r.id FROM receipts r JOIN expenses e ON e.id = r.expense_id
+                    WHERE e.user_id = ? AND %s AND r.status = 'UPLOADED'
+                      AND NOT EXISTS (SELECT 1 FROM ocr_jobs j WHERE j.receipt_id = r.id AND j.status IN ('QUEUED', 'RUNNING'))
+                    ORDER BY r.id
+                    LIMIT ?
+                ), jobs AS (
+                    INSERT INTO ocr_jobs (receipt_id, provider, status, created_at, run_after)
+                    SELECT id, ?, 'QUEUED', NOW(), NOW() FROM picked
+                    ON CONFLICT DO NOTHING
+                    RETURNING receipt_id
+                )
+                UPDATE receipts SET status = 'PROCESSING', updated_at = NOW()
+                WHERE id IN (SELECT receipt_id FROM jobs)
+                RETURNING id
+                """.formatted(companyId == null ? "e.company_id IS NULL" : "e.company_id = ?"),
+                Long.class, args.toArray());
+        if (!queued.isEmpty()) {
+            wake();
+        }
+        return queued;
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (pollOnce() == 0) {
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("[OCR] Worker poll failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Claim and process one batch; returns how many jobs were claimed. */
+    int pollOnce() {
+        int limit = Math.max(1, Math.min(batchSize, provider.maxBatchSize()));
+        List<Claimed> jobs = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> new Claimed(rs.getLong("id"), rs.getLong("receipt_id"),
+                rs.getInt("attempts"), rs.getString("file_uri"), rs.getString("content_type")), limit, workerId, leaseSeconds);
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+        claimed.add(jobs.size());
+        jobs.forEach(j -> inFlight.add(j.id));
+        try {
+            List<OCRProvider.Input> inputs = new ArrayList<>(jobs.size());
+            for (Claimed job : jobs) {
+                Path file = null;
+                try {
+                    file = fileStorageService.resolve(job.fileUri);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("[OCR] No readable file for receipt {}: {}", job.receiptId, e.getMessage());
+                }
+                inputs.add(new OCRProvider.Input(job.id, job.receiptId, file, job.contentType));
+            }
+            Map<Long, OCRProvider.Result> results = new HashMap<>();
+            try {
+                for (OCRProvider.Result r : provider.extractBatch(inputs)) {
+                    results.put(r.getJobId(), r);
+                }
+            } catch (RuntimeException e) {
+                log.warn("[OCR] Provider batch of {} failed: {}", inputs.size(), e.getMessage());
+                for (Claimed job : jobs) {
+                    results.put(job.id, OCRProvider.Result.failed(job.id, e.getMessage()));
+                }
+            }
+            for (Claimed job : jobs) {
+                OCRProvider.Result result = results.getOrDefault(job.id,
+                        OCRProvider.Result.failed(job.id, "Provider returned no result"));
+                try {
+                    finish(job, result);
+                } catch (RuntimeException e) {
+                    // Lease lapses and the reaper requeues it
+                    log.warn("[OCR] Could not record outcome of job {}: {}", job.id, e.getMessage());
+                }
+            }
+        } finally {
+            jobs.forEach(j -> inFlight.remove(j.id));
+        }
+        return jobs.size();
+    }
+
+    private void finish(Claimed job, OCRProvider.Result result) {
+        if (result.getError() == null) {
+            Boolean done = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update("UPDATE ocr_jobs SET locked_by = NULL, lease_until = NULL "
+                        + "WHERE id = ? AND status = 'RUNNING' AND locked_by = ?", job.id, workerId) == 0) {
+                    return false; // lease lost: another worker owns the job now
+                }
+                receiptService.completeJob(job.id, result.getExtractedJson(), null);
+                return true;
+            });
+            if (Boolean.TRUE.equals(done)) completed.increment();
+            return;
+        }
+        if (job.attempts >= maxAttempts) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int updated = jdbcTemplate.update("""
+                        UPDATE ocr_jobs SET status = 'DEAD', error_message = ?, finished_at = NOW(),
+                               locked_by = NULL, lease_until = NULL
+                        WHERE id = ? AND status = 'RUNNING' AND locked_by = ?
+                        """, result.getError(), job.id, workerId);
+                if (updated > 0) {
+                    jdbcTemplate.update("UPDATE receipts SET status = 'FAILED', updated_at = NOW() WHERE id = ?", job.receiptId);
+                    deadLettered.increment();
+                    log.warn("[OCR] Job {} for receipt {} dead-lettered after {} attempt(s): {}",
+                            job.id, job.receiptId, job.attempts, result.getError());
+                }
+            });
+            return;
+        }
+        long delayMs = backoffMillis(job.attempts, retryBaseMs, retryMaxMs, ThreadLocalRandom.current().nextDouble());
+        int updated = jdbcTemplate.update("""
+                UPDATE ocr_jobs SET status = 'QUEUED', error_message = ?, run_after = NOW() + (? * INTERVAL '1 millisecond'),
+                       locked_by = NULL, lease_until = NULL
+                WHERE id = ? AND status = 'RUNNING' AND locked_by = ?
+                """, result.getError(), delayMs, job.id, workerId);
+        if (updated > 0) {
+            retried.increment();
+            log.info("[OCR] Job {} attempt {} failed, retrying in {} ms: {}", job.id, job.attempts, delayMs, result.getError());
+        }
+    }
+
+    /** {@code base * 2^(attempt-1)}, capped at {@code max}, scaled by 0.8-1.2 ({@code jitter} in [0, 1)). */
+    static long backoffMillis(int attempt, long baseMs, long maxMs, double jitter) {
+        int doublings = Math.max(0, Math.min(attempt - 1, 30));
+        long delay = Math.min(maxMs, baseMs << doublings);
+        return Math.round(delay * (0.8 + 0.4 * jitter));
+    }
+
+    void heartbeat() {
+        if (inFlight.isEmpty()) return;
+        try {
+            updateInFlight("""
+                    UPDATE ocr_jobs SET heartbeat_at = NOW(), lease_until = NOW() + (%d * INTERVAL '1 second')
+                    WHERE id = ANY(?) AND status = 'RUNNING' AND locked_by = ?
+                    """.formatted(leaseSeconds));
+        } catch (RuntimeException e) {
+            log.warn("[OCR] Heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private int updateInFlight(String sql) {
+        Long[] ids = inFlight.toArray(new Long[0]);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setString(2, workerId);
+            return ps;
+        });
+    }
+
+    /**
+     * Requeue RUNNING jobs whose lease lapsed (their worker died or stalled), or dead-letter them when they are out
+     * of attempts. Runs on every instance; the update is idempotent.
+     */
+    @Scheduled(fixedDelayString = "${app.ocr.reap-interval-ms:30000}", initialDelayString = "${app.ocr.reap-interval-ms:30000}")
+    public void reapExpiredLeases() {
+        if (!enabled) return;
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                    UPDATE ocr_jobs
+                    SET status = CASE WHEN attempts >= ? THEN 'DEAD' ELSE 'QUEUED' END,
+                        finished_at = CASE WHEN attempts >= ? THEN NOW() ELSE finished_at END,
+                        error_message = COALESCE(error_message, 'Worker lease expired'),
+                        run_after = NOW(), locked_by = NULL, lease_until = NULL
+                    WHERE status = 'RUNNING' AND (lease_until IS NULL OR lease_until < NOW())
+                    RETURNING id, receipt_id, status
+                    """, maxAttempts, maxAttempts);
+            if (rows.isEmpty()) return;
+            List<Long> dead = rows.stream().filter(r -> "DEAD".equals(r.get("status")))
+                    .map(r -> ((Number) r.get("receipt_id")).longValue()).toList();
+            if (!dead.isEmpty()) {
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "UPDATE receipts SET status = 'FAILED', updated_at = NOW() WHERE id = ANY(?)");
+                    ps.setArray(1, con.createArrayOf("bigint", dead.toArray()));
+                    return ps;
+                });
+                deadLettered.add(dead.size());
+            }
+            reclaimed.add(rows.size() - dead.size());
+            log.warn("[OCR] Lease expired for {} job(s): {} requeued, {} dead-lettered", rows.size(), rows.size() - dead.size(), dead.size());
+        });
+    }
+
+    long claimed() { return claimed.sum(); }
+    long completed() { return completed.sum(); }
+    long retried() { return retried.sum(); }
+    long deadLettered() { return deadLettered.sum(); }
+    long reclaimed() { return reclaimed.sum(); }
+    int inFlight() { return inFlight.size(); }
+}
@@ -2,5 +2,10 @@ package com.expenseapp.receipt;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.Optional;
+
 public interface OCRJobRepository extends JpaRepository<OCRJob, Long> {
+
+    Optional<OCRJob> findFirstByReceiptAndStatusIn(Receipt receipt, Collection<String> statuses);
 }
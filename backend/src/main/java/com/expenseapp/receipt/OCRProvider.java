@@ -1,5 +1,79 @@
 package com.expenseapp.receipt;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts fields from receipt images. Called by {@link OCRJobQueue} workers, which own job state, leases and
+ * retries; a provider only turns receipts into extracted JSON.
+ */
 public interface OCRProvider {
-    void processAsync(Long jobId);
+
+    /** One receipt to scan. {@code file} is null when the receipt has no stored content (metadata-only uploads). */
+    final class Input {
+        private final Long jobId;
+        private final Long receiptId;
+        private final Path file;
+        private final String contentType;
+
+        public Input(Long jobId, Long receiptId, Path file, String contentType) {
+            this.jobId = jobId;
+            this.receiptId = receiptId;
+            this.file = file;
+            this.contentType = contentType;
+        }
+
+        public Long getJobId() { return jobId; }
+        public Long getReceiptId() { return receiptId; }
+        public Path getFile() { return file; }
+        public String getContentType() { return contentType; }
+    }
+
+    /** Outcome for one {@link Input}: extracted JSON, or an error that fails (and later retries) that job only. */
+    final class Result {
+        private final Long jobId;
+        private final String extractedJson;
+        private final String error;
+
+        private Result(Long jobId, String extractedJson, String error) {
+            this.jobId = jobId;
+            this.extractedJson = extractedJson;
+            this.error = error;
+        }
+
+        public static Result ok(Long jobId, String extractedJson) { return new Result(jobId, extractedJson, null); }
+        public static Result failed(Long jobId, String error) { return new Result(jobId, null, error != null ? error : "OCR failed"); }
+
+        public Long getJobId() { return jobId; }
+        public String getExtractedJson() { return extractedJson; }
+        public String getError() { return error; }
+    }
+
+    /** Name recorded on {@code ocr_jobs.provider}. */
+    String name();
+
+    /** Extracted-fields JSON for one receipt; throwing fails this attempt. */
+    String extract(Input input) throws Exception;
+
+    /** Most inputs {@link #extractBatch} accepts per call. */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Scan several receipts in one call (one result per input, in any order). Providers with a multi-document
+     * API override this; the default scans one at a time.
+     */
+    default List<Result> extractBatch(List<Input> inputs) {
+        List<Result> results = new ArrayList<>(inputs.size());
+        for (Input input : inputs) {
+            try {
+                results.add(Result.ok(input.getJobId(), extract(input)));
+            } catch (Exception e) {
+                results.add(Result.failed(input.getJobId(), e.getMessage()));
+            }
+        }
+        return results;
+    }
 }
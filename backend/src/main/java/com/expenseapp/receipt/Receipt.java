@@ -30,6 +30,9 @@ public class Receipt {
     @Column(name = "file_size")
     private Long fileSize;
 
+    @Column(name = "content_sha256")
+    private String contentSha256;
+
     @Column(nullable = false)
     private String status = "UPLOADED"; // UPLOADED | PROCESSING | COMPLETED | FAILED
 
@@ -54,6 +57,8 @@ public class Receipt {
     public void setContentType(String contentType) { this.contentType = contentType; }
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    public String getContentSha256() { return contentSha256; }
+    public void setContentSha256(String contentSha256) { this.contentSha256 = contentSha256; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public String getExtractedJson() { return extractedJson; }
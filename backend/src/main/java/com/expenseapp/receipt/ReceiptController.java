@@ -2,18 +2,21 @@ package com.expenseapp.receipt;
 
 import com.expenseapp.receipt.dto.ReceiptCreateRequest;
 import com.expenseapp.receipt.dto.ApplyReceiptFieldsRequest;
+import com.expenseapp.receipt.dto.BulkScanResponse;
 import com.expenseapp.receipt.dto.ReceiptPageCreateRequest;
+import com.expenseapp.storage.FileResponder;
+import com.expenseapp.storage.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
@@ -23,9 +26,16 @@ import java.util.List;
 public class ReceiptController {
 
     private final ReceiptService receiptService;
+    private final FileResponder fileResponder;
+    private final FileStorageService fileStorageService;
+    private final ReceiptVariantService receiptVariants;
 
-    public ReceiptController(ReceiptService receiptService) {
+    public ReceiptController(ReceiptService receiptService, FileResponder fileResponder,
+                             FileStorageService fileStorageService, ReceiptVariantService receiptVariants) {
         this.receiptService = receiptService;
+        this.fileResponder = fileResponder;
+        this.fileStorageService = fileStorageService;
+        this.receiptVariants = receiptVariants;
     }
 
     @PostMapping
@@ -54,6 +64,13 @@ public class ReceiptController {
         return ResponseEntity.ok(receiptService.startScan(email, id));
     }
 
+    @PostMapping("/scan-unscanned")
+    public ResponseEntity<BulkScanResponse> scanUnscanned(
+            @RequestHeader(value = "X-Company-Id", required = false) Long companyId) {
+        String email = currentEmail();
+        return ResponseEntity.accepted().body(receiptService.scanUnscanned(email, companyId));
+    }
+
     @PutMapping("/{id}/apply")
     public ResponseEntity<Receipt> apply(@PathVariable Long id, @Valid @RequestBody ApplyReceiptFieldsRequest req) {
         String email = currentEmail();
@@ -90,29 +107,45 @@ public class ReceiptController {
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadReceipt(@PathVariable Long id) {
-        try {
-            String email = currentEmail();
-            Receipt receipt = receiptService.get(email, id);
-            
-            // Construct the file path - receipts are stored in storage/receipts/{userId}/{fileName}
-            // We need to get the user ID from the expense
-            Long userId = receipt.getExpense().getUser().getId();
-            Path filePath = Paths.get("storage", "receipts", String.valueOf(userId), receipt.getFileName());
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = receipt.getContentType() != null ? receipt.getContentType() : "application/octet-stream";
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + receipt.getFileName() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
+    public ResponseEntity<StreamingResponseBody> downloadReceipt(@PathVariable Long id, HttpServletRequest request)
+            throws IOException {
+        String email = currentEmail();
+        return original(receiptService.get(email, id), request);
+    }
+
+    /** A {@code thumbnail} or {@code preview} JPEG; the original is served (and rendering queued) until it exists. */
+    @GetMapping("/{id}/variants/{variant}")
+    public ResponseEntity<StreamingResponseBody> downloadVariant(@PathVariable Long id, @PathVariable String variant,
+                                                                 HttpServletRequest request) throws IOException {
+        if (!ReceiptVariantService.VARIANTS.contains(variant)) {
             return ResponseEntity.notFound().build();
         }
+        String email = currentEmail();
+        Receipt receipt = receiptService.get(email, id);
+        if (!ReceiptVariantService.isImage(receipt.getContentType())) {
+            return ResponseEntity.notFound().build();
+        }
+        var stored = receiptVariants.find(id, variant);
+        if (stored.isEmpty()) {
+            receiptVariants.enqueue(id);
+            return original(receipt, request);
+        }
+        String name = receipt.getFileName() != null
+                ? receipt.getFileName().replaceFirst("\\.[^.]*$", "")
+                : "receipt-" + id;
+        return fileResponder.respond(request, fileStorageService.resolve(stored.get().getFileUri()), "image/jpeg",
+                name + "-" + variant + ".jpg", stored.get().getContentSha256(), true);
+    }
+
+    private ResponseEntity<StreamingResponseBody> original(Receipt receipt, HttpServletRequest request) throws IOException {
+        Path filePath = fileStorageService.resolve(receipt.getFileUri());
+        if (filePath == null || !Files.isRegularFile(filePath)) {
+            // Older receipts were stored relative to the working directory: storage/receipts/{userId}/{fileName}
+            Long userId = receipt.getExpense().getUser().getId();
+            filePath = Paths.get("storage", "receipts", String.valueOf(userId), receipt.getFileName());
+        }
+        return fileResponder.respond(request, filePath, receipt.getContentType(), receipt.getFileName(),
+                receipt.getContentSha256(), true);
     }
 
     private String currentEmail() {
@@ -0,0 +1,237 @@
+package com.expenseapp.receipt;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Downscaled JPEG renditions of a receipt image, with the JDK's ImageIO only. The source is decoded once,
+ * subsampled while reading so a 12 MP phone photo never materialises at full size, turned upright per its EXIF
+ * orientation and re-encoded without any metadata (so EXIF, including GPS, is dropped).
+ */
+final class ReceiptImages {
+
+    static final float JPEG_QUALITY = 0.82f;
+
+    private ReceiptImages() {
+    }
+
+    static final class Rendered {
+        final int maxSide;
+        final int width;
+        final int height;
+        final byte[] jpeg;
+
+        Rendered(int maxSide, int width, int height, byte[] jpeg) {
+            this.maxSide = maxSide;
+            this.width = width;
+            this.height = height;
+            this.jpeg = jpeg;
+        }
+    }
+
+    /**
+     * One rendition per entry of {@code maxSides} (longest edge in pixels, never upscaled), in the same order.
+     * Empty if ImageIO cannot read the file (PDF, HEIC, ...).
+     *
+     * @throws IOException if the file cannot be read or has more than {@code maxSourcePixels} pixels
+     */
+    static List<Rendered> render(Path source, int[] maxSides, long maxSourcePixels) throws IOException {
+        int orientation = exifOrientation(source);
+        BufferedImage decoded;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return List.of();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new IOException("Image is " + width + "x" + height + ", over the " + maxSourcePixels + " pixel limit");
+                }
+                int largest = 1;
+                for (int side : maxSides) largest = Math.max(largest, side);
+                // Keep at least twice the largest rendition so the final downscale still has pixels to average
+                int step = Math.max(1, Math.max(width, height) / (2 * largest));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        BufferedImage upright = orient(decoded, orientation);
+
+        // Largest first, each one scaled from the previous rendition
+        Integer[] order = new Integer[maxSides.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        java.util.Arrays.sort(order, (a, b) -> Integer.compare(maxSides[b], maxSides[a]));
+        Rendered[] out = new Rendered[maxSides.length];
+        BufferedImage current = upright;
+        for (int i : order) {
+            current = fit(current, maxSides[i]);
+            out[i] = new Rendered(maxSides[i], current.getWidth(), current.getHeight(), jpeg(current));
+        }
+        return List.of(out);
+    }
+
+    /** Scale to fit {@code maxSide}, halving first so bilinear sampling never skips source rows. Always opaque RGB. */
+    static BufferedImage fit(BufferedImage src, int maxSide) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        double scale = Math.min(1.0, (double) maxSide / Math.max(w, h));
+        int targetW = Math.max(1, (int) Math.round(w * scale));
+        int targetH = Math.max(1, (int) Math.round(h * scale));
+        BufferedImage current = src;
+        while (current.getWidth() / 2 >= targetW && current.getHeight() / 2 >= targetH) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, null);
+        }
+        if (current == src || current.getWidth() != targetW || current.getHeight() != targetH
+                || current.getType() != BufferedImage.TYPE_INT_RGB) {
+            current = draw(current, targetW, targetH, null);
+        }
+        return current;
+    }
+
+    /** Apply EXIF orientation 2-8 (1 and unknown values leave the image as is). */
+    static BufferedImage orient(BufferedImage src, int orientation) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        AffineTransform t = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirror horizontal
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // rotate 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // mirror vertical
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transpose
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // rotate 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transverse
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // rotate 90 counter-clockwise
+            default -> null;
+        };
+        if (t == null) {
+            return src;
+        }
+        boolean swap = orientation >= 5;
+        return draw(src, swap ? h : w, swap ? w : h, t);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int width, int height, AffineTransform transform) {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Transparent PNG/GIF areas become white rather than JPEG black
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            if (transform != null) {
+                g.drawImage(src, transform, null);
+            } else {
+                g.drawImage(src, 0, 0, width, height, null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    static byte[] jpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            // No metadata: the output carries a bare JFIF header
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /** EXIF orientation (1-8) of a JPEG, or 1 when the file is not a JPEG or carries none. */
+    static int exifOrientation(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(128 * 1024);
+            return exifOrientation(head);
+        }
+    }
+
+    static int exifOrientation(byte[] b) {
+        if (b.length < 4 || (b[0] & 0xFF) != 0xFF || (b[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= b.length && (b[pos] & 0xFF) == 0xFF) {
+            int marker = b[pos + 1] & 0xFF;
+            int length = ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+            if (marker == 0xDA || length < 2) {
+                break; // start of scan: no more metadata segments
+            }
+            int data = pos + 4;
+            if (marker == 0xE1 && data + 14 <= b.length
+                    && b[data] == 'E' && b[data + 1] == 'x' && b[data + 2] == 'i' && b[data + 3] == 'f'
+                    && b[data + 4] == 0 && b[data + 5] == 0) {
+                return tiffOrientation(b, data + 6, Math.min(b.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] b, int tiff, int end) {
+        boolean little = b[tiff] == 'I' && b[tiff + 1] == 'I';
+        if (!little && !(b[tiff] == 'M' && b[tiff + 1] == 'M')) {
+            return 1;
+        }
+        long ifd = tiff + u32(b, tiff + 4, little);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = u16(b, (int) ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (u16(b, entry, little) == 0x0112) {
+                int value = u16(b, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int u16(byte[] b, int at, boolean little) {
+        int x = b[at] & 0xFF;
+        int y = b[at + 1] & 0xFF;
+        return little ? (y << 8) | x : (x << 8) | y;
+    }
+
+    private static long u32(byte[] b, int at, boolean little) {
+        long hi = u16(b, little ? at + 2 : at, little);
+        long lo = u16(b, little ? at : at + 2, little);
+        return (hi << 16) | lo;
+    }
+}
@@ -2,9 +2,16 @@ package com.expenseapp.receipt;
 
 import com.expenseapp.expense.Expense;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
     List<Receipt> findAllByExpense(Expense expense);
+
+    // Batch lookup for list views; ordered so the first row per expense is the earliest upload
+    @Query("SELECT r FROM ReceiptDoc r WHERE r.expense.id IN :expenseIds ORDER BY r.id")
+    List<Receipt> findAllByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
 }
@@ -2,13 +2,16 @@ package com.expenseapp.receipt;
 
 import com.expenseapp.expense.Expense;
 import com.expenseapp.expense.ExpenseRepository;
+import com.expenseapp.expense.ExpenseRollupService;
 import com.expenseapp.notification.NotificationPublisher;
 import com.expenseapp.acl.ACLEntryService;
 import com.expenseapp.audit.AccessLogService;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
+import com.expenseapp.receipt.dto.BulkScanResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
@@ -23,34 +26,43 @@ public class ReceiptService {
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
     private final NotificationPublisher notificationPublisher;
-    private final OCRProvider ocrProvider;
+    private final OCRJobQueue ocrJobQueue;
     private final ReceiptPageRepository receiptPageRepository;
     private final ACLEntryService aclService;
     private final AccessLogService accessLogService;
+    private final ExpenseRollupService rollupService;
+    private final ReceiptVariantService receiptVariants;
+    private final int bulkScanLimit;
 
     public ReceiptService(ReceiptRepository receiptRepository,
                           OCRJobRepository ocrJobRepository,
                           ExpenseRepository expenseRepository,
                           UserRepository userRepository,
                           NotificationPublisher notificationPublisher,
-                          @Lazy OCRProvider ocrProvider,
+                          OCRJobQueue ocrJobQueue,
                           ReceiptPageRepository receiptPageRepository,
                           ACLEntryService aclService,
-                          AccessLogService accessLogService) {
+                          AccessLogService accessLogService,
+                          ExpenseRollupService rollupService,
+                          ReceiptVariantService receiptVariants,
+                          @Value("${app.ocr.bulk-scan-limit:500}") int bulkScanLimit) {
         this.receiptRepository = receiptRepository;
         this.ocrJobRepository = ocrJobRepository;
         this.expenseRepository = expenseRepository;
         this.userRepository = userRepository;
         this.notificationPublisher = notificationPublisher;
-        this.ocrProvider = ocrProvider;
+        this.ocrJobQueue = ocrJobQueue;
         this.receiptPageRepository = receiptPageRepository;
         this.aclService = aclService;
         this.accessLogService = accessLogService;
+        this.rollupService = rollupService;
+        this.receiptVariants = receiptVariants;
+        this.bulkScanLimit = bulkScanLimit;
     }
 
     @Transactional
     public Receipt create(String userEmail, Long expenseId, String fileName, String contentType, Long fileSize) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Expense expense = expenseRepository.findById(expenseId).orElseThrow();
         if (!expense.getUser().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Cannot attach receipt to others' expense");
@@ -66,7 +78,7 @@ public class ReceiptService {
 
     @Transactional(readOnly = true)
     public List<Receipt> listByExpense(String userEmail, Long expenseId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Expense expense = expenseRepository.findById(expenseId).orElseThrow();
         if (!expense.getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "EXPENSE", expenseId, "READ");
@@ -81,7 +93,7 @@ public class ReceiptService {
 
     @Transactional(readOnly = true)
     public Receipt get(String userEmail, Long id) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(id).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "RECEIPT", r.getId(), "READ")
@@ -97,7 +109,7 @@ public class ReceiptService {
 
     @Transactional
     public OCRJob startScan(String userEmail, Long receiptId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "RECEIPT", r.getId(), "WRITE")
@@ -108,24 +120,44 @@ public class ReceiptService {
             }
             accessLogService.log(user.getId(), user.getEmail(), "RECEIPT_SCAN", "RECEIPT", r.getId(), "ALLOWED", null);
         }
-        // mark receipt as queued/processing
+        // A receipt has at most one live job (unique index); scanning again while it is queued or running returns it
+        java.util.Optional<OCRJob> live = ocrJobRepository.findFirstByReceiptAndStatusIn(r, OCRJobQueue.LIVE_STATUSES);
+        if (live.isPresent()) {
+            return live.get();
+        }
         r.setStatus("PROCESSING");
         r.setUpdatedAt(Instant.now());
         receiptRepository.save(r);
 
         OCRJob job = new OCRJob();
         job.setReceipt(r);
+        job.setProvider(ocrJobQueue.providerName());
         job.setStatus("QUEUED");
         job = ocrJobRepository.save(job);
 
-        // Hand off to provider asynchronously
-        ocrProvider.processAsync(job.getId());
+        // Picked up by an OCRJobQueue worker once this commits
+        ocrJobQueue.wake();
         return job;
     }
 
+    /**
+     * Queue a scan for every receipt of the user's expenses (personal, or in {@code companyId}) that was uploaded
+     * but never scanned, up to {@code app.ocr.bulk-scan-limit} per call. One set-based insert; receipts that already
+     * have a live job are skipped.
+     */
+    @Transactional
+    public BulkScanResponse scanUnscanned(String userEmail, Long companyId) {
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
+        List<Long> queued = ocrJobQueue.enqueueUnscanned(user.getId(), companyId, bulkScanLimit);
+        return new BulkScanResponse(queued.size(), queued);
+    }
+
     @Transactional
     public void completeJob(Long jobId, String extractedJson, String errorMessage) {
         OCRJob job = ocrJobRepository.findById(jobId).orElseThrow();
+        if (!"RUNNING".equals(job.getStatus())) {
+            return; // requeued or settled elsewhere after its lease lapsed
+        }
         Receipt r = job.getReceipt();
         if (errorMessage == null) {
             r.setExtractedJson(extractedJson);
@@ -155,7 +187,7 @@ public class ReceiptService {
 
     @Transactional
     public Receipt applyFields(String userEmail, Long receiptId, String merchant, java.math.BigDecimal amount, String dateIso) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         Expense e = r.getExpense();
         if (!e.getUser().getId().equals(user.getId())) {
@@ -167,6 +199,7 @@ public class ReceiptService {
             }
             accessLogService.log(user.getId(), user.getEmail(), "RECEIPT_APPLY_FIELDS", "RECEIPT", r.getId(), "ALLOWED", null);
         }
+        ExpenseRollupService.Entry before = rollupService.entryOf(e);
         if (merchant != null && !merchant.isBlank()) {
             e.setMerchant(merchant);
         }
@@ -176,6 +209,7 @@ public class ReceiptService {
         if (dateIso != null && !dateIso.isBlank()) {
             e.setOccurredOn(LocalDate.parse(dateIso));
         }
+        rollupService.move(before, e);
         // Touch updatedAt on receipt
         r.setUpdatedAt(Instant.now());
         return r;
@@ -183,7 +217,7 @@ public class ReceiptService {
 
     @Transactional
     public ReceiptPage addPage(String userEmail, Long receiptId, String fileName, String contentType, Long fileSize) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "RECEIPT", r.getId(), "WRITE")
@@ -202,12 +236,15 @@ public class ReceiptService {
         page.setFileName(fileName);
         page.setContentType(contentType);
         page.setFileSize(fileSize);
-        return receiptPageRepository.save(page);
+        page = receiptPageRepository.save(page);
+        // Pages carry metadata only; this backfills variants for receipts uploaded before they existed
+        receiptVariants.enqueue(r.getId());
+        return page;
     }
 
     @Transactional(readOnly = true)
     public java.util.List<ReceiptPage> listPages(String userEmail, Long receiptId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "RECEIPT", r.getId(), "READ")
@@ -223,7 +260,7 @@ public class ReceiptService {
 
     @Transactional(readOnly = true)
     public com.expenseapp.receipt.dto.PresignResponse presignDownload(String userEmail, Long receiptId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "RECEIPT", r.getId(), "READ")
@@ -241,7 +278,7 @@ public class ReceiptService {
 
     @Transactional(readOnly = true)
     public com.expenseapp.receipt.dto.PresignResponse presignUpload(String userEmail, Long receiptId, String fileName, String contentType, Long fileSize) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElseThrow();
         Receipt r = receiptRepository.findById(receiptId).orElseThrow();
         if (!r.getExpense().getUser().getId().equals(user.getId())) {
             boolean allowed = aclService.hasAccess(user.getId(), "RECEIPT", r.getId(), "WRITE")
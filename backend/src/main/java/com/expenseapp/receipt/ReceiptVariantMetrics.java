@@ -0,0 +1,50 @@
+package com.expenseapp.receipt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link ReceiptVariantService} pipeline statistics to Actuator
+ * ({@code /actuator/metrics/receipts.variants.enqueued}, {@code .dropped}, {@code .generated}, {@code .skipped},
+ * {@code .failed}, {@code .render.seconds}, {@code .queue.size}, {@code .active}).
+ */
+@Component
+public class ReceiptVariantMetrics implements MeterBinder {
+
+    private final ReceiptVariantService variants;
+
+    public ReceiptVariantMetrics(ReceiptVariantService variants) {
+        this.variants = variants;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("receipts.variants.enqueued", variants, ReceiptVariantService::enqueued)
+                .description("Receipts queued for thumbnail/preview rendering")
+                .register(registry);
+        FunctionCounter.builder("receipts.variants.dropped", variants, ReceiptVariantService::dropped)
+                .description("Receipts not queued because the render queue was full")
+                .register(registry);
+        FunctionCounter.builder("receipts.variants.generated", variants, ReceiptVariantService::generated)
+                .description("Receipts whose variants were rendered and stored")
+                .register(registry);
+        FunctionCounter.builder("receipts.variants.skipped", variants, ReceiptVariantService::skipped)
+                .description("Receipts with no renderable image (PDFs, unsupported formats, missing files)")
+                .register(registry);
+        FunctionCounter.builder("receipts.variants.failed", variants, ReceiptVariantService::failed)
+                .description("Receipts whose variant rendering failed")
+                .register(registry);
+        FunctionCounter.builder("receipts.variants.render.seconds", variants, ReceiptVariantService::renderSeconds)
+                .description("Time spent decoding, scaling and storing variants")
+                .register(registry);
+        Gauge.builder("receipts.variants.queue.size", variants, ReceiptVariantService::queueSize)
+                .description("Receipts waiting to be rendered")
+                .register(registry);
+        Gauge.builder("receipts.variants.active", variants, ReceiptVariantService::active)
+                .description("Receipts being rendered")
+                .register(registry);
+    }
+}
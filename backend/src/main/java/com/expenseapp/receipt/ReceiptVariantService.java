@@ -0,0 +1,213 @@
+package com.expenseapp.receipt;
+
+import com.expenseapp.storage.FileStorageService;
+import com.expenseapp.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Derives downscaled JPEG variants of receipt images ({@value #THUMBNAIL}, {@value #PREVIEW}) so list and detail
+ * screens need not pull the original photo. Work is queued after the upload commits and rendered on a small
+ * bounded pool; when the queue is full the receipt is skipped and picked up again the first time one of its
+ * variants is requested. Variants are content-addressed blobs recorded in {@code receipt_variants}.
+ */
+@Slf4j
+@Service
+public class ReceiptVariantService {
+
+    public static final String THUMBNAIL = "thumbnail";
+    public static final String PREVIEW = "preview";
+    public static final List<String> VARIANTS = List.of(THUMBNAIL, PREVIEW);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int thumbnailSize;
+    private final int previewSize;
+    private final long maxSourcePixels;
+
+    // Receipts queued or rendering, so repeated requests for a missing variant queue it once
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+
+    /** A stored variant: blob URI, content hash and pixel size. */
+    public static final class StoredVariant {
+        private final String fileUri;
+        private final String contentSha256;
+        private final int width;
+        private final int height;
+
+        StoredVariant(String fileUri, String contentSha256, int width, int height) {
+            this.fileUri = fileUri;
+            this.contentSha256 = contentSha256;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getFileUri() { return fileUri; }
+        public String getContentSha256() { return contentSha256; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+    }
+
+    public ReceiptVariantService(JdbcTemplate jdbcTemplate, FileStorageService fileStorageService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.receipts.variants.threads:2}") int threads,
+                                 @Value("${app.receipts.variants.queue-capacity:200}") int queueCapacity,
+                                 @Value("${app.receipts.variants.thumbnail-size:256}") int thumbnailSize,
+                                 @Value("${app.receipts.variants.preview-size:1280}") int previewSize,
+                                 @Value("${app.receipts.variants.max-source-pixels:100000000}") long maxSourcePixels) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.thumbnailSize = thumbnailSize;
+        this.previewSize = previewSize;
+        this.maxSourcePixels = maxSourcePixels;
+        AtomicInteger seq = new AtomicInteger();
+        // Rendering is CPU- and memory-heavy, so a full queue drops the job instead of running it on the caller
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "receipt-variants-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("[Receipts] Variant executor still had {} receipt(s) queued at shutdown", executor.getQueue().size());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Whether variants are derived for this content type (images; unknown types are tried). */
+    public static boolean isImage(String contentType) {
+        return contentType == null || contentType.isBlank() || contentType.toLowerCase().startsWith("image/");
+    }
+
+    /** Queue variant generation for a receipt once the current transaction commits (right away if none). */
+    public void enqueue(Long receiptId) {
+        if (receiptId == null) return;
+        TransactionCallbacks.runAfterCommit(() -> submit(receiptId));
+    }
+
+    public Optional<StoredVariant> find(Long receiptId, String variant) {
+        return jdbcTemplate.query(
+                "SELECT file_uri, content_sha256, width, height FROM receipt_variants WHERE receipt_id = ? AND variant = ?",
+                (rs, i) -> new StoredVariant(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getInt(4)),
+                receiptId, variant).stream().findFirst();
+    }
+
+    private void submit(Long receiptId) {
+        if (!inFlight.add(receiptId)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(receiptId);
+                } finally {
+                    inFlight.remove(receiptId);
+                }
+            });
+            enqueued.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(receiptId);
+            dropped.incrementAndGet();
+            log.warn("[Receipts] Variant queue full, skipped receipt {} (rendered on first request)", receiptId);
+        }
+    }
+
+    void generate(Long receiptId) {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                    SELECT r.file_uri, r.content_type,
+                           (SELECT COUNT(*) FROM receipt_variants v WHERE v.receipt_id = r.id) AS variants
+                    FROM receipts r WHERE r.id = ?
+                    """, receiptId);
+            if (rows.isEmpty() || ((Number) rows.get(0).get("variants")).intValue() >= VARIANTS.size()) {
+                return;
+            }
+            String contentType = (String) rows.get(0).get("content_type");
+            Path source = fileStorageService.resolve((String) rows.get(0).get("file_uri"));
+            if (!isImage(contentType) || source == null || !Files.isRegularFile(source)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            long started = System.nanoTime();
+            List<ReceiptImages.Rendered> rendered =
+                    ReceiptImages.render(source, new int[]{thumbnailSize, previewSize}, maxSourcePixels);
+            if (rendered.isEmpty()) {
+                skipped.incrementAndGet(); // not a format ImageIO reads (PDF, HEIC, ...)
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < VARIANTS.size(); i++) {
+                    save(receiptId, VARIANTS.get(i), rendered.get(i));
+                }
+            });
+            renderNanos.addAndGet(System.nanoTime() - started);
+            generated.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("[Receipts] Could not derive variants for receipt {}: {}", receiptId, e.getMessage());
+        }
+    }
+
+    private void save(Long receiptId, String variant, ReceiptImages.Rendered image) {
+        FileStorageService.StoredFile stored;
+        try {
+            stored = fileStorageService.store(new ByteArrayInputStream(image.jpeg));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int inserted = jdbcTemplate.update("""
+                INSERT INTO receipt_variants (receipt_id, variant, file_uri, content_sha256, content_type, width, height, byte_size)
+                VALUES (?, ?, ?, ?, 'image/jpeg', ?, ?, ?)
+                ON CONFLICT (receipt_id, variant) DO NOTHING
+                """, receiptId, variant, stored.getPath(), stored.getSha256(), image.width, image.height, stored.getSize());
+        if (inserted == 0) {
+            fileStorageService.release(stored.getPath()); // already derived by an earlier run
+        }
+    }
+
+    long enqueued() { return enqueued.get(); }
+    long dropped() { return dropped.get(); }
+    long generated() { return generated.get(); }
+    long skipped() { return skipped.get(); }
+    long failed() { return failed.get(); }
+    double renderSeconds() { return renderNanos.get() / 1e9; }
+    int queueSize() { return executor.getQueue().size(); }
+    int active() { return executor.getActiveCount(); }
+}
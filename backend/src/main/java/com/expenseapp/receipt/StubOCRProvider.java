@@ -1,38 +1,43 @@
 package com.expenseapp.receipt;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.context.annotation.Lazy;
+
+import java.util.List;
 
 @Service
 @ConditionalOnProperty(prefix = "ocr", name = "provider", havingValue = "stub", matchIfMissing = true)
 public class StubOCRProvider implements OCRProvider {
 
-    private final OCRJobRepository ocrJobRepository;
-    private final ReceiptService receiptService;
+    private static final String EXTRACTED =
+            "{\"confidence\":0.7,\"fields\":{\"merchant\":\"Unknown\",\"amount\":null,\"date\":null}}";
 
-    public StubOCRProvider(OCRJobRepository ocrJobRepository, @Lazy ReceiptService receiptService) {
-        this.ocrJobRepository = ocrJobRepository;
-        this.receiptService = receiptService;
+    @Override
+    public String name() {
+        return "STUB";
     }
 
     @Override
-    @Async
-    public void processAsync(Long jobId) {
-        try {
-            OCRJob job = ocrJobRepository.findById(jobId).orElseThrow();
-            job.setStatus("RUNNING");
-            ocrJobRepository.save(job);
+    public String extract(Input input) throws InterruptedException {
+        // Simulate latency
+        Thread.sleep(500);
+        return EXTRACTED;
+    }
 
-            // Simulate latency
-            Thread.sleep(500);
+    @Override
+    public int maxBatchSize() {
+        return 8;
+    }
 
-            // Produce a simple extracted JSON
-            String extracted = "{\"confidence\":0.7,\"fields\":{\"merchant\":\"Unknown\",\"amount\":null,\"date\":null}}";
-            receiptService.completeJob(jobId, extracted, null);
-        } catch (Exception ex) {
-            receiptService.completeJob(jobId, null, ex.getMessage());
+    @Override
+    public List<Result> extractBatch(List<Input> inputs) {
+        try {
+            // One simulated round trip for the whole batch
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inputs.stream().map(i -> Result.failed(i.getJobId(), "Interrupted")).toList();
         }
+        return inputs.stream().map(i -> Result.ok(i.getJobId(), EXTRACTED)).toList();
     }
 }
@@ -0,0 +1,19 @@
+package com.expenseapp.receipt.dto;
+
+import java.util.List;
+
+public class BulkScanResponse {
+    private int queued;
+    private List<Long> receiptIds;
+
+    public BulkScanResponse() {}
+    public BulkScanResponse(int queued, List<Long> receiptIds) {
+        this.queued = queued;
+        this.receiptIds = receiptIds;
+    }
+
+    public int getQueued() { return queued; }
+    public void setQueued(int queued) { this.queued = queued; }
+    public List<Long> getReceiptIds() { return receiptIds; }
+    public void setReceiptIds(List<Long> receiptIds) { this.receiptIds = receiptIds; }
+}
@@ -1,6 +1,7 @@
 package com.expenseapp.role;
 
 import com.expenseapp.audit.AuditLogService;
+import com.expenseapp.security.PrincipalCache;
 import com.expenseapp.user.Role;
 import com.expenseapp.user.User;
 import com.expenseapp.user.UserRepository;
@@ -19,6 +20,7 @@ public class RoleService {
     private final RolePermissionRepository rolePermissionRepository;
     private final UserRepository userRepository;
     private final AuditLogService auditLogService;
+    private final PrincipalCache principalCache;
     
     /**
      * Get all roles ordered by level
@@ -72,6 +74,7 @@ public class RoleService {
         // Update user role
         user.setRole(Role.valueOf(roleName));
         userRepository.save(user);
+        principalCache.invalidate(user);
         
         // Log the action
         auditLogService.log(
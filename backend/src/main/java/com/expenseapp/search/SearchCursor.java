@@ -0,0 +1,38 @@
+package com.expenseapp.search;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page token for ranked search results. Ranked order has no stable keyset to continue from, so the token
+ * carries the offset of the next page; {@link #MAX_OFFSET} bounds how deep a client can page before it has to
+ * narrow the search.
+ */
+public final class SearchCursor {
+
+    public static final int MAX_OFFSET = 10_000;
+
+    private SearchCursor() {}
+
+    public static int decode(String token) {
+        if (token == null || token.isBlank()) return 0;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("o:")) throw new IllegalArgumentException(raw);
+            int offset = Integer.parseInt(raw.substring(2));
+            if (offset < 0 || offset > MAX_OFFSET) throw new IllegalArgumentException(raw);
+            return offset;
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /** Token for the page starting at {@code offset}, or null when that is past {@link #MAX_OFFSET}. */
+    public static String encode(int offset) {
+        if (offset > MAX_OFFSET) return null;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("o:" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,28 @@
+package com.expenseapp.search;
+
+import java.util.List;
+
+public class SearchPage<T> {
+    /**
+     * Response headers of the un-paged search endpoints, which return at most their service's
+     * {@code MAX_SEARCH_RESULTS} matches: set to {@code true} and to the cursor of the next page
+     * (for the matching {@code /search/page} endpoint) when more matches exist.
+     */
+    public static final String TRUNCATED_HEADER = "X-Results-Truncated";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    // More matches exist past SearchCursor.MAX_OFFSET, where no cursor reaches; the client has to narrow the search
+    private boolean truncated;
+
+    public SearchPage(List<T> items, String nextCursor, boolean hasMore, boolean truncated) {
+        this.items = items; this.nextCursor = nextCursor; this.hasMore = hasMore; this.truncated = truncated;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public boolean isTruncated() { return truncated; }
+}
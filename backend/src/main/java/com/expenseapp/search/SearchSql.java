@@ -0,0 +1,52 @@
+package com.expenseapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the WHERE clause of a search query from only the filters that are present, so Postgres plans each
+ * combination on its own instead of one catch-all plan full of {@code :x IS NULL OR ...} branches that cannot use
+ * an index. Text filters are matched against the {@code pg_trgm} GIN indexes from V71, which serve both
+ * {@code lower(col) LIKE '%term%'} and the fuzzy {@code term <% lower(col)} (word similarity) operator.
+ */
+public final class SearchSql {
+
+    private final StringBuilder where = new StringBuilder();
+    private final List<Object> args = new ArrayList<>();
+
+    /** Always-applied predicate (scope, ownership). */
+    public SearchSql and(String clause, Object... values) {
+        where.append(where.isEmpty() ? "" : " AND ").append('(').append(clause).append(')');
+        args.addAll(Arrays.asList(values));
+        return this;
+    }
+
+    /** Predicate applied only when {@code value} is present (non-null, and non-blank for strings). */
+    public SearchSql andIf(Object value, String clause, Object... values) {
+        if (value == null || (value instanceof String s && s.isBlank())) return this;
+        return and(clause, values);
+    }
+
+    public String where() {
+        return where.isEmpty() ? "TRUE" : where.toString();
+    }
+
+    public List<Object> args() {
+        return args;
+    }
+
+    /** Lower-cased, trimmed search term with runs of whitespace collapsed; null when blank. */
+    public static String term(String raw) {
+        if (raw == null) return null;
+        String t = raw.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return t.isEmpty() ? null : t;
+    }
+
+    /** {@code %term%} for LIKE with the term's own {@code %}, {@code _} and {@code \} escaped. */
+    public static String contains(String term) {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
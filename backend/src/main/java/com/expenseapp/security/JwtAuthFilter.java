@@ -1,6 +1,5 @@
 package com.expenseapp.security;
 
-import com.expenseapp.user.UserRepository;
 import io.jsonwebtoken.*;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -38,12 +37,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         "/webjars/**"
     );
 
+    // Compiled once; matched against the request path without the context path (see isPublicEndpoint)
+    private static final List<org.springframework.web.util.pattern.PathPattern> PUBLIC_PATTERNS = PUBLIC_ENDPOINTS.stream()
+        .map(org.springframework.web.util.pattern.PathPatternParser.defaultInstance::parse)
+        .toList();
+
     private final JwtTokenProvider tokenProvider;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthFilter(JwtTokenProvider tokenProvider, UserRepository userRepository) {
+    public JwtAuthFilter(JwtTokenProvider tokenProvider, PrincipalCache principalCache) {
         this.tokenProvider = tokenProvider;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -53,7 +57,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String method = request.getMethod();
         
         // Skip JWT check for public endpoints
-        if (isPublicEndpoint(requestUri)) {
+        if (isPublicEndpoint(request)) {
             log.debug("Skipping JWT check for public endpoint: {} {}", method, requestUri);
             filterChain.doFilter(request, response);
             return;
@@ -94,7 +98,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             }
             
             log.debug("Loading user details for: {}", username);
-            UserDetails userDetails = userRepository.findByEmail(username)
+            UserDetails userDetails = principalCache.findByEmail(username)
                 .orElse(null);
                 
             if (userDetails == null) {
@@ -132,9 +136,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
     }
     
-    private boolean isPublicEndpoint(String requestUri) {
-        org.springframework.util.AntPathMatcher pathMatcher = new org.springframework.util.AntPathMatcher();
-        return PUBLIC_ENDPOINTS.stream().anyMatch(pattern -> pathMatcher.match(pattern, requestUri));
+    // The raw URI minus the context path, as the dispatcher's own PathPattern matching sees it
+    private boolean isPublicEndpoint(HttpServletRequest request) {
+        org.springframework.http.server.PathContainer path = org.springframework.http.server.RequestPath
+            .parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+        for (org.springframework.web.util.pattern.PathPattern pattern : PUBLIC_PATTERNS) {
+            if (pattern.matches(path)) return true;
+        }
+        return false;
     }
     
     private void sendUnauthorized(HttpServletResponse response, String message) throws IOException {
@@ -0,0 +1,53 @@
+package com.expenseapp.security;
+
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import com.expenseapp.util.GenerationalTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived cache of authenticated users keyed by email, used by {@link JwtAuthFilter} so a request does not
+ * hit {@code users} just to rebuild its principal. Callers get a fresh detached copy, never the cached instance.
+ * Anything that disables a user, changes their role, password or email, or deletes them must call
+ * {@link #invalidate}; the TTL only bounds staleness for writers that forget.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final GenerationalTtlCache<String, User> byEmail;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${app.security.principal-cache.ttl-seconds:30}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.byEmail = new GenerationalTtlCache<>(ttlSeconds * 1000L, maxEntries);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        // The cache keeps its own detached copy; unknown emails are not cached
+        User cached = byEmail.get(email, e -> userRepository.findByEmail(e).map(User::new).orElse(null));
+        return Optional.ofNullable(cached).map(User::new);
+    }
+
+    public void invalidate(User user) {
+        invalidate(List.of(user));
+    }
+
+    /**
+     * Drop cached principals now and again after the surrounding transaction completes. Matched by id as well as
+     * email so an entry cached under an email that was since changed is dropped too.
+     */
+    public void invalidate(Collection<User> users) {
+        Set<Long> ids = users.stream().map(User::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        byEmail.invalidate(users.stream().map(User::getEmail).toList(), cached -> ids.contains(cached.getId()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.expenseapp.security;
+
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Access to the {@link User} that {@link JwtAuthFilter} resolved for the current request. Each request holds its
+ * own detached copy, so services can use it for lookups and associations without another {@code users} query;
+ * code that modifies the user itself should still load it through {@link UserRepository}.
+ */
+public final class RequestPrincipal {
+
+    private RequestPrincipal() {}
+
+    public static Optional<User> current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof User user) return Optional.of(user);
+        return Optional.empty();
+    }
+
+    /** The request's user when {@code email} is theirs, otherwise a repository lookup. */
+    public static Optional<User> findByEmail(UserRepository userRepository, String email) {
+        Optional<User> current = current();
+        if (current.isPresent() && email != null && email.equals(current.get().getEmail())) return current;
+        return userRepository.findByEmail(email);
+    }
+}
@@ -1,6 +1,7 @@
 package com.expenseapp.settings;
 
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -103,7 +104,7 @@ public class SystemSettingService {
         SystemSetting setting = settingRepository.findByKey(key)
             .orElseThrow(() -> new IllegalArgumentException("Setting not found: " + key));
         
-        User user = userRepository.findByEmail(userEmail).orElse(null);
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElse(null);
         
         setting.setValue(value);
         setting.setUpdatedBy(user);
@@ -123,7 +124,7 @@ public class SystemSettingService {
             throw new IllegalArgumentException("Setting already exists: " + setting.getKey());
         }
         
-        User user = userRepository.findByEmail(userEmail).orElse(null);
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElse(null);
         setting.setUpdatedBy(user);
         
         return settingRepository.save(setting);
@@ -149,7 +150,7 @@ public class SystemSettingService {
     public List<SystemSetting> bulkUpdateSettings(Map<String, String> updates, String userEmail) {
         log.info("[SystemSettingService] Bulk updating {} settings", updates.size());
         
-        User user = userRepository.findByEmail(userEmail).orElse(null);
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElse(null);
         
         return updates.entrySet().stream()
             .map(entry -> {
@@ -176,7 +177,7 @@ public class SystemSettingService {
             .orElseThrow(() -> new IllegalArgumentException("Setting not found: " + key));
         
         // Reset logic - you might want to store defaults elsewhere
-        User user = userRepository.findByEmail(userEmail).orElse(null);
+        User user = RequestPrincipal.findByEmail(userRepository, userEmail).orElse(null);
         setting.setUpdatedBy(user);
         setting.setUpdatedAt(Instant.now());
         
@@ -4,6 +4,9 @@ import com.expenseapp.settlement.dto.NetBalancesView;
 import com.expenseapp.settlement.dto.SettlementCreateRequest;
 import com.expenseapp.settlement.dto.SettlementInitiateResponse;
 import com.expenseapp.settlement.dto.SettlementWebhookRequest;
+import com.expenseapp.storage.FileResponder;
+import com.expenseapp.storage.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,8 +14,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 @RestController
@@ -20,9 +25,14 @@ import java.util.List;
 public class SettlementController {
 
     private final SettlementService settlementService;
+    private final FileResponder fileResponder;
+    private final FileStorageService fileStorageService;
 
-    public SettlementController(SettlementService settlementService) {
+    public SettlementController(SettlementService settlementService, FileResponder fileResponder,
+                                FileStorageService fileStorageService) {
         this.settlementService = settlementService;
+        this.fileResponder = fileResponder;
+        this.fileStorageService = fileStorageService;
     }
 
     @GetMapping("/net")
@@ -93,6 +103,16 @@ public class SettlementController {
         return ResponseEntity.ok(settlementService.listReceipts(email, id));
     }
 
+    @GetMapping("/{id}/receipts/{receiptId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReceipt(@PathVariable Long id, @PathVariable Long receiptId,
+                                                                 HttpServletRequest request) throws IOException {
+        String email = currentEmail();
+        SettlementReceipt receipt = settlementService.getReceipt(email, id, receiptId);
+        Path file = fileStorageService.resolve(receipt.getFileUri());
+        return fileResponder.respond(request, file, receipt.getContentType(), receipt.getFileName(),
+                receipt.getContentSha256(), true);
+    }
+
     private String currentEmail() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         return ((UserDetails) auth.getPrincipal()).getUsername();
@@ -18,6 +18,15 @@ public class SettlementReceipt {
     @Column(name = "file_uri", nullable = false)
     private String fileUri;
 
+    @Column(name = "content_sha256")
+    private String contentSha256;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
@@ -26,5 +35,11 @@ public class SettlementReceipt {
     public void setSettlement(Settlement settlement) { this.settlement = settlement; }
     public String getFileUri() { return fileUri; }
     public void setFileUri(String fileUri) { this.fileUri = fileUri; }
+    public String getContentSha256() { return contentSha256; }
+    public void setContentSha256(String contentSha256) { this.contentSha256 = contentSha256; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
     public Instant getCreatedAt() { return createdAt; }
 }
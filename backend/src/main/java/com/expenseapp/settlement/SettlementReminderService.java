@@ -2,6 +2,7 @@ package com.expenseapp.settlement;
 
 import com.expenseapp.settlement.dto.SettlementReminderDto;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,7 +22,7 @@ public class SettlementReminderService {
 
     @Transactional
     public SettlementReminderDto create(String email, SettlementReminderDto dto) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         User counterparty = userRepository.findById(dto.getCounterpartyId()).orElseThrow();
         SettlementReminder r = new SettlementReminder();
         r.setUser(user);
@@ -35,7 +36,7 @@ public class SettlementReminderService {
 
     @Transactional(readOnly = true)
     public List<SettlementReminderDto> list(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         return reminderRepository.findAllByUser(user).stream()
                 .map(r -> new SettlementReminderDto(r.getId(), r.getCounterparty().getId(), r.getMinAmount(), r.getDueDate(), r.getChannel()))
                 .toList();
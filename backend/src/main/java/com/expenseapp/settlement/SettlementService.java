@@ -5,6 +5,7 @@ import com.expenseapp.settlement.dto.NetBalancesView;
 import com.expenseapp.settlement.dto.SettlementInitiateResponse;
 import com.expenseapp.storage.FileStorageService;
 import com.expenseapp.user.User;
+import com.expenseapp.security.RequestPrincipal;
 import com.expenseapp.user.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -63,7 +64,7 @@ public class SettlementService {
 
     @Transactional(readOnly = true)
     public NetBalancesView netBalances(String email, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Map<Long, BigDecimal> credits = new HashMap<>();
         Map<Long, BigDecimal> debits = new HashMap<>();
         // TODO: Filter pairwise credits/debits by companyId when available in ExpenseRepository
@@ -100,7 +101,7 @@ public class SettlementService {
 
     @Transactional
     public Settlement create(String email, Long payeeId, BigDecimal amount, Long groupId, Long companyId) {
-        User payer = userRepository.findByEmail(email).orElseThrow();
+        User payer = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         User payee = userRepository.findById(payeeId).orElseThrow();
         Settlement s = new Settlement();
         s.setPayer(payer);
@@ -115,7 +116,7 @@ public class SettlementService {
 
     @Transactional
     public Settlement confirm(String email, Long id, Long companyId) {
-        User actor = userRepository.findByEmail(email).orElseThrow();
+        User actor = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Settlement s = settlementRepository.findById(id).orElseThrow();
         // Verify company context matches
         if (companyId == null && s.getCompanyId() != null) {
@@ -133,7 +134,7 @@ public class SettlementService {
 
     @Transactional(readOnly = true)
     public List<Settlement> listMine(String email, Long companyId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         List<Settlement> all = settlementRepository.findAllByPayerOrPayee(user, user);
         // Filter by company context
         return all.stream()
@@ -149,26 +150,44 @@ public class SettlementService {
 
     @Transactional
     public String uploadReceipt(String email, Long settlementId, MultipartFile file) throws IOException {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Settlement s = settlementRepository.findById(settlementId).orElseThrow();
         if (!s.getPayer().getId().equals(user.getId()) && !s.getPayee().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Not authorized");
         }
-        String uri = fileStorageService.save("settlement-receipts/" + settlementId, file);
+        FileStorageService.StoredFile stored = fileStorageService.store(file);
+        String uri = stored.getPath();
         SettlementReceipt r = new SettlementReceipt();
         r.setSettlement(s);
         r.setFileUri(uri);
+        r.setContentSha256(stored.getSha256());
+        r.setFileName(org.springframework.util.StringUtils.getFilename(file.getOriginalFilename()));
+        r.setContentType(file.getContentType());
         settlementReceiptRepository.save(r);
         return uri;
     }
 
     @Transactional(readOnly = true)
     public List<String> listReceipts(String email, Long settlementId) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
         Settlement s = settlementRepository.findById(settlementId).orElseThrow();
         if (!s.getPayer().getId().equals(user.getId()) && !s.getPayee().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Not authorized");
         }
         return settlementReceiptRepository.findAllBySettlement(s).stream().map(SettlementReceipt::getFileUri).toList();
     }
+
+    @Transactional(readOnly = true)
+    public SettlementReceipt getReceipt(String email, Long settlementId, Long receiptId) {
+        User user = RequestPrincipal.findByEmail(userRepository, email).orElseThrow();
+        Settlement s = settlementRepository.findById(settlementId).orElseThrow();
+        if (!s.getPayer().getId().equals(user.getId()) && !s.getPayee().getId().equals(user.getId())) {
+            throw new IllegalArgumentException("Not authorized");
+        }
+        SettlementReceipt r = settlementReceiptRepository.findById(receiptId).orElseThrow();
+        if (!r.getSettlement().getId().equals(settlementId)) {
+            throw new IllegalArgumentException("Not found");
+        }
+        return r;
+    }
 }
@@ -0,0 +1,27 @@
+package com.expenseapp.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where {@link FileStorageService} keeps upload content, addressed by its SHA-256 (lower-case hex). Reference
+ * counting and deduplication live in the service; a backend only stores and removes immutable blobs.
+ *
+ * {@link LocalBlobBackend} is the default ({@code app.storage.backend=local}); an S3-compatible backend would
+ * upload in {@link #put} and keep a local cache for {@link #localFile}.
+ */
+public interface BlobBackend {
+
+    boolean exists(String sha256) throws IOException;
+
+    /**
+     * Publish a fully written staging file as blob {@code sha256}. Readers must never observe a partial blob;
+     * the staging file may be moved or left for the caller to delete.
+     */
+    void put(String sha256, Path staged) throws IOException;
+
+    void delete(String sha256) throws IOException;
+
+    /** A readable local file with the blob's bytes (served zero-copy), or null if the blob is missing. */
+    Path localFile(String sha256) throws IOException;
+}
@@ -0,0 +1,201 @@
+package com.expenseapp.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serves a stored file (receipt, bill, settlement receipt) to a download request without reading it into memory.
+ *
+ * <ul>
+ *   <li>Strong ETag from the content hash recorded at upload; files stored before hashing get a weak
+ *       size/mtime ETag instead.</li>
+ *   <li>{@code If-None-Match} / {@code If-Modified-Since} answer 304.</li>
+ *   <li>A single {@code Range} (honoured only if {@code If-Range} still matches) answers 206; an unsatisfiable one
+ *       416. Multi-range requests get the whole file.</li>
+ *   <li>The body is handed to Tomcat's sendfile when the connector offers it, otherwise copied with
+ *       {@link FileChannel#transferTo} into the response.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class FileResponder {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final boolean sendfile;
+
+    public FileResponder(@Value("${app.files.sendfile:true}") boolean sendfile) {
+        this.sendfile = sendfile;
+    }
+
+    public ResponseEntity<StreamingResponseBody> respond(HttpServletRequest request, Path file, String contentType,
+                                                         String fileName, String sha256, boolean inline) {
+        long size;
+        long lastModified;
+        try {
+            if (file == null || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+                return ResponseEntity.notFound().build();
+            }
+            size = Files.size(file);
+            // HTTP dates have second precision
+            lastModified = Files.getLastModifiedTime(file).toMillis() / 1000 * 1000;
+        } catch (IOException e) {
+            log.warn("[Files] Cannot stat {}: {}", file, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+        HttpHeaders requestHeaders = new ServletServerHttpRequest(request).getHeaders();
+        boolean hashed = sha256 != null && !sha256.isBlank();
+        String etag = hashed
+                ? "\"" + sha256 + "\""
+                : "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        headers.setCacheControl(hashed
+                ? CacheControl.maxAge(Duration.ofDays(1)).cachePrivate()
+                : CacheControl.noCache().cachePrivate());
+
+        if (notModified(requestHeaders, etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String name = fileName != null && !fileName.isBlank() ? fileName : file.getFileName().toString();
+        headers.setContentType(mediaType(contentType, name));
+        headers.setContentDisposition((inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(name, StandardCharsets.UTF_8)
+                .build());
+
+        long start = 0;
+        long length = size;
+        HttpStatus status = HttpStatus.OK;
+        if (requestHeaders.getFirst(HttpHeaders.RANGE) != null && rangeStillValid(requestHeaders, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = requestHeaders.getRange();
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // malformed Range is ignored
+            }
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(size);
+                    length = ranges.get(0).getRangeEnd(size) - start + 1;
+                } catch (IllegalArgumentException e) {
+                    length = 0;
+                }
+                // HttpRange does not reject a start at or past the end (bytes=50- on 10 bytes), nor bytes=-0
+                if (start >= size || length <= 0) {
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+                }
+                status = HttpStatus.PARTIAL_CONTENT;
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+            }
+        }
+        headers.setContentLength(length);
+
+        if (sendfile && length > 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            try {
+                request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + length);
+                return ResponseEntity.status(status).headers(headers).build();
+            } catch (IOException | RuntimeException e) {
+                request.removeAttribute(SENDFILE_FILENAME);
+                log.debug("[Files] sendfile unavailable for {}, streaming instead: {}", file, e.getMessage());
+            }
+        }
+        long from = start;
+        long count = length;
+        StreamingResponseBody body = out -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = from;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, target);
+                    if (sent <= 0) break; // file shrank underneath us
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        };
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+
+    static boolean notModified(HttpHeaders request, String etag, long lastModified) {
+        List<String> ifNoneMatch = request.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            // Weak comparison; If-Modified-Since is ignored when If-None-Match is present
+            for (String candidate : ifNoneMatch) {
+                if ("*".equals(candidate.trim()) || opaque(candidate).equals(opaque(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = request.getIfModifiedSince();
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    static boolean rangeStillValid(HttpHeaders request, String etag, long lastModified) {
+        String ifRange = request.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison: weak validators never match
+            return !etag.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            long date = request.getFirstDate(HttpHeaders.IF_RANGE);
+            return date == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String opaque(String etag) {
+        String t = etag.trim();
+        return t.startsWith("W/") ? t.substring(2) : t;
+    }
+
+    private static MediaType mediaType(String contentType, String fileName) {
+        if (contentType != null && !contentType.isBlank()) {
+            try {
+                return MediaType.parseMediaType(contentType);
+            } catch (IllegalArgumentException ignored) {
+                // fall through to the file name
+            }
+        }
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
@@ -1,37 +1,189 @@
 package com.expenseapp.storage;
 
+import com.expenseapp.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
 
+/**
+ * Content-addressed upload storage. An upload is streamed to a staging file while its SHA-256 is computed, then
+ * published to the {@link BlobBackend} under that hash unless an identical blob is already there. Rows keep the
+ * returned {@code blob:<sha256>} URI; {@code storage_blobs.ref_count} counts them, and the blob is removed after
+ * the transaction that drops the last reference commits.
+ *
+ * Per-hash changes are serialised with a transaction-scoped advisory lock, so a blob being collected and the
+ * same content being uploaded again cannot interleave. URIs stored before this (absolute paths) still resolve.
+ */
+@Slf4j
 @Service
 public class FileStorageService {
 
-    private final Path root;
+    public static final String BLOB_PREFIX = "blob:";
 
-    public FileStorageService(@Value("${storage.dir:./storage}") String storageDir) throws IOException {
-        this.root = Paths.get(storageDir).toAbsolutePath().normalize();
-        Files.createDirectories(this.root);
+    private final Path staging;
+    private final BlobBackend backend;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate collectTemplate;
+
+    public FileStorageService(@Value("${storage.dir:./storage}") String storageDir,
+                              BlobBackend backend,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) throws IOException {
+        this.staging = Paths.get(storageDir).toAbsolutePath().normalize().resolve("staging");
+        Files.createDirectories(this.staging);
+        this.backend = backend;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.collectTemplate = new TransactionTemplate(transactionManager);
+        this.collectTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** A stored upload: the URI to persist, and the SHA-256 (hex) and size of its content. */
+    public static final class StoredFile {
+        private final String path;
+        private final String sha256;
+        private final long size;
+
+        StoredFile(String path, String sha256, long size) {
+            this.path = path;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        public String getPath() { return path; }
+        public String getSha256() { return sha256; }
+        public long getSize() { return size; }
+    }
+
+    public StoredFile store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in);
+        }
+    }
+
+    /**
+     * Store {@code in} and take one reference to it. Joins the caller's transaction, so an upload whose row is
+     * rolled back takes no reference (its blob is reused by the next identical upload).
+     */
+    public StoredFile store(InputStream in) throws IOException {
+        Path temp = Files.createTempFile(staging, "upload-", ".part");
+        try {
+            String sha256 = copyWithSha256(in, temp);
+            long size = Files.size(temp);
+            transactionTemplate.executeWithoutResult(status -> {
+                lock(sha256);
+                jdbcTemplate.update("""
+                        INSERT INTO storage_blobs (sha256, size_bytes, ref_count) VALUES (?, ?, 1)
+                        ON CONFLICT (sha256) DO UPDATE SET ref_count = storage_blobs.ref_count + 1
+                        """, sha256, size);
+                try {
+                    if (!backend.exists(sha256)) {
+                        backend.put(sha256, temp);
+                    }
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            return new StoredFile(BLOB_PREFIX + sha256, sha256, size);
+        } catch (java.io.UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Drop one reference to a {@code blob:} URI; the blob goes once the last reference's transaction commits.
+     * Other URIs (pre-content-addressed paths) are left alone.
+     */
+    public void release(String uri) {
+        String sha256 = blobKey(uri);
+        if (sha256 == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Integer> left = jdbcTemplate.queryForList(
+                    "UPDATE storage_blobs SET ref_count = ref_count - 1 WHERE sha256 = ? RETURNING ref_count",
+                    Integer.class, sha256);
+            if (!left.isEmpty() && left.get(0) <= 0) {
+                TransactionCallbacks.runAfterCommit(() -> collect(sha256));
+            }
+        });
+    }
+
+    public void releaseAll(Collection<String> uris) {
+        for (String uri : uris) {
+            release(uri);
+        }
+    }
+
+    /** The local file behind a stored URI (blob or legacy absolute path), or null if the blob is missing. */
+    public Path resolve(String uri) throws IOException {
+        if (uri == null) {
+            return null;
+        }
+        String sha256 = blobKey(uri);
+        return sha256 != null ? backend.localFile(sha256) : Paths.get(uri);
+    }
+
+    public static boolean isBlob(String uri) {
+        return uri != null && uri.startsWith(BLOB_PREFIX);
+    }
+
+    private static String blobKey(String uri) {
+        return isBlob(uri) ? uri.substring(BLOB_PREFIX.length()) : null;
+    }
+
+    private void collect(String sha256) {
+        try {
+            collectTemplate.executeWithoutResult(status -> {
+                lock(sha256);
+                if (jdbcTemplate.update("DELETE FROM storage_blobs WHERE sha256 = ? AND ref_count <= 0", sha256) > 0) {
+                    try {
+                        backend.delete(sha256);
+                    } catch (IOException e) {
+                        throw new java.io.UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Row stays at ref_count 0; the next release or re-upload of this content settles it
+            log.warn("[Storage] Could not collect blob {}: {}", sha256, e.getMessage());
+        }
+    }
+
+    private void lock(String sha256) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtextextended(?, 0))", sha256);
     }
 
-    public String save(String subdir, MultipartFile file) throws IOException {
-        String original = file.getOriginalFilename();
-        String ext = "";
-        if (original != null && original.contains(".")) {
-            ext = original.substring(original.lastIndexOf('.'));
+    /** Copy {@code in} to {@code target} (replacing it) and return the SHA-256 of the bytes copied, as hex. */
+    public static String copyWithSha256(InputStream in, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        String filename = UUID.randomUUID().toString().replace("-", "") + ext;
-        Path dir = root.resolve(subdir).normalize();
-        Files.createDirectories(dir);
-        Path target = dir.resolve(filename);
-        Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-        return target.toString();
+        Files.copy(new DigestInputStream(in, digest), target, StandardCopyOption.REPLACE_EXISTING);
+        return HexFormat.of().formatHex(digest.digest());
     }
 }
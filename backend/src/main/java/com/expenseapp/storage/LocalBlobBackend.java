@@ -0,0 +1,73 @@
+package com.expenseapp.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Blobs on local disk under {@code <storage.dir>/blobs/ab/cd/abcd…}, two levels of hash prefix so no directory
+ * grows past 65,536 entries. A blob is written to a temp file in its own shard directory and renamed into place.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobBackend implements BlobBackend {
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalBlobBackend(@Value("${storage.dir:./storage}") String storageDir) throws IOException {
+        this.root = Paths.get(storageDir).toAbsolutePath().normalize().resolve("blobs");
+        Files.createDirectories(this.root);
+    }
+
+    Path pathOf(String sha256) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 blob key: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    @Override
+    public boolean exists(String sha256) {
+        return Files.isRegularFile(pathOf(sha256));
+    }
+
+    @Override
+    public void put(String sha256, Path staged) throws IOException {
+        Path target = pathOf(sha256);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Staging area is on another filesystem: copy next to the target first, then rename
+            Path temp = Files.createTempFile(target.getParent(), sha256, ".part");
+            try {
+                Files.copy(staged, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String sha256) throws IOException {
+        // Shard directories are left in place so a concurrent put of a neighbouring blob never loses its parent
+        Files.deleteIfExists(pathOf(sha256));
+    }
+
+    @Override
+    public Path localFile(String sha256) {
+        Path file = pathOf(sha256);
+        return Files.isRegularFile(file) ? file : null;
+    }
+}
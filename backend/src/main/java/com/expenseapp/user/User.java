@@ -52,6 +52,18 @@ public class User implements UserDetails {
         this.role = role;
     }
 
+    /** Detached copy of {@code other}, including its id. */
+    public User(User other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.password = other.password;
+        this.role = other.role;
+        this.createdAt = other.createdAt;
+        this.enabled = other.enabled;
+    }
+
     public Long getId() { return id; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -1,6 +1,7 @@
 package com.expenseapp.user;
 
 import com.expenseapp.company.CompanyMemberRepository;
+import com.expenseapp.security.PrincipalCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,13 +15,16 @@ public class UserService {
     private final UserRepository userRepository;
     private final CompanyMemberRepository companyMemberRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
     public UserService(UserRepository userRepository, 
                       CompanyMemberRepository companyMemberRepository,
-                      PasswordEncoder passwordEncoder) {
+                      PasswordEncoder passwordEncoder,
+                      PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.companyMemberRepository = companyMemberRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -88,6 +92,7 @@ public class UserService {
         
         user.setEnabled(!user.isEnabled());
         userRepository.save(user);
+        principalCache.invalidate(user);
         
         return toDetailView(user);
     }
@@ -120,6 +125,7 @@ public class UserService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        principalCache.invalidate(user);
     }
 
     /**
@@ -0,0 +1,75 @@
+package com.expenseapp.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache for lookups that writers invalidate explicitly, with a TTL that only bounds staleness for
+ * writers that forget. {@link #invalidate} evicts immediately and again once the surrounding transaction
+ * completes, so a reader that loaded the old row in between does not keep it. Every invalidation bumps a
+ * generation counter and a load that straddles a bump is returned but not cached. The map is cleared when it
+ * reaches {@code maxEntries} rather than tracking recency.
+ */
+public final class GenerationalTtlCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+        Entry(V value, long loadedAt) { this.value = value; this.loadedAt = loadedAt; }
+    }
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /** {@code ttlMillis <= 0} disables caching; {@link Long#MAX_VALUE} keeps entries until invalidated. */
+    public GenerationalTtlCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /** Cached value for {@code key}, or what {@code loader} returns for it; null results are not cached. */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.currentTimeMillis();
+        Entry<V> cached = entries.get(key);
+        if (cached != null && now - cached.loadedAt < ttlMillis) return cached.value;
+
+        long gen = generation.get();
+        V loaded = loader.apply(key);
+        if (loaded == null || ttlMillis <= 0) return loaded;
+        Entry<V> fresh = new Entry<>(loaded, now);
+        if (entries.size() >= maxEntries) entries.clear();
+        entries.put(key, fresh);
+        if (generation.get() != gen) entries.remove(key, fresh);
+        return loaded;
+    }
+
+    public void invalidate(Collection<? extends K> keys) {
+        invalidate(keys, null);
+    }
+
+    /**
+     * Drop {@code keys}, and every entry whose value matches {@code alsoMatching} when it is not null, now and again
+     * after the surrounding transaction completes.
+     */
+    public void invalidate(Collection<? extends K> keys, Predicate<? super V> alsoMatching) {
+        List<K> copy = new ArrayList<>(keys);
+        copy.removeIf(Objects::isNull);
+        evict(copy, alsoMatching);
+        TransactionCallbacks.runAfterCompletion(() -> evict(copy, alsoMatching));
+    }
+
+    private void evict(List<K> keys, Predicate<? super V> alsoMatching) {
+        generation.incrementAndGet();
+        for (K key : keys) entries.remove(key);
+        if (alsoMatching != null) entries.values().removeIf(e -> alsoMatching.test(e.value));
+    }
+}
@@ -0,0 +1,39 @@
+package com.expenseapp.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Work tied to the outcome of the caller's transaction: side effects that must only be seen once its rows are
+ * committed (wake-ups, pushes, async jobs), and cache evictions repeated once it ends.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    /** Run {@code task} after the surrounding transaction commits (never on rollback); right away when there is none. */
+    public static void runAfterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /** Run {@code task} after the surrounding transaction completes, committed or rolled back; nothing when there is none. */
+    public static void runAfterCompletion(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    task.run();
+                }
+            });
+        }
+    }
+}
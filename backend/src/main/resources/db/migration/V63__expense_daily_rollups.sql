@@ -0,0 +1,31 @@
+-- V63: Daily spend rollups
+-- Pre-aggregated per-day sums of expenses so dashboard/budget/insights totals read
+-- a small table instead of re-aggregating the full ledger on every request.
+-- Maintained by ExpenseRollupService in the same transaction as each expense write.
+
+-- company_id / group_id / category_id use 0 for "none" so they can be part of the key
+CREATE TABLE IF NOT EXISTS expense_daily_rollups (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    category_id BIGINT NOT NULL DEFAULT 0,
+    company_id BIGINT NOT NULL DEFAULT 0,
+    group_id BIGINT NOT NULL DEFAULT 0,
+    currency VARCHAR(3) NOT NULL,
+    amount NUMERIC(16,2) NOT NULL DEFAULT 0,
+    expense_count INT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_expense_daily_rollups PRIMARY KEY (user_id, day, category_id, company_id, group_id, currency)
+);
+
+CREATE INDEX IF NOT EXISTS idx_expense_rollups_group_day ON expense_daily_rollups(group_id, day) WHERE group_id <> 0;
+
+-- Seed from the existing ledger
+INSERT INTO expense_daily_rollups (user_id, day, category_id, company_id, group_id, currency, amount, expense_count)
+SELECT e.user_id, e.occurred_on, COALESCE(e.category_id, 0), COALESCE(e.company_id, 0), COALESCE(e.group_id, 0),
+       e.currency, SUM(e.amount), COUNT(*)
+FROM expenses e
+GROUP BY e.user_id, e.occurred_on, COALESCE(e.category_id, 0), COALESCE(e.company_id, 0), COALESCE(e.group_id, 0), e.currency;
+
+COMMENT ON TABLE expense_daily_rollups IS 'Per-day expense sums by user/company/group/category/currency; derived from expenses';
+COMMENT ON COLUMN expense_daily_rollups.category_id IS '0 when the expenses are uncategorized';
+COMMENT ON COLUMN expense_daily_rollups.company_id IS '0 for personal expenses';
+COMMENT ON COLUMN expense_daily_rollups.group_id IS '0 when not linked to a group';
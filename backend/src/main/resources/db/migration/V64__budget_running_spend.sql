@@ -0,0 +1,40 @@
+-- V64: Running spend and alert state on budgets
+-- BudgetAlertEvaluator keeps spent up to date from expense change events and records which
+-- thresholds have been reached, so alerts fire once per crossing without rescanning budgets.
+-- BudgetSpendScheduler periodically recomputes spent from the ledger to correct drift.
+
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS spent NUMERIC(16,2) NOT NULL DEFAULT 0;
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS alerted_80 BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE budgets ADD COLUMN IF NOT EXISTS alerted_100 BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Seed spent with the same matching rules as the evaluator:
+-- group budgets sum the group's expenses, personal budgets sum the owner's expenses
+UPDATE budgets b
+SET spent = s.total
+FROM (
+    SELECT b2.id, COALESCE(SUM(e.amount), 0) AS total
+    FROM budgets b2
+    JOIN expenses e
+      ON e.occurred_on >= to_date(b2.period || '-01', 'YYYY-MM-DD')
+     AND e.occurred_on < (to_date(b2.period || '-01', 'YYYY-MM-DD') + INTERVAL '1 month')
+     AND (b2.category_id IS NULL OR e.category_id = b2.category_id)
+     AND ((b2.group_id IS NULL AND e.user_id = b2.user_id) OR e.group_id = b2.group_id)
+    WHERE b2.period ~ '^[0-9]{4}-[0-9]{2}$'
+    GROUP BY b2.id
+) s
+WHERE s.id = b.id;
+
+-- Thresholds already reached count as alerted when a matching alert notification exists
+UPDATE budgets b
+SET alerted_100 = b.amount > 0 AND b.spent >= b.amount AND EXISTS (
+        SELECT 1 FROM notifications n
+        WHERE n.user_id = b.user_id AND n.type = 'BUDGET_ALERT' AND n.title = 'Budget Exceeded'
+          AND n.data ->> 'budgetId' = b.id::text),
+    alerted_80 = b.amount > 0 AND b.spent >= b.amount * 0.8 AND EXISTS (
+        SELECT 1 FROM notifications n
+        WHERE n.user_id = b.user_id AND n.type = 'BUDGET_ALERT' AND n.title IN ('Budget Warning', 'Budget Exceeded')
+          AND n.data ->> 'budgetId' = b.id::text);
+
+COMMENT ON COLUMN budgets.spent IS 'Running sum of matching expenses for the period; maintained by BudgetAlertEvaluator';
+COMMENT ON COLUMN budgets.alerted_80 IS 'TRUE once spent reached 80% of amount; cleared when it drops back below';
+COMMENT ON COLUMN budgets.alerted_100 IS 'TRUE once spent reached amount; cleared when it drops back below';
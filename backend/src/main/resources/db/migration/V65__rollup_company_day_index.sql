@@ -0,0 +1,4 @@
+-- V65: Company/day access path on expense_daily_rollups
+-- Company budget spend (SpendQueryService) sums one company over a date range.
+
+CREATE INDEX IF NOT EXISTS idx_expense_rollups_company_day ON expense_daily_rollups(company_id, day) WHERE company_id <> 0;
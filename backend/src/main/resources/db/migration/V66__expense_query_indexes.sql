@@ -0,0 +1,43 @@
+-- V66: Composite indexes for the hot ExpenseRepository / SplitShareRepository query shapes
+-- Every list query filters on an owner column plus an occurred_on range and orders by
+-- (occurred_on DESC, id DESC); ending each index in (occurred_on, id) lets the keyset pages
+-- walk the index backwards without a sort. Superseded single-purpose indexes are dropped.
+-- ExpenseQueryPlanTest checks these plans against a seeded database (mvn -Pplan-check test).
+
+-- Personal and employee lists: user_id = ? AND company_id IS NULL / = ? AND occurred_on range
+CREATE INDEX IF NOT EXISTS idx_expenses_user_company_date_id ON expenses(user_id, company_id, occurred_on, id);
+DROP INDEX IF EXISTS idx_expenses_user_company_date;
+
+-- Base-currency aggregation and dashboard reads: user_id = ? AND occurred_on range (all scopes)
+CREATE INDEX IF NOT EXISTS idx_expenses_user_date_id ON expenses(user_id, occurred_on, id);
+DROP INDEX IF EXISTS idx_expenses_user_date;
+
+-- Company admin / manager lists and counts: company_id = ? AND occurred_on range
+CREATE INDEX IF NOT EXISTS idx_expenses_company_date_id ON expenses(company_id, occurred_on, id) WHERE company_id IS NOT NULL;
+DROP INDEX IF EXISTS idx_expenses_company_id;
+
+-- Group ledgers and group spend: group_id = ? (AND occurred_on range)
+CREATE INDEX IF NOT EXISTS idx_expenses_group_date ON expenses(group_id, occurred_on) WHERE group_id IS NOT NULL;
+DROP INDEX IF EXISTS idx_expenses_group;
+
+-- Reimbursement queues ordered by request time, globally, per company and per user
+CREATE INDEX IF NOT EXISTS idx_expenses_reimb_status_requested ON expenses(reimbursement_status, reimbursement_requested_at DESC)
+    WHERE reimbursement_status IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_expenses_company_reimb_requested ON expenses(company_id, reimbursement_status, reimbursement_requested_at DESC)
+    WHERE company_id IS NOT NULL AND reimbursement_status IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_expenses_user_reimb_requested ON expenses(user_id, reimbursement_status, reimbursement_requested_at DESC)
+    WHERE reimbursement_status IS NOT NULL;
+DROP INDEX IF EXISTS idx_expenses_reimbursement_status;
+DROP INDEX IF EXISTS idx_expenses_company_reimbursement;
+
+-- split_shares was only indexed by (user_id, status); the ledger joins probe it by expense_id.
+-- INCLUDE keeps the share sums index-only.
+CREATE INDEX IF NOT EXISTS idx_split_shares_expense ON split_shares(expense_id, user_id) INCLUDE (share_amount);
+CREATE INDEX IF NOT EXISTS idx_split_shares_user_expense ON split_shares(user_id, expense_id) INCLUDE (share_amount);
+
+-- Manager visibility subquery: employees of one company
+CREATE INDEX IF NOT EXISTS idx_company_members_company_role ON company_members(company_id, role, user_id);
+
+ANALYZE expenses;
+ANALYZE split_shares;
+ANALYZE company_members;
@@ -0,0 +1,3 @@
+-- V67: Incremental (?since=) and backfill (?before=) chat reads walk group_messages by (group_id, id)
+CREATE INDEX IF NOT EXISTS idx_group_messages_group_id_id ON group_messages(group_id, id);
+DROP INDEX IF EXISTS idx_group_messages_group_id;
@@ -0,0 +1,37 @@
+-- V68: Materialized unread counters for group chat and notifications (maintained by UnreadCounterService)
+-- Badges and group lists read one row per (user, group) / (user, company) instead of counting messages and
+-- notifications on every request. company_id 0 holds personal (company-less) notifications.
+
+CREATE TABLE IF NOT EXISTS group_unread_counts (
+    user_id  BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    group_id BIGINT NOT NULL REFERENCES groups(id) ON DELETE CASCADE,
+    unread   INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, group_id)
+);
+CREATE INDEX IF NOT EXISTS idx_group_unread_counts_group ON group_unread_counts(group_id);
+
+CREATE TABLE IF NOT EXISTS notification_unread_counts (
+    user_id    BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    company_id BIGINT NOT NULL DEFAULT 0,
+    unread     INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, company_id)
+);
+
+-- Seed with the counts the group list computed on the fly: other members' messages newer than the
+-- user's last read time, or than their membership when they never opened the chat
+INSERT INTO group_unread_counts(user_id, group_id, unread)
+SELECT gm.user_id, gm.group_id, COUNT(m.id)
+FROM group_members gm
+LEFT JOIN group_reads gr ON gr.group_id = gm.group_id AND gr.user_id = gm.user_id
+JOIN group_messages m ON m.group_id = gm.group_id
+ AND m.sender_user_id <> gm.user_id
+ AND m.created_at > COALESCE(gr.last_read_at, gm.created_at)
+GROUP BY gm.user_id, gm.group_id
+ON CONFLICT (user_id, group_id) DO UPDATE SET unread = EXCLUDED.unread;
+
+INSERT INTO notification_unread_counts(user_id, company_id, unread)
+SELECT user_id, COALESCE(company_id, 0), COUNT(*)
+FROM notifications
+WHERE read_at IS NULL
+GROUP BY user_id, COALESCE(company_id, 0)
+ON CONFLICT (user_id, company_id) DO UPDATE SET unread = EXCLUDED.unread;
@@ -0,0 +1,3 @@
+-- V69: Expenses created while their FX rate was still being fetched are flagged until the rate lands
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS fx_pending BOOLEAN NOT NULL DEFAULT FALSE;
+CREATE INDEX IF NOT EXISTS idx_expenses_fx_pending ON expenses(currency, occurred_on) WHERE fx_pending;
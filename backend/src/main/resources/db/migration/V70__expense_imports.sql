@@ -0,0 +1,25 @@
+-- V70: Bulk CSV imports. checkpoint_row is the last data row whose chunk committed; a re-upload with the
+-- import id skips rows up to it. Rows that fail validation are recorded per import.
+CREATE TABLE IF NOT EXISTS expense_imports (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    company_id BIGINT REFERENCES companies(id) ON DELETE CASCADE,
+    file_name VARCHAR(255),
+    header TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL, -- RUNNING | COMPLETED | FAILED
+    checkpoint_row INT NOT NULL DEFAULT 0,
+    rows_imported INT NOT NULL DEFAULT 0,
+    rows_failed INT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMPTZ
+);
+CREATE INDEX IF NOT EXISTS idx_expense_imports_user ON expense_imports(user_id, created_at DESC);
+
+CREATE TABLE IF NOT EXISTS expense_import_errors (
+    import_id BIGINT NOT NULL REFERENCES expense_imports(id) ON DELETE CASCADE,
+    row_number INT NOT NULL,
+    message TEXT NOT NULL,
+    PRIMARY KEY (import_id, row_number)
+);
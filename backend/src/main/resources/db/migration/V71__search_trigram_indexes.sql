@@ -0,0 +1,9 @@
+-- V71: Trigram indexes for expense and bill search. GIN gin_trgm_ops indexes on lower(col) serve substring
+-- matches (lower(col) LIKE '%term%') and fuzzy word-similarity matches (term <% lower(col)) alike.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_expenses_merchant_trgm ON expenses USING gin (lower(merchant) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_expenses_description_trgm ON expenses USING gin (lower(description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_bills_bill_number_trgm ON bills USING gin (lower(bill_number) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_bills_merchant_trgm ON bills USING gin (lower(merchant) gin_trgm_ops);
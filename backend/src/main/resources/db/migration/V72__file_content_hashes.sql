@@ -0,0 +1,4 @@
+-- V72: SHA-256 of stored receipt/bill files, served as their strong ETag; NULL for files uploaded before this
+ALTER TABLE receipts ADD COLUMN IF NOT EXISTS content_sha256 VARCHAR(64);
+ALTER TABLE bills ADD COLUMN IF NOT EXISTS content_sha256 VARCHAR(64);
+ALTER TABLE settlement_receipts ADD COLUMN IF NOT EXISTS content_sha256 VARCHAR(64);
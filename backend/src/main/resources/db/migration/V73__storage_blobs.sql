@@ -0,0 +1,12 @@
+-- V73: Content-addressed upload storage. Receipt/bill/settlement-receipt rows reference "blob:<sha256>";
+-- ref_count is the number of such references and the blob is deleted when it reaches zero.
+CREATE TABLE IF NOT EXISTS storage_blobs (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Settlement receipts only kept their stored path; keep what the uploader sent for downloads
+ALTER TABLE settlement_receipts ADD COLUMN IF NOT EXISTS file_name VARCHAR(255);
+ALTER TABLE settlement_receipts ADD COLUMN IF NOT EXISTS content_type VARCHAR(255);
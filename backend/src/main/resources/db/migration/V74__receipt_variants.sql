@@ -0,0 +1,13 @@
+-- V74: Downscaled JPEG renditions of receipt images ("thumbnail", "preview"), stored as content-addressed blobs
+CREATE TABLE IF NOT EXISTS receipt_variants (
+    receipt_id BIGINT NOT NULL REFERENCES receipts(id) ON DELETE CASCADE,
+    variant VARCHAR(20) NOT NULL,
+    file_uri TEXT NOT NULL,
+    content_sha256 VARCHAR(64) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    width INT NOT NULL,
+    height INT NOT NULL,
+    byte_size BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (receipt_id, variant)
+);
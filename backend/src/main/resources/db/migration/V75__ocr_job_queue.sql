@@ -0,0 +1,18 @@
+-- V75: ocr_jobs as a durable work queue. Workers claim QUEUED rows whose run_after has passed (FOR UPDATE SKIP
+-- LOCKED) and hold a lease they keep extending; a RUNNING job whose lease lapsed is requeued or, once out of
+-- attempts, dead-lettered (status DEAD).
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS run_after TIMESTAMPTZ NOT NULL DEFAULT NOW();
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS locked_by VARCHAR(100);
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS lease_until TIMESTAMPTZ;
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMPTZ;
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS started_at TIMESTAMPTZ;
+
+-- At most one live job per receipt: older duplicates left behind by the in-memory executor are retired
+UPDATE ocr_jobs j SET status = 'FAILED', error_message = 'Superseded by a newer scan', finished_at = NOW()
+WHERE j.status IN ('QUEUED', 'RUNNING')
+  AND EXISTS (SELECT 1 FROM ocr_jobs k WHERE k.receipt_id = j.receipt_id AND k.status IN ('QUEUED', 'RUNNING') AND k.id > j.id);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ocr_jobs_live_receipt ON ocr_jobs(receipt_id) WHERE status IN ('QUEUED', 'RUNNING');
+
+CREATE INDEX IF NOT EXISTS idx_ocr_jobs_ready ON ocr_jobs(run_after, id) WHERE status = 'QUEUED';
+CREATE INDEX IF NOT EXISTS idx_ocr_jobs_leases ON ocr_jobs(lease_until) WHERE status = 'RUNNING';
@@ -0,0 +1,15 @@
+-- V76: grant checks compare principal_type and permission exactly against upper-case values (USER/GROUP,
+-- READ/WRITE); ACLEntryService.share() now stores them that way. Fold grants stored in other cases, dropping
+-- rows that would duplicate an existing grant once folded.
+DELETE FROM acl_entries a
+USING acl_entries b
+WHERE a.id > b.id
+  AND a.resource_type = b.resource_type
+  AND a.resource_id = b.resource_id
+  AND UPPER(TRIM(a.principal_type)) = UPPER(TRIM(b.principal_type))
+  AND a.principal_id = b.principal_id
+  AND UPPER(TRIM(a.permission)) = UPPER(TRIM(b.permission));
+
+UPDATE acl_entries
+SET principal_type = UPPER(TRIM(principal_type)), permission = UPPER(TRIM(permission))
+WHERE principal_type <> UPPER(TRIM(principal_type)) OR permission <> UPPER(TRIM(permission));
@@ -0,0 +1,4 @@
+-- V77: fence the resume lease of bulk imports. Each upload working on an import stores a fresh token here when it
+-- creates or claims the import; checkpoints and the final status only apply while the token still matches, so an
+-- upload whose lease was taken over stops instead of writing the same rows again.
+ALTER TABLE expense_imports ADD COLUMN IF NOT EXISTS lease_owner UUID;
@@ -0,0 +1,3 @@
+-- V78: bulk imports match member emails case-insensitively (lower(email) = ANY(?)); index the expression so the
+-- lookup does not scan users
+CREATE INDEX IF NOT EXISTS idx_users_lower_email ON users (lower(email));
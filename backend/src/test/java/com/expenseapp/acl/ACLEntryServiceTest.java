@@ -1,7 +1,5 @@
 package com.expenseapp.acl;
 
-import com.expenseapp.group.Group;
-import com.expenseapp.group.GroupMember;
 import com.expenseapp.group.GroupMemberRepository;
 import com.expenseapp.user.User;
 import com.expenseapp.user.UserRepository;
@@ -9,8 +7,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 public class ACLEntryServiceTest {
@@ -23,13 +23,9 @@ public class ACLEntryServiceTest {
         ACLEntryService svc = new ACLEntryService(repo, users, gm);
 
         long userId = 1L;
-        when(users.findById(userId)).thenReturn(Optional.of(new User()));
-        ACLEntry grant = new ACLEntry();
-        grant.setPrincipalType("USER");
-        grant.setPrincipalId(userId);
-        grant.setPermission("READ");
-        when(repo.findAllByResourceTypeAndResourceId("EXPENSE", 100L))
-                .thenReturn(List.of(grant));
+        // A READ grant to the user: satisfies READ only
+        when(repo.existsGrant(eq("EXPENSE"), eq(100L), eq(userId), anyCollection(), argThat(p -> p != null && p.contains("READ"))))
+                .thenReturn(true);
 
         assertTrue(svc.hasAccess(userId, "EXPENSE", 100L, "READ"));
         assertFalse(svc.hasAccess(userId, "EXPENSE", 100L, "WRITE"));
@@ -43,20 +39,9 @@ public class ACLEntryServiceTest {
         ACLEntryService svc = new ACLEntryService(repo, users, gm);
 
         long userId = 2L;
-        User u = new User();
-        when(users.findById(userId)).thenReturn(Optional.of(u));
-        Group g = mock(Group.class);
-        when(g.getId()).thenReturn(77L);
-        GroupMember m = new GroupMember();
-        m.setGroup(g);
-        when(gm.findAllByUser(u)).thenReturn(List.of(m));
-
-        ACLEntry grant = new ACLEntry();
-        grant.setPrincipalType("GROUP");
-        grant.setPrincipalId(77L);
-        grant.setPermission("READ");
-        when(repo.findAllByResourceTypeAndResourceId("RECEIPT", 200L))
-                .thenReturn(List.of(grant));
+        when(gm.findGroupIdsByUserId(userId)).thenReturn(List.of(77L));
+        when(repo.existsGrant(eq("RECEIPT"), eq(200L), eq(userId), argThat(ids -> ids != null && ids.contains(77L)), anyCollection()))
+                .thenReturn(true);
 
         assertTrue(svc.hasAccess(userId, "RECEIPT", 200L, "READ"));
     }
@@ -69,15 +54,75 @@ public class ACLEntryServiceTest {
         ACLEntryService svc = new ACLEntryService(repo, users, gm);
 
         long userId = 3L;
-        when(users.findById(userId)).thenReturn(Optional.of(new User()));
-        ACLEntry grant = new ACLEntry();
-        grant.setPrincipalType("USER");
-        grant.setPrincipalId(userId);
-        grant.setPermission("WRITE");
-        when(repo.findAllByResourceTypeAndResourceId("EXPENSE", 300L))
-                .thenReturn(List.of(grant));
+        // A WRITE grant to the user
+        when(repo.existsGrant(eq("EXPENSE"), eq(300L), eq(userId), anyCollection(), argThat(p -> p != null && p.contains("WRITE"))))
+                .thenReturn(true);
 
         assertTrue(svc.hasAccess(userId, "EXPENSE", 300L, "READ"));
         assertTrue(svc.hasAccess(userId, "EXPENSE", 300L, "WRITE"));
     }
+
+    @Test
+    void share_storesUpperCasePrincipalTypeAndPermission() {
+        ACLEntryRepository repo = mock(ACLEntryRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        ACLEntryService svc = new ACLEntryService(repo, users, mock(GroupMemberRepository.class));
+
+        when(users.findByEmail("owner@example.com")).thenReturn(Optional.of(new User()));
+        when(repo.findByResourceTypeAndResourceIdAndPrincipalTypeAndPrincipalIdAndPermission(any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(repo.save(any(ACLEntry.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ACLEntry saved = svc.share("owner@example.com", "EXPENSE", 10L, "group", 3L, " write");
+
+        assertEquals("GROUP", saved.getPrincipalType());
+        assertEquals("WRITE", saved.getPermission());
+        verify(repo).findByResourceTypeAndResourceIdAndPrincipalTypeAndPrincipalIdAndPermission("EXPENSE", 10L, "GROUP", 3L, "WRITE");
+    }
+
+    @Test
+    void principals_cachedUntilInvalidated() {
+        ACLEntryRepository repo = mock(ACLEntryRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        GroupMemberRepository gm = mock(GroupMemberRepository.class);
+        ACLPrincipalCache cache = new ACLPrincipalCache(gm, 3600, 100);
+        ACLEntryService svc = new ACLEntryService(repo, users, cache);
+
+        long userId = 4L;
+        when(gm.findGroupIdsByUserId(userId)).thenReturn(List.of(5L));
+        for (long id = 1; id <= 10; id++) svc.hasAccess(userId, "EXPENSE", id, "READ");
+        verify(gm, times(1)).findGroupIdsByUserId(userId);
+
+        cache.invalidate(userId);
+        svc.hasAccess(userId, "EXPENSE", 1L, "READ");
+        verify(gm, times(2)).findGroupIdsByUserId(userId);
+    }
+
+    @Test
+    void principals_reloadedOnceTtlPasses() {
+        GroupMemberRepository gm = mock(GroupMemberRepository.class);
+        ACLPrincipalCache cache = new ACLPrincipalCache(gm, 0, 100);
+
+        when(gm.findGroupIdsByUserId(4L)).thenReturn(List.of(5L)).thenReturn(List.of(5L, 6L));
+        assertEquals(Set.of(5L), cache.groupIds(4L));
+        assertEquals(Set.of(5L, 6L), cache.groupIds(4L));
+    }
+
+    @Test
+    void filterAccessible_checksAllIdsInOneQuery() {
+        ACLEntryRepository repo = mock(ACLEntryRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        GroupMemberRepository gm = mock(GroupMemberRepository.class);
+        ACLEntryService svc = new ACLEntryService(repo, users, gm);
+
+        long userId = 6L;
+        List<Long> ids = List.of(1L, 2L, 3L, 4L);
+        when(repo.findGrantedResourceIds(eq("EXPENSE"), eq(ids), eq(userId), anyCollection(), anyCollection()))
+                .thenReturn(List.of(2L, 4L));
+
+        assertEquals(Set.of(2L, 4L), svc.filterAccessible(userId, "EXPENSE", ids));
+        assertTrue(svc.filterAccessible(userId, "EXPENSE", List.of()).isEmpty());
+        verify(repo, times(1)).findGrantedResourceIds(any(), anyCollection(), any(), anyCollection(), anyCollection());
+        verify(repo, never()).existsGrant(any(), any(), any(), anyCollection(), anyCollection());
+    }
 }
@@ -0,0 +1,167 @@
+package com.expenseapp.admin;
+
+import com.expenseapp.expense.ExpenseRollupService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Integration benchmark for the admin reports against a real PostgreSQL database seeded with
+ * {@code rows} expenses (default 1M). Point it at a scratch database that Flyway has already migrated
+ * (e.g. start the app once against it); seed rows are tagged "bench-" and only inserted when missing.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.expenseapp.admin.AdminReportBenchmark \
+ *     -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/expense_bench -Dbench.jdbc.user=postgres -Dbench.jdbc.password=postgres
+ * </pre>
+ *
+ * The {@code legacy*} benchmarks stream raw rows and group in Java, which is a lower bound for the old
+ * findAll()-based code: that also hydrated entities and repeated the scan once per company / user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AdminReportBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private JdbcTemplate jdbc;
+    private AdminReportRepository reports;
+    private final LocalDate from = LocalDate.of(1, 1, 1);
+    private final LocalDate to = LocalDate.of(9999, 12, 31);
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/expense_bench"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        jdbc = new JdbcTemplate(ds);
+        reports = new AdminReportRepository(jdbc);
+        seed(new TransactionTemplate(new DataSourceTransactionManager(ds)));
+    }
+
+    private void seed(TransactionTemplate tx) {
+        Long existing = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM expenses e JOIN users u ON u.id = e.user_id WHERE u.email LIKE 'bench-user-%'", Long.class);
+        long missing = rows - (existing != null ? existing : 0L);
+        if (missing <= 0) return;
+
+        jdbc.update("""
+                INSERT INTO users (name, email, password, role, created_at, enabled)
+                SELECT 'Bench User ' || g, 'bench-user-' || g || '@bench.invalid', 'x', 'USER', NOW(), TRUE
+                FROM generate_series(1, 5000) g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO companies (company_name, company_code, company_email, contact_number, address_line1,
+                                       city, state, postal_code, country, currency, time_zone, status)
+                SELECT 'Bench Company ' || g, 'bench-' || g, 'bench' || g || '@bench.invalid', '0000000000', 'Street',
+                       'City', 'State', '00000', 'Country', 'INR', 'UTC', 'ACTIVE'
+                FROM generate_series(1, 50) g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO company_members (company_id, user_id, role, status)
+                SELECT c.id, u.id, 'EMPLOYEE', 'ACTIVE'
+                FROM users u
+                JOIN companies c ON c.company_code = 'bench-' || (1 + (u.id % 50))
+                WHERE u.email LIKE 'bench-user-%'
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO categories (name)
+                SELECT 'bench-category-' || g FROM generate_series(1, 20) g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                WITH u AS (SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'bench-user-%'),
+                     c AS (SELECT array_agg(id) AS ids FROM companies WHERE company_code LIKE 'bench-%'),
+                     k AS (SELECT array_agg(id) AS ids FROM categories WHERE name LIKE 'bench-category-%')
+                INSERT INTO expenses (user_id, company_id, category_id, amount, currency, occurred_on,
+                                      is_reimbursable, reimbursement_status, created_at)
+                SELECT u.ids[1 + (g % array_length(u.ids, 1))],
+                       CASE WHEN g % 3 = 0 THEN NULL ELSE c.ids[1 + (g % array_length(c.ids, 1))] END,
+                       CASE WHEN g % 17 = 0 THEN NULL ELSE k.ids[1 + (g % array_length(k.ids, 1))] END,
+                       1 + round((random() * 500)::numeric, 2), 'INR', DATE '2023-01-01' + (g % 730),
+                       g % 10 = 0, CASE WHEN g % 10 = 0 THEN 'PENDING' END, NOW() - (g % 730) * INTERVAL '1 day'
+                FROM generate_series(1, ?) g, u, c, k
+                """, missing);
+        tx.executeWithoutResult(s -> new ExpenseRollupService(jdbc).rebuild());
+        jdbc.execute("ANALYZE expenses");
+        jdbc.execute("ANALYZE expense_daily_rollups");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> reportCategoryStats() {
+        return reports.categoryStats(from, to, 50, 0);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> reportCompanyComparison() {
+        return reports.companyComparison(from, to, 50, 0);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> reportUserActivity() {
+        return reports.userActivity(from, to, 50, 0);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> legacyCategoryStats() {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        jdbc.query("SELECT c.name, e.amount FROM expenses e LEFT JOIN categories c ON c.id = e.category_id", rs -> {
+            String name = rs.getString(1);
+            if (name != null) totals.merge(name, rs.getBigDecimal(2), BigDecimal::add);
+        });
+        return totals;
+    }
+
+    // One scan of the ledger; the old company report did this once per company
+    @Benchmark
+    public Map<Long, BigDecimal> legacyCompanyComparisonSingleScan() {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        jdbc.query("SELECT e.company_id, e.amount FROM expenses e", rs -> {
+            long companyId = rs.getLong(1);
+            if (!rs.wasNull()) totals.merge(companyId, rs.getBigDecimal(2), BigDecimal::add);
+        });
+        return totals;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AdminReportBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbc.url=" + System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/expense_bench"),
+                        "-Dbench.jdbc.user=" + System.getProperty("bench.jdbc.user", "postgres"),
+                        "-Dbench.jdbc.password=" + System.getProperty("bench.jdbc.password", "postgres"))
+                .build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package com.expenseapp.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AccessLogWriterTest {
+
+    @Test
+    void fullQueue_dropsAndCounts_thenShutdownFlushesPending() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        // Worker not started: rows stay queued until stop()
+        AccessLogWriter writer = new AccessLogWriter(jdbc, 2, 100, 50, 0, 0);
+
+        writer.append(row("EXPENSE_GET"));
+        writer.append(row("EXPENSE_UPDATE"));
+        writer.append(row("EXPENSE_DELETE"));
+
+        assertEquals(2, writer.enqueued());
+        assertEquals(1, writer.dropped());
+        assertEquals(2, writer.queueSize());
+        verifyNoInteractions(jdbc);
+
+        writer.stop();
+
+        verify(jdbc, times(1)).<AccessLog>batchUpdate(startsWith("INSERT INTO access_logs"), argThat((List<AccessLog> rows) -> rows.size() == 2),
+                eq(2), any());
+        assertEquals(2, writer.written());
+        assertEquals(0, writer.queueSize());
+    }
+
+    @Test
+    void service_enqueuesInsteadOfSaving() {
+        AccessLogWriter writer = mock(AccessLogWriter.class);
+        new AccessLogService(writer).log(1L, "a@b.c", "EXPENSE_GET", "EXPENSE", 9L, "ALLOWED", null);
+        verify(writer).append(argThat(l -> "EXPENSE_GET".equals(l.getAction()) && Long.valueOf(9L).equals(l.getResourceId())));
+    }
+
+    private static AccessLog row(String action) {
+        AccessLog l = new AccessLog();
+        l.setActorId(1L);
+        l.setAction(action);
+        l.setResourceType("EXPENSE");
+        l.setResourceId(10L);
+        l.setOutcome("ALLOWED");
+        return l;
+    }
+}
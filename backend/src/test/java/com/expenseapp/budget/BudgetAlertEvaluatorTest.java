@@ -0,0 +1,86 @@
+package com.expenseapp.budget;
+
+import com.expenseapp.expense.ExpenseSpendChangedEvent;
+import com.expenseapp.notification.NotificationPublisher;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BudgetAlertEvaluatorTest {
+
+    @Test
+    void crossing100_firesExceededOnce_andRecordsBothThresholds() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        NotificationPublisher publisher = mock(NotificationPublisher.class);
+        BudgetAlertEvaluator evaluator = new BudgetAlertEvaluator(jdbc, publisher);
+        when(jdbc.queryForList(startsWith("UPDATE budgets SET spent"), eq(Long.class), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(5L));
+        stubState(jdbc, "100.00", "120.00", false, false);
+
+        evaluator.onSpendChanged(new ExpenseSpendChangedEvent(List.of(
+                new ExpenseSpendChangedEvent.Delta(7L, LocalDate.of(2025, 3, 9), 3L, null, new BigDecimal("40.00")))));
+
+        verify(jdbc).queryForList(startsWith("UPDATE budgets SET spent"), eq(Long.class),
+                eq(new BigDecimal("40.00")), eq("2025-03"), eq(3L), eq(7L), isNull());
+        verify(publisher).publish(eq(7L), eq("BUDGET_ALERT"), eq("Budget Exceeded"), contains("Food"), contains("\"budgetId\":5"));
+        verifyNoMoreInteractions(publisher);
+        verify(jdbc).batchUpdate(startsWith("UPDATE budgets SET alerted_80"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[0].equals(true) && rows.get(0)[1].equals(true)));
+    }
+
+    @Test
+    void alreadyAlerted_doesNotNotifyAgain() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        NotificationPublisher publisher = mock(NotificationPublisher.class);
+        BudgetAlertEvaluator evaluator = new BudgetAlertEvaluator(jdbc, publisher);
+        stubState(jdbc, "100.00", "85.00", true, false);
+
+        assertEquals(0, evaluator.evaluate(List.of(5L)));
+
+        verifyNoInteractions(publisher);
+        verify(jdbc, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void droppingBelowThreshold_rearmsWithoutNotifying() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        NotificationPublisher publisher = mock(NotificationPublisher.class);
+        BudgetAlertEvaluator evaluator = new BudgetAlertEvaluator(jdbc, publisher);
+        stubState(jdbc, "100.00", "50.00", true, true);
+
+        assertEquals(0, evaluator.evaluate(List.of(5L)));
+
+        verifyNoInteractions(publisher);
+        verify(jdbc).batchUpdate(startsWith("UPDATE budgets SET alerted_80"),
+                argThat((List<Object[]> rows) -> rows.get(0)[0].equals(false) && rows.get(0)[1].equals(false)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void stubState(JdbcTemplate jdbc, String amount, String spent, boolean alerted80, boolean alerted100)
+            throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(5L);
+        when(rs.getLong(2)).thenReturn(7L);
+        when(rs.getBigDecimal(3)).thenReturn(new BigDecimal(amount));
+        when(rs.getBigDecimal(4)).thenReturn(new BigDecimal(spent));
+        when(rs.getBoolean(5)).thenReturn(true);
+        when(rs.getBoolean(6)).thenReturn(true);
+        when(rs.getBoolean(7)).thenReturn(alerted80);
+        when(rs.getBoolean(8)).thenReturn(alerted100);
+        when(rs.getString(9)).thenReturn("Food");
+        when(jdbc.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenAnswer(inv -> {
+            RowMapper<Object> mapper = inv.getArgument(1);
+            return List.of(mapper.mapRow(rs, 0));
+        });
+    }
+}
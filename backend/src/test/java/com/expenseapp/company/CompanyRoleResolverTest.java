@@ -0,0 +1,40 @@
+package com.expenseapp.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CompanyRoleResolverTest {
+
+    @Test
+    void rolesAreLoadedOncePerCompany() {
+        CompanyMemberRepository repo = mock(CompanyMemberRepository.class);
+        when(repo.findUserRolesByCompanyId(10L)).thenReturn(List.of(
+                new Object[]{1L, "MANAGER"}, new Object[]{2L, "EMPLOYEE"}));
+        CompanyRoleResolver resolver = new CompanyRoleResolver(repo, 100);
+
+        assertEquals("MANAGER", resolver.roleOf(10L, 1L));
+        assertEquals("EMPLOYEE", resolver.roleOf(10L, 2L));
+        assertNull(resolver.roleOf(10L, 3L));
+
+        verify(repo, times(1)).findUserRolesByCompanyId(10L);
+    }
+
+    @Test
+    void invalidate_reloadsOnNextLookup() {
+        CompanyMemberRepository repo = mock(CompanyMemberRepository.class);
+        when(repo.findUserRolesByCompanyId(10L))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "EMPLOYEE"}))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "EMPLOYEE"}, new Object[]{2L, "ADMIN"}));
+        CompanyRoleResolver resolver = new CompanyRoleResolver(repo, 100);
+
+        assertNull(resolver.roleOf(10L, 2L));
+        resolver.invalidate(10L);
+
+        assertEquals("ADMIN", resolver.roleOf(10L, 2L));
+        verify(repo, times(2)).findUserRolesByCompanyId(10L);
+    }
+}
@@ -0,0 +1,48 @@
+package com.expenseapp.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConcurrencyLimitedDataSourceTest {
+
+    @Test
+    void exhaustedLimit_timesOut_andCloseReleasesOnce() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection c1 = mock(Connection.class);
+        Connection c2 = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(c1, c2);
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(pool, 1, 20);
+
+        Connection first = limited.getConnection();
+        assertEquals(1, limited.inUse());
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        verify(pool, times(1)).getConnection();
+
+        first.close();
+        first.close();
+        verify(c1, times(2)).close();
+        assertEquals(0, limited.inUse());
+
+        Connection second = limited.getConnection();
+        assertEquals(1, limited.inUse());
+        second.close();
+        assertEquals(0, limited.inUse());
+    }
+
+    @Test
+    void failedBorrow_returnsThePermit() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLException("pool down"));
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(pool, 1, 20);
+
+        assertThrows(SQLException.class, limited::getConnection);
+        assertEquals(0, limited.inUse());
+    }
+}
@@ -0,0 +1,29 @@
+package com.expenseapp.dashboard;
+
+import com.expenseapp.approval.ApprovalRepository;
+import com.expenseapp.expense.ExpenseRepository;
+import com.expenseapp.expense.SpendAggregator;
+import com.expenseapp.expense.SplitShareRepository;
+import com.expenseapp.fx.FXService;
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DashboardServiceTest {
+
+    @Test
+    void getSummary_rejectsRangeEndingBeforeItStarts() {
+        UserRepository users = mock(UserRepository.class);
+        SpendAggregator aggregator = mock(SpendAggregator.class);
+        DashboardService svc = new DashboardService(mock(ExpenseRepository.class), mock(SplitShareRepository.class),
+                mock(ApprovalRepository.class), users, mock(FXService.class), aggregator);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> svc.getSummary("u@example.com", LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 1), true, null));
+        verifyNoInteractions(users, aggregator);
+    }
+}
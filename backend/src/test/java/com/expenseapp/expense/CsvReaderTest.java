@@ -0,0 +1,64 @@
+package com.expenseapp.expense;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsWithSeparatorsEscapesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "date,amount,notes\r\n2025-09-01,\"1,250.00\",\"said \"\"hi\"\"\"\n2025-09-02,10,\"two\nlines\"\n"), 1024);
+
+        assertEquals(List.of("date", "amount", "notes"), reader.next());
+        assertEquals(List.of("2025-09-01", "1,250.00", "said \"hi\""), reader.next());
+        assertEquals(List.of("2025-09-02", "10", "two\nlines"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsEmptyFieldsAndLastLineWithoutNewline() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,,c\n\n,x,"), 1024);
+
+        assertEquals(List.of("a", "", "c"), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertEquals(List.of("", "x", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsUnterminatedQuoteAndOversizedRecords() throws IOException {
+        CsvReader unterminated = new CsvReader(new StringReader("a,\"open\n"), 1024);
+        assertThrows(IOException.class, unterminated::next);
+
+        CsvReader oversized = new CsvReader(new StringReader("x".repeat(100) + "\nok\n"), 50);
+        assertThrows(IOException.class, oversized::next);
+
+        // Line numbers in errors count the line breaks inside quoted fields
+        CsvReader afterQuotedBreaks = new CsvReader(new StringReader("a,\"one\ntwo\"\n" + "x".repeat(100) + "\n"), 50);
+        assertEquals(List.of("a", "one\ntwo"), afterQuotedBreaks.next());
+        IOException ex = assertThrows(IOException.class, afterQuotedBreaks::next);
+        assertTrue(ex.getMessage().contains("near line 3"), ex.getMessage());
+    }
+
+    @Test
+    void readsRecordsSpanningBufferRefills() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            csv.append(i).append(",\"merchant ").append(i).append("\",").append(i % 7).append('\n');
+        }
+        CsvReader reader = new CsvReader(new StringReader(csv.toString()), 1024);
+        int rows = 0;
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            assertEquals(List.of(String.valueOf(rows), "merchant " + rows, String.valueOf(rows % 7)), fields);
+            rows++;
+        }
+        assertEquals(20_000, rows);
+    }
+}
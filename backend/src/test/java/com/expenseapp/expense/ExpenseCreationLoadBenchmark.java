@@ -0,0 +1,162 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.config.ConcurrencyLimitedDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load harness for concurrent expense creation when the FX rate is missing, comparing request handling on
+ * Tomcat's default 200 platform threads with one virtual thread per request. Each simulated request does
+ * what {@code ExpenseService.create} does on an FX miss: a blocking provider call ({@code fxMissMs}, taken by
+ * {@code fxMissRatio} of the requests) followed by the insert transaction holding one connection for
+ * {@code dbMs}. Connections come from a five-connection pool (prod's {@code maximum-pool-size}) behind
+ * {@link ConcurrencyLimitedDataSource}, as with {@code app.datasource.limiter.enabled}. One operation is a
+ * burst of {@code requests} concurrent creations; the score is the time to drain it. Not a unit test; run
+ * manually:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.expenseapp.expense.ExpenseCreationLoadBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExpenseCreationLoadBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseCreationLoadBenchmark.class);
+
+    private static final int POOL_SIZE = 5;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"200"})
+    public int fxMissMs;
+
+    @Param({"0.5"})
+    public double fxMissRatio;
+
+    @Param({"2"})
+    public int dbMs;
+
+    private ExecutorService executor;
+    private DataSource dataSource;
+    private AtomicInteger failures;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        dataSource = new ConcurrencyLimitedDataSource(new SimulatedPool(POOL_SIZE), POOL_SIZE, 30_000);
+        failures = new AtomicInteger();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        if (failures.get() > 0) {
+            log.warn("[Expenses] {} threads: {} request(s) failed to get a connection", threads, failures.get());
+        }
+    }
+
+    @Benchmark
+    public int createBurst() throws Exception {
+        List<Future<?>> pending = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            pending.add(executor.submit(this::createExpense));
+        }
+        for (Future<?> f : pending) {
+            f.get();
+        }
+        return pending.size();
+    }
+
+    private void createExpense() {
+        try {
+            if (ThreadLocalRandom.current().nextDouble() < fxMissRatio) {
+                Thread.sleep(fxMissMs);
+            }
+            try (Connection con = dataSource.getConnection()) {
+                con.setAutoCommit(false);
+                Thread.sleep(dbMs);
+                con.commit();
+            }
+        } catch (SQLException e) {
+            failures.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Stand-in for Hikari: at most {@code size} connections out, borrowers block until one is returned. */
+    static final class SimulatedPool extends AbstractDataSource {
+        private final Semaphore available;
+
+        SimulatedPool(int size) {
+            this.available = new Semaphore(size);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                available.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted", e);
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName())) available.release();
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExpenseCreationLoadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
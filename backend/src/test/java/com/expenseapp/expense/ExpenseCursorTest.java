@@ -0,0 +1,81 @@
+package com.expenseapp.expense;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpenseCursorTest {
+
+    @Test
+    void encodeDecode_roundTrips() {
+        ExpenseCursor cursor = new ExpenseCursor(LocalDate.of(2025, 9, 30), 123_456_789_012L);
+
+        String token = cursor.encode();
+        ExpenseCursor decoded = ExpenseCursor.decode(token);
+
+        assertEquals(LocalDate.of(2025, 9, 30), decoded.getOccurredOn());
+        assertEquals(123_456_789_012L, decoded.getId());
+        assertEquals(token, decoded.encode());
+        // URL-safe and unpadded, so it can be passed as a query parameter as-is
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void after_pointsAtTheLastRowOfThePage() {
+        Expense e = new Expense();
+        e.setOccurredOn(LocalDate.of(2025, 3, 1));
+        ReflectionTestUtils.setField(e, "id", 77L);
+
+        ExpenseCursor decoded = ExpenseCursor.decode(ExpenseCursor.after(e).encode());
+
+        assertEquals(LocalDate.of(2025, 3, 1), decoded.getOccurredOn());
+        assertEquals(77L, decoded.getId());
+    }
+
+    @Test
+    void start_isJustPastTheWindow() {
+        ExpenseCursor start = ExpenseCursor.start(LocalDate.of(2025, 12, 31));
+
+        assertEquals(LocalDate.of(2026, 1, 1), start.getOccurredOn());
+        assertEquals(Long.MAX_VALUE, start.getId());
+    }
+
+    @Test
+    void decode_rejectsMalformedTokens() {
+        assertInvalid("");
+        assertInvalid("not base64!");
+        assertInvalid(token("2025-09-30"));
+        assertInvalid(token("2025-09-30:"));
+        assertInvalid(token(":12"));
+        assertInvalid(token("30/09/2025:12"));
+        assertInvalid(token("2025-09-30:12x"));
+        assertInvalid(token("2025-09-30:99999999999999999999"));
+    }
+
+    @Test
+    void decode_rejectsTamperedTokens() {
+        String valid = new ExpenseCursor(LocalDate.of(2025, 9, 30), 12L).encode();
+
+        // A character outside the URL-safe alphabet, a truncated token and an edited impossible date
+        assertInvalid(valid.substring(0, valid.length() - 1) + "*");
+        assertInvalid(valid.substring(0, 5));
+        assertInvalid(token("2025-02-30:12"));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String token) {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> ExpenseCursor.decode(token), token);
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertEquals("Invalid cursor", ex.getReason());
+    }
+}
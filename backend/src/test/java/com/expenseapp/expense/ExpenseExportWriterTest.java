@@ -0,0 +1,87 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.expense.dto.ExpensePageView;
+import com.expenseapp.expense.dto.ExpenseView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExpenseExportWriterTest {
+
+    private static final String EMAIL = "u@example.com";
+    private static final LocalDate FROM = LocalDate.of(2025, 7, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 9, 30);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void write_streamsEveryPageAsOneJsonArray() throws Exception {
+        ExpenseService expenses = mock(ExpenseService.class);
+        when(expenses.listPage(EMAIL, FROM, TO, 9L, null, ExpenseService.MAX_PAGE_SIZE))
+                .thenReturn(new ExpensePageView(List.of(view(3L, "Cafe"), view(2L, "Taxi")), "c1", true));
+        when(expenses.listPage(EMAIL, FROM, TO, 9L, "c1", ExpenseService.MAX_PAGE_SIZE))
+                .thenReturn(new ExpensePageView(List.of(view(1L, "Hotel")), null, false));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ExpenseExportWriter(expenses, mapper).write(EMAIL, FROM, TO, 9L, out);
+
+        JsonNode array = mapper.readTree(out.toByteArray());
+        assertTrue(array.isArray());
+        assertEquals(3, array.size());
+        assertEquals(List.of(3L, 2L, 1L), List.of(array.get(0).get("id").asLong(),
+                array.get(1).get("id").asLong(), array.get(2).get("id").asLong()));
+        assertEquals("Hotel", array.get(2).get("merchant").asText());
+        assertEquals("2025-09-01", array.get(0).get("occurredOn").asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"amount\":12.50,"));
+        verify(expenses, times(2)).listPage(eq(EMAIL), eq(FROM), eq(TO), eq(9L), any(), eq(ExpenseService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void write_escapesQuotesBackslashesAndControlCharacters() throws Exception {
+        String merchant = "Joe's \"Diner\" \\ Bar\n</script>\t\u0001 café";
+        ExpenseService expenses = mock(ExpenseService.class);
+        when(expenses.listPage(EMAIL, FROM, TO, null, null, ExpenseService.MAX_PAGE_SIZE))
+                .thenReturn(new ExpensePageView(List.of(view(1L, merchant)), null, false));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ExpenseExportWriter(expenses, mapper).write(EMAIL, FROM, TO, null, out);
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"merchant\":\"Joe's \\\"Diner\\\" \\\\ Bar\\n</script>\\t\\u0001 café\""), json);
+        assertFalse(json.contains("\n"), json);
+        // The escaped document still parses back to the original text
+        assertEquals(merchant, mapper.readTree(json).get(0).get("merchant").asText());
+    }
+
+    @Test
+    void write_emptyLedger_writesAnEmptyArray() throws Exception {
+        ExpenseService expenses = mock(ExpenseService.class);
+        when(expenses.listPage(EMAIL, FROM, TO, null, null, ExpenseService.MAX_PAGE_SIZE))
+                .thenReturn(new ExpensePageView(List.of(), null, false));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ExpenseExportWriter(expenses, mapper).write(EMAIL, FROM, TO, null, out);
+
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+        verify(expenses, times(1)).listPage(any(), any(), any(), any(), any(), any());
+    }
+
+    private static ExpenseView view(Long id, String merchant) {
+        return new ExpenseView(id, new BigDecimal("12.50"), "INR", new BigDecimal("12.50"), "INR",
+                LocalDate.of(2025, 9, 1), null, 3L, "Food", null, null, merchant, false, null, false,
+                null, null, null, null);
+    }
+}
@@ -0,0 +1,370 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.company.CompanyRepository;
+import com.expenseapp.company.CompanyRoleResolver;
+import com.expenseapp.expense.dto.ExpenseImportView;
+import com.expenseapp.fx.FXRateTable;
+import com.expenseapp.fx.FXService;
+import com.expenseapp.user.Role;
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExpenseImportServiceTest {
+
+    private static final String EMAIL = "me@example.com";
+
+    private JdbcTemplate jdbc;
+    private UserRepository users;
+    private CategoryRepository categories;
+    private CompanyRoleResolver roles;
+    private FXService fx;
+    private ExpenseRollupService rollups;
+    private PendingFxRates pendingFxRates;
+    private User me;
+
+    private final List<Object[]> inserted = new ArrayList<>();
+    private final List<Object[]> rowErrors = new ArrayList<>();
+    private final List<Object[]> checkpoints = new ArrayList<>();
+    private final List<ExpenseRollupService.Entry> credits = new ArrayList<>();
+    private final Map<String, LocalDate[]> backfilled = new HashMap<>();
+    private final List<Object> leaseOwners = new ArrayList<>();
+    /** Checkpoints that still find the lease; later ones match no row, as after a takeover. */
+    private int leaseHeldFor = Integer.MAX_VALUE;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        users = mock(UserRepository.class);
+        categories = mock(CategoryRepository.class);
+        roles = mock(CompanyRoleResolver.class);
+        fx = mock(FXService.class);
+        rollups = mock(ExpenseRollupService.class);
+        pendingFxRates = mock(PendingFxRates.class);
+
+        me = user(1L, EMAIL, Role.EMPLOYEE);
+        when(users.findByEmail(EMAIL)).thenReturn(Optional.of(me));
+        when(fx.getBaseCurrency()).thenReturn("INR");
+        when(categories.findByCompanyIdIsNull()).thenReturn(List.of(category(3L, "Travel", null)));
+        when(categories.findByCompanyIdIsNullOrCompanyId(9L))
+                .thenReturn(List.of(category(3L, "Travel", null), category(4L, "travel", 9L)));
+
+        when(jdbc.queryForObject(startsWith("INSERT INTO expense_imports"), eq(Long.class), any(Object[].class)))
+                .thenReturn(42L);
+        doAnswer(inv -> {
+            for (Object[] row : inv.<List<Object[]>>getArgument(1)) inserted.add(row.clone());
+            return new int[0];
+        }).when(jdbc).batchUpdate(startsWith("INSERT INTO expenses"), anyList(), any(int[].class));
+        doAnswer(inv -> {
+            for (Object[] row : inv.<List<Object[]>>getArgument(1)) rowErrors.add(row.clone());
+            return new int[0];
+        }).when(jdbc).batchUpdate(startsWith("INSERT INTO expense_import_errors"), anyList());
+        when(jdbc.update(contains("SET checkpoint_row"), any(Object[].class))).thenAnswer(inv -> {
+            leaseOwners.add(inv.getArgument(5));
+            if (checkpoints.size() >= leaseHeldFor) return 0;
+            checkpoints.add(new Object[]{inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)});
+            return 1;
+        });
+        when(jdbc.update(startsWith("UPDATE expense_imports SET status = 'COMPLETED'"), any(Object[].class))).thenReturn(1);
+        doAnswer(inv -> {
+            credits.addAll(inv.<Collection<ExpenseRollupService.Entry>>getArgument(0));
+            return null;
+        }).when(rollups).addAll(anyCollection());
+        doAnswer(inv -> {
+            backfilled.putAll(inv.<Map<String, LocalDate[]>>getArgument(0));
+            return null;
+        }).when(pendingFxRates).backfillAfterCommit(anyMap());
+        doReturn(List.of(new ExpenseImportView(42L, "COMPLETED", "bank.csv", null, 0, 0, 0, null, null, null, null)))
+                .when(jdbc).query(startsWith("SELECT id, user_id, company_id, file_name"), anyRowMapper(), eq(42L));
+    }
+
+    @Test
+    void columns_matchAliasesCaseInsensitivelyAndKeepTheFirstMatch() {
+        ExpenseImportService.Columns c = ExpenseImportService.Columns.of(
+                List.of("\uFEFFTransaction Date", "Debit", "Payee", "memo", "Amount", "user-email", "Category_ID"));
+
+        assertEquals(0, c.date);
+        assertEquals(1, c.amount);
+        assertEquals(2, c.merchant);
+        assertEquals(3, c.notes);
+        assertEquals(5, c.email);
+        assertEquals(6, c.category);
+        assertEquals(-1, c.currency);
+        assertEquals(-1, c.reimbursable);
+    }
+
+    @Test
+    void columns_rejectHeaderWithoutAmount() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> ExpenseImportService.Columns.of(List.of("date", "description")));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void importCsv_insertsValidRowsAndRecordsRowErrors() {
+        ExpenseImportService service = service(1000);
+
+        service.importCsv(EMAIL, null, "bank.csv", csv("""
+                date,amount,currency,category,merchant,reimbursable,email
+                2025-03-01,"1,234.50",,travel,Cafe,yes,
+                2025-03-32,10,,,,,
+                2025-03-02,0,,,,,
+                2025-03-03,10,US,,,,
+                2025-03-04,10,,Food,,,
+                2025-03-05,10,,,,,other@example.com
+                2025-03-06,7,inr,3,,,ME@example.com
+                2025-03-07,-25.00,,,Refund,,
+                """), null, null, null);
+
+        assertEquals(2, inserted.size());
+        Object[] first = inserted.get(0);
+        assertEquals(1L, first[0]);
+        assertNull(first[1]);
+        assertEquals(3L, first[2]);
+        assertEquals(new BigDecimal("1234.50"), first[3]);
+        assertEquals("INR", first[4]);
+        assertEquals(Date.valueOf("2025-03-01"), first[5]);
+        assertEquals("Cafe", first[8]);
+        assertEquals(true, first[9]);
+        assertEquals(false, first[10]);
+        assertEquals(3L, inserted.get(1)[2]);
+        assertEquals("INR", inserted.get(1)[4]);
+
+        assertEquals(List.of(2, 3, 4, 5, 6, 8), rowErrors.stream().map(e -> (Integer) e[1]).toList());
+        assertEquals("Invalid date '2025-03-32'", rowErrors.get(0)[2]);
+        assertEquals("Amount must not be zero", rowErrors.get(1)[2]);
+        assertEquals("Invalid currency 'US'", rowErrors.get(2)[2]);
+        assertEquals("Unknown category 'Food'", rowErrors.get(3)[2]);
+        assertEquals("Not allowed to import expenses for other@example.com", rowErrors.get(4)[2]);
+        assertEquals("Negative amount '-25.00' (credit or refund) is not imported", rowErrors.get(5)[2]);
+
+        assertEquals(1, checkpoints.size());
+        assertArrayEquals(new Object[]{8, 2, 6}, checkpoints.get(0));
+        verify(jdbc).update(startsWith("UPDATE expense_imports SET status = 'COMPLETED'"), eq(42L), any(UUID.class));
+    }
+
+    @Test
+    void importCsv_companyAdminImportsForMembersOnly() {
+        when(roles.roleOf(9L, 1L)).thenReturn("ADMIN");
+        when(roles.rolesOf(9L)).thenReturn(Map.of(1L, "ADMIN", 2L, "MEMBER"));
+        emailsResolveTo(Map.of("member@example.com", 2L, "outsider@example.com", 5L));
+
+        service(1000).importCsv(EMAIL, 9L, "team.csv", csv("""
+                date,amount,category,email
+                2025-03-01,10,Travel,Member@example.com
+                2025-03-02,11,,outsider@example.com
+                2025-03-03,12,,nobody@example.com
+                2025-03-04,13,,
+                """), null, null, null);
+
+        assertEquals(List.of(2L, 1L), inserted.stream().map(r -> r[0]).toList());
+        assertEquals(9L, inserted.get(0)[1]);
+        // The company's own "travel" category wins over the global one
+        assertEquals(4L, inserted.get(0)[2]);
+        assertEquals(List.of(2, 3), rowErrors.stream().map(e -> (Integer) e[1]).toList());
+        assertEquals("No company member with email outsider@example.com", rowErrors.get(0)[2]);
+        assertEquals("No company member with email nobody@example.com", rowErrors.get(1)[2]);
+        assertArrayEquals(new Object[]{4, 2, 2}, checkpoints.get(0));
+    }
+
+    @Test
+    void importCsv_memberMayNotImportForOthers() {
+        when(roles.roleOf(9L, 1L)).thenReturn("MEMBER");
+        when(roles.rolesOf(9L)).thenReturn(Map.of(1L, "MEMBER", 2L, "MEMBER"));
+
+        service(1000).importCsv(EMAIL, 9L, "team.csv", csv("""
+                date,amount,email
+                2025-03-01,10,member@example.com
+                """), null, null, null);
+
+        assertTrue(inserted.isEmpty());
+        assertEquals("Not allowed to import expenses for member@example.com", rowErrors.get(0)[2]);
+        verify(jdbc, never()).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void importCsv_creditsRollupsAndCollectsPendingFxRanges() {
+        TreeMap<LocalDate, BigDecimal> usd = new TreeMap<>(Map.of(LocalDate.of(2025, 3, 10), new BigDecimal("83")));
+        when(fx.rateTable(anyCollection(), any(), any())).thenReturn(new FXRateTable("INR", Map.of("USD", usd)));
+
+        service(2).importCsv(EMAIL, null, "fx.csv", csv("""
+                date,amount,currency,category
+                2025-03-12,10,USD,Travel
+                2025-03-05,11,USD,
+                2025-03-08,12,EUR,
+                2025-03-01,13,USD,
+                2025-03-09,14,INR,
+                """), null, null, null);
+
+        assertEquals(List.of(false, true, true, true, false), inserted.stream().map(r -> r[10]).toList());
+        assertEquals(5, credits.size());
+        assertTrue(credits.get(0).sameBucket(new ExpenseRollupService.Entry(
+                1L, LocalDate.of(2025, 3, 12), 3L, 0L, 0L, "USD", new BigDecimal("10.00"))));
+        assertTrue(credits.get(1).sameBucket(new ExpenseRollupService.Entry(
+                1L, LocalDate.of(2025, 3, 5), 0L, 0L, 0L, "USD", new BigDecimal("11.00"))));
+
+        assertEquals(2, backfilled.size());
+        assertArrayEquals(new LocalDate[]{LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 5)}, backfilled.get("USD"));
+        assertArrayEquals(new LocalDate[]{LocalDate.of(2025, 3, 8), LocalDate.of(2025, 3, 8)}, backfilled.get("EUR"));
+        // One transaction per chunk of two rows, each moving the checkpoint to its last row
+        assertEquals(List.of(2, 4, 5), checkpoints.stream().map(c -> (Integer) c[0]).toList());
+    }
+
+    @Test
+    void importCsv_resumeSkipsRowsUpToTheClaimedCheckpoint() {
+        resumable("RUNNING", 2);
+
+        service(1000).importCsv(EMAIL, null, "bank.csv", csv("""
+                date,amount
+                2025-03-01,10
+                2025-03-02,11
+                2025-03-03,12
+                """), 42L, null, null);
+
+        verify(jdbc, never()).queryForObject(startsWith("INSERT INTO expense_imports"), eq(Long.class), any(Object[].class));
+        assertEquals(1, inserted.size());
+        assertEquals(Date.valueOf("2025-03-03"), inserted.get(0)[5]);
+        assertArrayEquals(new Object[]{3, 1, 0}, checkpoints.get(0));
+        // Checkpoints are fenced by the token the claim stored
+        ArgumentCaptor<UUID> owner = ArgumentCaptor.forClass(UUID.class);
+        verify(jdbc).query(contains("make_interval(secs => ?)"), anyRowMapper(), owner.capture(), eq(42L), eq(300L));
+        assertEquals(List.of(owner.getValue()), leaseOwners);
+        verify(jdbc).update(startsWith("UPDATE expense_imports SET status = 'COMPLETED'"), eq(42L), eq(owner.getValue()));
+    }
+
+    @Test
+    void importCsv_stopsWithoutWritingOnceTheLeaseWasTakenOver() {
+        leaseHeldFor = 1;
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service(2).importCsv(
+                EMAIL, null, "bank.csv", csv("""
+                        date,amount
+                        2025-03-01,10
+                        2025-03-02,11
+                        2025-03-03,12
+                        2025-03-04,13
+                        """), null, null, null));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        // Only the chunk committed while the lease was held; the second never reached its inserts
+        assertEquals(2, inserted.size());
+        assertEquals(1, checkpoints.size());
+        assertEquals(2, leaseOwners.size());
+        assertEquals(leaseOwners.get(0), leaseOwners.get(1));
+        verify(jdbc, never()).update(startsWith("UPDATE expense_imports SET status = 'COMPLETED'"), any(Object[].class));
+        verify(jdbc, never()).update(startsWith("UPDATE expense_imports SET status = 'FAILED'"), any(Object[].class));
+    }
+
+    @Test
+    void importCsv_resumeRejectsARunningImportStillWithinItsLease() {
+        resumable("RUNNING", null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service(1000).importCsv(
+                EMAIL, null, "bank.csv", csv("date,amount\n2025-03-01,10\n"), 42L, null, null));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        verify(jdbc).query(contains("make_interval(secs => ?)"), anyRowMapper(), any(UUID.class), eq(42L), eq(300L));
+        assertTrue(inserted.isEmpty());
+        assertTrue(checkpoints.isEmpty());
+    }
+
+    @Test
+    void importCsv_resumeRejectsCompletedOrDifferentImports() {
+        resumable("COMPLETED", 2);
+        ResponseStatusException completed = assertThrows(ResponseStatusException.class, () -> service(1000).importCsv(
+                EMAIL, null, "bank.csv", csv("date,amount\n2025-03-01,10\n"), 42L, null, null));
+        assertEquals(HttpStatus.CONFLICT, completed.getStatusCode());
+
+        resumable("FAILED", 2);
+        ResponseStatusException otherFile = assertThrows(ResponseStatusException.class, () -> service(1000).importCsv(
+                EMAIL, null, "bank.csv", csv("date,amount,notes\n2025-03-01,10,x\n"), 42L, null, null));
+        assertEquals(HttpStatus.BAD_REQUEST, otherFile.getStatusCode());
+
+        ResponseStatusException otherCompany = assertThrows(ResponseStatusException.class, () -> {
+            when(roles.roleOf(9L, 1L)).thenReturn("MEMBER");
+            service(1000).importCsv(EMAIL, 9L, "bank.csv", csv("date,amount\n2025-03-01,10\n"), 42L, null, null);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, otherCompany.getStatusCode());
+        verify(jdbc, never()).query(contains("make_interval(secs => ?)"), anyRowMapper(), any(Object[].class));
+    }
+
+    private ExpenseImportService service(int chunkSize) {
+        return new ExpenseImportService(jdbc, mock(PlatformTransactionManager.class), users, categories, roles,
+                mock(CompanyRepository.class), fx, rollups, pendingFxRates, chunkSize, 65536, 300);
+    }
+
+    /** Stored import 42 of the caller for file {@code date,amount}; {@code checkpoint} null when the lease is held. */
+    private void resumable(String status, Integer checkpoint) {
+        doReturn(List.<Object[]>of(new Object[]{1L, null, "date,amount", status}))
+                .when(jdbc).query(startsWith("SELECT user_id, company_id, header, status"), anyRowMapper(), eq(42L));
+        doReturn(checkpoint != null ? List.of(checkpoint) : List.of())
+                .when(jdbc).query(contains("make_interval(secs => ?)"), anyRowMapper(), any(UUID.class), eq(42L), eq(300L));
+    }
+
+    private void emailsResolveTo(Map<String, Long> ids) {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (Map.Entry<String, Long> e : ids.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(e.getKey());
+                when(rs.getLong(2)).thenReturn(e.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static RowMapper<Object> anyRowMapper() {
+        return any();
+    }
+
+    private static InputStream csv(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static User user(Long id, String email, Role role) {
+        User u = new User();
+        ReflectionTestUtils.setField(u, "id", id);
+        u.setEmail(email);
+        u.setRole(role);
+        return u;
+    }
+
+    private static Category category(Long id, String name, Long companyId) {
+        Category c = new Category();
+        ReflectionTestUtils.setField(c, "id", id);
+        c.setName(name);
+        c.setCompanyId(companyId);
+        return c;
+    }
+}
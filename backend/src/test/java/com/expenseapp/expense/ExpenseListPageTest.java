@@ -0,0 +1,204 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.acl.ACLEntryService;
+import com.expenseapp.audit.AccessLogService;
+import com.expenseapp.bill.BillRepository;
+import com.expenseapp.company.CompanyRepository;
+import com.expenseapp.company.CompanyRoleResolver;
+import com.expenseapp.expense.dto.ExpensePageView;
+import com.expenseapp.expense.dto.ExpenseView;
+import com.expenseapp.fx.FXRateTable;
+import com.expenseapp.fx.FXService;
+import com.expenseapp.group.GroupChatHub;
+import com.expenseapp.group.GroupMemberRepository;
+import com.expenseapp.group.GroupRepository;
+import com.expenseapp.notification.UnreadCounterService;
+import com.expenseapp.receipt.ReceiptRepository;
+import com.expenseapp.receipt.ReceiptVariantService;
+import com.expenseapp.search.SearchCursor;
+import com.expenseapp.storage.FileStorageService;
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExpenseListPageTest {
+
+    private static final String EMAIL = "u@example.com";
+    private static final LocalDate TO = LocalDate.of(2025, 9, 30);
+    private static final LocalDate FROM = TO.minusDays(90);
+
+    private ExpenseRepository expenseRepository;
+    private ExpenseSearch search;
+    private ExpenseService service;
+    private User user;
+    /** The personal ledger in list order (occurredOn DESC, id DESC). */
+    private final List<Expense> ledger = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        expenseRepository = mock(ExpenseRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        FXService fxService = mock(FXService.class);
+        search = mock(ExpenseSearch.class);
+        service = newService(expenseRepository, userRepository, fxService, search);
+
+        user = new User();
+        ReflectionTestUtils.setField(user, "id", 1L);
+        user.setEmail(EMAIL);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(fxService.getBaseCurrency()).thenReturn("INR");
+        when(fxService.rateTable(anyCollection(), any(), any())).thenReturn(new FXRateTable("INR", Map.of()));
+
+        // Behaves like the keyset query: rows strictly after the cursor, limited to the requested window
+        when(expenseRepository.findPersonalPage(eq(user), eq(FROM), eq(TO), any(), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    LocalDate afterDate = inv.getArgument(3);
+                    long afterId = inv.getArgument(4);
+                    Pageable window = inv.getArgument(5);
+                    return ledger.stream()
+                            .filter(e -> e.getOccurredOn().isBefore(afterDate)
+                                    || (e.getOccurredOn().equals(afterDate) && e.getId() < afterId))
+                            .limit(window.getPageSize())
+                            .toList();
+                });
+    }
+
+    @Test
+    void listPage_exactPageBoundary_hasMoreUntilTheLastFullPage() {
+        // Two rows share a date so the second page has to continue by id within it
+        ledger(10, TO, TO, TO.minusDays(1), TO.minusDays(2));
+
+        ExpensePageView first = service.listPage(EMAIL, FROM, TO, null, null, 2);
+        assertEquals(List.of(10L, 9L), ids(first));
+        assertTrue(first.isHasMore());
+        assertNotNull(first.getNextCursor());
+
+        ExpensePageView second = service.listPage(EMAIL, FROM, TO, null, first.getNextCursor(), 2);
+        assertEquals(List.of(8L, 7L), ids(second));
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+
+        // One extra row is fetched to detect the next page instead of counting
+        verify(expenseRepository).findPersonalPage(eq(user), eq(FROM), eq(TO), eq(TO.plusDays(1)), eq(Long.MAX_VALUE),
+                argThat(p -> p.getPageSize() == 3));
+        verify(expenseRepository).findPersonalPage(eq(user), eq(FROM), eq(TO), eq(TO), eq(9L),
+                argThat(p -> p.getPageSize() == 3));
+    }
+
+    @Test
+    void listPage_shortLastPage_hasNoCursor() {
+        ledger(5, TO, TO.minusDays(3), TO.minusDays(4));
+
+        ExpensePageView first = service.listPage(EMAIL, FROM, TO, null, null, 2);
+        assertEquals(List.of(5L, 4L), ids(first));
+        assertTrue(first.isHasMore());
+
+        ExpensePageView last = service.listPage(EMAIL, FROM, TO, null, first.getNextCursor(), 2);
+        assertEquals(List.of(3L), ids(last));
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void listPage_emptyLedger_returnsAnEmptyLastPage() {
+        ExpensePageView page = service.listPage(EMAIL, FROM, TO, null, null, 2);
+
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void listPage_clampsTheLimitAndRejectsABadCursor() {
+        service.listPage(EMAIL, FROM, TO, null, null, 10_000);
+        verify(expenseRepository).findPersonalPage(eq(user), eq(FROM), eq(TO), any(), anyLong(),
+                argThat(p -> p.getPageSize() == ExpenseService.MAX_PAGE_SIZE + 1));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.listPage(EMAIL, FROM, TO, null, "%%%", 2));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void searchPage_pastTheDeepestCursor_reportsMoreMatchesAsTruncated() {
+        ledger(3, TO, TO, TO);
+        when(expenseRepository.findAllWithCategoryByIdIn(anyCollection())).thenReturn(ledger.subList(0, 2));
+        when(search.ids(any(), anyInt(), anyInt())).thenReturn(List.of(3L, 2L, 1L));
+        int lastReachable = SearchCursor.MAX_OFFSET - 1;
+
+        ExpensePageView deep = service.searchPage(EMAIL, null, null, null, null, null, null, null, null, null, null,
+                SearchCursor.encode(lastReachable), 2);
+        assertEquals(List.of(3L, 2L), ids(deep));
+        assertTrue(deep.isHasMore());
+        assertTrue(deep.isTruncated());
+        assertNull(deep.getNextCursor());
+
+        ExpensePageView shallow = service.searchPage(EMAIL, null, null, null, null, null, null, null, null, null, null,
+                null, 2);
+        assertTrue(shallow.isHasMore());
+        assertFalse(shallow.isTruncated());
+        assertEquals(2, SearchCursor.decode(shallow.getNextCursor()));
+    }
+
+    /** Append expenses with descending ids starting at {@code firstId}, one per date. */
+    private void ledger(long firstId, LocalDate... dates) {
+        long id = firstId;
+        for (LocalDate date : dates) {
+            Expense e = new Expense();
+            ReflectionTestUtils.setField(e, "id", id--);
+            e.setUser(user);
+            e.setAmount(new BigDecimal("10.00"));
+            e.setCurrency("INR");
+            e.setOccurredOn(date);
+            ledger.add(e);
+        }
+    }
+
+    private static List<Long> ids(ExpensePageView page) {
+        return page.getItems().stream().map(ExpenseView::getId).toList();
+    }
+
+    private static ExpenseService newService(ExpenseRepository expenseRepository, UserRepository userRepository,
+                                             FXService fxService, ExpenseSearch search) {
+        return new ExpenseService(
+                expenseRepository,
+                mock(CategoryRepository.class),
+                userRepository,
+                mock(ReceiptRepository.class),
+                mock(FileStorageService.class),
+                mock(GroupRepository.class),
+                fxService,
+                mock(ACLEntryService.class),
+                mock(AccessLogService.class),
+                mock(SplitShareRepository.class),
+                mock(GroupMemberRepository.class),
+                mock(JdbcTemplate.class),
+                mock(BillRepository.class),
+                mock(CompanyRoleResolver.class),
+                mock(CompanyRepository.class),
+                mock(ExpenseRollupService.class),
+                mock(GroupChatHub.class),
+                mock(UnreadCounterService.class),
+                mock(PendingFxRates.class),
+                mock(ReceiptVariantService.class),
+                search
+        );
+    }
+}
@@ -0,0 +1,242 @@
+package com.expenseapp.expense;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Query-plan regression check for the hot expense queries. Runs only when {@code plancheck.jdbc.url} points at a
+ * scratch PostgreSQL database (any local server; the plan-check Maven profile sets it):
+ *
+ * <pre>
+ * mvn -Pplan-check test -Dtest=ExpenseQueryPlanTest -Dplancheck.jdbc.url=jdbc:postgresql://localhost:5432/expense_plancheck
+ * </pre>
+ *
+ * The database is migrated with Flyway, seeded once with synthetic "plan-" rows and analyzed. Each registered
+ * query is then EXPLAINed and the test fails if its plan sequentially scans {@code expenses} or
+ * {@code split_shares}. Register new hot queries in {@link #queries()} in their native-SQL shape.
+ */
+public class ExpenseQueryPlanTest {
+
+    private static final Set<String> INDEXED_TABLES = Set.of("expenses", "split_shares");
+    private static final int EXPENSES = 200_000;
+
+    private static JdbcTemplate jdbc;
+    private static long userId, companyId, groupId;
+    private static List<Long> pageExpenseIds;
+
+    @BeforeAll
+    static void setUp() {
+        String url = System.getProperty("plancheck.jdbc.url");
+        assumeTrue(url != null && !url.isBlank(), "plancheck.jdbc.url not set; skipping query-plan check");
+        String user = System.getProperty("plancheck.jdbc.user", "postgres");
+        String password = System.getProperty("plancheck.jdbc.password", "postgres");
+
+        Flyway.configure().dataSource(url, user, password).locations("classpath:db/migration")
+                .validateOnMigrate(false).load().migrate();
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+        seed();
+
+        userId = jdbc.queryForObject("SELECT id FROM users WHERE email = 'plan-user-7@plan.invalid'", Long.class);
+        companyId = jdbc.queryForObject("SELECT company_id FROM company_members WHERE user_id = ?", Long.class, userId);
+        groupId = jdbc.queryForObject("SELECT id FROM groups WHERE name = 'plan-group-7'", Long.class);
+        pageExpenseIds = jdbc.queryForList("SELECT id FROM expenses WHERE user_id = ? ORDER BY id LIMIT 50", Long.class, userId);
+    }
+
+    private static void seed() {
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM expenses e JOIN users u ON u.id = e.user_id "
+                + "WHERE u.email LIKE 'plan-user-%'", Long.class);
+        if (existing != null && existing >= EXPENSES) return;
+
+        jdbc.update("""
+                INSERT INTO users (name, email, password, role, created_at, enabled)
+                SELECT 'Plan User ' || g, 'plan-user-' || g || '@plan.invalid', 'x', 'USER', NOW(), TRUE
+                FROM generate_series(1, 2000) g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO companies (company_name, company_code, company_email, contact_number, address_line1,
+                                       city, state, postal_code, country, currency, time_zone, status)
+                SELECT 'Plan Company ' || g, 'plan-' || g, 'plan' || g || '@plan.invalid', '0000000000', 'Street',
+                       'City', 'State', '00000', 'Country', 'INR', 'UTC', 'ACTIVE'
+                FROM generate_series(1, 20) g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO company_members (company_id, user_id, role, status)
+                SELECT c.id, u.id, CASE WHEN u.id % 10 = 0 THEN 'MANAGER' ELSE 'EMPLOYEE' END, 'ACTIVE'
+                FROM users u
+                JOIN companies c ON c.company_code = 'plan-' || (1 + (u.id % 20))
+                WHERE u.email LIKE 'plan-user-%'
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO groups (name, type, owner_id)
+                SELECT 'plan-group-' || g, 'EVENT', (SELECT MIN(id) FROM users WHERE email LIKE 'plan-user-%') + g
+                FROM generate_series(1, 200) g
+                WHERE NOT EXISTS (SELECT 1 FROM groups WHERE name = 'plan-group-' || g)
+                """);
+        jdbc.update("""
+                WITH u AS (SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'plan-user-%'),
+                     grp AS (SELECT array_agg(id) AS ids FROM groups WHERE name LIKE 'plan-group-%')
+                INSERT INTO expenses (user_id, company_id, group_id, amount, currency, occurred_on,
+                                      is_reimbursable, reimbursement_status, reimbursement_requested_at, created_at)
+                SELECT uid,
+                       CASE WHEN g % 3 = 0 THEN NULL ELSE cm.company_id END,
+                       CASE WHEN g % 5 = 0 THEN grp.ids[1 + (g % array_length(grp.ids, 1))] END,
+                       1 + round((random() * 500)::numeric, 2), 'INR', DATE '2023-01-01' + (g % 730),
+                       g % 10 = 0, CASE WHEN g % 10 = 0 THEN 'PENDING' END,
+                       CASE WHEN g % 10 = 0 THEN NOW() - (g % 730) * INTERVAL '1 day' END,
+                       NOW() - (g % 730) * INTERVAL '1 day'
+                FROM generate_series(1, ?) g
+                CROSS JOIN u CROSS JOIN grp
+                CROSS JOIN LATERAL (SELECT u.ids[1 + (g % array_length(u.ids, 1))] AS uid) pick
+                JOIN company_members cm ON cm.user_id = pick.uid
+                """, EXPENSES);
+        jdbc.update("""
+                INSERT INTO split_shares (expense_id, user_id, share_amount, status)
+                SELECT e.id, gm.uid, round(e.amount / 2, 2), 'PENDING'
+                FROM expenses e
+                JOIN users u ON u.id = e.user_id AND u.email LIKE 'plan-user-%'
+                CROSS JOIN (SELECT MIN(id) AS lo, MAX(id) AS hi FROM users WHERE email LIKE 'plan-user-%') b
+                CROSS JOIN LATERAL (VALUES (e.user_id), (CASE WHEN e.user_id < b.hi THEN e.user_id + 1 ELSE b.lo END)) gm(uid)
+                WHERE e.group_id IS NOT NULL
+                """);
+        jdbc.execute("ANALYZE");
+    }
+
+    private static Map<String, Object[]> queries() {
+        LocalDate from = LocalDate.of(2023, 6, 1), to = LocalDate.of(2024, 5, 31);
+        LocalDate afterDate = to.plusDays(1);
+        Map<String, Object[]> q = new LinkedHashMap<>();
+        q.put("""
+                SELECT e.* FROM expenses e LEFT JOIN categories c ON c.id = e.category_id
+                WHERE e.user_id = ? AND e.company_id IS NULL AND e.occurred_on BETWEEN ? AND ?
+                  AND (e.occurred_on < ? OR (e.occurred_on = ? AND e.id < ?))
+                ORDER BY e.occurred_on DESC, e.id DESC LIMIT 51
+                """, new Object[]{userId, from, to, afterDate, afterDate, Long.MAX_VALUE});
+        q.put("""
+                SELECT e.* FROM expenses e LEFT JOIN categories c ON c.id = e.category_id
+                WHERE e.company_id = ? AND e.occurred_on BETWEEN ? AND ?
+                  AND (e.occurred_on < ? OR (e.occurred_on = ? AND e.id < ?))
+                ORDER BY e.occurred_on DESC, e.id DESC LIMIT 51
+                """, new Object[]{companyId, from, to, afterDate, afterDate, Long.MAX_VALUE});
+        q.put("""
+                SELECT e.* FROM expenses e LEFT JOIN categories c ON c.id = e.category_id
+                WHERE e.user_id = ? AND e.company_id = ? AND e.occurred_on BETWEEN ? AND ?
+                  AND (e.occurred_on < ? OR (e.occurred_on = ? AND e.id < ?))
+                ORDER BY e.occurred_on DESC, e.id DESC LIMIT 51
+                """, new Object[]{userId, companyId, from, to, afterDate, afterDate, Long.MAX_VALUE});
+        q.put("""
+                SELECT e.* FROM expenses e
+                WHERE e.company_id = ? AND e.occurred_on BETWEEN ? AND ?
+                  AND (e.user_id = ? OR e.user_id IN (
+                       SELECT cm.user_id FROM company_members cm WHERE cm.company_id = ? AND cm.role = 'EMPLOYEE'))
+                  AND (e.occurred_on < ? OR (e.occurred_on = ? AND e.id < ?))
+                ORDER BY e.occurred_on DESC, e.id DESC LIMIT 51
+                """, new Object[]{companyId, from, to, userId, companyId, afterDate, afterDate, Long.MAX_VALUE});
+        q.put("""
+                SELECT e.id, e.amount, e.currency, e.occurred_on, e.category_id, e.group_id
+                FROM expenses e WHERE e.user_id = ? AND e.occurred_on BETWEEN ? AND ?
+                """, new Object[]{userId, from, to});
+        q.put("""
+                SELECT e.id, e.amount, e.currency, e.occurred_on, e.category_id
+                FROM expenses e WHERE e.group_id = ? AND e.occurred_on BETWEEN ? AND ?
+                """, new Object[]{groupId, from, to});
+        q.put("""
+                SELECT e.user_id, COALESCE(SUM(CASE WHEN s.user_id <> e.user_id THEN s.share_amount ELSE 0 END), 0)
+                FROM expenses e JOIN split_shares s ON s.expense_id = e.id
+                WHERE e.group_id = ? GROUP BY e.user_id
+                """, new Object[]{groupId});
+        q.put("""
+                SELECT s.user_id, COALESCE(SUM(s.share_amount), 0)
+                FROM expenses e JOIN split_shares s ON s.expense_id = e.id
+                WHERE e.group_id = ? GROUP BY s.user_id
+                """, new Object[]{groupId});
+        q.put("""
+                SELECT s.user_id, COALESCE(SUM(s.share_amount), 0)
+                FROM expenses e JOIN split_shares s ON s.expense_id = e.id
+                WHERE e.user_id = ? AND s.user_id <> ? GROUP BY s.user_id
+                """, new Object[]{userId, userId});
+        q.put("""
+                SELECT e.user_id, COALESCE(SUM(s.share_amount), 0)
+                FROM expenses e JOIN split_shares s ON s.expense_id = e.id
+                WHERE s.user_id = ? AND e.user_id <> ? GROUP BY e.user_id
+                """, new Object[]{userId, userId});
+        q.put("""
+                SELECT e.* FROM expenses e
+                WHERE e.company_id = ? AND e.reimbursement_status = ?
+                ORDER BY e.reimbursement_requested_at DESC
+                """, new Object[]{companyId, "PENDING"});
+        q.put("""
+                SELECT e.* FROM expenses e
+                WHERE e.user_id = ? AND e.reimbursement_status = ?
+                ORDER BY e.reimbursement_requested_at DESC
+                """, new Object[]{userId, "PENDING"});
+        q.put("""
+                SELECT e.id FROM expenses e
+                WHERE (e.user_id = ?) AND (e.company_id IS NULL)
+                  AND (lower(e.merchant) LIKE ? OR lower(e.description) LIKE ? OR ? <% lower(e.merchant) OR ? <% lower(e.description))
+                ORDER BY COALESCE(GREATEST(word_similarity(?, lower(e.merchant)), word_similarity(?, lower(e.description))), 0) DESC,
+                         e.occurred_on DESC, e.id DESC LIMIT 51 OFFSET 0
+                """, new Object[]{userId, "%coffee%", "%coffee%", "coffee", "coffee", "coffee", "coffee"});
+        q.put("SELECT COUNT(*) FROM expenses e WHERE e.company_id = ?", new Object[]{companyId});
+        q.put("SELECT s.* FROM split_shares s WHERE s.expense_id = ?", new Object[]{pageExpenseIds.get(0)});
+        q.put("SELECT DISTINCT s.expense_id FROM split_shares s WHERE s.expense_id = ANY(?)",
+                new Object[]{pageExpenseIds.toArray(new Long[0])});
+        return q;
+    }
+
+    @TestFactory
+    Stream<DynamicTest> hotQueriesUseIndexes() {
+        return queries().entrySet().stream().map(e -> DynamicTest.dynamicTest(
+                e.getKey().strip().lines().findFirst().orElse("") + " ...",
+                () -> assertNoSeqScan(e.getKey(), e.getValue())));
+    }
+
+    private static void assertNoSeqScan(String sql, Object[] args) throws Exception {
+        Object[] bound = args.clone();
+        String json = jdbc.execute((org.springframework.jdbc.core.ConnectionCallback<String>) con -> {
+            try (var ps = con.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+                for (int i = 0; i < bound.length; i++) {
+                    Object v = bound[i];
+                    if (v instanceof Long[] ids) ps.setArray(i + 1, con.createArrayOf("bigint", ids));
+                    else if (v instanceof LocalDate d) ps.setObject(i + 1, d);
+                    else ps.setObject(i + 1, v);
+                }
+                try (var rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        List<String> seqScans = new ArrayList<>();
+        collectSeqScans(new ObjectMapper().readTree(json).get(0).get("Plan"), seqScans);
+        assertTrue(seqScans.isEmpty(), "Sequential scan on " + seqScans + " in plan:\n" + json + "\nfor:\n" + sql);
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> out) {
+        if (node == null) return;
+        String relation = node.path("Relation Name").asText("");
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && INDEXED_TABLES.contains(relation)) {
+            out.add(relation);
+        }
+        for (JsonNode child : node.path("Plans")) collectSeqScans(child, out);
+    }
+}
@@ -0,0 +1,61 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExpenseRollupServiceTest {
+
+    @Test
+    void move_unchangedBucketAndAmount_writesNothing() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        ExpenseRollupService svc = new ExpenseRollupService(jdbc);
+        Expense e = expense(new BigDecimal("12.50"), LocalDate.of(2025, 3, 1));
+
+        ExpenseRollupService.Entry before = svc.entryOf(e);
+        e.setMerchant("Cafe");
+        svc.move(before, e);
+
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void move_changedDay_debitsOldBucketAndCreditsNew() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        ExpenseRollupService svc = new ExpenseRollupService(jdbc);
+        Expense e = expense(new BigDecimal("12.50"), LocalDate.of(2025, 3, 1));
+
+        ExpenseRollupService.Entry before = svc.entryOf(e);
+        e.setOccurredOn(LocalDate.of(2025, 3, 2));
+        e.setAmount(new BigDecimal("20.00"));
+        svc.move(before, e);
+
+        verify(jdbc).update(contains("INSERT INTO expense_daily_rollups"),
+                eq(7L), eq(LocalDate.of(2025, 3, 1)), eq(0L), eq(0L), eq(0L), eq("USD"), eq(new BigDecimal("-12.50")), eq(-1));
+        verify(jdbc).update(contains("DELETE FROM expense_daily_rollups"),
+                eq(7L), eq(LocalDate.of(2025, 3, 1)), eq(0L), eq(0L), eq(0L), eq("USD"));
+        verify(jdbc).update(contains("INSERT INTO expense_daily_rollups"),
+                eq(7L), eq(LocalDate.of(2025, 3, 2)), eq(0L), eq(0L), eq(0L), eq("USD"), eq(new BigDecimal("20.00")), eq(1));
+    }
+
+    private static Expense expense(BigDecimal amount, LocalDate day) {
+        User user = new User();
+        try {
+            java.lang.reflect.Field f = User.class.getDeclaredField("id");
+            f.setAccessible(true);
+            f.set(user, 7L);
+        } catch (Exception ignored) {}
+        Expense e = new Expense();
+        e.setUser(user);
+        e.setAmount(amount);
+        e.setCurrency("USD");
+        e.setOccurredOn(day);
+        return e;
+    }
+}
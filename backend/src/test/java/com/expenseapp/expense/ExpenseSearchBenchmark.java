@@ -0,0 +1,152 @@
+package com.expenseapp.expense;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expense search against a real PostgreSQL ledger of {@code rows} expenses (default 1M) spread over 20 users, so
+ * each searched user owns ~50k rows. Point it at a scratch database Flyway has migrated through V71; seed rows
+ * belong to "search-bench-" users and are only inserted when missing.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.expenseapp.expense.ExpenseSearchBenchmark \
+ *     -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/expense_bench -Dbench.jdbc.user=postgres -Dbench.jdbc.password=postgres
+ * </pre>
+ *
+ * The {@code legacy*} benchmarks run the former catch-all query (every filter as {@code :x IS NULL OR ...}, no
+ * limit) in its native shape; the others go through {@link ExpenseSearch} for one 50-row page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ExpenseSearchBenchmark {
+
+    private static final String LEGACY_SQL = """
+            SELECT e.id FROM expenses e
+            WHERE e.user_id = ?
+              AND (CAST(? AS bigint) IS NULL AND e.company_id IS NULL OR e.company_id = ?)
+              AND (CAST(? AS varchar) IS NULL OR LOWER(e.merchant) LIKE LOWER(CONCAT('%', CAST(? AS varchar), '%')))
+              AND (CAST(? AS varchar) IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', CAST(? AS varchar), '%')))
+              AND (CAST(? AS numeric) IS NULL OR e.amount >= ?)
+              AND (CAST(? AS date) IS NULL OR e.occurred_on >= ?)
+            ORDER BY e.occurred_on DESC, e.id DESC
+            """;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private JdbcTemplate jdbc;
+    private ExpenseSearch search;
+    private long userId;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/expense_bench"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        jdbc = new JdbcTemplate(ds);
+        search = new ExpenseSearch(jdbc);
+        seed();
+        userId = jdbc.queryForObject("SELECT id FROM users WHERE email = 'search-bench-1@bench.invalid'", Long.class);
+    }
+
+    private void seed() {
+        Long existing = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM expenses e JOIN users u ON u.id = e.user_id WHERE u.email LIKE 'search-bench-%'", Long.class);
+        long missing = rows - (existing != null ? existing : 0L);
+        if (missing <= 0) return;
+
+        jdbc.update("""
+                INSERT INTO users (name, email, password, role, created_at, enabled)
+                SELECT 'Search Bench ' || g, 'search-bench-' || g || '@bench.invalid', 'x', 'USER', NOW(), TRUE
+                FROM generate_series(1, 20) g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                WITH u AS (SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'search-bench-%'),
+                     m AS (SELECT ARRAY['Starbucks Coffee', 'Uber Trip', 'Amazon Marketplace', 'Shell Petrol',
+                                        'Marriott Hotels', 'Indigo Airlines', 'Swiggy Food', 'Apple Store',
+                                        'Office Depot', 'Zomato Order'] AS names)
+                INSERT INTO expenses (user_id, amount, currency, occurred_on, merchant, description, created_at)
+                SELECT u.ids[1 + (g % array_length(u.ids, 1))],
+                       1 + round((random() * 500)::numeric, 2), 'INR', DATE '2022-01-01' + (g % 1095),
+                       m.names[1 + (g % 10)] || ' #' || (g % 997),
+                       'Invoice ' || md5(g::text) || ' for ' || lower(m.names[1 + ((g / 10) % 10)]),
+                       NOW()
+                FROM generate_series(1, ?) g, u, m
+                """, missing);
+        jdbc.execute("ANALYZE expenses");
+    }
+
+    private ExpenseSearch.Criteria criteria() {
+        ExpenseSearch.Criteria c = new ExpenseSearch.Criteria();
+        c.userId = userId;
+        return c;
+    }
+
+    @Benchmark
+    public List<Long> legacyMerchantContains() {
+        return jdbc.queryForList(LEGACY_SQL, Long.class,
+                userId, null, null, "petrol #42", "petrol #42", null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<Long> legacyDescriptionContains() {
+        return jdbc.queryForList(LEGACY_SQL, Long.class,
+                userId, null, null, null, null, "ab12", "ab12", null, null, null, null);
+    }
+
+    @Benchmark
+    public List<Long> searchMerchantContains() {
+        ExpenseSearch.Criteria c = criteria();
+        c.merchant = "petrol #42";
+        return search.ids(c, 0, 51);
+    }
+
+    @Benchmark
+    public List<Long> searchDescriptionContains() {
+        ExpenseSearch.Criteria c = criteria();
+        c.description = "ab12";
+        return search.ids(c, 0, 51);
+    }
+
+    // Misspelt free text: found by word similarity, ranked by closeness
+    @Benchmark
+    public List<Long> searchFuzzyText() {
+        ExpenseSearch.Criteria c = criteria();
+        c.text = "starbuks cofee";
+        return search.ids(c, 0, 51);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExpenseSearchBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbc.url=" + System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/expense_bench"),
+                        "-Dbench.jdbc.user=" + System.getProperty("bench.jdbc.user", "postgres"),
+                        "-Dbench.jdbc.password=" + System.getProperty("bench.jdbc.password", "postgres"))
+                .build()).run();
+    }
+}
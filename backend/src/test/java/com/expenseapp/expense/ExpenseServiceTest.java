@@ -43,6 +43,10 @@ class ExpenseServiceTest {
     private com.expenseapp.acl.ACLEntryService aclService;
     @Mock
     private AccessLogService accessLogService;
+    @Mock
+    private PendingFxRates pendingFxRates;
+    @Mock
+    private com.expenseapp.receipt.ReceiptVariantService receiptVariants;
 
     @InjectMocks
     private ExpenseService expenseService;
@@ -58,6 +62,8 @@ class ExpenseServiceTest {
         when(fxService.getBaseCurrency()).thenReturn("INR");
         when(fxService.convertToBase(any(), anyString(), any())).thenReturn(BigDecimal.ONE);
         when(fxService.ensureRate(any(LocalDate.class), anyString())).thenReturn(BigDecimal.ONE);
+        when(fxService.requestRate(any(LocalDate.class), anyString()))
+                .thenReturn(java.util.concurrent.CompletableFuture.completedFuture(BigDecimal.ONE));
     }
 
     @Test
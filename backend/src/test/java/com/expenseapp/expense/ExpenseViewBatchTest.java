@@ -0,0 +1,155 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.acl.ACLEntryService;
+import com.expenseapp.audit.AccessLogService;
+import com.expenseapp.bill.BillRepository;
+import com.expenseapp.company.CompanyRepository;
+import com.expenseapp.company.CompanyRoleResolver;
+import com.expenseapp.expense.dto.ExpenseView;
+import com.expenseapp.fx.FXRateTable;
+import com.expenseapp.fx.FXService;
+import com.expenseapp.group.GroupChatHub;
+import com.expenseapp.group.GroupMemberRepository;
+import com.expenseapp.group.GroupRepository;
+import com.expenseapp.notification.UnreadCounterService;
+import com.expenseapp.receipt.Receipt;
+import com.expenseapp.receipt.ReceiptRepository;
+import com.expenseapp.receipt.ReceiptVariantService;
+import com.expenseapp.storage.FileStorageService;
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExpenseViewBatchTest {
+
+    @Test
+    void list_assemblesViews_withBoundedQueryCount() {
+        ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        ReceiptRepository receiptRepository = mock(ReceiptRepository.class);
+        SplitShareRepository splitShareRepository = mock(SplitShareRepository.class);
+        FXService fxService = mock(FXService.class);
+        ExpenseService svc = newService(expenseRepository, userRepository, receiptRepository, splitShareRepository, fxService);
+
+        User user = new User();
+        setId(user, User.class, 1L);
+        user.setEmail("u@example.com");
+        when(userRepository.findByEmail("u@example.com")).thenReturn(Optional.of(user));
+
+        LocalDate to = LocalDate.of(2025, 9, 30);
+        List<Expense> expenses = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            Expense e = new Expense();
+            setId(e, Expense.class, i);
+            e.setUser(user);
+            e.setAmount(new BigDecimal("10.00"));
+            e.setCurrency(i % 2 == 0 ? "USD" : "INR");
+            e.setOccurredOn(to.minusDays(i % 90));
+            expenses.add(e);
+        }
+        when(expenseRepository.findPersonalByUserAndDate(eq(user), any(), any())).thenReturn(expenses);
+
+        Receipt r1 = new Receipt();
+        setId(r1, Receipt.class, 500L);
+        r1.setExpense(expenses.get(3));
+        r1.setFileName("first.jpg");
+        Receipt r2 = new Receipt();
+        setId(r2, Receipt.class, 501L);
+        r2.setExpense(expenses.get(3));
+        r2.setFileName("second.jpg");
+        when(receiptRepository.findAllByExpenseIdIn(anyCollection())).thenReturn(List.of(r1, r2));
+        when(splitShareRepository.findExpenseIdsWithShares(anyCollection())).thenReturn(List.of(2L));
+
+        TreeMap<LocalDate, BigDecimal> usd = new TreeMap<>();
+        usd.put(to.minusDays(365), new BigDecimal("80.00"));
+        when(fxService.getBaseCurrency()).thenReturn("INR");
+        when(fxService.rateTable(anyCollection(), any(), any())).thenReturn(new FXRateTable("INR", Map.of("USD", usd)));
+
+        List<ExpenseView> views = svc.list("u@example.com", to.minusDays(90), to, null);
+
+        assertEquals(200, views.size());
+        assertEquals(new BigDecimal("800.00"), views.get(1).getBaseAmount());
+        assertEquals(new BigDecimal("10.00"), views.get(0).getBaseAmount());
+        assertTrue(views.get(1).isHasSplitShares());
+        assertFalse(views.get(0).isHasSplitShares());
+        assertEquals("first.jpg", views.get(3).getReceiptFileName());
+        assertEquals("/api/v1/receipts/500/download", views.get(3).getReceiptUrl());
+        assertEquals("/api/v1/receipts/500/variants/thumbnail", views.get(3).getReceiptThumbnailUrl());
+
+        // One set-based query per concern regardless of page size
+        verify(receiptRepository, times(1)).findAllByExpenseIdIn(anyCollection());
+        verify(splitShareRepository, times(1)).findExpenseIdsWithShares(anyCollection());
+        verify(fxService, times(1)).rateTable(anyCollection(), any(), any());
+        verify(receiptRepository, never()).findAll();
+        verify(splitShareRepository, never()).findByExpenseId(anyLong());
+        verify(fxService, never()).convertToBase(any(), any(), any());
+        verify(fxService, never()).rateFor(any(), any());
+    }
+
+    @Test
+    void list_emptyWindow_issuesNoLookups() {
+        ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        ReceiptRepository receiptRepository = mock(ReceiptRepository.class);
+        SplitShareRepository splitShareRepository = mock(SplitShareRepository.class);
+        FXService fxService = mock(FXService.class);
+        ExpenseService svc = newService(expenseRepository, userRepository, receiptRepository, splitShareRepository, fxService);
+
+        User user = new User();
+        when(userRepository.findByEmail("u@example.com")).thenReturn(Optional.of(user));
+        when(expenseRepository.findPersonalByUserAndDate(eq(user), any(), any())).thenReturn(List.of());
+
+        assertTrue(svc.list("u@example.com", null, null, null).isEmpty());
+        verifyNoInteractions(receiptRepository, splitShareRepository);
+        verify(fxService, never()).rateTable(any(), any(), any());
+    }
+
+    private ExpenseService newService(ExpenseRepository expenseRepository, UserRepository userRepository,
+                                      ReceiptRepository receiptRepository, SplitShareRepository splitShareRepository,
+                                      FXService fxService) {
+        return new ExpenseService(
+                expenseRepository,
+                mock(CategoryRepository.class),
+                userRepository,
+                receiptRepository,
+                mock(FileStorageService.class),
+                mock(GroupRepository.class),
+                fxService,
+                mock(ACLEntryService.class),
+                mock(AccessLogService.class),
+                splitShareRepository,
+                mock(GroupMemberRepository.class),
+                mock(JdbcTemplate.class),
+                mock(BillRepository.class),
+                mock(CompanyRoleResolver.class),
+                mock(CompanyRepository.class),
+                mock(ExpenseRollupService.class),
+                mock(GroupChatHub.class),
+                mock(UnreadCounterService.class),
+                mock(PendingFxRates.class),
+                mock(ReceiptVariantService.class),
+                mock(ExpenseSearch.class)
+        );
+    }
+
+    private static <T> void setId(T target, Class<T> type, Long id) {
+        try {
+            java.lang.reflect.Field f = type.getDeclaredField("id");
+            f.setAccessible(true);
+            f.set(target, id);
+        } catch (Exception ignored) {}
+    }
+}
@@ -0,0 +1,32 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.fx.FXService;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PendingFxRatesTest {
+
+    @Test
+    void track_clearsOnTheExecutorEvenWhenTheRateIsAlreadyKnown() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        List<Runnable> submitted = new ArrayList<>();
+        PendingFxRates pending = new PendingFxRates(jdbc, mock(FXService.class), submitted::add, 100);
+
+        pending.track("USD", LocalDate.of(2025, 5, 2), CompletableFuture.completedFuture(new BigDecimal("83.1")));
+
+        verifyNoInteractions(jdbc);
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+        verify(jdbc).update(startsWith("UPDATE expenses SET fx_pending = FALSE"), eq("USD"), any());
+    }
+}
@@ -0,0 +1,63 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.fx.FXRateTable;
+import com.expenseapp.fx.FXService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SpendAccumulatorTest {
+
+    private static final FXRateTable INR = new FXRateTable("INR", Map.of());
+
+    @Test
+    void sumsPerDayWithinTheRange() {
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        SpendAccumulator acc = new SpendAccumulator(INR, from, from.plusDays(2));
+
+        acc.add(from, "INR", new BigDecimal("10.50"), 3L, "Travel", null);
+        acc.add(from.plusDays(2), "INR", new BigDecimal("4.25"), null, null, 7L);
+        SpendAggregate result = acc.result();
+
+        assertEquals(new BigDecimal("14.75"), result.getTotal());
+        assertEquals(new BigDecimal("10.50"), result.getByDay().get(from));
+        assertEquals(new BigDecimal("4.25"), result.getByDay().get(from.plusDays(2)));
+        assertNull(result.getByDay().get(from.plusDays(1)));
+    }
+
+    @Test
+    void acceptsTheWidestAllowedRange() {
+        LocalDate from = LocalDate.of(2020, 1, 1);
+
+        assertEquals(SpendAccumulator.MAX_DAYS,
+                SpendAccumulator.checkRange(from, from.plusDays(SpendAccumulator.MAX_DAYS - 1)));
+        assertEquals(1, SpendAccumulator.checkRange(from, from));
+    }
+
+    @Test
+    void rejectsReversedOrTooWideRanges() {
+        LocalDate from = LocalDate.of(2020, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> new SpendAccumulator(INR, from, from.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SpendAccumulator(INR, from, from.plusDays(SpendAccumulator.MAX_DAYS)));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> new SpendAccumulator(INR, LocalDate.MIN, LocalDate.MAX));
+        assertTrue(ex.getMessage().contains("at most " + SpendAccumulator.MAX_DAYS), ex.getMessage());
+    }
+
+    @Test
+    void aggregatorRejectsATooWideRangeBeforeLoadingRows() {
+        ExpenseRepository repo = mock(ExpenseRepository.class);
+        SpendAggregator aggregator = new SpendAggregator(repo, mock(FXService.class));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> aggregator.forUser(1L, LocalDate.of(1900, 1, 1), LocalDate.of(2025, 1, 1)));
+        verifyNoInteractions(repo);
+    }
+}
@@ -0,0 +1,142 @@
+package com.expenseapp.expense;
+
+import com.expenseapp.expense.dto.ExpenseAmountRow;
+import com.expenseapp.fx.FXRateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the dashboard's former base-currency pipeline (three stream passes over entities, converting
+ * every row once per pass) with {@link SpendAccumulator}. Both sides use the same {@link FXRateTable} so
+ * only the aggregation cost is measured. Not a unit test; run manually:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.expenseapp.expense.SpendAggregationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpendAggregationBenchmark {
+
+    private static final String[] CURRENCIES = {"INR", "USD", "EUR", "GBP"};
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private LocalDate from;
+    private LocalDate to;
+    private FXRateTable rates;
+    private List<Expense> expenses;
+    private List<ExpenseAmountRow> amountRows;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        to = LocalDate.of(2025, 12, 31);
+        from = to.minusDays(364);
+
+        Map<String, NavigableMap<LocalDate, BigDecimal>> byCurrency = new TreeMap<>();
+        for (int c = 1; c < CURRENCIES.length; c++) {
+            TreeMap<LocalDate, BigDecimal> series = new TreeMap<>();
+            for (LocalDate d = from.minusDays(30); !d.isAfter(to); d = d.plusDays(1)) {
+                series.put(d, BigDecimal.valueOf(70_000 + rnd.nextInt(30_000), 3));
+            }
+            byCurrency.put(CURRENCIES[c], series);
+        }
+        rates = new FXRateTable("INR", byCurrency);
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Category cat = new Category();
+            cat.setName("Category " + i);
+            categories.add(cat);
+        }
+
+        expenses = new ArrayList<>(rows);
+        amountRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDate day = from.plusDays(rnd.nextInt(365));
+            String currency = CURRENCIES[rnd.nextInt(CURRENCIES.length)];
+            BigDecimal amount = BigDecimal.valueOf(100 + rnd.nextInt(500_000), 2);
+            int catIdx = rnd.nextInt(categories.size() + 1);
+            Category cat = catIdx < categories.size() ? categories.get(catIdx) : null;
+
+            Expense e = new Expense();
+            e.setOccurredOn(day);
+            e.setCurrency(currency);
+            e.setAmount(amount);
+            e.setCategory(cat);
+            expenses.add(e);
+
+            amountRows.add(new ExpenseAmountRow(day, amount, currency,
+                    cat != null ? (long) catIdx : null, cat != null ? cat.getName() : null, null));
+        }
+    }
+
+    @Benchmark
+    public void streamPipeline(Blackhole bh) {
+        BigDecimal total = expenses.stream()
+                .map(e -> rates.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<Category, BigDecimal> byCat = expenses.stream()
+                .collect(Collectors.groupingBy(
+                        e -> e.getCategory() != null ? e.getCategory() : UNCATEGORIZED,
+                        Collectors.reducing(BigDecimal.ZERO,
+                                e -> rates.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount()),
+                                BigDecimal::add)));
+        Map<LocalDate, BigDecimal> byDay = expenses.stream()
+                .collect(Collectors.groupingBy(
+                        Expense::getOccurredOn,
+                        Collectors.reducing(BigDecimal.ZERO,
+                                e -> rates.convertToBase(e.getOccurredOn(), e.getCurrency(), e.getAmount()),
+                                BigDecimal::add)));
+        bh.consume(total);
+        bh.consume(byCat);
+        bh.consume(new TreeMap<>(byDay));
+    }
+
+    @Benchmark
+    public SpendAggregate singlePass() {
+        SpendAccumulator acc = new SpendAccumulator(rates, from, to);
+        for (ExpenseAmountRow row : amountRows) acc.add(row);
+        return acc.result();
+    }
+
+    // groupingBy rejects null keys; the old code relied on every expense having a category
+    private static final Category UNCATEGORIZED = new Category();
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SpendAggregationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.expenseapp.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FXRateResolverTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> stored = new ArrayList<>();
+
+    private FXRateResolver resolver(StubFXProvider provider, java.util.concurrent.Executor executor) {
+        return new FXRateResolver("INR", List.of(provider), executor,
+                (date, currency, rate) -> stored.add(currency + "@" + date + "=" + rate),
+                3, 2, TimeUnit.SECONDS.toNanos(60), TimeUnit.SECONDS.toNanos(600), clock::get);
+    }
+
+    @Test
+    void concurrentRequestsForSameKey_shareOneSlowFetch() throws Exception {
+        StubFXProvider provider = StubFXProvider.answering("83.10").slow();
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try {
+            FXRateResolver resolver = resolver(provider, pool);
+
+            CompletableFuture<BigDecimal> first = resolver.resolve("USD", DAY);
+            CompletableFuture<BigDecimal> second = resolver.resolve("USD", DAY);
+            assertSame(first, second);
+            assertFalse(first.isDone());
+            assertEquals(1, resolver.inFlight());
+
+            provider.release();
+            assertEquals(new BigDecimal("83.10"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, provider.calls());
+            assertEquals(1, resolver.coalesced());
+            assertEquals(List.of("USD@2025-09-01=83.10"), stored);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failingProvider_opensCircuit_thenTrialCallClosesIt() {
+        StubFXProvider provider = StubFXProvider.failing();
+        FXRateResolver resolver = resolver(provider, Runnable::run);
+
+        assertNull(resolver.resolve("USD", DAY).join());
+        assertNull(resolver.resolve("USD", DAY.minusDays(10)).join());
+        // A failure abandons the provider for that fetch instead of probing further back
+        assertEquals(2, provider.calls());
+        assertEquals(1, resolver.openCircuits());
+
+        assertNull(resolver.resolve("USD", DAY.minusDays(20)).join());
+        assertEquals(2, provider.calls());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        provider.setFailing(false);
+        assertNull(resolver.resolve("USD", DAY.minusDays(30)).join());
+        assertEquals(0, resolver.openCircuits());
+    }
+
+    @Test
+    void noRateAnywhere_isNegativelyCachedUntilTtl() {
+        StubFXProvider provider = StubFXProvider.empty();
+        FXRateResolver resolver = resolver(provider, Runnable::run);
+
+        assertNull(resolver.resolve("XAU", DAY).join());
+        assertEquals(3, provider.calls());
+        assertNull(resolver.resolve("XAU", DAY).join());
+        assertEquals(3, provider.calls());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(601));
+        assertNull(resolver.resolve("XAU", DAY).join());
+        assertEquals(6, provider.calls());
+        assertTrue(stored.isEmpty());
+    }
+}
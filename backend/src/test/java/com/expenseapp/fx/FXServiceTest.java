@@ -2,7 +2,6 @@ package com.expenseapp.fx;
 
 import com.expenseapp.fx.provider.FXProviderClient;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,7 +17,7 @@ public class FXServiceTest {
     void convertToBase_usesHistoricalRate() {
         FXRateRepository repo = mock(FXRateRepository.class);
         FXProviderClient provider = mock(FXProviderClient.class);
-        FXService service = new FXService(repo, "INR", provider);
+        FXService service = new FXService(repo, "INR", provider, mock(FXRateWriter.class));
 
         LocalDate date = LocalDate.of(2025, 9, 1);
         when(repo.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc("USD", date))
@@ -32,31 +31,117 @@ public class FXServiceTest {
     void backfill_insertsWhenMissing_andProviderAvailable() {
         FXRateRepository repo = mock(FXRateRepository.class);
         FXProviderClient provider = mock(FXProviderClient.class);
-        FXService service = new FXService(repo, "INR", provider);
+        FXRateWriter writer = mock(FXRateWriter.class);
+        FXService service = new FXService(repo, "INR", provider, writer);
 
         LocalDate from = LocalDate.of(2025, 9, 1);
         LocalDate to = LocalDate.of(2025, 9, 3);
 
         // No existing rates
-        when(repo.findByRateDateAndCurrency(any(LocalDate.class), eq("USD")))
-                .thenReturn(Optional.empty());
-        // Provider returns a constant rate
-        when(provider.historicalRateToBase(any(LocalDate.class), eq("INR"), eq("USD")))
-                .thenReturn(Optional.of(new BigDecimal("82.50")));
+        when(repo.findStoredDays(anyCollection(), eq(from), eq(to))).thenReturn(List.of());
+        // Provider returns a constant rate for the whole range in one call
+        when(provider.rangeRatesToBase(from, to, "INR", "USD")).thenReturn(java.util.Map.of(
+                from, new BigDecimal("82.50"),
+                LocalDate.of(2025, 9, 2), new BigDecimal("82.50"),
+                to, new BigDecimal("82.50")));
 
-        // Capture saves
-        ArgumentCaptor<FXRate> captor = ArgumentCaptor.forClass(FXRate.class);
-        when(repo.save(any(FXRate.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(writer.insertMissing(eq("USD"), anyMap())).thenReturn(3);
 
         int inserted = service.backfill(from, to, List.of("USD"));
         assertEquals(3, inserted);
 
-        verify(repo, times(3)).save(captor.capture());
-        for (FXRate r : captor.getAllValues()) {
-            assertEquals("USD", r.getCurrency());
-            assertEquals(new BigDecimal("82.50"), r.getRateToBase());
-            assertTrue(!r.getRateDate().isBefore(from) && !r.getRateDate().isAfter(to));
-        }
+        verify(writer).insertMissing("USD", java.util.Map.of(
+                from, new BigDecimal("82.50"),
+                LocalDate.of(2025, 9, 2), new BigDecimal("82.50"),
+                to, new BigDecimal("82.50")));
+        verify(repo, never()).save(any());
+        verify(provider, times(1)).rangeRatesToBase(any(), any(), anyString(), anyString());
+        verify(provider, never()).historicalRateToBase(any(), anyString(), anyString());
+    }
+
+    @Test
+    void backfill_skipsStoredDays_andCarriesRatesOverUnpublishedDays() {
+        FXRateRepository repo = mock(FXRateRepository.class);
+        FXProviderClient provider = mock(FXProviderClient.class);
+        FXRateWriter writer = mock(FXRateWriter.class);
+        FXService service = new FXService(repo, "INR", List.of(provider), 4096, Runnable::run, 7, 3, 60, 600, 5000, writer);
+
+        // Fri 2025-09-05 is stored; Sat/Sun are not published, Mon is
+        LocalDate from = LocalDate.of(2025, 9, 4);
+        LocalDate to = LocalDate.of(2025, 9, 8);
+        when(repo.findStoredDays(anyCollection(), eq(from), eq(to)))
+                .thenReturn(List.<Object[]>of(new Object[]{"USD", LocalDate.of(2025, 9, 5)}));
+        when(provider.rangeRatesToBase(from, to, "INR", "USD")).thenReturn(java.util.Map.of(
+                LocalDate.of(2025, 9, 4), new BigDecimal("83.00"),
+                LocalDate.of(2025, 9, 5), new BigDecimal("83.10"),
+                LocalDate.of(2025, 9, 8), new BigDecimal("83.40")));
+        when(writer.insertMissing(eq("USD"), anyMap())).thenAnswer(inv -> ((java.util.Map<?, ?>) inv.getArgument(1)).size());
+
+        int inserted = service.backfill(from, to, List.of("usd", "INR"));
+
+        assertEquals(4, inserted);
+        verify(writer).insertMissing("USD", java.util.Map.of(
+                LocalDate.of(2025, 9, 4), new BigDecimal("83.00"),
+                LocalDate.of(2025, 9, 6), new BigDecimal("83.10"),
+                LocalDate.of(2025, 9, 7), new BigDecimal("83.10"),
+                LocalDate.of(2025, 9, 8), new BigDecimal("83.40")));
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void rateFor_cachesFloorLookup_andUpsertInvalidates() {
+        FXRateRepository repo = mock(FXRateRepository.class);
+        FXRateWriter writer = mock(FXRateWriter.class);
+        FXService service = new FXService(repo, "INR", null, writer);
+
+        LocalDate rateDate = LocalDate.of(2025, 9, 1);
+        LocalDate date = LocalDate.of(2025, 9, 5);
+        when(repo.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc("USD", date))
+                .thenReturn(Optional.of(rate(rateDate, "USD", new BigDecimal("80.00"))));
+        when(repo.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc("USD", LocalDate.of(2025, 9, 3)))
+                .thenReturn(Optional.of(rate(rateDate, "USD", new BigDecimal("80.00"))));
+
+        assertEquals(new BigDecimal("80.00"), service.rateFor(date, "USD"));
+        assertEquals(new BigDecimal("80.00"), service.rateFor(date, "usd"));
+        // Any date between the floor rate and the probed date is known to resolve to the same rate
+        assertEquals(new BigDecimal("80.00"), service.rateFor(LocalDate.of(2025, 9, 3), "USD"));
+        verify(repo, times(1)).findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(eq("USD"), any());
+        assertEquals(2, service.cacheHits());
+        assertEquals(1, service.cacheMisses());
+
+        FXRate stored = rate(LocalDate.of(2025, 9, 4), "USD", new BigDecimal("81.00"));
+        when(repo.findByRateDateAndCurrency(LocalDate.of(2025, 9, 4), "USD")).thenReturn(Optional.of(stored));
+        assertSame(stored, service.upsertRate(LocalDate.of(2025, 9, 4), "usd", new BigDecimal("81.00")));
+        // Written through the writer bean, whose own transaction the write commits in
+        verify(writer).upsert(LocalDate.of(2025, 9, 4), "USD", new BigDecimal("81.00"));
+        verify(repo, never()).save(any());
+        when(repo.findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc("USD", date))
+                .thenReturn(Optional.of(rate(LocalDate.of(2025, 9, 4), "USD", new BigDecimal("81.00"))));
+
+        assertEquals(new BigDecimal("81.00"), service.rateFor(date, "USD"));
+        verify(repo, times(2)).findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(eq("USD"), eq(date));
+    }
+
+    @Test
+    void preload_loadsRangeOnce_andServesFloorLookups() {
+        FXRateRepository repo = mock(FXRateRepository.class);
+        FXService service = new FXService(repo, "INR", null, mock(FXRateWriter.class));
+
+        LocalDate from = LocalDate.of(2025, 9, 1);
+        LocalDate to = LocalDate.of(2025, 9, 30);
+        when(repo.findRateWindow(anyCollection(), eq(from), eq(to))).thenReturn(List.of(
+                rate(LocalDate.of(2025, 8, 29), "USD", new BigDecimal("79.00")),
+                rate(LocalDate.of(2025, 9, 10), "USD", new BigDecimal("80.00"))
+        ));
+
+        service.preload(List.of("USD", "INR"), from, to);
+        service.preload(List.of("USD"), from, to);
+
+        assertEquals(new BigDecimal("79.00"), service.rateFor(LocalDate.of(2025, 9, 1), "USD"));
+        assertEquals(new BigDecimal("79.00"), service.rateFor(LocalDate.of(2025, 9, 9), "USD"));
+        assertEquals(new BigDecimal("80.00"), service.rateFor(LocalDate.of(2025, 9, 30), "USD"));
+        verify(repo, times(1)).findRateWindow(anyCollection(), any(), any());
+        verify(repo, never()).findTopByCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(anyString(), any());
     }
 
     private FXRate rate(LocalDate date, String currency, BigDecimal rateToBase) {
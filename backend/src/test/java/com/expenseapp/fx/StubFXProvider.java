@@ -0,0 +1,73 @@
+package com.expenseapp.fx;
+
+import com.expenseapp.fx.provider.FXProviderClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for an upstream FX provider. Can answer with a fixed rate, answer "no rate", fail like a
+ * timed-out or 5xx upstream, and stall until {@link #release()} to simulate a slow one.
+ */
+class StubFXProvider implements FXProviderClient {
+
+    private volatile BigDecimal rate;
+    private volatile boolean failing;
+    private volatile CountDownLatch gate;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    static StubFXProvider answering(String rate) {
+        StubFXProvider p = new StubFXProvider();
+        p.rate = new BigDecimal(rate);
+        return p;
+    }
+
+    static StubFXProvider empty() {
+        return new StubFXProvider();
+    }
+
+    static StubFXProvider failing() {
+        StubFXProvider p = new StubFXProvider();
+        p.failing = true;
+        return p;
+    }
+
+    /** Calls block until {@link #release()}. */
+    StubFXProvider slow() {
+        gate = new CountDownLatch(1);
+        return this;
+    }
+
+    void release() {
+        CountDownLatch g = gate;
+        if (g != null) g.countDown();
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    @Override
+    public Optional<BigDecimal> historicalRateToBase(LocalDate date, String baseCurrency, String currency) {
+        calls.incrementAndGet();
+        CountDownLatch g = gate;
+        if (g != null) {
+            try {
+                if (!g.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("stub provider never released");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        if (failing) throw new org.springframework.web.client.ResourceAccessException("Read timed out (stub)");
+        return Optional.ofNullable(rate);
+    }
+}
@@ -0,0 +1,90 @@
+package com.expenseapp.group;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GroupChatHubTest {
+
+    @Test
+    void announce_withoutSubscribers_doesNotReadTheMessage() {
+        GroupMessageReader reader = mock(GroupMessageReader.class);
+        GroupChatHub hub = new GroupChatHub(reader, 60_000, 100, 1, 10_000, 50);
+
+        hub.announce(7L, 42L);
+
+        verifyNoInteractions(reader);
+    }
+
+    @Test
+    void subscribe_replaysFromLastEventId_andCompletionUnsubscribes() {
+        GroupMessageReader reader = mock(GroupMessageReader.class);
+        when(reader.since(7L, 40L, 100)).thenReturn(List.of(Map.of("id", "41"), Map.of("id", "42")));
+        GroupChatHub hub = new GroupChatHub(reader, 60_000, 100, 1, 10_000, 50);
+
+        SseEmitter emitter = hub.subscribe(7L, 3L, 40L);
+
+        verify(reader).since(7L, 40L, 100);
+        assertEquals(1, hub.subscriberCount(7L));
+        assertEquals(0, hub.subscriberCount(8L));
+
+        hub.stop();
+        assertEquals(0, hub.subscriberCount(7L));
+        assertNotNull(emitter);
+    }
+
+    @Test
+    void disconnect_closesOnlyThatMembersStreams() {
+        GroupChatHub hub = new GroupChatHub(mock(GroupMessageReader.class), 60_000, 100, 1, 10_000, 50);
+        hub.subscribe(7L, 3L, null);
+        hub.subscribe(7L, 3L, null);
+        hub.subscribe(7L, 4L, null);
+        hub.subscribe(8L, 3L, null);
+
+        hub.disconnect(7L, 3L);
+
+        assertEquals(1, hub.subscriberCount(7L));
+        assertEquals(1, hub.subscriberCount(8L));
+
+        hub.disconnectAll(7L);
+        assertEquals(0, hub.subscriberCount(7L));
+        assertEquals(1, hub.subscriberCount(8L));
+    }
+
+    @Test
+    void publish_dropsASubscriberThatFallsTooFarBehind() throws Exception {
+        GroupMessageReader reader = mock(GroupMessageReader.class);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reader.find(99L)).thenAnswer(inv -> {
+            busy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        GroupChatHub hub = new GroupChatHub(reader, 60_000, 100, 1, 10_000, 2);
+        hub.subscribe(7L, 3L, null);
+        hub.subscribe(8L, 4L, null);
+
+        // Occupy the only send thread so group 7's queue cannot drain
+        hub.announce(8L, 99L);
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        hub.publish(7L, Map.of("id", 1L));
+        hub.publish(7L, Map.of("id", 2L));
+        assertEquals(1, hub.subscriberCount(7L));
+
+        hub.publish(7L, Map.of("id", 3L));
+        assertEquals(0, hub.subscriberCount(7L));
+        assertEquals(1, hub.subscriberCount(8L));
+
+        release.countDown();
+        hub.stop();
+    }
+}
@@ -0,0 +1,66 @@
+package com.expenseapp.notification;
+
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class NotificationPublisherTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliver_skipsRecentDuplicates_andInsertsTheRestInOneBatch() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        UnreadCounterService counters = mock(UnreadCounterService.class);
+        NotificationPublisher publisher = new NotificationPublisher(mock(NotificationRepository.class), mock(UserRepository.class),
+                counters, jdbc, mock(PlatformTransactionManager.class), 1, 10);
+        when(jdbc.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(List.of(2L));
+
+        int sent = publisher.deliver(new TreeSet<>(Set.of(1L, 2L, 3L)), "SPLIT_CREATED", "New Split", "body", "{}", 9L);
+
+        assertEquals(2, sent);
+        verify(jdbc).batchUpdate(startsWith("INSERT INTO notifications"),
+                argThat((List<Object[]> rows) -> rows.size() == 2
+                        && rows.get(0)[0].equals(1L) && rows.get(1)[0].equals(3L) && rows.get(0)[5].equals(9L)));
+        verify(counters).notificationsAdded(List.of(1L, 3L), 9L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliver_allDuplicates_writesNothing() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        UnreadCounterService counters = mock(UnreadCounterService.class);
+        NotificationPublisher publisher = new NotificationPublisher(mock(NotificationRepository.class), mock(UserRepository.class),
+                counters, jdbc, mock(PlatformTransactionManager.class), 1, 10);
+        when(jdbc.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(List.of(1L));
+
+        assertEquals(0, publisher.deliver(new TreeSet<>(Set.of(1L)), "T", "t", "b", null, null));
+
+        verify(jdbc, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(counters);
+    }
+
+    @Test
+    void publishAll_deliversInATransactionOfItsOwn() {
+        PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+        NotificationPublisher publisher = new NotificationPublisher(mock(NotificationRepository.class), mock(UserRepository.class),
+                mock(UnreadCounterService.class), mock(JdbcTemplate.class), tm, 1, 10);
+
+        publisher.publishAll(List.of(1L, 2L), "T", "t", "b", null);
+
+        // Never joins the caller's (possibly already committed) transaction
+        verify(tm, timeout(2000)).getTransaction(argThat(d -> d.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        publisher.stop();
+    }
+}
@@ -0,0 +1,54 @@
+package com.expenseapp.notification;
+
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class NotificationServiceTest {
+
+    @Test
+    void markAllRead_isOneBulkUpdate_andResetsCounters() {
+        NotificationRepository repo = mock(NotificationRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        UnreadCounterService counters = mock(UnreadCounterService.class);
+        when(users.findByEmail("a@b.c")).thenReturn(Optional.of(user(3L)));
+        NotificationService service = new NotificationService(repo, users, counters);
+
+        service.markAllRead("a@b.c");
+
+        verify(repo).markAllRead(eq(3L), any(Instant.class));
+        verify(repo, never()).findAllByUserAndReadAtIsNullOrderByCreatedAtDesc(any());
+        verify(counters).allNotificationsRead(3L);
+    }
+
+    @Test
+    void markRead_recountsOnlyWhenSomethingChanged() {
+        NotificationRepository repo = mock(NotificationRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        UnreadCounterService counters = mock(UnreadCounterService.class);
+        when(users.findByEmail("a@b.c")).thenReturn(Optional.of(user(3L)));
+        when(repo.markRead(eq(3L), eq(List.of(10L)), any(Instant.class))).thenReturn(0);
+        when(repo.markRead(eq(3L), eq(List.of(11L)), any(Instant.class))).thenReturn(1);
+        NotificationService service = new NotificationService(repo, users, counters);
+
+        service.markRead("a@b.c", List.of(10L));
+        verifyNoInteractions(counters);
+
+        service.markRead("a@b.c", List.of(11L));
+        verify(counters).notificationsRead(3L);
+    }
+
+    private static User user(Long id) {
+        User u = new User();
+        ReflectionTestUtils.setField(u, "id", id);
+        return u;
+    }
+}
@@ -0,0 +1,261 @@
+package com.expenseapp.receipt;
+
+import com.expenseapp.storage.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OCRJobQueueTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private JdbcTemplate jdbc;
+    private OCRProvider provider;
+    private ReceiptService receipts;
+    /** Arguments of the last claim: batch limit, worker id, lease seconds. */
+    private Object[] claimArgs;
+    private final List<PreparedStatementCreator> arrayUpdates = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        provider = mock(OCRProvider.class);
+        receipts = mock(ReceiptService.class);
+        when(provider.name()).thenReturn("TEST");
+        when(provider.maxBatchSize()).thenReturn(4);
+        when(jdbc.update(any(PreparedStatementCreator.class))).thenAnswer(inv -> {
+            arrayUpdates.add(inv.getArgument(0));
+            return 1;
+        });
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheCap() {
+        assertEquals(30_000, OCRJobQueue.backoffMillis(1, 30_000, 3_600_000, 0.5));
+        assertEquals(60_000, OCRJobQueue.backoffMillis(2, 30_000, 3_600_000, 0.5));
+        assertEquals(240_000, OCRJobQueue.backoffMillis(4, 30_000, 3_600_000, 0.5));
+        assertEquals(3_600_000, OCRJobQueue.backoffMillis(12, 30_000, 3_600_000, 0.5));
+        assertEquals(3_600_000, OCRJobQueue.backoffMillis(500, 30_000, 3_600_000, 0.5));
+    }
+
+    @Test
+    void jitterSpreadsRetriesByTwentyPercent() {
+        assertEquals(24_000, OCRJobQueue.backoffMillis(1, 30_000, 3_600_000, 0.0));
+        assertEquals(36_000, OCRJobQueue.backoffMillis(1, 30_000, 3_600_000, 1.0));
+    }
+
+    @Test
+    void pollOnce_claimsOldestReadyJobsSkippingLockedRows_andCompletesThemInOrder() throws Exception {
+        OCRJobQueue queue = worker(8);
+        claims(job(5, 50, 1), job(3, 30, 1), job(9, 90, 2));
+        List<Long> scanned = new ArrayList<>();
+        when(provider.extractBatch(anyList())).thenAnswer(inv -> {
+            List<OCRProvider.Result> results = new ArrayList<>();
+            for (OCRProvider.Input in : inv.<List<OCRProvider.Input>>getArgument(0)) {
+                scanned.add(in.getJobId());
+                results.add(OCRProvider.Result.ok(in.getJobId(), "{\"job\":" + in.getJobId() + "}"));
+            }
+            return results;
+        });
+        when(jdbc.update(startsWith("UPDATE ocr_jobs SET locked_by = NULL"), any(Object[].class))).thenReturn(1);
+
+        assertEquals(3, queue.pollOnce());
+
+        verify(jdbc).query(argThat((String sql) -> sql.contains("WHERE status = 'QUEUED' AND run_after <= NOW()")
+                && sql.contains("ORDER BY run_after, id") && sql.contains("FOR UPDATE SKIP LOCKED")
+                && sql.contains("attempts = j.attempts + 1")), anyRowMapper(), any(Object[].class));
+        // The batch is capped by the provider, the lease is taken for this worker
+        assertEquals(4, claimArgs[0]);
+        assertTrue(((String) claimArgs[1]).startsWith("ocr-"));
+        assertEquals(120, claimArgs[2]);
+        assertEquals(List.of(5L, 3L, 9L), scanned);
+        verify(receipts).completeJob(5L, "{\"job\":5}", null);
+        verify(receipts).completeJob(9L, "{\"job\":9}", null);
+        assertEquals(3, queue.claimed());
+        assertEquals(3, queue.completed());
+        assertEquals(0, queue.inFlight());
+    }
+
+    @Test
+    void pollOnce_nothingReady_claimsNothing() {
+        OCRJobQueue queue = worker(8);
+        claims();
+
+        assertEquals(0, queue.pollOnce());
+
+        verify(provider, never()).extractBatch(anyList());
+        assertEquals(0, queue.claimed());
+    }
+
+    @Test
+    void heartbeat_extendsTheLeaseOfJobsStillRunning() throws Exception {
+        OCRJobQueue queue = worker(8);
+        queue.heartbeat();
+        assertTrue(arrayUpdates.isEmpty(), "no jobs in flight, nothing to extend");
+
+        claims(job(5, 50, 1), job(3, 30, 1));
+        when(provider.extractBatch(anyList())).thenAnswer(inv -> {
+            queue.heartbeat();
+            return List.of();
+        });
+        queue.pollOnce();
+
+        assertEquals(1, arrayUpdates.size());
+        Captured heartbeat = run(arrayUpdates.get(0));
+        assertTrue(heartbeat.sql.contains("lease_until = NOW() + (120 * INTERVAL '1 second')"), heartbeat.sql);
+        assertTrue(heartbeat.sql.contains("status = 'RUNNING' AND locked_by = ?"), heartbeat.sql);
+        assertEquals(List.of(3L, 5L), heartbeat.ids.stream().sorted().toList());
+        assertEquals(claimArgs[1], heartbeat.worker);
+    }
+
+    @Test
+    void failedJob_isRequeuedWithBackoffWhileAttemptsRemain() {
+        OCRJobQueue queue = worker(8);
+        claims(job(5, 50, MAX_ATTEMPTS - 1));
+        when(provider.extractBatch(anyList())).thenReturn(List.of(OCRProvider.Result.failed(5L, "blurry")));
+        when(jdbc.update(contains("SET status = 'QUEUED', error_message = ?"), any(Object[].class))).thenReturn(1);
+
+        queue.pollOnce();
+
+        // base 1000 ms doubled once for the second attempt, within the 20% jitter
+        verify(jdbc).update(contains("SET status = 'QUEUED', error_message = ?"), eq("blurry"),
+                longThat(ms -> ms >= 1_600 && ms <= 2_400), eq(5L), eq(claimArgs[1]));
+        verify(jdbc, never()).update(contains("SET status = 'DEAD'"), any(Object[].class));
+        assertEquals(1, queue.retried());
+        assertEquals(0, queue.deadLettered());
+    }
+
+    @Test
+    void failedJob_isDeadLetteredOnceOutOfAttempts() {
+        OCRJobQueue queue = worker(8);
+        claims(job(5, 50, MAX_ATTEMPTS));
+        when(provider.extractBatch(anyList())).thenThrow(new IllegalStateException("provider down"));
+        when(jdbc.update(contains("SET status = 'DEAD'"), any(Object[].class))).thenReturn(1);
+
+        queue.pollOnce();
+
+        verify(jdbc).update(contains("SET status = 'DEAD'"), eq("provider down"), eq(5L), eq(claimArgs[1]));
+        verify(jdbc).update(startsWith("UPDATE receipts SET status = 'FAILED'"), eq(50L));
+        verify(jdbc, never()).update(contains("SET status = 'QUEUED', error_message = ?"), any(Object[].class));
+        assertEquals(1, queue.deadLettered());
+        assertEquals(0, queue.retried());
+    }
+
+    @Test
+    void reaper_requeuesExpiredLeasesAndDeadLettersExhaustedJobs() throws Exception {
+        OCRJobQueue queue = queue(true, 8);
+        when(jdbc.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(
+                Map.of("id", 1L, "receipt_id", 10L, "status", "QUEUED"),
+                Map.of("id", 2L, "receipt_id", 20L, "status", "DEAD"),
+                Map.of("id", 3L, "receipt_id", 30L, "status", "QUEUED")));
+
+        queue.reapExpiredLeases();
+
+        verify(jdbc).queryForList(argThat((String sql) -> sql.contains("WHERE status = 'RUNNING' AND (lease_until IS NULL OR lease_until < NOW())")
+                && sql.contains("CASE WHEN attempts >= ? THEN 'DEAD' ELSE 'QUEUED' END")
+                && sql.contains("locked_by = NULL, lease_until = NULL")), eq(MAX_ATTEMPTS), eq(MAX_ATTEMPTS));
+        assertEquals(1, arrayUpdates.size());
+        Captured failed = run(arrayUpdates.get(0));
+        assertTrue(failed.sql.startsWith("UPDATE receipts SET status = 'FAILED'"), failed.sql);
+        assertEquals(List.of(20L), failed.ids);
+        assertEquals(2, queue.reclaimed());
+        assertEquals(1, queue.deadLettered());
+    }
+
+    @Test
+    void reaper_withNothingExpired_touchesNoReceipts() {
+        OCRJobQueue queue = queue(true, 8);
+        when(jdbc.queryForList(anyString(), any(Object[].class))).thenReturn(List.of());
+
+        queue.reapExpiredLeases();
+
+        assertTrue(arrayUpdates.isEmpty());
+        assertEquals(0, queue.reclaimed());
+    }
+
+    /** A queue whose provider is resolved but whose worker threads never start, so tests drive pollOnce. */
+    private OCRJobQueue worker(int batchSize) {
+        OCRJobQueue queue = queue(false, batchSize);
+        queue.start();
+        return queue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private OCRJobQueue queue(boolean enabled, int batchSize) {
+        ObjectProvider<OCRProvider> providers = mock(ObjectProvider.class);
+        when(providers.getIfAvailable()).thenReturn(provider);
+        return new OCRJobQueue(jdbc, mock(PlatformTransactionManager.class), providers, receipts,
+                mock(FileStorageService.class), enabled, 1, batchSize, 1_000, 120, MAX_ATTEMPTS, 1_000, 60_000);
+    }
+
+    /** The claim query returns these rows (id, receipt id, attempts after the claim), mapped by the queue's own mapper. */
+    private void claims(Object[]... rows) {
+        doAnswer(inv -> {
+            claimArgs = new Object[]{inv.getArgument(2), inv.getArgument(3), inv.getArgument(4)};
+            RowMapper<?> mapper = inv.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (int i = 0; i < rows.length; i++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) rows[i][0]);
+                when(rs.getLong("receipt_id")).thenReturn((Long) rows[i][1]);
+                when(rs.getInt("attempts")).thenReturn((Integer) rows[i][2]);
+                when(rs.getString("file_uri")).thenReturn(null);
+                mapped.add(mapper.mapRow(rs, i));
+            }
+            return mapped;
+        }).when(jdbc).query(contains("FOR UPDATE SKIP LOCKED"), anyRowMapper(), any(Object[].class));
+    }
+
+    private static Object[] job(long id, long receiptId, int attempts) {
+        return new Object[]{id, receiptId, attempts};
+    }
+
+    private static RowMapper<Object> anyRowMapper() {
+        return any();
+    }
+
+    /** SQL and parameters an {@code id = ANY(?)} update would bind. */
+    private static final class Captured {
+        String sql;
+        List<Long> ids;
+        String worker;
+    }
+
+    private static Captured run(PreparedStatementCreator creator) throws Exception {
+        Captured captured = new Captured();
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(anyString())).thenAnswer(inv -> {
+            captured.sql = inv.getArgument(0);
+            return ps;
+        });
+        when(con.createArrayOf(eq("bigint"), any())).thenAnswer(inv -> {
+            List<Long> ids = new ArrayList<>();
+            for (Object id : inv.<Object[]>getArgument(1)) ids.add(((Number) id).longValue());
+            captured.ids = ids;
+            return mock(Array.class);
+        });
+        doAnswer(inv -> {
+            captured.worker = inv.getArgument(1);
+            return null;
+        }).when(ps).setString(eq(2), anyString());
+        creator.createPreparedStatement(con);
+        return captured;
+    }
+}
@@ -0,0 +1,51 @@
+package com.expenseapp.receipt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptImagesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rendersEachVariantWithinItsBoundsAsJpeg() throws Exception {
+        BufferedImage photo = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Path source = dir.resolve("receipt.png");
+        ImageIO.write(photo, "png", source.toFile());
+
+        List<ReceiptImages.Rendered> out = ReceiptImages.render(source, new int[]{256, 1280}, 100_000_000L);
+
+        assertEquals(2, out.size());
+        assertEquals(256, out.get(0).width);
+        assertEquals(192, out.get(0).height);
+        assertEquals(1280, out.get(1).width);
+        BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(out.get(0).jpeg));
+        assertEquals(256, thumb.getWidth());
+        assertThrows(java.io.IOException.class, () -> ReceiptImages.render(source, new int[]{256}, 1_000_000L));
+    }
+
+    @Test
+    void exifOrientationTurnsImageUpright() {
+        // Big-endian TIFF, IFD0 with one entry: Orientation (0x0112) = 6
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0, 34, 'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0, 0, 0, 0, 0, 0, 0};
+        assertEquals(6, ReceiptImages.exifOrientation(jpeg));
+        assertEquals(1, ReceiptImages.exifOrientation(new byte[]{(byte) 0x89, 'P', 'N', 'G'}));
+
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        BufferedImage upright = ReceiptImages.orient(image, 6);
+        assertEquals(30, upright.getWidth());
+        assertEquals(40, upright.getHeight());
+        assertEquals(0xFF0000, upright.getRGB(29, 0) & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,39 @@
+package com.expenseapp.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchSqlTest {
+
+    @Test
+    void onlyPresentFiltersAreApplied() {
+        SearchSql sql = new SearchSql()
+                .and("e.user_id = ?", 7L)
+                .andIf(null, "e.category_id = ?", (Object) null)
+                .andIf("  ", "lower(e.merchant) LIKE ?", "%  %")
+                .andIf(5L, "e.amount >= ?", 5L);
+
+        assertEquals("(e.user_id = ?) AND (e.amount >= ?)", sql.where());
+        assertEquals(List.of(7L, 5L), sql.args());
+        assertEquals("TRUE", new SearchSql().where());
+    }
+
+    @Test
+    void termsAreNormalisedAndLikeWildcardsEscaped() {
+        assertNull(SearchSql.term("   "));
+        assertEquals("uber eats", SearchSql.term("  Uber \t EATS "));
+        assertEquals("%50\\%\\_off\\\\%", SearchSql.contains("50%_off\\"));
+    }
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        assertEquals(0, SearchCursor.decode(null));
+        assertEquals(150, SearchCursor.decode(SearchCursor.encode(150)));
+        assertNull(SearchCursor.encode(SearchCursor.MAX_OFFSET + 1));
+        assertThrows(ResponseStatusException.class, () -> SearchCursor.decode("not-a-cursor"));
+    }
+}
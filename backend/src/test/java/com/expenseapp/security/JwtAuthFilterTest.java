@@ -0,0 +1,48 @@
+package com.expenseapp.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthFilterTest {
+
+    private final JwtTokenProvider tokens = mock(JwtTokenProvider.class);
+    private final JwtAuthFilter filter = new JwtAuthFilter(tokens, mock(PrincipalCache.class));
+
+    @Test
+    void publicEndpoints_matchWithoutTheContextPath() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest request = request("/app", "/app/api/v1/auth/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(tokens);
+    }
+
+    @Test
+    void protectedEndpoints_stillNeedAToken() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // A context path named like a public prefix does not make the rest of the path public
+        filter.doFilter(request("/api/test", "/api/test/api/v1/expenses"), response, chain);
+        assertEquals(401, response.getStatus());
+
+        MockHttpServletResponse root = new MockHttpServletResponse();
+        filter.doFilter(request("", "/api/v1/expenses"), root, chain);
+        assertEquals(401, root.getStatus());
+        verifyNoInteractions(chain);
+    }
+
+    private static MockHttpServletRequest request(String contextPath, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setContextPath(contextPath);
+        return request;
+    }
+}
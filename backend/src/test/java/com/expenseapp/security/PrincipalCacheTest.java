@@ -0,0 +1,75 @@
+package com.expenseapp.security;
+
+import com.expenseapp.user.Role;
+import com.expenseapp.user.User;
+import com.expenseapp.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PrincipalCacheTest {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedLookups_hitRepositoryOnce_andReturnCopies() {
+        UserRepository repo = mock(UserRepository.class);
+        when(repo.findByEmail("a@b.c")).thenReturn(Optional.of(user(1L, "a@b.c")));
+        PrincipalCache cache = new PrincipalCache(repo, 30, 100);
+
+        User first = cache.findByEmail("a@b.c").orElseThrow();
+        User second = cache.findByEmail("a@b.c").orElseThrow();
+
+        verify(repo, times(1)).findByEmail("a@b.c");
+        assertNotSame(first, second);
+        first.setRole(Role.SUPER_ADMIN);
+        assertEquals(Role.USER, cache.findByEmail("a@b.c").orElseThrow().getRole());
+    }
+
+    @Test
+    void invalidate_dropsEntryEvenAfterEmailChange() {
+        UserRepository repo = mock(UserRepository.class);
+        User stored = user(1L, "old@b.c");
+        when(repo.findByEmail("old@b.c")).thenReturn(Optional.of(stored));
+        PrincipalCache cache = new PrincipalCache(repo, 30, 100);
+        cache.findByEmail("old@b.c");
+
+        User changed = user(1L, "new@b.c");
+        changed.setEnabled(false);
+        cache.invalidate(changed);
+        when(repo.findByEmail("old@b.c")).thenReturn(Optional.empty());
+
+        assertTrue(cache.findByEmail("old@b.c").isEmpty());
+        verify(repo, times(2)).findByEmail("old@b.c");
+    }
+
+    @Test
+    void requestPrincipal_skipsRepositoryForCurrentUserOnly() {
+        UserRepository repo = mock(UserRepository.class);
+        User me = user(1L, "me@b.c");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(me, null, me.getAuthorities()));
+
+        assertSame(me, RequestPrincipal.findByEmail(repo, "me@b.c").orElseThrow());
+        verify(repo, never()).findByEmail("me@b.c");
+
+        RequestPrincipal.findByEmail(repo, "other@b.c");
+        verify(repo).findByEmail("other@b.c");
+    }
+
+    private static User user(Long id, String email) {
+        User u = new User("Name", email, null, "hash", Role.USER);
+        ReflectionTestUtils.setField(u, "id", id);
+        return u;
+    }
+}
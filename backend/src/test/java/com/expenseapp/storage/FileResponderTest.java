@@ -0,0 +1,104 @@
+package com.expenseapp.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileResponderTest {
+
+    private static final String SHA = "ab12";
+
+    @TempDir
+    Path dir;
+
+    private final FileResponder responder = new FileResponder(true);
+
+    private Path file() throws Exception {
+        return Files.writeString(dir.resolve("receipt.txt"), "0123456789");
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesWholeFileWithStrongETag() throws Exception {
+        ResponseEntity<StreamingResponseBody> response =
+                responder.respond(new MockHttpServletRequest(), file(), "text/plain", "receipt.txt", SHA, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"ab12\"", response.getHeaders().getETag());
+        assertEquals(10, response.getHeaders().getContentLength());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("0123456789", body(response));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"ab12\"");
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(request, file(), null, "receipt.txt", SHA, true);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"ab12\"");
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(request, file(), null, "receipt.txt", SHA, false);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 2-4/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(3, response.getHeaders().getContentLength());
+        assertEquals("234", body(response));
+    }
+
+    @Test
+    void staleIfRangeServesWholeFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(request, file(), null, "receipt.txt", SHA, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("0123456789", body(response));
+    }
+
+    @Test
+    void rangePastTheEndIsUnsatisfiable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=50-");
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(request, file(), null, "receipt.txt", SHA, false);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void missingFileIsNotFound() {
+        ResponseEntity<StreamingResponseBody> response =
+                responder.respond(new MockHttpServletRequest(), dir.resolve("gone.pdf"), null, "gone.pdf", null, true);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
@@ -0,0 +1,49 @@
+package com.expenseapp.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalBlobBackendTest {
+
+    @TempDir
+    Path dir;
+
+    private Path staged(String content) throws Exception {
+        return Files.writeString(Files.createTempFile(dir, "staged", ".part"), content);
+    }
+
+    @Test
+    void blobsAreShardedByHashAndPublishedWhole() throws Exception {
+        LocalBlobBackend backend = new LocalBlobBackend(dir.toString());
+        Path staged = staged("receipt");
+        String sha = FileStorageService.copyWithSha256(
+                new ByteArrayInputStream("receipt".getBytes(StandardCharsets.UTF_8)), dir.resolve("copy"));
+
+        assertFalse(backend.exists(sha));
+        assertNull(backend.localFile(sha));
+        backend.put(sha, staged);
+
+        Path file = backend.localFile(sha);
+        assertEquals(dir.resolve("blobs").resolve(sha.substring(0, 2)).resolve(sha.substring(2, 4)).resolve(sha), file);
+        assertEquals("receipt", Files.readString(file));
+        assertFalse(Files.exists(staged));
+
+        backend.delete(sha);
+        assertFalse(backend.exists(sha));
+        backend.delete(sha); // idempotent
+    }
+
+    @Test
+    void rejectsKeysThatAreNotHashes() throws Exception {
+        LocalBlobBackend backend = new LocalBlobBackend(dir.toString());
+        assertThrows(IllegalArgumentException.class, () -> backend.localFile("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> backend.exists("ABC"));
+    }
+}
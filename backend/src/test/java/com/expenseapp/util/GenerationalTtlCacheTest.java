@@ -0,0 +1,110 @@
+package com.expenseapp.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationalTtlCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_loadsOncePerKeyUntilInvalidated() {
+        GenerationalTtlCache<Long, String> cache = new GenerationalTtlCache<>(60_000, 100);
+
+        assertEquals("v1-1", cache.get(1L, this::load));
+        assertEquals("v1-1", cache.get(1L, this::load));
+        assertEquals("v2-2", cache.get(2L, this::load));
+        assertEquals(2, loads.get());
+
+        cache.invalidate(List.of(1L));
+        assertEquals("v1-3", cache.get(1L, this::load));
+        assertEquals("v2-2", cache.get(2L, this::load));
+    }
+
+    @Test
+    void get_doesNotCacheNullsOrWhenTheTtlIsZero() {
+        GenerationalTtlCache<Long, String> cache = new GenerationalTtlCache<>(60_000, 100);
+        assertNull(cache.get(1L, k -> { loads.incrementAndGet(); return null; }));
+        assertNull(cache.get(1L, k -> { loads.incrementAndGet(); return null; }));
+        assertEquals(2, loads.get());
+
+        GenerationalTtlCache<Long, String> disabled = new GenerationalTtlCache<>(0, 100);
+        disabled.get(1L, this::load);
+        disabled.get(1L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_withoutExpiry_keepsEntriesAndClearsWhenFull() {
+        GenerationalTtlCache<Long, String> cache = new GenerationalTtlCache<>(Long.MAX_VALUE, 2);
+
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+
+        // The third key finds the map full and starts over
+        cache.get(3L, this::load);
+        cache.get(1L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_loadStraddlingAnInvalidationIsReturnedButNotCached() {
+        GenerationalTtlCache<Long, String> cache = new GenerationalTtlCache<>(60_000, 100);
+
+        String stale = cache.get(1L, k -> {
+            cache.invalidate(List.of(k));
+            return load(k);
+        });
+
+        assertEquals("v1-1", stale);
+        assertEquals("v1-2", cache.get(1L, this::load));
+    }
+
+    @Test
+    void invalidate_evictsAgainAfterTheTransactionCompletes() {
+        GenerationalTtlCache<Long, String> cache = new GenerationalTtlCache<>(60_000, 100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(List.of(1L));
+        // A reader inside the still-open transaction caches the old value again
+        cache.get(1L, this::load);
+        assertEquals("v1-1", cache.get(1L, this::load));
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertEquals("v1-2", cache.get(1L, this::load));
+    }
+
+    @Test
+    void invalidate_alsoDropsEntriesMatchingTheirValue() {
+        GenerationalTtlCache<String, String> cache = new GenerationalTtlCache<>(60_000, 100);
+        cache.get("a", k -> "owner-7");
+        cache.get("b", k -> "owner-8");
+
+        cache.invalidate(List.of(), v -> v.equals("owner-7"));
+
+        assertEquals("reloaded", cache.get("a", k -> "reloaded"));
+        assertEquals("owner-8", cache.get("b", k -> "reloaded"));
+    }
+
+    private String load(Long key) {
+        return "v" + key + "-" + loads.incrementAndGet();
+    }
+}
@@ -0,0 +1,59 @@
+package com.expenseapp.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransactionCallbacksTest {
+
+    private final List<String> ran = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void withoutTransaction_afterCommitRunsNowAndAfterCompletionNever() {
+        TransactionCallbacks.runAfterCommit(() -> ran.add("commit"));
+        TransactionCallbacks.runAfterCompletion(() -> ran.add("completion"));
+
+        assertEquals(List.of("commit"), ran);
+    }
+
+    @Test
+    void committed_runsBothOnceTheTransactionEnds() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.runAfterCommit(() -> ran.add("commit"));
+        TransactionCallbacks.runAfterCompletion(() -> ran.add("completion"));
+        assertEquals(List.of(), ran);
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) s.afterCommit();
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertEquals(List.of("commit", "completion"), ran);
+    }
+
+    @Test
+    void rolledBack_runsOnlyAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.runAfterCommit(() -> ran.add("commit"));
+        TransactionCallbacks.runAfterCompletion(() -> ran.add("completion"));
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertEquals(List.of("completion"), ran);
+    }
+}